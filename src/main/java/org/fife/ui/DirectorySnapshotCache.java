@@ -0,0 +1,451 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+
+/**
+ * Lists directories in the background, and caches the sorted names of the
+ * files in recently-listed directories.  This lets components that complete
+ * or browse file names (such as {@link FSATextField}) list directories
+ * without blocking the EDT, even for slow network shares, and without
+ * listing the same directory over and over as the user types.<p>
+ *
+ * Each cached listing records when it was made and the directory's last
+ * modified time at that point.  A listing less than a couple of seconds old
+ * is returned as-is; an older one is revalidated in the background by
+ * comparing the directory's modified time, and only re-listed if it has
+ * changed.<p>
+ *
+ * Callers can be notified of names as they are found, so that large
+ * directories can be displayed progressively.<p>
+ *
+ * Several requests for the same directory share a single listing.  If every
+ * request for a listing is cancelled before the listing starts, it is never
+ * performed.<p>
+ *
+ * There are two shared instances: one listing all files, and one listing
+ * only subdirectories.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public final class DirectorySnapshotCache {
+
+	private final boolean directoriesOnly;
+
+	/**
+	 * Cached listings, in least-recently-used order.  This and
+	 * {@link #inFlight} are only accessed while synchronized on this object.
+	 */
+	private final Map<File, Snapshot> snapshots;
+
+	/**
+	 * Listings currently queued or running.
+	 */
+	private final Map<File, Load> inFlight;
+
+	/**
+	 * The maximum number of directory listings to cache.
+	 */
+	static final int MAX_SNAPSHOTS = 64;
+
+	/**
+	 * How long a listing is returned without being revalidated, in
+	 * milliseconds.
+	 */
+	private static final long FRESH_MILLIS = 2000;
+
+	/**
+	 * The number of names reported to progress listeners at a time.
+	 */
+	private static final int PROGRESS_BATCH_SIZE = 64;
+
+	/**
+	 * The order names are sorted in, based on whether the OS is case
+	 * sensitive.
+	 */
+	public static final Comparator<String> NAME_ORDER =
+			OS.get().isCaseSensitive() ? Comparator.naturalOrder() :
+				String.CASE_INSENSITIVE_ORDER;
+
+	/**
+	 * Lists directories for all instances.  There are a few threads so that
+	 * one slow (e.g. network) directory doesn't hold up all others.
+	 */
+	private static final ExecutorService EXECUTOR =
+			Executors.newFixedThreadPool(3, r -> {
+				Thread t = new Thread(r, "DirectorySnapshotCache");
+				t.setDaemon(true);
+				return t;
+			});
+
+	private static final DirectorySnapshotCache ALL_FILES =
+			new DirectorySnapshotCache(false);
+	private static final DirectorySnapshotCache DIRECTORIES_ONLY =
+			new DirectorySnapshotCache(true);
+
+
+	private DirectorySnapshotCache(boolean directoriesOnly) {
+		this.directoriesOnly = directoriesOnly;
+		snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<File, Snapshot> e) {
+				return size()>MAX_SNAPSHOTS;
+			}
+		};
+		inFlight = new HashMap<>();
+	}
+
+
+	/**
+	 * Returns a directory's cached listing, if there is one.  This never
+	 * touches the file system, so it is safe to call on the EDT.
+	 *
+	 * @param dir The directory.
+	 * @return The cached listing, or <code>null</code> if the directory
+	 *         hasn't been listed recently.  This listing may be out of date;
+	 *         check {@link Snapshot#isFresh()}.
+	 * @see #getSnapshot(File)
+	 */
+	public synchronized Snapshot getCachedSnapshot(File dir) {
+		return snapshots.get(dir.getAbsoluteFile());
+	}
+
+
+	/**
+	 * Returns the shared instance of this class.
+	 *
+	 * @param directoriesOnly Whether to return the instance that only lists
+	 *        subdirectories.
+	 * @return The shared instance.
+	 */
+	public static DirectorySnapshotCache getInstance(boolean directoriesOnly) {
+		return directoriesOnly ? DIRECTORIES_ONLY : ALL_FILES;
+	}
+
+
+	/**
+	 * Returns a directory's listing, listing it in the background if it
+	 * isn't cached or may be out of date.<p>
+	 *
+	 * Cancelling the returned future doesn't affect other requests for the
+	 * same directory.
+	 *
+	 * @param dir The directory.
+	 * @return The listing.  This is completed on a background thread.
+	 * @see #getCachedSnapshot(File)
+	 */
+	public CompletableFuture<Snapshot> getSnapshot(File dir) {
+		return getSnapshot(dir, null);
+	}
+
+
+	/**
+	 * Returns a directory's listing, listing it in the background if it
+	 * isn't cached or may be out of date.  If the directory is listed,
+	 * the names found are reported in batches as the listing progresses,
+	 * so a large directory can be displayed before it is completely
+	 * listed.<p>
+	 *
+	 * Cancelling the returned future doesn't affect other requests for the
+	 * same directory.
+	 *
+	 * @param dir The directory.
+	 * @param progress Receives batches of names, in no particular order, as
+	 *        they are found.  This is called on a background thread, and
+	 *        may be called with the names found so far before this method
+	 *        returns.  It isn't called at all if the cached listing is up
+	 *        to date, or if the directory hasn't changed since it was last
+	 *        listed.  It may receive one more batch after the returned
+	 *        future is cancelled.  This may be <code>null</code>.
+	 * @return The listing.  This is completed on a background thread.
+	 * @see #getCachedSnapshot(File)
+	 */
+	public CompletableFuture<Snapshot> getSnapshot(File dir,
+			Consumer<List<String>> progress) {
+
+		File key = dir.getAbsoluteFile();
+		Load load;
+		List<String> foundSoFar = null;
+
+		synchronized (this) {
+			Snapshot snapshot = snapshots.get(key);
+			if (snapshot!=null && snapshot.isFresh()) {
+				return CompletableFuture.completedFuture(snapshot);
+			}
+			load = inFlight.get(key);
+			if (load==null) {
+				load = new Load(key, snapshot);
+				inFlight.put(key, load);
+				Load l = load;
+				load.future = CompletableFuture.supplyAsync(l::run, EXECUTOR);
+			}
+			load.interested++;
+			if (progress!=null) {
+				load.progressListeners.add(progress);
+				if (!load.found.isEmpty()) {
+					foundSoFar = new ArrayList<>(load.found);
+				}
+			}
+		}
+
+		// Listeners are called without holding our lock, so a slow one
+		// doesn't block other callers
+		if (foundSoFar!=null) {
+			progress.accept(foundSoFar);
+		}
+
+		CompletableFuture<Snapshot> request = load.future.copy();
+		Load l = load;
+		request.whenComplete((s, t) -> {
+			if (request.isCancelled()) {
+				requestCancelled(l, progress);
+			}
+		});
+		return request;
+
+	}
+
+
+	/**
+	 * Forgets a directory's cached listing, for example when a component
+	 * knows it has just modified that directory.
+	 *
+	 * @param dir The directory.
+	 */
+	public synchronized void invalidate(File dir) {
+		snapshots.remove(dir.getAbsoluteFile());
+	}
+
+
+	/**
+	 * Lists a directory.  Called on a background thread.
+	 *
+	 * @param load The listing being performed.
+	 * @return The listing.
+	 */
+	private Snapshot list(Load load) {
+
+		File dir = load.dir;
+		Snapshot previous = load.previous;
+
+		long lastModified = dir.lastModified();
+
+		// Directories' modified times change whenever a child is added,
+		// removed or renamed, so if it hasn't changed, neither have the names
+		if (previous!=null && previous.lastModified==lastModified &&
+				lastModified!=0) {
+			return new Snapshot(dir, previous.names, lastModified,
+					System.currentTimeMillis());
+		}
+
+		List<String> found = new ArrayList<>();
+		List<String> batch = new ArrayList<>(PROGRESS_BATCH_SIZE);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.toPath())) {
+			for (Path child : stream) {
+				if (!directoriesOnly || Files.isDirectory(child)) {
+					found.add(child.getFileName().toString());
+					batch.add(child.getFileName().toString());
+					if (batch.size()==PROGRESS_BATCH_SIZE) {
+						load.publish(batch);
+						batch = new ArrayList<>(PROGRESS_BATCH_SIZE);
+					}
+				}
+			}
+		} catch (IOException | DirectoryIteratorException |
+				InvalidPathException | SecurityException e) {
+			// Not a directory, or an IO error occurred; keep what we found
+		}
+		if (!batch.isEmpty()) {
+			load.publish(batch);
+		}
+
+		String[] names = found.toArray(new String[0]);
+		Arrays.sort(names, NAME_ORDER);
+		return new Snapshot(dir, names, lastModified,
+				System.currentTimeMillis());
+
+	}
+
+
+	/**
+	 * Called when a request for a listing is cancelled.  If nobody else
+	 * wants the listing, and it hasn't started yet, it is cancelled.
+	 *
+	 * @param load The listing.
+	 * @param progress The request's progress listener, or <code>null</code>
+	 *        if it didn't have one.
+	 */
+	private synchronized void requestCancelled(Load load,
+			Consumer<List<String>> progress) {
+		load.progressListeners.remove(progress);
+		if (--load.interested==0 && !load.started) {
+			load.future.cancel(false);
+			inFlight.remove(load.dir, load);
+		}
+	}
+
+
+	/**
+	 * A listing of a directory at some point in time.
+	 */
+	public static final class Snapshot {
+
+		private final File dir;
+		private final String[] names;
+		private final long lastModified;
+		private final long listTime;
+
+		private Snapshot(File dir, String[] names, long lastModified,
+				long listTime) {
+			this.dir = dir;
+			this.names = names;
+			this.lastModified = lastModified;
+			this.listTime = listTime;
+		}
+
+		/**
+		 * Returns the directory listed.
+		 *
+		 * @return The directory.
+		 */
+		public File getDirectory() {
+			return dir;
+		}
+
+		/**
+		 * Returns the directory's last modified time when it was listed.
+		 *
+		 * @return The last modified time, or <code>0</code> if the
+		 *         directory doesn't exist.
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * Returns the time the directory was listed.
+		 *
+		 * @return The time the directory was listed, in milliseconds since
+		 *         the epoch.
+		 */
+		public long getListTime() {
+			return listTime;
+		}
+
+		/**
+		 * Returns the names of the files in the directory, sorted in
+		 * {@link DirectorySnapshotCache#NAME_ORDER}.  This array is shared and should not be
+		 * modified.
+		 *
+		 * @return The names of the files.  This is empty if the directory
+		 *         doesn't exist or couldn't be read.
+		 */
+		public String[] getNames() {
+			return names;
+		}
+
+		/**
+		 * Returns whether this listing is recent enough to be used without
+		 * checking whether the directory has changed.
+		 *
+		 * @return Whether this listing is fresh.
+		 */
+		public boolean isFresh() {
+			return System.currentTimeMillis() - listTime < FRESH_MILLIS;
+		}
+
+	}
+
+
+	/**
+	 * A listing that is queued or running.  Its fields other than
+	 * <code>dir</code> and <code>previous</code> are guarded by the owning
+	 * cache.
+	 */
+	private final class Load {
+
+		private final File dir;
+		private final Snapshot previous;
+		private CompletableFuture<Snapshot> future;
+		private int interested;
+		private boolean started;
+		private final List<Consumer<List<String>>> progressListeners;
+
+		/**
+		 * The names found so far, for progress listeners added after the
+		 * listing started.
+		 */
+		private final List<String> found;
+
+		Load(File dir, Snapshot previous) {
+			this.dir = dir;
+			this.previous = previous;
+			progressListeners = new ArrayList<>(1);
+			found = new ArrayList<>();
+		}
+
+		/**
+		 * Reports names found to the progress listeners.  The listeners are
+		 * called without holding the cache's lock.
+		 *
+		 * @param batch The names found.
+		 */
+		void publish(List<String> batch) {
+			List<Consumer<List<String>>> listeners;
+			synchronized (DirectorySnapshotCache.this) {
+				found.addAll(batch);
+				if (progressListeners.isEmpty()) {
+					return;
+				}
+				listeners = new ArrayList<>(progressListeners);
+			}
+			for (Consumer<List<String>> listener : listeners) {
+				listener.accept(batch);
+			}
+		}
+
+		Snapshot run() {
+			synchronized (DirectorySnapshotCache.this) {
+				started = true;
+			}
+			Snapshot snapshot = null;
+			try {
+				snapshot = list(this);
+				return snapshot;
+			} finally {
+				synchronized (DirectorySnapshotCache.this) {
+					inFlight.remove(dir, this);
+					if (snapshot!=null) {
+						snapshots.put(dir, snapshot);
+					}
+				}
+			}
+		}
+
+	}
+
+
+}
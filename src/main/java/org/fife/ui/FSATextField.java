@@ -13,9 +13,12 @@ package org.fife.ui;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
-import java.io.FilenameFilter;
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import javax.swing.event.*;
 import javax.swing.text.*;
@@ -25,7 +28,15 @@ import javax.swing.text.*;
  * A "File System-Aware" text field.  When the user is typing into this text
  * field, it automagically locates all files that begin with the text typed in,
  * and populates a text field-style list with file choices.  This is similar to
- * the text field found in the "Run" dialog in Microsoft Windows.
+ * the text field found in the "Run" dialog in Microsoft Windows.<p>
+ *
+ * Directories are listed in the background by a shared
+ * {@link DirectorySnapshotCache}, so typing never blocks on the file system,
+ * even for slow network paths.  Completions for a directory that has been
+ * listed recently are displayed immediately.  Otherwise, the directory is
+ * listed once the user pauses typing, and the drop-down list is updated when
+ * the listing arrives.  Listings requested for text the user has since
+ * changed are cancelled or ignored.
  *
  * @author Robert Futrell
  * @version 0.5
@@ -42,19 +53,58 @@ public class FSATextField extends JTextField implements ComponentListener,
 	private static final boolean IGNORE_CASE = !OS.get().isCaseSensitive();
 
 	/**
-	 * File filter used if directories-only mode is set.
+	 * How long the user must pause typing before a directory that isn't
+	 * cached is listed, in milliseconds.
+	 */
+	private static final int LISTING_DELAY_MILLIS = 75;
+
+	/**
+	 * The maximum number of files listed when fuzzy matching or completing
+	 * across several directories.
 	 */
-	private FilenameFilter directoriesOnlyFilenameFilter;
+	private static final int MAX_MATCHES = 100;
 
 	/**
-	 * These are an attempt to speed things up in the "common" case.  If the
-	 * user types a letter into the text field but the last position of a
-	 * file separator is the same as it was last time, then the "current
-	 * directory" hasn't changed, so we can just keep the File instance for
-	 * the directory we already have.  We do this because doing a regex match
-	 * loop through multiple file names can be slow on some systems.
+	 * The maximum number of directories a partially-typed directory path is
+	 * expanded to, and the maximum number looked up over all of its partial
+	 * names, when completing across several directories.  This is kept well
+	 * below the number of listings {@link DirectorySnapshotCache} holds, so
+	 * the listings a completion needs aren't evicted before they are used.
 	 */
-	private File directory;
+	private static final int MAX_EXPANDED_DIRECTORIES =
+			DirectorySnapshotCache.MAX_SNAPSHOTS / 2 - 1;
+
+	/**
+	 * The directories whose listings are pending.  This is empty if none
+	 * are.
+	 */
+	private List<File> pendingDirectories;
+
+	/**
+	 * The directories whose subdirectory listings are pending, to complete
+	 * partial directory names.  This is empty if none are.
+	 */
+	private List<File> pendingExpansionDirectories;
+
+	/**
+	 * The listings requested for {@link #pendingDirectories} and
+	 * {@link #pendingExpansionDirectories}, and a future
+	 * completed when all of them are.
+	 */
+	private transient List<CompletableFuture<DirectorySnapshotCache.Snapshot>> pendingListings;
+	private transient CompletableFuture<Void> pendingListing;
+
+	/**
+	 * Starts listing {@link #pendingDirectories} once the user pauses typing.
+	 */
+	private Timer listingTimer;
+
+	/**
+	 * Whether to auto-complete the next matching file name when the pending
+	 * listing arrives; that is, whether the user was inserting text rather
+	 * than removing it.
+	 */
+	private boolean autoCompleteWhenListed;
 
 	/**
 	 * Whether the next matching filename is auto-inserted when the drop-down
@@ -63,6 +113,17 @@ public class FSATextField extends JTextField implements ComponentListener,
 	 */
 	private boolean autoCompleteFileName;
 
+	/**
+	 * Whether files are matched fuzzily rather than by prefix.
+	 */
+	private boolean fuzzyMatching;
+
+	/**
+	 * Whether partial directory names are completed, when the directory
+	 * typed doesn't exist.
+	 */
+	private boolean deepCompletion;
+
 	/**
 	 * Variables used by the text field to implement the "combo-box"
 	 * style list.
@@ -76,12 +137,6 @@ public class FSATextField extends JTextField implements ComponentListener,
 
 	private Runnable listValueChangedRunnable;
 
-	/**
-	 * Cached values of the files in the current directory and the number
-	 * of files in the current directory.
-	 */
-	private String[] containedFiles;
-	private int num;
 
 	/**
 	 * The "current directory;" if the user is typing a relative pathname
@@ -159,6 +214,13 @@ public class FSATextField extends JTextField implements ComponentListener,
 
 		listValueChangedRunnable = new ListValueChangedRunnable();
 
+		deepCompletion = true;
+		pendingDirectories = Collections.emptyList();
+		pendingExpansionDirectories = Collections.emptyList();
+		pendingListings = Collections.emptyList();
+		listingTimer = new Timer(LISTING_DELAY_MILLIS, e -> startPendingListing());
+		listingTimer.setRepeats(false);
+
 		installStandardKeyActions();
 
 	}
@@ -204,7 +266,10 @@ public class FSATextField extends JTextField implements ComponentListener,
 			if (ch!='/' && ch!='\\') { // Don't auto-complete for dirs.
 				String value = fileListModel.get(0);
 				int len = getDocument().getLength();
-				if (getCaretPosition()==len && len<value.length()) {
+				// With fuzzy matching, the best match may not start with
+				// the text entered
+				if (getCaretPosition()==len && len<value.length() &&
+						value.regionMatches(IGNORE_CASE, 0, entered, 0, len)) {
 					String remaining = value.substring(len);
 					ignoreDocumentUpdates = true;
 					replaceSelection(remaining);
@@ -366,22 +431,6 @@ public class FSATextField extends JTextField implements ComponentListener,
 	}
 
 
-	/**
-	 * Returns the files contained in the specified directory.
-	 *
-	 * @param dir The directory.
-	 * @return The contained files.
-	 */
-	private String[] getContainedFiles(File dir) {
-		// If they only want to see directories, we have to take a little
-		// more care.
-		if (directoriesOnly) {
-			return dir.list(directoriesOnlyFilenameFilter);
-		}
-		return dir.list();
-	}
-
-
 	/**
 	 * Returns the current directory for this text field.
 	 *
@@ -406,6 +455,28 @@ public class FSATextField extends JTextField implements ComponentListener,
 	}
 
 
+	/**
+	 * Returns whether partial directory names are completed.
+	 *
+	 * @return Whether partial directory names are completed.
+	 * @see #setDeepCompletion(boolean)
+	 */
+	public boolean getDeepCompletion() {
+		return deepCompletion;
+	}
+
+
+	/**
+	 * Returns whether files are matched fuzzily, rather than by prefix.
+	 *
+	 * @return Whether fuzzy matching is enabled.
+	 * @see #setFuzzyMatching(boolean)
+	 */
+	public boolean getFuzzyMatching() {
+		return fuzzyMatching;
+	}
+
+
 	/**
 	 * Returns the text in this component, as a <code>File</code>.  Note that
 	 * this file may or may not exist, and may or may not be a directory,
@@ -457,6 +528,7 @@ public class FSATextField extends JTextField implements ComponentListener,
 	public void insertUpdate(DocumentEvent e) {
 		if (isShowing() && fileSystemAware && !ignoreDocumentUpdates) {
 			SwingUtilities.invokeLater(() -> {
+				autoCompleteWhenListed = true;
 				String entered = updateComboBoxContents();
 				if (getAutoCompleteFileName()) {
 					autoCompleteFileName(entered);
@@ -696,6 +768,7 @@ public class FSATextField extends JTextField implements ComponentListener,
 	public void removeNotify() {
 		super.removeNotify();
 		cleanupOldParentWindow();
+		setPendingDirectories(Collections.emptyList(), Collections.emptyList());
 	}
 
 
@@ -705,7 +778,10 @@ public class FSATextField extends JTextField implements ComponentListener,
 	@Override
 	public void removeUpdate(DocumentEvent e) {
 		if (isShowing() && fileSystemAware && !ignoreDocumentUpdates) {
-			SwingUtilities.invokeLater(this::updateComboBoxContents);
+			SwingUtilities.invokeLater(() -> {
+				autoCompleteWhenListed = false;
+				updateComboBoxContents();
+			});
 		}
 	}
 
@@ -759,15 +835,26 @@ public class FSATextField extends JTextField implements ComponentListener,
 	 * @see #isDirectoriesOnly
 	 */
 	public void setDirectoriesOnly(boolean directoriesOnly) {
-		// Lazily create the file filter used.
-		if (directoriesOnly) {
-			directoriesOnlyFilenameFilter = (parentDir, fileName) ->
-				new File(parentDir.getAbsolutePath(), fileName).isDirectory();
-		}
 		this.directoriesOnly = directoriesOnly;
 	}
 
 
+	/**
+	 * Sets whether partial directory names are completed.  If this is
+	 * enabled and the directory typed doesn't exist, each name in its path
+	 * is treated as the start of a directory name (or fuzzily matched, if
+	 * fuzzy matching is enabled), and files in all matching directories are
+	 * listed.  For example, <code>src/ma/ja/Fo</code> could list
+	 * <code>src/main/java/Foo.java</code>.  This is enabled by default.
+	 *
+	 * @param deep Whether to complete partial directory names.
+	 * @see #getDeepCompletion()
+	 */
+	public void setDeepCompletion(boolean deep) {
+		this.deepCompletion = deep;
+	}
+
+
 	/**
 	 * Sets the document for this text field.  This is overridden so we can
 	 * add a document listener to it.
@@ -799,6 +886,23 @@ public class FSATextField extends JTextField implements ComponentListener,
 	}
 
 
+	/**
+	 * Sets whether files are matched fuzzily, rather than by prefix.  When
+	 * fuzzy matching is enabled, the drop-down list displays files whose
+	 * names contain the characters typed, in order, but not necessarily
+	 * adjacent; for example, <code>rtfc</code> matches
+	 * <code>RTextFileChooser.java</code>.  Names that would match but for a
+	 * single typo are also displayed.  The most likely matches are listed
+	 * first.  This is disabled by default.
+	 *
+	 * @param fuzzy Whether to enable fuzzy matching.
+	 * @see #getFuzzyMatching()
+	 */
+	public void setFuzzyMatching(boolean fuzzy) {
+		this.fuzzyMatching = fuzzy;
+	}
+
+
 	/**
 	 * Sets the cell renderer for the drop-down file list.
 	 *
@@ -876,9 +980,251 @@ public class FSATextField extends JTextField implements ComponentListener,
 	}
 
 
+	/**
+	 * Returns whether a directory is worth trying to list.
+	 *
+	 * @param dir The directory.
+	 * @return Whether to try to list the directory.
+	 */
+	private static boolean isListable(File dir) {
+		// Listing "\\foobar\" and "\\foobar\dir1\" is extremely slow, so
+		// we don't even try to do completions if they haven't typed
+		// "enough" of a UNC path.
+		String path = dir.getAbsolutePath();
+		return File.separatorChar!='\\' || !path.startsWith("\\\\") ||
+				getCharCount(path, '\\')>=5;
+	}
+
+
+	/**
+	 * Expands a partially-typed directory path into the directories it could
+	 * refer to, completing each partial directory name in it as the last
+	 * name would be.  Partial names are only completed to subdirectories.
+	 * At most {@link #MAX_EXPANDED_DIRECTORIES} directories are returned,
+	 * and at most that many are looked up along the way.  This only looks at
+	 * cached directory listings; any directories whose subdirectories need
+	 * to be listed are added to a list.<p>
+	 *
+	 * For example, <code>src/ma/ja/</code> might expand to
+	 * <code>src/main/java/</code> and <code>src/manual/javadoc/</code>.
+	 *
+	 * @param dirPart The directory part of the text entered, including its
+	 *        trailing separator.
+	 * @param toList Directories whose subdirectories need to be listed
+	 *        before the expansion can be completed are added to this list.
+	 * @return The directories, along with how to display their paths.
+	 */
+	private List<ExpandedDirectory> expandDirectories(String dirPart,
+			List<File> toList) {
+
+		// Determine what the path is relative to
+		String root;
+		File rootDir;
+		if (dirPart.startsWith("~/")) {
+			root = "~/";
+			rootDir = new File(System.getProperty("user.home"));
+		}
+		else if (dirPart.length()>=3 && dirPart.charAt(1)==':' &&
+				isSeparator(dirPart.charAt(2))) {
+			root = dirPart.substring(0, 3); // A Windows drive
+			rootDir = new File(root);
+		}
+		else if (isSeparator(dirPart.charAt(0))) {
+			root = dirPart.substring(0, 1);
+			rootDir = new File(root).getAbsoluteFile();
+		}
+		else {
+			root = "";
+			rootDir = new File(currentDirectory);
+		}
+
+		char separator = dirPart.charAt(dirPart.length() - 1);
+		DirectorySnapshotCache cache = DirectorySnapshotCache.getInstance(true);
+		List<ExpandedDirectory> dirs = new ArrayList<>();
+		dirs.add(new ExpandedDirectory(rootDir, root));
+		int lookups = MAX_EXPANDED_DIRECTORIES;
+
+		for (String name : dirPart.substring(root.length()).split("[/\\\\]")) {
+
+			if (name.isEmpty()) {
+				continue;
+			}
+
+			List<ExpandedDirectory> expanded = new ArrayList<>();
+			for (ExpandedDirectory dir : dirs) {
+
+				int remaining = MAX_EXPANDED_DIRECTORIES - expanded.size();
+				if (remaining==0) {
+					break;
+				}
+
+				// "." and ".." aren't in directory listings
+				if (".".equals(name) || "..".equals(name)) {
+					expanded.add(dir.resolve(name, separator));
+					continue;
+				}
+
+				if (lookups==0) {
+					break;
+				}
+				lookups--;
+
+				DirectorySnapshotCache.Snapshot snapshot =
+						cache.getCachedSnapshot(dir.dir);
+				if (snapshot==null || !snapshot.isFresh()) {
+					toList.add(dir.dir);
+				}
+				if (snapshot!=null) {
+					String[] names = snapshot.getNames();
+					int exact = Arrays.binarySearch(names, name,
+							DirectorySnapshotCache.NAME_ORDER);
+					List<String> matches = exact>=0 ? List.of(names[exact]) :
+							getMatches(names, name, remaining);
+					for (String match : matches) {
+						expanded.add(dir.resolve(match, separator));
+					}
+				}
+
+			}
+
+			dirs = expanded;
+
+		}
+
+		return dirs;
+
+	}
+
+
+	/**
+	 * Returns the names matching text entered by the user.
+	 *
+	 * @param names The names to search, sorted as by
+	 *        {@link DirectorySnapshotCache#NAME_ORDER}.
+	 * @param text The text entered.
+	 * @param max The maximum number of names to return.
+	 * @return The matching names.
+	 */
+	private List<String> getMatches(String[] names, String text, int max) {
+
+		int length = text.length();
+		if (fuzzyMatching && length>0) {
+			FuzzyFileNameMatcher matcher = new FuzzyFileNameMatcher(text);
+			return matcher.getBestMatches(names, max);
+		}
+
+		int i = Arrays.binarySearch(names, text, DirectorySnapshotCache.NAME_ORDER);
+		if (i<0) { // index = -insertion_point - 1
+			i = -(i+1);
+		}
+		int start = i;
+		int end = start + Math.min(max, names.length - start);
+		while (i<end && names[i].regionMatches(IGNORE_CASE,
+							0, text, 0, length)) {
+			i++;
+		}
+		return Arrays.asList(names).subList(start, i);
+
+	}
+
+
+	private static boolean isSeparator(char ch) {
+		return ch=='/' || ch=='\\';
+	}
+
+
+	/**
+	 * Called on the EDT when the directory listings requested arrive.
+	 *
+	 * @param listing A future completed when the listings are.
+	 * @param text The text in this text field when the listings were
+	 *        requested.
+	 */
+	private void listingArrived(CompletableFuture<Void> listing, String text) {
+		if (listing!=pendingListing) {
+			return; // Superseded
+		}
+		pendingListing = null;
+		pendingListings = Collections.emptyList();
+		pendingDirectories = Collections.emptyList();
+		pendingExpansionDirectories = Collections.emptyList();
+		if (isShowing() && fileSystemAware && text.equals(getText())) {
+			String entered = updateComboBoxContents();
+			if (autoCompleteWhenListed && getAutoCompleteFileName()) {
+				autoCompleteFileName(entered);
+			}
+		}
+	}
+
+
+	/**
+	 * Sets the directories whose listings we are waiting for, cancelling
+	 * any listings pending for other directories.
+	 *
+	 * @param dirs The directories.  This may be empty.
+	 * @param expansionDirs The directories whose subdirectories are to be
+	 *        listed.  This may be empty.
+	 */
+	private void setPendingDirectories(List<File> dirs, List<File> expansionDirs) {
+		if (dirs.equals(pendingDirectories) &&
+				expansionDirs.equals(pendingExpansionDirectories)) {
+			return;
+		}
+		listingTimer.stop();
+		for (CompletableFuture<?> listing : pendingListings) {
+			listing.cancel(false);
+		}
+		pendingListings = Collections.emptyList();
+		pendingListing = null;
+		pendingDirectories = dirs;
+		pendingExpansionDirectories = expansionDirs;
+		if (!dirs.isEmpty() || !expansionDirs.isEmpty()) {
+			listingTimer.restart();
+		}
+	}
+
+
+	/**
+	 * Requests the listings of {@link #pendingDirectories} and
+	 * {@link #pendingExpansionDirectories} after the user has paused
+	 * typing.  The directories are listed concurrently.
+	 */
+	private void startPendingListing() {
+		if ((!pendingDirectories.isEmpty() || !pendingExpansionDirectories.isEmpty()) &&
+				pendingListing==null) {
+			String text = getText();
+			DirectorySnapshotCache cache =
+					DirectorySnapshotCache.getInstance(directoriesOnly);
+			DirectorySnapshotCache dirCache = DirectorySnapshotCache.getInstance(true);
+			List<CompletableFuture<DirectorySnapshotCache.Snapshot>> listings =
+					new ArrayList<>(pendingDirectories.size() +
+						pendingExpansionDirectories.size());
+			for (File dir : pendingDirectories) {
+				listings.add(cache.getSnapshot(dir));
+			}
+			for (File dir : pendingExpansionDirectories) {
+				listings.add(dirCache.getSnapshot(dir));
+			}
+			CompletableFuture<Void> listing = CompletableFuture.allOf(
+					listings.toArray(new CompletableFuture<?>[0]));
+			pendingListings = listings;
+			pendingListing = listing;
+			listing.whenComplete((v, t) -> SwingUtilities.invokeLater(
+					() -> listingArrived(listing, text)));
+		}
+	}
+
+
 	/**
 	 * Updates the text field's drop-down list to contain files matching
 	 * the characters typed by the user into the text field's text field.
+	 * If the directory being typed in isn't cached, or its cached listing
+	 * may be out of date, it is listed in the background, and this method
+	 * is called again when the listing arrives.<p>
+	 *
+	 * If the directory typed doesn't exist, each partial name in its path
+	 * is completed too (see {@link #setDeepCompletion(boolean)}).  The
+	 * directories this involves are listed concurrently, a level at a time.
 	 *
 	 * @return The text currently entered into the text field if the popup
 	 *         is visible, or <code>null</code> if it is not visible.
@@ -889,6 +1235,7 @@ public class FSATextField extends JTextField implements ComponentListener,
 		String text = getText();
 
 		if (text.isEmpty()) {
+			setPendingDirectories(Collections.emptyList(), Collections.emptyList());
 			setPopupVisible(false);
 			lastCount = 0;
 			return null;
@@ -904,114 +1251,81 @@ public class FSATextField extends JTextField implements ComponentListener,
 		// directory (and they're typing the name of a file in that
 		// directory). If they have typed a separator char, check to see if
 		// it's a relative directory path or an absolute one.
-		File t2;
+		File directory;
 		if (lastSeparator!=0) {
 			String pathPart = text.substring(0, lastSeparator);
 			pathPart = handleUnixHomeDirectory(pathPart);
-			t2 = new File(pathPart);
-			if (!t2.isAbsolute()) {
-				t2 = new File(currentDirectory, pathPart);
+			directory = new File(pathPart);
+			if (!directory.isAbsolute()) {
+				directory = new File(currentDirectory, pathPart);
 			}
 		}
 		else {
-			t2 = new File(currentDirectory);
+			directory = new File(currentDirectory);
 		}
 
-		// An attempt to speed things up in the common case.  If the
-		// directory they're working in hasn't changed, we don't
-		// have to get the list of files in the directory (as it is cached).
-		if (!t2.equals(directory)) {
+		if (!isListable(directory)) {
+			setPendingDirectories(Collections.emptyList(), Collections.emptyList());
+			lastCount = -1;
+			setPopupVisible(false);
+			return null;
+		}
 
-			directory = t2;
+		// We only match on the file name since the canonical-file path
+		// is cached in dirName.
+		String dirPart = text.substring(0, lastSeparator);
+		String fpFileName = text.substring(lastSeparator);
+		List<File> toList = new ArrayList<>(1);
+		List<File> toExpand = new ArrayList<>(0);
+		List<String> matches = new ArrayList<>();
+
+		// Use the cached listing, if any, while waiting for a new one.
+		DirectorySnapshotCache cache = DirectorySnapshotCache.getInstance(directoriesOnly);
+		DirectorySnapshotCache.Snapshot snapshot = cache.getCachedSnapshot(directory);
+		if (snapshot==null || !snapshot.isFresh()) {
+			toList.add(directory);
+		}
 
-			if (!directory.isDirectory()) {
-				lastCount = -1;
-				setPopupVisible(false);
-				num = 0;
-				containedFiles = null;
-				return null;
+		if (snapshot!=null && (snapshot.getLastModified()!=0 ||
+				snapshot.getNames().length>0)) {
+			for (String match : getMatches(snapshot.getNames(), fpFileName,
+					fuzzyMatching ? MAX_MATCHES : Integer.MAX_VALUE)) {
+				matches.add(dirPart + match);
 			}
-
-			// Take special care if this is a UNC path, to work around
-			// performance problems listing files in them if the file
-			// list is long.
-			// TODO: Always do this work in a Thread, restarting it if the
-			// user types a key before it completes.
-			if (File.separatorChar=='\\' &&
-					directory.getAbsolutePath().startsWith("\\\\")) {
-				// listFiles() is by far the slowest when returning the list
-				// of files from "\\foobar\" and "\\foobar\dir1\".  It seems
-				// generally much faster with "\\foobar\dir1\dir2\", so we'll
-				// put a crude hack into place and not even try to do
-				// completions if they haven't typed "enough" of a UNC path.
-				int slashCount = getCharCount(directory.getAbsolutePath(), '\\');
-				if (slashCount<5) {
-					containedFiles = null;
+		}
+		else if (snapshot!=null && deepCompletion && lastSeparator>0) {
+			// The directory doesn't exist; try completing its partial names
+			for (ExpandedDirectory dir : expandDirectories(dirPart, toExpand)) {
+				if (matches.size()>=MAX_MATCHES) {
+					break;
 				}
-				else {
-					// In case it's still slow, don't let it run longer than
-					// 8 seconds.
-					Cursor old = getCursor();
-					setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-					GetContentsRunnable gcr = new GetContentsRunnable(directory);
-					Thread thread = new Thread(gcr);
-					thread.start();
-					try {
-						thread.join(8000);
-					} catch (InterruptedException ie) {
-						ie.printStackTrace();
-					}
-					setCursor(old);
-					thread.interrupt();
-					containedFiles = gcr.containedFiles;
+				DirectorySnapshotCache.Snapshot s = cache.getCachedSnapshot(dir.dir);
+				if (s==null || !s.isFresh()) {
+					toList.add(dir.dir);
 				}
-			}
-			else { // Local directory - fast enough in most cases
-				containedFiles = getContainedFiles(directory);
-			}
-
-			// We must check for null here in case an IO error occurs.
-			if (containedFiles!=null) {
-				num = containedFiles.length;
-				if (num>0) {
-					Arrays.sort(containedFiles, IGNORE_CASE ?
-							String.CASE_INSENSITIVE_ORDER : null);
+				if (s!=null) {
+					for (String match : getMatches(s.getNames(), fpFileName,
+							MAX_MATCHES - matches.size())) {
+						matches.add(dir.displayPath + match);
+					}
 				}
 			}
-			else {
-				num = 0;
-			}
+		}
 
-		} // End of if (!t2.equals(directory))
+		setPendingDirectories(toList, toExpand);
 
-		if (num > 0) {
+		int count = matches.size();
+		if (count>0) {
 			removeAllItems();
-			// We only match on the file name since the canonical-file path
-			// is cached in dirName.
-			String dirPart = text.substring(0, lastSeparator);
-			String fpFileName = text.substring(lastSeparator);
-			int fpFileNameLength = fpFileName.length();
-			long count = 0;
-			int i = Arrays.binarySearch(containedFiles, fpFileName,
-					IGNORE_CASE ? String.CASE_INSENSITIVE_ORDER : null);
-			if (i<0) { // index = -insertion_point - 1
-				i = -(i+1);
+			for (int i=0; i<count; i++) {
+				addItem(matches.get(i));
 			}
-			while (i<num && containedFiles[i].regionMatches(IGNORE_CASE,
-								0, fpFileName, 0,fpFileNameLength)) {
-				addItem(dirPart + containedFiles[i]);
-				count++;
-				i++;
-			}
-			if (count!=lastCount && count>0) {
+			if (count!=lastCount) {
 				// This tricks the popup menu's list to "resize" properly.
 				setPopupVisible(true);
 			}
-			else if (count==0) {
-				setPopupVisible(false);
-			}
 			lastCount = count;
-			return count>0 ? text : null;
+			return text;
 		}
 
 		lastCount = -1;
@@ -1056,20 +1370,27 @@ public class FSATextField extends JTextField implements ComponentListener,
 
 
 	/**
-	 * Runnable that gets the list of files in a directory.
+	 * A directory that a partially-typed directory path may refer to.
 	 */
-	private class GetContentsRunnable implements Runnable {
+	private static final class ExpandedDirectory {
+
+		private final File dir;
 
-		private File dir;
-		String[] containedFiles;
+		/**
+		 * The directory's path as it should be displayed, which is relative
+		 * if the user typed a relative path.  This includes a trailing
+		 * separator.
+		 */
+		private final String displayPath;
 
-		GetContentsRunnable(File dir) {
+		ExpandedDirectory(File dir, String displayPath) {
 			this.dir = dir;
+			this.displayPath = displayPath;
 		}
 
-		@Override
-		public void run() {
-			containedFiles = getContainedFiles(dir);
+		ExpandedDirectory resolve(String name, char separator) {
+			return new ExpandedDirectory(new File(dir, name),
+					displayPath + name + separator);
 		}
 
 	}
@@ -0,0 +1,347 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+
+/**
+ * Finds the file names best matching a pattern typed by the user, for
+ * {@link FSATextField}'s fuzzy matching mode.  A name matches if the
+ * characters of the pattern appear in it in order (ignoring case), so
+ * <code>rtfc</code> matches <code>RTextFileChooser.java</code>.  If there
+ * aren't many such names, names matching all but one character of the
+ * pattern also match, with a penalty, so that simple typos still find the
+ * intended file.<p>
+ *
+ * Matches are scored to find the most likely intended names.  Characters
+ * matched at the start of the name, at the start of a "word" (after a
+ * <code>.</code>, <code>_</code>, <code>-</code> or space), or at a
+ * camel-case hump score highest, runs of consecutive matched characters
+ * score higher than scattered ones, and shorter names beat longer ones.
+ * Only the best-scoring names are kept, in a bounded heap, so the cost of a
+ * search is linear in the number of names.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class FuzzyFileNameMatcher {
+
+	private final char[] pattern;
+	private final char[] lowerPattern;
+	private final char[] upperPattern;
+
+	/**
+	 * Scratch space, reused between names to avoid allocating for each one.
+	 */
+	private int[] prevRow;
+	private int[] curRow;
+	private int[] prefixEnd;
+
+	private static final int NO_MATCH = Integer.MIN_VALUE;
+
+	private static final int BONUS_START = 10;
+	private static final int BONUS_WORD_START = 8;
+	private static final int BONUS_CAMEL_HUMP = 7;
+	private static final int BONUS_SAME_CASE = 1;
+	private static final int BONUS_CONSECUTIVE = 5;
+	private static final int PENALTY_GAP = 1;
+	private static final int MAX_PENALTY_LEADING_GAP = 3;
+	private static final int PENALTY_TYPO = 15;
+
+	/**
+	 * Patterns shorter than this must match without typos.
+	 */
+	private static final int MIN_TYPO_PATTERN_LENGTH = 3;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pattern The text typed by the user.
+	 */
+	FuzzyFileNameMatcher(String pattern) {
+		this.pattern = pattern.toCharArray();
+		lowerPattern = new char[this.pattern.length];
+		upperPattern = new char[this.pattern.length];
+		for (int i=0; i<this.pattern.length; i++) {
+			lowerPattern[i] = Character.toLowerCase(this.pattern[i]);
+			upperPattern[i] = Character.toUpperCase(this.pattern[i]);
+		}
+		prevRow = new int[0];
+		curRow = new int[0];
+		prefixEnd = new int[this.pattern.length + 1];
+	}
+
+
+	/**
+	 * Returns the bonus for matching a character at an index in a name.
+	 */
+	private static int getBonus(String name, int index) {
+		if (index==0) {
+			return BONUS_START;
+		}
+		char prev = name.charAt(index - 1);
+		char ch = name.charAt(index);
+		if (prev=='.' || prev=='_' || prev=='-' || prev==' ') {
+			return BONUS_WORD_START;
+		}
+		if ((Character.isUpperCase(ch) && Character.isLowerCase(prev)) ||
+				(Character.isDigit(ch) && !Character.isDigit(prev))) {
+			return BONUS_CAMEL_HUMP;
+		}
+		return 0;
+	}
+
+
+	/**
+	 * Returns the names best matching this matcher's pattern.
+	 *
+	 * @param names The names to search.
+	 * @param max The maximum number of names to return.
+	 * @return The best matches, best first.
+	 */
+	List<String> getBestMatches(String[] names, int max) {
+
+		// A min-heap, so the worst of the best matches so far is on top
+		Comparator<Match> order = Comparator.comparingInt((Match m) -> m.score).
+				thenComparing(m -> m.name.length(), Comparator.reverseOrder()).
+				thenComparing(m -> m.name, DirectorySnapshotCache.NAME_ORDER.reversed());
+		PriorityQueue<Match> best = new PriorityQueue<>(max + 1, order);
+
+		for (String name : names) {
+			if (isSubsequence(name)) {
+				offer(best, name, score(name, -1), max);
+			}
+		}
+
+		// Only look for typos if there aren't enough exact matches
+		if (best.size()<max && pattern.length>=MIN_TYPO_PATTERN_LENGTH) {
+			for (String name : names) {
+				if (!isSubsequence(name)) {
+					int typo = getTypoIndex(name);
+					if (typo>-1) {
+						offer(best, name, score(name, typo) - PENALTY_TYPO, max);
+					}
+				}
+			}
+		}
+
+		Match[] matches = best.toArray(new Match[0]);
+		Arrays.sort(matches, order.reversed());
+		List<String> result = new ArrayList<>(matches.length);
+		for (Match m : matches) {
+			result.add(m.name);
+		}
+		return result;
+
+	}
+
+
+	/**
+	 * Returns the index of the one pattern character that, if skipped,
+	 * lets the rest of the pattern match a name.
+	 *
+	 * @param name The name.
+	 * @return The index of the pattern character to skip, or <code>-1</code>
+	 *         if skipping any one character isn't enough.
+	 */
+	private int getTypoIndex(String name) {
+
+		int m = pattern.length;
+		int n = name.length();
+
+		// prefixEnd[i] = index just after the earliest match of
+		// pattern[0, i) in name
+		for (int i=0, j=0; i<m; i++) {
+			while (j<n && !matches(i, name.charAt(j))) {
+				j++;
+			}
+			prefixEnd[i+1] = j<n ? ++j : n + 1;
+		}
+
+		// suffixStart = index of the latest match of pattern[i+1, m) in name
+		int suffixStart = n;
+		for (int i=m-1; i>=0; i--) {
+			if (prefixEnd[i]<=suffixStart) {
+				return i;
+			}
+			int j = suffixStart - 1;
+			while (j>=0 && !matches(i, name.charAt(j))) {
+				j--;
+			}
+			if (j<0) {
+				return -1;
+			}
+			suffixStart = j;
+		}
+		return -1;
+
+	}
+
+
+	/**
+	 * Returns whether this matcher's pattern is a subsequence of a name.
+	 * This is much cheaper than scoring the name.
+	 *
+	 * @param name The name.
+	 * @return Whether the pattern is a subsequence of the name.
+	 */
+	private boolean isSubsequence(String name) {
+		int n = name.length();
+		int j = 0;
+		for (int i=0; i<pattern.length; i++) {
+			while (j<n && !matches(i, name.charAt(j))) {
+				j++;
+			}
+			if (j++==n) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns whether a character of the pattern matches a character in a
+	 * name, ignoring case.
+	 *
+	 * @param index The index of the character in the pattern.
+	 * @param nameChar The character in the name.
+	 * @return Whether the characters match.
+	 */
+	private boolean matches(int index, char nameChar) {
+		return nameChar==lowerPattern[index] || nameChar==upperPattern[index] ||
+				(nameChar>127 && Character.toLowerCase(nameChar)==lowerPattern[index]);
+	}
+
+
+	/**
+	 * Adds a match to the heap of best matches, if it is good enough.
+	 *
+	 * @param best The best matches so far.
+	 * @param name The name that matched.
+	 * @param score The name's score.
+	 * @param max The maximum number of matches to keep.
+	 */
+	private static void offer(PriorityQueue<Match> best, String name, int score,
+			int max) {
+		if (best.size()<max || score>=best.peek().score) {
+			best.add(new Match(name, score));
+			if (best.size()>max) {
+				best.poll();
+			}
+		}
+	}
+
+
+	/**
+	 * Scores how well this matcher's pattern, optionally minus one character,
+	 * matches a name.  This finds the best-scoring alignment of the pattern
+	 * in the name in <code>O(name length * pattern length)</code> time.
+	 *
+	 * @param name The name.
+	 * @param skip The index of a pattern character to ignore, or
+	 *        <code>-1</code> for none.
+	 * @return The score, or {@link #NO_MATCH} if the name doesn't match.
+	 */
+	private int score(String name, int skip) {
+
+		int n = name.length();
+		if (prevRow.length<n) {
+			prevRow = new int[n];
+			curRow = new int[n];
+		}
+		int[] prev = prevRow;
+		int[] cur = curRow;
+		boolean first = true;
+
+		for (int i=0; i<pattern.length; i++) {
+
+			if (i==skip) {
+				continue;
+			}
+			char p = pattern[i];
+			boolean matched = false;
+
+			// The best score of the previous pattern character at any
+			// earlier index, less a penalty for the characters between
+			int running = NO_MATCH;
+
+			for (int j=0; j<n; j++) {
+
+				char ch = name.charAt(j);
+				int score = NO_MATCH;
+				if (matches(i, ch)) {
+					int bonus = getBonus(name, j) + (p==ch ? BONUS_SAME_CASE : 0);
+					if (first) {
+						score = bonus - Math.min(j, MAX_PENALTY_LEADING_GAP)*PENALTY_GAP;
+					}
+					else {
+						int base = running;
+						if (j>0 && prev[j-1]!=NO_MATCH) {
+							base = Math.max(base, prev[j-1] + BONUS_CONSECUTIVE);
+						}
+						if (base!=NO_MATCH) {
+							score = base + bonus;
+						}
+					}
+				}
+
+				if (!first) {
+					int carried = running==NO_MATCH ? NO_MATCH : running - PENALTY_GAP;
+					running = Math.max(carried, prev[j]);
+				}
+				cur[j] = score;
+				matched |= score!=NO_MATCH;
+
+			}
+
+			if (!matched) {
+				return NO_MATCH;
+			}
+			int[] temp = prev;
+			prev = cur;
+			cur = temp;
+			first = false;
+
+		}
+
+		if (first) { // Empty pattern
+			return 0;
+		}
+
+		int best = NO_MATCH;
+		for (int j=0; j<n; j++) {
+			best = Math.max(best, prev[j]);
+		}
+		// Prefer shorter names, i.e. ones with fewer unmatched characters
+		return best - (n - pattern.length)/4;
+
+	}
+
+
+	/**
+	 * A name and its score.
+	 */
+	private static final class Match {
+
+		private final String name;
+		private final int score;
+
+		Match(String name, int score) {
+			this.name = name;
+			this.score = score;
+		}
+
+	}
+
+
+}
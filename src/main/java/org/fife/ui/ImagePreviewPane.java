@@ -11,26 +11,51 @@
 package org.fife.ui;
 
 import java.awt.Dimension;
+import java.awt.Graphics2D;
 import java.awt.GridLayout;
-import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JComponent;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 
 
 /**
  * An accessory panel for <code>javax.swing.JFileChooser</code>s that are used
  * for picking image files (<code>gif</code>, <code>png</code> or
  * <code>jpg</code>).  The panel displays a "preview" of the currently selected
- * image.
+ * image.<p>
+ *
+ * Images are decoded on a background thread, so quickly moving through a
+ * directory of large images doesn't freeze the file chooser.  Only every
+ * <em>n</em>th pixel is read from images much larger than the preview, and
+ * a decode is aborted if another file is selected before it completes.
+ * Recent previews are cached, and once the selected file's preview is
+ * displayed, the images on either side of it in its directory are decoded
+ * ahead of time, so that arrowing through a directory is instantaneous.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -43,9 +68,57 @@ public class ImagePreviewPane extends JComponent
 
 	private JLabel imageLabel;
 
+	/**
+	 * Recently-displayed previews, in least-recently-used order.  This is
+	 * only accessed while synchronized on it.
+	 */
+	private final Map<File, Thumbnail> cache;
+
+	/**
+	 * Incremented each time the selected file changes, so that background
+	 * work for a previous selection can tell it is no longer wanted.
+	 */
+	private final AtomicLong generation;
+
+	/**
+	 * The reader decoding an image, if any.
+	 */
+	private transient volatile ImageReader currentReader;
+
+	/**
+	 * The most recently listed directory, and the images in it.  These are
+	 * only accessed on the loader thread.
+	 */
+	private transient File listedDir;
+	private transient long listedDirModified;
+	private transient List<File> listedImages;
+
 	private static final int WIDTH			= 120;
 	private static final int HEIGHT			= 120;
 
+	/**
+	 * The maximum number of previews to cache.
+	 */
+	private static final int MAX_CACHED_THUMBNAILS = 64;
+
+	/**
+	 * The number of images on either side of the selected one to decode
+	 * ahead of time.
+	 */
+	private static final int PREFETCH_COUNT = 2;
+
+	/**
+	 * Decodes images for all preview panes.  This is a single thread so
+	 * that prefetching never competes with decoding the selected image.
+	 */
+	private static final ExecutorService LOADER =
+			Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "ImagePreviewPaneLoader");
+				t.setDaemon(true);
+				t.setPriority(Thread.NORM_PRIORITY - 1);
+				return t;
+			});
+
 
 	/**
 	 * Creates a new <code>ImagePreviewPane</code>.
@@ -56,6 +129,227 @@ public class ImagePreviewPane extends JComponent
 		imageLabel = new JLabel();
 		imageLabel.setPreferredSize(new Dimension(WIDTH,HEIGHT));
 		add(imageLabel);
+		cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<File, Thumbnail> e) {
+				return size()>MAX_CACHED_THUMBNAILS;
+			}
+		};
+		generation = new AtomicLong();
+	}
+
+
+	/**
+	 * Returns a file's cached preview, if it is up to date.  Called on the
+	 * loader thread.
+	 *
+	 * @param file The file.
+	 * @return The cached preview, or <code>null</code> if there isn't one
+	 *         or it is stale.
+	 */
+	private Thumbnail getCachedThumbnail(File file) {
+		Thumbnail thumbnail;
+		synchronized (cache) {
+			thumbnail = cache.get(file);
+		}
+		if (thumbnail!=null && thumbnail.lastModified==file.lastModified()) {
+			return thumbnail;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Returns the images in the same directory as a file, sorted by name.
+	 * Called on the loader thread.
+	 *
+	 * @param file The file.
+	 * @return The images in the file's directory.
+	 */
+	private List<File> getImagesInDirectory(File file) {
+
+		File dir = file.getParentFile();
+		if (dir==null) {
+			return Collections.emptyList();
+		}
+		long dirModified = dir.lastModified();
+		if (dir.equals(listedDir) && dirModified==listedDirModified) {
+			return listedImages;
+		}
+
+		Set<String> suffixes = Set.of(ImageIO.getReaderFileSuffixes());
+		List<File> images = new ArrayList<>();
+		File[] files = dir.listFiles();
+		if (files!=null) {
+			for (File f : files) {
+				String name = f.getName();
+				int dot = name.lastIndexOf('.');
+				if (dot>-1 && suffixes.contains(
+						name.substring(dot+1).toLowerCase(Locale.ROOT))) {
+					images.add(f);
+				}
+			}
+		}
+		images.sort((f1, f2) ->
+				String.CASE_INSENSITIVE_ORDER.compare(f1.getName(), f2.getName()));
+
+		listedDir = dir;
+		listedDirModified = dirModified;
+		listedImages = images;
+		return images;
+
+	}
+
+
+	/**
+	 * Returns whether a request is for a file that is no longer selected.
+	 *
+	 * @param requestGeneration The value of {@link #generation} when the
+	 *        request was made.
+	 * @return Whether the request is stale.
+	 */
+	private boolean isStale(long requestGeneration) {
+		return generation.get()!=requestGeneration;
+	}
+
+
+	/**
+	 * Decodes an image and scales it down to the size of this preview.
+	 * Called on the loader thread.
+	 *
+	 * @param file The image file.
+	 * @param requestGeneration The value of {@link #generation} when this
+	 *        image was requested.
+	 * @return The preview (with a <code>null</code> icon if the file isn't
+	 *         an image), or <code>null</code> if the request was superseded.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private Thumbnail decodeThumbnail(File file, long requestGeneration)
+			throws IOException {
+
+		long lastModified = file.lastModified();
+		BufferedImage image;
+
+		try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+
+			Iterator<ImageReader> readers = in==null ? null :
+					ImageIO.getImageReaders(in);
+			if (readers==null || !readers.hasNext()) {
+				return new Thumbnail(null, lastModified);
+			}
+
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				currentReader = reader;
+				if (isStale(requestGeneration)) {
+					return null;
+				}
+				// Read only as many pixels as we need to fill the preview
+				int xSubsampling = Math.max(1, reader.getWidth(0) / WIDTH);
+				int ySubsampling = Math.max(1, reader.getHeight(0) / HEIGHT);
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(xSubsampling, ySubsampling, 0, 0);
+				image = reader.read(0, param);
+			} finally {
+				currentReader = null;
+				reader.dispose();
+			}
+
+		}
+
+		if (isStale(requestGeneration)) {
+			return null; // Possibly only partially read
+		}
+
+		BufferedImage scaled = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = scaled.createGraphics();
+		try {
+			g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g2d.drawImage(image, 0, 0, WIDTH, HEIGHT, null);
+		} finally {
+			g2d.dispose();
+		}
+		return new Thumbnail(new ImageIcon(scaled), lastModified);
+
+	}
+
+
+	/**
+	 * Loads the preview for a file, if it isn't already cached, and
+	 * displays it if it is still the selected file.  Called on the loader
+	 * thread.
+	 *
+	 * @param file The file.
+	 * @param requestGeneration The value of {@link #generation} when the
+	 *        file was selected.
+	 * @param display Whether to display the preview, as opposed to just
+	 *        caching it.
+	 */
+	private void loadThumbnail(File file, long requestGeneration,
+			boolean display) {
+
+		if (isStale(requestGeneration)) {
+			return;
+		}
+
+		Thumbnail thumbnail = getCachedThumbnail(file);
+		if (thumbnail==null) {
+			try {
+				thumbnail = decodeThumbnail(file, requestGeneration);
+			} catch (IOException | RuntimeException e) {
+				thumbnail = new Thumbnail(null, file.lastModified());
+			}
+			if (thumbnail==null) { // Superseded
+				return;
+			}
+			synchronized (cache) {
+				cache.put(file, thumbnail);
+			}
+		}
+
+		if (display) {
+			ImageIcon icon = thumbnail.icon;
+			SwingUtilities.invokeLater(() -> {
+				if (!isStale(requestGeneration)) {
+					setIcon(icon);
+				}
+			});
+			prefetchNeighbors(file, requestGeneration);
+		}
+
+	}
+
+
+	/**
+	 * Queues the images on either side of a file in its directory to be
+	 * decoded and cached.  Called on the loader thread.
+	 *
+	 * @param file The file.
+	 * @param requestGeneration The value of {@link #generation} when the
+	 *        file was selected.
+	 */
+	private void prefetchNeighbors(File file, long requestGeneration) {
+
+		List<File> images = getImagesInDirectory(file);
+		int index = images.indexOf(file);
+		if (index==-1) {
+			return;
+		}
+
+		// Nearest first, alternating after and before the selected file
+		for (int i=1; i<=PREFETCH_COUNT; i++) {
+			for (int neighbor : new int[] { index + i, index - i }) {
+				if (neighbor>=0 && neighbor<images.size()) {
+					File f = images.get(neighbor);
+					LOADER.execute(() -> loadThumbnail(f, requestGeneration,
+							false));
+				}
+			}
+		}
+
 	}
 
 
@@ -71,23 +365,61 @@ public class ImagePreviewPane extends JComponent
 		if (JFileChooser.SELECTED_FILE_CHANGED_PROPERTY.equals(propName)) {
 			File file = (File)e.getNewValue();
 			if (file!=null) {
-				ImageIcon icon = null;
-				try {
-					Image image = ImageIO.read(file);
-					if (image!=null) {
-						image = image.getScaledInstance(WIDTH,HEIGHT,
-											Image.SCALE_DEFAULT);
-						icon = new ImageIcon(image);
-					}
-				} catch (IOException ioe) {
-					ioe.printStackTrace();
-				}
-				imageLabel.setIcon(icon);
-				repaint();
+				showPreview(file);
 			}
 		}
 
 	}
 
 
+	private void setIcon(ImageIcon icon) {
+		imageLabel.setIcon(icon);
+		repaint();
+	}
+
+
+	/**
+	 * Displays the preview for a file, loading it in the background if it
+	 * isn't cached.  Any preview still loading for a previously-selected
+	 * file is abandoned.
+	 *
+	 * @param file The file.
+	 */
+	private void showPreview(File file) {
+
+		long requestGeneration = generation.incrementAndGet();
+		ImageReader reader = currentReader;
+		if (reader!=null) {
+			reader.abort();
+		}
+
+		// Show any cached preview immediately; the loader re-checks that
+		// it is up to date
+		Thumbnail cached;
+		synchronized (cache) {
+			cached = cache.get(file);
+		}
+		setIcon(cached!=null ? cached.icon : null);
+
+		LOADER.execute(() -> loadThumbnail(file, requestGeneration, true));
+
+	}
+
+
+	/**
+	 * A cached preview.
+	 */
+	private static final class Thumbnail {
+
+		private final ImageIcon icon;
+		private final long lastModified;
+
+		Thumbnail(ImageIcon icon, long lastModified) {
+			this.icon = icon;
+			this.lastModified = lastModified;
+		}
+
+	}
+
+
 }
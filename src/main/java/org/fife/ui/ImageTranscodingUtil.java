@@ -6,22 +6,85 @@
  */
 package org.fife.ui;
 
-import org.apache.batik.anim.dom.SVGDOMImplementation;
-import org.apache.batik.transcoder.TranscoderException;
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.TranscoderOutput;
-import org.apache.batik.transcoder.TranscodingHints;
-import org.apache.batik.transcoder.image.ImageTranscoder;
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.anim.dom.SVGOMDocument;
+import org.apache.batik.anim.dom.SVGOMSVGElement;
+import org.apache.batik.bridge.BridgeContext;
+import org.apache.batik.bridge.GVTBuilder;
+import org.apache.batik.bridge.UserAgentAdapter;
+import org.apache.batik.bridge.ViewBox;
+import org.apache.batik.ext.awt.image.GraphicsUtil;
+import org.apache.batik.gvt.CanvasGraphicsNode;
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.GraphicsNode;
+import org.apache.batik.gvt.renderer.ConcreteImageRendererFactory;
+import org.apache.batik.gvt.renderer.ImageRenderer;
 import org.apache.batik.util.SVGConstants;
+import org.apache.batik.util.XMLResourceDescriptor;
+import org.w3c.dom.svg.SVGPreserveAspectRatio;
 
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Utility methods for converting SVGs to images.
+ * Utility methods for converting SVGs to images.<p>
+ *
+ * Parsing an SVG and building its graphics tree is typically much more
+ * expensive than painting it, so the trees of recently rasterized SVGs are
+ * cached.  Rasterizing an SVG again, e.g. at another size, only repeats the
+ * painting.  Only the graphics tree and what's needed to scale it are kept;
+ * the parsed document is discarded once the tree is built.  The number of
+ * SVGs cached can be set with {@link #setCacheSize(int)}, or the system
+ * property {@link #CACHE_SIZE_PROPERTY}.
  */
 public final class ImageTranscodingUtil {
 
+	/**
+	 * The most recently rasterized SVGs, keyed by their content.  Access to
+	 * this map should be synchronized on it.
+	 */
+	private static final Map<SvgKey, ParsedSvg> PARSED_SVGS;
+
+	/**
+	 * The maximum number of parsed SVGs to cache.  Access to this field
+	 * should be synchronized on {@link #PARSED_SVGS}.
+	 */
+	private static int cacheSize;
+
+	/**
+	 * The system property that, if set, is the default number of parsed
+	 * SVGs to cache.
+	 */
+	public static final String CACHE_SIZE_PROPERTY = "org.fife.ui.svgCacheSize";
+
+	/**
+	 * The default number of parsed SVGs to cache.  This is enough for the
+	 * icons of a typical toolbar and menu bar, whose HiDPI variants are
+	 * rasterized as they are first painted.
+	 */
+	private static final int DEFAULT_CACHE_SIZE = 64;
+
+	static {
+		cacheSize = Math.max(0, Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+		PARSED_SVGS = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<SvgKey, ParsedSvg> e) {
+				return size()>cacheSize;
+			}
+		};
+	}
+
 	/**
 	 * Private constructor to prevent instantiation.
 	 */
@@ -30,7 +93,63 @@ public final class ImageTranscodingUtil {
 	}
 
 	/**
-	 * Converts an SVG into an image.
+	 * Removes all parsed SVGs from the cache.  Applications may want to call
+	 * this after changing themes or icon groups, if the SVGs previously used
+	 * won't be rasterized again.
+	 */
+	public static void clearCache() {
+		synchronized (PARSED_SVGS) {
+			PARSED_SVGS.clear();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of parsed SVGs cached.
+	 *
+	 * @return The maximum number of SVGs.
+	 * @see #setCacheSize(int)
+	 */
+	public static int getCacheSize() {
+		synchronized (PARSED_SVGS) {
+			return cacheSize;
+		}
+	}
+
+	/**
+	 * Returns an SVG's parsed graphics tree, from the cache if possible.
+	 *
+	 * @param svgName The name of the SVG.  Used only in error messages.
+	 * @param svg The SVG content.
+	 * @return The parsed SVG.
+	 * @throws IOException If the SVG can't be parsed.
+	 */
+	private static ParsedSvg getParsedSvg(String svgName, byte[] svg) throws IOException {
+
+		SvgKey key = new SvgKey(svg);
+		synchronized (PARSED_SVGS) {
+			ParsedSvg parsed = PARSED_SVGS.get(key);
+			if (parsed!=null) {
+				return parsed;
+			}
+		}
+
+		// Parse outside the lock so different SVGs can be parsed in parallel.
+		// Two threads may parse the same SVG at once; only one is kept
+		ParsedSvg parsed = new ParsedSvg(svgName, svg);
+		synchronized (PARSED_SVGS) {
+			if (cacheSize==0) {
+				return parsed;
+			}
+			ParsedSvg existing = PARSED_SVGS.putIfAbsent(key, parsed);
+			return existing!=null ? existing : parsed;
+		}
+
+	}
+
+	/**
+	 * Converts an SVG into an image.  This method is thread-safe, and SVGs
+	 * can be rasterized on several threads at once.  Painting any one SVG is
+	 * serialized, however, since Batik's graphics trees aren't thread-safe.
 	 *
 	 * @param svgName The name of the SVG.  Used only in error messages.
 	 * @param svg The SVG content.
@@ -38,54 +157,229 @@ public final class ImageTranscodingUtil {
 	 * @param h The height of the desired image.
 	 * @return The created image.
 	 * @throws IOException If an IO error occurs.
+	 * @see #rasterize(String, byte[], int, int)
 	 */
 	public static BufferedImage rasterize(String svgName, InputStream svg, int w, int h)
 			throws IOException {
-
+		byte[] content;
 		try (BufferedInputStream bin = new BufferedInputStream(svg)) {
+			content = bin.readAllBytes();
+		}
+		return rasterize(svgName, content, w, h);
+	}
 
-			TranscoderInput input = new TranscoderInput(bin);
+	/**
+	 * Converts an SVG into an image.  This method is thread-safe, and SVGs
+	 * can be rasterized on several threads at once.  Painting any one SVG is
+	 * serialized, however, since Batik's graphics trees aren't thread-safe.
+	 *
+	 * @param svgName The name of the SVG.  Used only in error messages.
+	 * @param svg The SVG content.
+	 * @param w The width of the desired image.
+	 * @param h The height of the desired image.
+	 * @return The created image.
+	 * @throws IOException If an IO error occurs.
+	 * @see #rasterize(String, InputStream, int, int)
+	 */
+	public static BufferedImage rasterize(String svgName, byte[] svg, int w, int h)
+			throws IOException {
+		return getParsedSvg(svgName, svg).paint(svgName, w, h);
+	}
 
-			BufferedImageGenerator t = new BufferedImageGenerator(w, h);
-			t.transcode(input, null);
-			return t.image;
-		} catch (TranscoderException e) {
-			throw new IOException("Couldn't convert " + svgName + " to an image", e);
+	/**
+	 * Sets the maximum number of parsed SVGs to cache.  If more are cached,
+	 * the least recently used ones are removed.
+	 *
+	 * @param size The maximum number of SVGs.  If this is <code>0</code>,
+	 *        nothing is cached.
+	 * @throws IllegalArgumentException If <code>size</code> is negative.
+	 * @see #getCacheSize()
+	 */
+	public static void setCacheSize(int size) {
+		if (size<0) {
+			throw new IllegalArgumentException("size cannot be negative: " + size);
+		}
+		synchronized (PARSED_SVGS) {
+			cacheSize = size;
+			Iterator<ParsedSvg> i = PARSED_SVGS.values().iterator();
+			while (PARSED_SVGS.size()>size) {
+				i.next();
+				i.remove();
+			}
 		}
 	}
 
-	private static class BufferedImageGenerator extends ImageTranscoder {
+	/**
+	 * An SVG parsed into a graphics tree, ready to be painted at any size.
+	 */
+	private static final class ParsedSvg {
+
+		private final GraphicsNode root;
+		private final CanvasGraphicsNode canvas;
+
+		/**
+		 * The SVG's <code>viewBox</code>, or <code>null</code> if it doesn't
+		 * have one.
+		 */
+		private final float[] viewBox;
+		private final short align;
+		private final boolean meet;
+
+		/**
+		 * The size of the SVG, used to scale it if it has no
+		 * <code>viewBox</code>.
+		 */
+		private final float docWidth;
+		private final float docHeight;
+
+		/**
+		 * Parses an SVG.
+		 *
+		 * @param svgName The name of the SVG.  Used only in error messages.
+		 * @param svg The SVG content.
+		 * @throws IOException If the SVG can't be parsed.
+		 */
+		ParsedSvg(String svgName, byte[] svg) throws IOException {
 
-		private BufferedImage image;
-		private int width;
-		private int height;
+			SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(
+				XMLResourceDescriptor.getXMLParserClassName());
 
-		BufferedImageGenerator(int width, int height) {
-			this.width = width;
-			this.height = height;
-			setTranscodingHints(createTranscodingHints(width, height));
+			BridgeContext ctx = new BridgeContext(new UserAgentAdapter() {
+				@Override
+				public void displayError(Exception e) {
+					// The transcoder treats all errors as fatal; so do we
+					throw new IllegalArgumentException(e);
+				}
+			});
+
+			try {
+				SVGOMDocument doc = (SVGOMDocument)factory.createSVGDocument(null,
+					new ByteArrayInputStream(svg));
+				root = new GVTBuilder().build(ctx, doc);
+				canvas = getCanvasGraphicsNode(root);
+
+				// Compute what's needed to scale the tree now, so the
+				// document can be discarded
+				SVGOMSVGElement svgRoot = (SVGOMSVGElement)doc.getRootElement();
+				String vb = svgRoot.getAttributeNS(null, SVGConstants.SVG_VIEW_BOX_ATTRIBUTE);
+				viewBox = vb!=null && !vb.isEmpty() ?
+					ViewBox.parseViewBoxAttribute(svgRoot, vb, ctx) : null;
+				SVGPreserveAspectRatio aspectRatio = svgRoot.getPreserveAspectRatio().getBaseVal();
+				align = aspectRatio.getAlign();
+				meet = aspectRatio.getMeetOrSlice()==SVGPreserveAspectRatio.SVG_MEETORSLICE_MEET;
+				docWidth = (float)ctx.getDocumentSize().getWidth();
+				docHeight = (float)ctx.getDocumentSize().getHeight();
+			} catch (IOException | RuntimeException e) {
+				throw new IOException("Couldn't convert " + svgName + " to an image", e);
+			} finally {
+				// The graphics tree of a static document doesn't need it
+				ctx.dispose();
+			}
 		}
 
-		@Override
-		public BufferedImage createImage(int w, int h) {
-			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		/**
+		 * Returns the canvas node of a graphics tree, if any.
+		 *
+		 * @param root The root of the tree.
+		 * @return The canvas node, or <code>null</code> if there isn't one.
+		 */
+		private static CanvasGraphicsNode getCanvasGraphicsNode(GraphicsNode root) {
+			if (root instanceof CompositeGraphicsNode composite) {
+				List<?> children = composite.getChildren();
+				if (!children.isEmpty() &&
+						children.get(0) instanceof CanvasGraphicsNode canvas) {
+					return canvas;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the transform that scales this SVG to a size, honoring its
+		 * <code>viewBox</code> and <code>preserveAspectRatio</code> attributes.
+		 *
+		 * @param w The width to scale to.
+		 * @param h The height to scale to.
+		 * @return The transform.
+		 */
+		private AffineTransform getTransform(int w, int h) {
+
+			if (viewBox!=null) {
+				return ViewBox.getPreserveAspectRatioTransform(viewBox, align, meet, w, h);
+			}
+
+			float scale = Math.min(w / docWidth, h / docHeight);
+			return AffineTransform.getScaleInstance(scale, scale);
+		}
+
+		/**
+		 * Paints this SVG into a new image.  This is done the same way as
+		 * Batik's <code>ImageTranscoder</code>, so the results are identical.
+		 *
+		 * @param svgName The name of the SVG.  Used only in error messages.
+		 * @param w The width of the image.
+		 * @param h The height of the image.
+		 * @return The image.
+		 * @throws IOException If an error occurs painting the SVG.
+		 */
+		synchronized BufferedImage paint(String svgName, int w, int h) throws IOException {
+
+			ImageRenderer renderer = new ConcreteImageRendererFactory().
+				createStaticImageRenderer();
+
+			try {
+				// As in the transcoder, the scaling is applied to the canvas
+				// node if there is one, rather than to the renderer
+				AffineTransform transform = getTransform(w, h);
+				if (canvas!=null) {
+					canvas.setViewingTransform(transform);
+					transform = new AffineTransform();
+				}
+				renderer.updateOffScreen(w, h);
+				renderer.setTransform(transform);
+				renderer.setTree(root);
+				Shape aoi = new Rectangle2D.Float(0, 0, w, h);
+				renderer.repaint(transform.createInverse().createTransformedShape(aoi));
+
+				BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+				Graphics2D g2d = GraphicsUtil.createGraphics(image);
+				g2d.drawRenderedImage(renderer.getOffScreen(), new AffineTransform());
+				g2d.dispose();
+				return image;
+			} catch (NoninvertibleTransformException | RuntimeException e) {
+				throw new IOException("Couldn't convert " + svgName + " to an image", e);
+			} finally {
+				renderer.dispose();
+			}
+		}
+	}
+
+	/**
+	 * The key of a parsed SVG: a digest of its content.  This is used rather
+	 * than the content itself so the cache doesn't hold onto it.
+	 */
+	private static final class SvgKey {
+
+		private final byte[] digest;
+		private final int hashCode;
+
+		SvgKey(byte[] svg) {
+			try {
+				digest = MessageDigest.getInstance("SHA-256").digest(svg);
+			} catch (NoSuchAlgorithmException e) { // Never happens
+				throw new IllegalStateException(e);
+			}
+			hashCode = Arrays.hashCode(digest);
 		}
 
-		private static TranscodingHints createTranscodingHints(int width, int height) {
-			TranscodingHints hints = new TranscodingHints();
-			hints.put(ImageTranscoder.KEY_DOM_IMPLEMENTATION,
-				SVGDOMImplementation.getDOMImplementation());
-			hints.put(ImageTranscoder.KEY_DOCUMENT_ELEMENT_NAMESPACE_URI,
-				SVGConstants.SVG_NAMESPACE_URI);
-			hints.put(ImageTranscoder.KEY_DOCUMENT_ELEMENT, "svg");
-			hints.put(ImageTranscoder.KEY_WIDTH, (float)width);
-			hints.put(ImageTranscoder.KEY_HEIGHT, (float)height);
-			return hints;
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof SvgKey key && Arrays.equals(digest, key.digest);
 		}
 
 		@Override
-		public void writeImage(BufferedImage image, TranscoderOutput out) {
-			this.image = image;
+		public int hashCode() {
+			return hashCode;
 		}
 	}
 }
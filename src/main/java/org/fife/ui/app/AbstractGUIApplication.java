@@ -194,6 +194,11 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 	 */
 	private IconGroup iconGroup;
 
+	/**
+	 * Times the phases of this application's startup.
+	 */
+	private StartupProfiler startupProfiler;
+
 	private static final String STATUS_BAR_LOCATION	= BorderLayout.SOUTH;
 	private static final String TOOL_BAR_LOCATION	= BorderLayout.NORTH;
 
@@ -221,8 +226,19 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 	 */
 	private void initialize(AppContext<? extends AbstractGUIApplication<P>, P> context, String title, P prefs) {
 
+		// Reuse the pipeline our context started, if any, so the profiler
+		// includes loading the preferences and Look and Feel
+		StartupPipeline pipeline = context!=null ? context.takeStartupPipeline() : null;
+		if (pipeline==null) {
+			pipeline = new StartupPipeline();
+		}
+		startupProfiler = pipeline.getProfiler();
+		StartupProfiler.Section total = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "initialize");
+
 		this.context = context;
 		enableEvents(AWTEvent.WINDOW_EVENT_MASK);
+		pipeline.submit(StartupPipeline.INSTALL_LOCATION,
+			() -> toInstallLocation(getLocationOfJar()));
 		setTheme(prefs.appTheme != null ? prefs.appTheme : NativeTheme.NAME);
 
 		// Set up the localization stuff.
@@ -247,6 +263,13 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 		JComponent.setDefaultLocale(locale);
 		setLocale(locale);
 
+		// Now that the locale is known, do everything that doesn't need the
+		// EDT in the background while the splash screen is shown
+		String bundleClassName = getResourceBundleClassName();
+		pipeline.submit(StartupPipeline.RESOURCE_BUNDLE,
+			() -> ResourceBundle.getBundle(bundleClassName));
+		submitStartupTasks(pipeline, prefs);
+
 		possiblyInitializeMacOSProperties(context, prefs);
 
 		// Create the splash screen, if this application has one.
@@ -257,13 +280,21 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 
 		actions = new ActionRegistry();
 
-		//long start = System.currentTimeMillis();
 		if (title != null) {
 			setTitle(title);
 		}
-		setInstallLocation(getLocationOfJar());
-		//System.err.println(("setInstallLocation: " + (System.currentTimeMillis() - start)));
 
+		// Join the background work before building any components
+		StartupProfiler.Section phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT,
+				"joinStartupTasks");
+		installLocation = pipeline.get(StartupPipeline.INSTALL_LOCATION);
+		if (resourceBundle==null) {
+			resourceBundle = pipeline.get(StartupPipeline.RESOURCE_BUNDLE);
+		}
+		pipeline.shutdown();
+		phase.end();
+
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "createContentPanels");
 		// contentPane contains the status bar to the south and toolBarPane
 		// in the center (which contains everything else).
 		contentPane = new JPanel(new BorderLayout());
@@ -286,36 +317,44 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 		// AbstractPluggableGUIApplication.
 		mainContentPanel = createMainContentPanel(actualContentPane);
 		toolBarPanels[0].add(mainContentPanel);
-		//System.err.println("toolbarPanels: " + (System.currentTimeMillis() - start));
+		phase.end();
 
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "createActions");
 		preCreateActions(prefs, splashScreen);
 		createActions(prefs);
+		phase.end();
 
 		// Create the status bar.
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "createStatusBar");
 		preStatusBarInit(prefs, splashScreen);
 		StatusBar statusBar = createStatusBar(prefs);
-		//System.err.println("createStatusBar: " + (System.currentTimeMillis()-start));
 		setStatusBar(statusBar);
+		phase.end();
 
 		// Create the toolbar.
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "createToolBar");
 		preToolBarInit(prefs, splashScreen);
 		CustomizableToolBar toolBar = createToolBar(prefs);
-		//System.err.println("createToolBar: " + (System.currentTimeMillis()-start));
 		setToolBar(toolBar);
+		phase.end();
 
 		// Create the menu bar.
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "createMenuBar");
 		preMenuBarInit(prefs, splashScreen);
 		JMenuBar menuBar = createMenuBar(prefs);
 		// Must set orientation of menuBar separately as it's done later.
 		ComponentOrientation o = ComponentOrientation.
 			getOrientation(getLocale());
 		menuBar.applyComponentOrientation(o);
-		//System.err.println("createMenuBar: " + (System.currentTimeMillis()-start));
 		setJMenuBar(menuBar);
+		phase.end();
 
 		// Do the rest of the subclass's custom initialization.
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "preDisplayInit");
 		preDisplayInit(prefs, splashScreen);
-		//System.err.println("preDisplayInit: " + (System.currentTimeMillis()-start));
+		phase.end();
+
+		phase = startupProfiler.start(StartupProfiler.CATEGORY_INIT, "layout");
 
 		// Register status bar to receive notice on menu item changes,
 		// in case we have descriptions of them to display.
@@ -347,7 +386,7 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 		}
 
 		applyComponentOrientation(o);
-		//System.err.println("Everything else: " + (System.currentTimeMillis()-start));
+		phase.end();
 
 		// Clean up the splash screen if necessary.
 		if (splashScreen!=null) {
@@ -355,6 +394,9 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 			splashScreen.dispose();
 		}
 
+		total.end();
+		startupProfiler.endPending();
+
 	}
 
 
@@ -854,6 +896,20 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 	}
 
 
+	/**
+	 * Returns the directory in which this application stores its
+	 * preferences.  This is also a good place for other per-user data,
+	 * such as caches.
+	 *
+	 * @return The directory, or <code>null</code> if this application has
+	 *         no application context.
+	 * @see AppContext#getPreferencesDir()
+	 */
+	public File getPreferencesDir() {
+		return context!=null ? context.getPreferencesDir() : null;
+	}
+
+
 	/**
 	 * Returns the resource bundle associated with this application.
 	 *
@@ -881,6 +937,18 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 	public abstract String getResourceBundleClassName();
 
 
+	/**
+	 * Returns the profiler timing this application's startup.  Subclasses
+	 * can use it to time their own initialization, and tools can use it to
+	 * track startup performance.
+	 *
+	 * @return The startup profiler.
+	 */
+	public StartupProfiler getStartupProfiler() {
+		return startupProfiler;
+	}
+
+
 	/**
 	 * Returns the status bar this application is using.
 	 *
@@ -1271,17 +1339,18 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 
 
 	/**
-	 * Sets the "install location" of this application.
+	 * Returns the "install location" of this application.
 	 *
 	 * @param location The directory in which this application is installed.
+	 * @return The absolute path of that directory, or the working directory
+	 *         if it doesn't exist.
 	 * @see #getInstallLocation
 	 */
-	private void setInstallLocation(String location) {
+	private static String toInstallLocation(String location) {
 		File temp = new File(location);
 		if (temp.isDirectory())
-			installLocation = temp.getAbsolutePath();
-		else
-			installLocation = System.getProperty("user.dir");
+			return temp.getAbsolutePath();
+		return System.getProperty("user.dir");
 	}
 
 
@@ -1464,6 +1533,24 @@ public abstract class AbstractGUIApplication<P extends AppPrefs> extends JFrame
 	}
 
 
+	/**
+	 * Called early in initialization, before the splash screen is shown,
+	 * to start work that doesn't need the EDT on background threads.  For
+	 * example, an application might rasterize the icons its actions will
+	 * use.  Keep the returned futures and wait for them before using their
+	 * results, e.g. in {@link #preCreateActions(AppPrefs, SplashScreen)}.<p>
+	 *
+	 * The default implementation does nothing.  Subclasses can override,
+	 * but should call the super implementation.
+	 *
+	 * @param pipeline The pipeline to submit tasks to.
+	 * @param prefs The preferences of the application.
+	 */
+	protected void submitStartupTasks(StartupPipeline pipeline, P prefs) {
+		// Do nothing - subclasses can override
+	}
+
+
 	/**
 	 * Updates the application's icons due to an icon group change.
 	 * The default implementation does nothing.  Subclasses can
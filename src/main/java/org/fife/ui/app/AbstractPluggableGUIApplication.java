@@ -14,8 +14,10 @@ import java.awt.Container;
 import java.awt.GridBagConstraints;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
@@ -44,6 +46,12 @@ public abstract class AbstractPluggableGUIApplication<P extends AppPrefs>
 	 */
 	private List<Plugin<?>> pluginList;
 
+	/**
+	 * Plug-ins whose activation is deferred until first use, keyed by class
+	 * name.
+	 */
+	private Map<String, DeferredPlugin> deferredPlugins;
+
 	/**
 	 * The class loader used for plugin stuff.
 	 */
@@ -65,6 +73,50 @@ public abstract class AbstractPluggableGUIApplication<P extends AppPrefs>
 	}
 
 
+	/**
+	 * Returns a plug-in, activating it first if its activation was deferred
+	 * and it hasn't been used yet.  This can be used, for example, to show
+	 * a deferred plug-in's dockable window at startup if it was visible when
+	 * the application last exited.  This should only be called on the EDT.
+	 *
+	 * @param className The class name of the plug-in.
+	 * @return The plug-in, or <code>null</code> if no such plug-in was
+	 *         found, or it failed to activate (in which case the error was
+	 *         displayed to the user).
+	 * @see #isPluginActivationDeferred(String)
+	 */
+	public Plugin<?> activatePlugin(String className) {
+
+		if (pluginList!=null) {
+			for (Plugin<?> plugin : pluginList) {
+				if (plugin.getClass().getName().equals(className)) {
+					return plugin;
+				}
+			}
+		}
+
+		DeferredPlugin dp = deferredPlugins!=null ?
+				deferredPlugins.get(className) : null;
+		return dp!=null ? dp.activate() : null;
+
+	}
+
+
+	/**
+	 * Adds placeholders for a plug-in whose activation is deferred until
+	 * first use.  This should only be called on the EDT.
+	 *
+	 * @param plugin The deferred plug-in.
+	 */
+	void addDeferredPlugin(DeferredPlugin plugin) {
+		if (deferredPlugins==null) {
+			deferredPlugins = new HashMap<>(1);
+		}
+		deferredPlugins.put(plugin.getClassName(), plugin);
+		plugin.install();
+	}
+
+
 	/**
 	 * Adds a plugin to this GUI application.  Note this should only be called
 	 * on the EDT.
@@ -192,6 +244,22 @@ public abstract class AbstractPluggableGUIApplication<P extends AppPrefs>
 	}
 
 
+	/**
+	 * Returns whether a plug-in's activation is deferred and it hasn't been
+	 * used yet.  Such a plug-in isn't returned by {@link #getPlugins()}.
+	 * This should only be called on the EDT.
+	 *
+	 * @param className The class name of the plug-in.
+	 * @return Whether the plug-in is known but not yet activated.
+	 * @see #activatePlugin(String)
+	 */
+	public boolean isPluginActivationDeferred(String className) {
+		DeferredPlugin dp = deferredPlugins!=null ?
+				deferredPlugins.get(className) : null;
+		return dp!=null && dp.getPlugin()==null;
+	}
+
+
 	/**
 	 * Returns whether all plug-ins have been loaded for this application.
 	 * This does not count plug-ins added programmatically via
@@ -212,10 +280,13 @@ public abstract class AbstractPluggableGUIApplication<P extends AppPrefs>
 	 * EDT.
 	 */
 	private void loadPlugins() {
+		// Startup isn't complete until the plugins are loaded
+		getStartupProfiler().beginPending();
+		if (pluginLoader==null) { // A subclass didn't call super.submitStartupTasks()
+			pluginLoader = new PluginLoader(this);
+		}
 		new Thread(() -> {
 			try {
-				pluginLoader = new PluginLoader(
-							AbstractPluggableGUIApplication.this);
 				pluginLoader.loadPlugins();
 			} catch (final IOException ioe) {
 				SwingUtilities.invokeLater(() -> displayException(ioe));
@@ -332,6 +403,20 @@ public abstract class AbstractPluggableGUIApplication<P extends AppPrefs>
 	}
 
 
+	/**
+	 * Overridden to start scanning the plugin jars in the background.
+	 *
+	 * @param pipeline The pipeline to submit tasks to.
+	 * @param prefs The preferences of the application.
+	 */
+	@Override
+	protected void submitStartupTasks(StartupPipeline pipeline, P prefs) {
+		super.submitStartupTasks(pipeline, prefs);
+		pluginLoader = new PluginLoader(this);
+		pluginLoader.startScan(pipeline);
+	}
+
+
 	/**
 	 * Overridden to update the icons used by any plugins.
 	 *
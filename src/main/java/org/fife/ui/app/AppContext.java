@@ -54,6 +54,12 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 	 */
 	private boolean addFlatThemes;
 
+	/**
+	 * The pipeline started by {@link #createApplication(String[])}, waiting
+	 * to be picked up by the application being created.
+	 */
+	private StartupPipeline startupPipeline;
+
 
 	/**
 	 * Returns the name of the preferences class for this application.  This
@@ -116,7 +122,8 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 	 * instance is available to handle it.<p>
 	 *
 	 * The default implementation prints the stack trace.  Subclasses can
-	 * override.
+	 * override.  Note this may be called on a background thread while the
+	 * application is starting up.
 	 *
 	 * @param e The error.
 	 */
@@ -188,6 +195,21 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 	}
 
 
+	/**
+	 * Returns the theme with the specified name.
+	 *
+	 * @param themeName The name of the theme.
+	 * @return The theme, or the first available theme if it isn't found.
+	 */
+	private AppTheme getAppTheme(String themeName) {
+		List<AppTheme> availableThemes = getAvailableAppThemes();
+		return availableThemes.stream()
+			.filter(t -> t.getName().equals(themeName))
+			.findFirst()
+			.orElse(availableThemes.getFirst());
+	}
+
+
 	/**
 	 * Does any initialization and configuration of the theme that must
 	 * be done before any windows are instantiated, for example, configuring
@@ -199,12 +221,7 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 
 		// Load the previously-saved theme, defaulting to the first installed
 		// theme if it isn't found for some reason.
-		List<AppTheme> availableThemes = getAvailableAppThemes();
-		AppTheme theme = availableThemes.stream()
-			.filter(t -> t.getName().equals(themeName))
-			.findFirst()
-			.orElse(availableThemes.getFirst());
-		String lafName = theme.getLookAndFeel();
+		String lafName = getAppTheme(themeName).getLookAndFeel();
 
 		// Allow Substance to paint window titles, etc.  We don't allow
 		// Metal (for example) to do this, because setting these
@@ -245,6 +262,44 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 	}
 
 
+	/**
+	 * Loads the Look and Feel class of a theme.  This is called on a
+	 * background thread, so that the EDT doesn't have to do so when
+	 * installing it.  The class isn't initialized, since some Look and Feels
+	 * read system properties and UI defaults in their static initializers,
+	 * and those are only set up on the EDT, just before the Look and Feel
+	 * is installed.
+	 *
+	 * @param prefs The application's preferences.  This may be
+	 *        <code>null</code>.
+	 * @return The Look and Feel class, or <code>null</code> if it couldn't
+	 *         be loaded.  In that case, installing it on the EDT handles the
+	 *         error.
+	 */
+	private Class<?> preloadLookAndFeel(P prefs) {
+		String lafName = getAppTheme(prefs!=null ? prefs.appTheme : null).getLookAndFeel();
+		try {
+			return Class.forName(lafName, false, AppContext.class.getClassLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * Returns the pipeline started by {@link #createApplication(String[])},
+	 * if any.  Only the first call returns it.
+	 *
+	 * @return The pipeline, or <code>null</code> if none is waiting to be
+	 *         picked up.
+	 */
+	synchronized StartupPipeline takeStartupPipeline() {
+		StartupPipeline pipeline = startupPipeline;
+		startupPipeline = null;
+		return pipeline;
+	}
+
+
 	/**
 	 * Sets the look and feel the first time, before the application starts.
 	 *
@@ -296,7 +351,11 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 
 
 	/**
-	 * Loads the preferences for this application type.
+	 * Loads the preferences for this application type.<p>
+	 *
+	 * When called by {@link #createApplication(String[])}, this runs on a
+	 * background thread while the EDT does other startup work, so subclasses
+	 * overriding it shouldn't access Swing components.
 	 *
 	 * @return The preferences.
 	 * @see #savePreferences(GUIApplication)
@@ -404,15 +463,37 @@ public abstract class AppContext<T extends GUIApplication, P extends AppPrefs> {
 	 */
 	public T createApplication(String[] args) {
 
-		MacOSUtil.setUseScreenMenuBar(true);
+		// Load the preferences, and then the Look and Feel they specify, in
+		// the background
+		StartupPipeline pipeline = new StartupPipeline();
+		pipeline.submit(StartupPipeline.PREFERENCES, this::loadPreferences);
+		pipeline.submit(StartupPipeline.LOOK_AND_FEEL,
+			() -> preloadLookAndFeel(pipeline.get(StartupPipeline.PREFERENCES)));
 
-		P prefs = loadPreferences();
+		MacOSUtil.setUseScreenMenuBar(true);
 
 		// Make Darcula and Metal not use bold fonts
 		UIManager.put("swing.boldMetal", Boolean.FALSE);
 
+		// The theme is the first thing that needs the preferences.  There's
+		// no need to wait for the Look and Feel to be preloaded; if it's
+		// still loading, installing it simply waits for the class
+		P prefs = pipeline.get(StartupPipeline.PREFERENCES);
 		initializeAndConfigureTheme(prefs.appTheme);
 
-		return createApplicationImpl(args, prefs);
+		synchronized (this) {
+			startupPipeline = pipeline;
+		}
+		try {
+			return createApplicationImpl(args, prefs);
+		} finally {
+			// In case the application didn't pick it up.  Its profiler must
+			// still be completed, or allocation tracking is never stopped
+			StartupPipeline orphaned = takeStartupPipeline();
+			if (orphaned!=null) {
+				orphaned.getProfiler().endPending();
+			}
+			pipeline.shutdown();
+		}
 	}
 }
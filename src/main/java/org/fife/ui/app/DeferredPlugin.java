@@ -0,0 +1,313 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import java.awt.event.ActionEvent;
+import java.io.Serial;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import javax.swing.Action;
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+
+import org.fife.ui.StandardAction;
+import org.fife.ui.StandardMenuItem;
+
+
+/**
+ * A plugin whose activation is deferred until it is first used.  Such a
+ * plugin's jar declares, in its manifest, that it should be activated
+ * lazily, along with the actions it provides and the menus they belong in:
+ *
+ * <pre>
+ * Fife-Plugin-Class: com.example.FooPlugin
+ * Fife-Plugin-Activation: deferred
+ * Fife-Plugin-Actions: showFoo
+ * Fife-Plugin-Action-showFoo-Menu: view
+ * </pre>
+ *
+ * The actions are localized from the plugin's resource bundle, just as
+ * {@link StandardAction#StandardAction(ResourceBundle, String)} does, so
+ * <code>com/example/FooPlugin.properties</code> might contain:
+ *
+ * <pre>
+ * showFoo=Foo Window
+ * showFoo.Mnemonic=F
+ * showFoo.Accelerator=ctrl shift F
+ * </pre>
+ *
+ * The bundle is only read as properties files, so loading it doesn't load
+ * the plugin's class.  A jar can name a different bundle with the
+ * {@link PluginLoader#PLUGIN_BUNDLE_ATTR} attribute.<p>
+ *
+ * At startup, the plugin's class isn't loaded.  Instead, a placeholder
+ * action is registered with the application for each declared action key,
+ * and, if a menu with the declared name was registered via
+ * {@link MenuBar#registerMenuByName(String, JMenu)}, a menu item for it is
+ * added to that menu.  The first time one of these actions is performed,
+ * the plugin is loaded, constructed and added to the application, and then
+ * the action the plugin registered under the same key (if any) is performed.
+ * For a {@link GUIPlugin}, adding the plugin to the application is what
+ * shows its window, so its action need do nothing more.<p>
+ *
+ * Applications can also activate a deferred plugin directly, for example to
+ * restore a dockable window that was visible when the application last
+ * exited; see
+ * {@link AbstractPluggableGUIApplication#activatePlugin(String)}.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see PluginLoader
+ */
+final class DeferredPlugin {
+
+	private final PluginLoader loader;
+	private final AbstractPluggableGUIApplication<?> app;
+	private final String className;
+	private final List<DeferredAction> actions;
+	private final List<String> menuNames;
+	private final List<JMenuItem> menuItems;
+	private Plugin<?> plugin;
+	private boolean activating;
+
+	/**
+	 * The value of {@link PluginLoader#PLUGIN_ACTIVATION_ATTR} that defers a
+	 * plugin's activation.
+	 */
+	static final String ACTIVATION_DEFERRED = "deferred";
+
+	private static final String ACTION_MENU_SUFFIX = "-Menu";
+
+
+	/**
+	 * Constructor.  This can be called off the EDT.
+	 *
+	 * @param loader The loader that can load the plugin's class.
+	 * @param app The application.
+	 * @param info The plugin jar's information.
+	 */
+	DeferredPlugin(PluginLoader loader, AbstractPluggableGUIApplication<?> app,
+			PluginIndex.JarInfo info) {
+
+		this.loader = loader;
+		this.app = app;
+		className = info.getPluginClass();
+		actions = new ArrayList<>(1);
+		menuNames = new ArrayList<>(1);
+		menuItems = new ArrayList<>(1);
+
+		String keys = info.getAttribute(PluginLoader.PLUGIN_ACTIONS_ATTR);
+		if (keys!=null) {
+			ResourceBundle msg = getBundle(info, loader.getClassLoader());
+			for (String key : keys.split("[\\s,]+")) {
+				if (!key.isEmpty()) {
+					String prefix = PluginLoader.PLUGIN_ACTION_ATTR_PREFIX + key;
+					actions.add(new DeferredAction(msg, key));
+					menuNames.add(info.getAttribute(prefix + ACTION_MENU_SUFFIX));
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Activates this plugin, if it hasn't been already, by loading its
+	 * class, creating it, and adding it to the application.  Menu items
+	 * added for the plugin's declared actions are switched to the actions
+	 * the plugin itself registers under the same keys.  This should be
+	 * called on the EDT.
+	 *
+	 * @return The plugin, or <code>null</code> if it couldn't be activated.
+	 *         In that case the error is displayed to the user.
+	 */
+	Plugin<?> activate() {
+
+		if (plugin==null && !activating) {
+
+			activating = true;
+			StartupProfiler.Section phase = app.getStartupProfiler().start(
+					StartupProfiler.CATEGORY_PLUGIN, "activate " + className);
+			try {
+				Plugin<?> p = loader.createPlugin(className);
+				app.addPlugin(p);
+				plugin = p;
+			} catch (InvocationTargetException ite) {
+				Throwable e = ite.getTargetException();
+				e.printStackTrace();
+				app.displayException(e);
+			} catch (Exception e) {
+				e.printStackTrace();
+				app.displayException(e);
+			} finally {
+				phase.end();
+				activating = false;
+			}
+
+			if (plugin!=null) {
+				for (JMenuItem item : menuItems) {
+					Action real = getRealAction(item.getAction());
+					if (real!=null) {
+						item.setAction(real);
+					}
+				}
+			}
+
+		}
+
+		return plugin;
+
+	}
+
+
+	/**
+	 * Returns the resource bundle that localizes a deferred plugin's
+	 * actions.  Only properties files are looked for, so the plugin's class
+	 * isn't loaded.
+	 *
+	 * @param info The plugin jar's information.
+	 * @param classLoader The class loader for the plugin jars.
+	 * @return The bundle.  If it isn't found, an empty bundle is returned.
+	 * @see PluginLoader#PLUGIN_BUNDLE_ATTR
+	 */
+	static ResourceBundle getBundle(PluginIndex.JarInfo info, ClassLoader classLoader) {
+
+		String baseName = info.getAttribute(PluginLoader.PLUGIN_BUNDLE_ATTR);
+		if (baseName==null) {
+			baseName = info.getPluginClass();
+		}
+
+		try {
+			return ResourceBundle.getBundle(baseName, Locale.getDefault(), classLoader,
+					ResourceBundle.Control.getControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+		} catch (MissingResourceException mre) {
+			return new ListResourceBundle() {
+				@Override
+				protected Object[][] getContents() {
+					return new Object[0][];
+				}
+			};
+		}
+
+	}
+
+
+	/**
+	 * Returns the name of the plugin's class.
+	 *
+	 * @return The class name.
+	 */
+	String getClassName() {
+		return className;
+	}
+
+
+	/**
+	 * Returns the plugin, if it has been activated.
+	 *
+	 * @return The plugin, or <code>null</code> if it hasn't been activated.
+	 * @see #activate()
+	 */
+	Plugin<?> getPlugin() {
+		return plugin;
+	}
+
+
+	/**
+	 * Returns the action the activated plugin registered in place of one of
+	 * our placeholder actions.
+	 *
+	 * @param action The placeholder action.
+	 * @return The plugin's action, or <code>null</code> if it didn't register
+	 *         one under the same key.
+	 */
+	private Action getRealAction(Action action) {
+		if (action instanceof DeferredAction da) {
+			Action real = app.getAction(da.key);
+			return real!=da ? real : null;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Returns whether a plugin jar asks for its plugin's activation to be
+	 * deferred.
+	 *
+	 * @param info The plugin jar's information.
+	 * @return Whether the plugin should be activated lazily.
+	 * @see PluginLoader#PLUGIN_ACTIVATION_ATTR
+	 */
+	static boolean isDeferred(PluginIndex.JarInfo info) {
+		return ACTIVATION_DEFERRED.equalsIgnoreCase(
+				info.getAttribute(PluginLoader.PLUGIN_ACTIVATION_ATTR));
+	}
+
+
+	/**
+	 * Registers the placeholder actions, and adds menu items for them to
+	 * their menus.  This should be called on the EDT.
+	 */
+	void install() {
+
+		MenuBar<?> menuBar = app.getJMenuBar() instanceof MenuBar<?> mb ?
+				mb : null;
+
+		for (int i=0; i<actions.size(); i++) {
+			DeferredAction action = actions.get(i);
+			app.addAction(action.key, action);
+			String menuName = menuNames.get(i);
+			JMenu menu = menuName!=null && menuBar!=null ?
+					menuBar.getMenuByName(menuName) : null;
+			if (menu!=null) {
+				JMenuItem item = new StandardMenuItem(action);
+				item.setToolTipText(null);
+				menu.add(item);
+				menuItems.add(item);
+			}
+		}
+
+	}
+
+
+	/**
+	 * A placeholder for one of the plugin's actions.  Performing it activates
+	 * the plugin, then performs the plugin's real action.
+	 */
+	private final class DeferredAction extends StandardAction {
+
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final String key;
+
+		DeferredAction(ResourceBundle msg, String key) {
+			super(msg, key);
+			this.key = key;
+			if (getName()==null) {
+				setName(key);
+			}
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			if (activate()!=null) {
+				Action real = getRealAction(this);
+				if (real!=null) {
+					real.actionPerformed(e);
+				}
+			}
+		}
+
+	}
+
+
+}
@@ -27,6 +27,13 @@ import javax.swing.*;
  *       status bar.
  * </ul>
  *
+ * Plugins are normally created when the application starts.  A plugin
+ * whose jar sets the <code>Fife-Plugin-Activation</code> manifest attribute
+ * to "<code>deferred</code>" and declares its actions in its manifest is
+ * instead created the first time one of those actions is used, or when the
+ * application calls
+ * {@link AbstractPluggableGUIApplication#activatePlugin(String)}.
+ *
  * @author Robert Futrell
  * @version 0.1
  * @param <T> The type of parent application.
@@ -0,0 +1,220 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
+
+
+/**
+ * Class loader for plugin jars.  Rather than searching each jar in turn
+ * for a class or resource, as <code>URLClassLoader</code> does, this uses a
+ * {@link PluginIndex} to go directly to the jar that contains it.  Lookups
+ * for classes and resources that aren't in any plugin jar, which are common
+ * (for example, when looking for localized resource bundles), fail
+ * immediately without opening any jars.<p>
+ *
+ * Jars are only opened when a class is first loaded from them.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see PluginLoader
+ */
+final class PluginClassLoader extends URLClassLoader {
+
+	private final URL[] jarUrls;
+	private final File[] jarFiles;
+
+	/**
+	 * The open jars, lazily created.  Access to this array should be
+	 * synchronized on it.
+	 */
+	private final JarFile[] openJars;
+
+	/**
+	 * Maps entry names to the index of the jar containing them.  If
+	 * several jars contain the same entry, the first one wins, as with
+	 * <code>URLClassLoader</code>.
+	 */
+	private final Map<String, Integer> owners;
+
+	private static final String VERSIONS_DIR = "META-INF/versions/";
+
+	static {
+		registerAsParallelCapable();
+	}
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param jars The indexed jars, in the order to search them.
+	 * @param parent The parent class loader.
+	 * @throws MalformedURLException If a jar can't be converted to a URL.
+	 */
+	PluginClassLoader(List<PluginIndex.JarInfo> jars, ClassLoader parent)
+			throws MalformedURLException {
+
+		super(toUrls(jars), parent);
+		jarUrls = getURLs();
+		jarFiles = new File[jars.size()];
+		openJars = new JarFile[jars.size()];
+		owners = new HashMap<>();
+
+		for (int i=0; i<jarFiles.length; i++) {
+			PluginIndex.JarInfo jar = jars.get(i);
+			jarFiles[i] = jar.getJar();
+			for (String entry : jar.getEntries()) {
+				owners.putIfAbsent(entry, i);
+				// Classes only in a multi-release jar's versioned directories
+				if (entry.startsWith(VERSIONS_DIR)) {
+					int slash = entry.indexOf('/', VERSIONS_DIR.length());
+					if (slash>-1) {
+						owners.putIfAbsent(entry.substring(slash + 1), i);
+					}
+				}
+			}
+		}
+
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		synchronized (openJars) {
+			for (int i=0; i<openJars.length; i++) {
+				if (openJars[i]!=null) {
+					openJars[i].close();
+					openJars[i] = null;
+				}
+			}
+		}
+		super.close();
+	}
+
+
+	/**
+	 * Defines the package of a class, if it hasn't been defined yet.
+	 *
+	 * @param className The name of the class.
+	 * @param man The manifest of the jar containing it.  This may be
+	 *        <code>null</code>.
+	 * @param url The URL of the jar containing it.
+	 */
+	private void definePackageFor(String className, Manifest man, URL url) {
+		int dot = className.lastIndexOf('.');
+		if (dot>-1) {
+			String pkg = className.substring(0, dot);
+			if (getDefinedPackage(pkg)==null) {
+				try {
+					if (man!=null) {
+						definePackage(pkg, man, url);
+					}
+					else {
+						definePackage(pkg, null, null, null, null, null, null, null);
+					}
+				} catch (IllegalArgumentException iae) {
+					// Defined concurrently by another thread
+				}
+			}
+		}
+	}
+
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+
+		String entryName = name.replace('.', '/').concat(".class");
+		Integer owner = owners.get(entryName);
+		if (owner==null) {
+			throw new ClassNotFoundException(name);
+		}
+
+		try {
+			JarFile jar = getJar(owner);
+			JarEntry entry = jar.getJarEntry(entryName);
+			if (entry==null) { // The jar changed since it was indexed
+				return super.findClass(name);
+			}
+			byte[] bytes;
+			try (InputStream in = jar.getInputStream(entry)) {
+				bytes = in.readAllBytes();
+			}
+			URL url = jarUrls[owner];
+			definePackageFor(name, jar.getManifest(), url);
+			// Code signers are only available once the entry has been read
+			CodeSource cs = new CodeSource(url, entry.getCodeSigners());
+			return defineClass(name, bytes, 0, bytes.length, cs);
+		} catch (IOException ioe) {
+			throw new ClassNotFoundException(name, ioe);
+		}
+
+	}
+
+
+	@Override
+	public URL findResource(String name) {
+
+		Integer owner = owners.get(name);
+		if (owner==null) {
+			return null;
+		}
+
+		try {
+			// The jar's URL is already encoded, so only the entry name is
+			// quoted; quoting the whole thing would turn "%20" into "%2520"
+			String encodedName = new URI(null, null, name, null).getRawPath();
+			return URI.create("jar:" + jarUrls[owner] + "!/" + encodedName).toURL();
+		} catch (URISyntaxException | IllegalArgumentException | MalformedURLException e) {
+			return super.findResource(name);
+		}
+
+	}
+
+
+	/**
+	 * Returns an open jar, opening it if necessary.
+	 *
+	 * @param index The index of the jar.
+	 * @return The jar.
+	 * @throws IOException If an I/O error occurs opening the jar.
+	 */
+	private JarFile getJar(int index) throws IOException {
+		synchronized (openJars) {
+			if (openJars[index]==null) {
+				openJars[index] = new JarFile(jarFiles[index], true,
+						ZipFile.OPEN_READ, JarFile.runtimeVersion());
+			}
+			return openJars[index];
+		}
+	}
+
+
+	private static URL[] toUrls(List<PluginIndex.JarInfo> jars)
+			throws MalformedURLException {
+		URL[] urls = new URL[jars.size()];
+		for (int i=0; i<urls.length; i++) {
+			urls[i] = jars.get(i).getJar().toURI().toURL();
+		}
+		return urls;
+	}
+
+
+}
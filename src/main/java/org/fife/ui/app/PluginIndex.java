@@ -0,0 +1,357 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+
+/**
+ * An index of the plugin jars found the last time an application started,
+ * persisted in the application's preferences directory.  For each jar, it
+ * records the jar's size and modified time, its plugin-related manifest
+ * attributes (those starting with {@link #ATTRIBUTE_PREFIX}), and the names
+ * of all of its entries (classes and resources).  On startup, jars whose
+ * size and modified time haven't changed don't have to be opened at all,
+ * and {@link PluginClassLoader} can find a class or
+ * resource in its owning jar directly rather than searching every jar.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see PluginLoader
+ */
+final class PluginIndex {
+
+	/**
+	 * Jars' information, keyed by their absolute paths.
+	 */
+	private final Map<String, JarInfo> jars;
+
+	/**
+	 * Whether this index has changed since it was loaded.
+	 */
+	private boolean modified;
+
+	/**
+	 * The version of the index file format.  Files with any other version
+	 * are ignored.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * The prefix of the manifest attributes cached for each jar.
+	 */
+	static final String ATTRIBUTE_PREFIX = "Fife-Plugin-";
+
+	private static final String ATTRIBUTE_PREFIX_LOWER =
+			ATTRIBUTE_PREFIX.toLowerCase(Locale.ROOT);
+
+
+	private PluginIndex() {
+		jars = new HashMap<>();
+	}
+
+
+	/**
+	 * Returns the cached information for a jar, if it hasn't changed since
+	 * it was indexed.
+	 *
+	 * @param jar The jar.
+	 * @return The jar's information, or <code>null</code> if it isn't in
+	 *         this index or has changed.
+	 * @see #index(File)
+	 */
+	JarInfo get(File jar) {
+		JarInfo info = jars.get(jar.getAbsolutePath());
+		if (info!=null && info.size==jar.length() &&
+				info.lastModified==jar.lastModified()) {
+			return info;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Reads a jar's manifest and the names of its entries.
+	 *
+	 * @param jar The jar.
+	 * @return The jar's information.
+	 * @throws IOException If an I/O error occurs.
+	 * @see #put(JarInfo)
+	 */
+	static JarInfo index(File jar) throws IOException {
+
+		// Get the size and time first, so if the jar changes while we're
+		// reading it, it'll be indexed again next time
+		long size = jar.length();
+		long lastModified = jar.lastModified();
+
+		try (JarFile jarFile = new JarFile(jar)) {
+
+			Map<String, String> attributes = new HashMap<>();
+			Manifest mf = jarFile.getManifest();
+			if (mf != null) {
+				for (Map.Entry<Object, Object> attr : mf.getMainAttributes().entrySet()) {
+					// Attribute names are case-insensitive
+					String name = attr.getKey().toString().toLowerCase(Locale.ROOT);
+					if (name.startsWith(ATTRIBUTE_PREFIX_LOWER)) {
+						attributes.put(name, (String)attr.getValue());
+					}
+				}
+			}
+
+			List<String> entries = new ArrayList<>(jarFile.size());
+			Enumeration<JarEntry> e = jarFile.entries();
+			while (e.hasMoreElements()) {
+				entries.add(e.nextElement().getName());
+			}
+
+			return new JarInfo(jar.getAbsolutePath(), size, lastModified,
+					attributes, entries.toArray(new String[0]));
+
+		}
+
+	}
+
+
+	/**
+	 * Returns whether this index has changed since it was loaded.
+	 *
+	 * @return Whether this index has changed.
+	 * @see #save(File)
+	 */
+	boolean isModified() {
+		return modified;
+	}
+
+
+	/**
+	 * Loads an index.
+	 *
+	 * @param file The index file.  This may be <code>null</code>.
+	 * @return The index.  This is empty if the file is <code>null</code>,
+	 *         doesn't exist, or can't be read.
+	 */
+	static PluginIndex load(File file) {
+
+		PluginIndex index = new PluginIndex();
+		if (file==null || !file.isFile()) {
+			return index;
+		}
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt()!=VERSION) {
+				return index;
+			}
+			int count = in.readInt();
+			for (int i=0; i<count; i++) {
+				JarInfo info = JarInfo.read(in);
+				index.jars.put(info.path, info);
+			}
+		} catch (IOException | RuntimeException e) {
+			// Corrupt or truncated; just index everything again
+			index.jars.clear();
+		}
+
+		return index;
+
+	}
+
+
+	/**
+	 * Adds or replaces a jar's information in this index.
+	 *
+	 * @param info The jar's information.
+	 * @see #index(File)
+	 */
+	void put(JarInfo info) {
+		jars.put(info.path, info);
+		modified = true;
+	}
+
+
+	/**
+	 * Removes all jars from this index except the specified ones.
+	 *
+	 * @param jarsToKeep The jars to keep.
+	 */
+	void retain(File[] jarsToKeep) {
+		Set<String> paths = new HashSet<>();
+		for (File jar : jarsToKeep) {
+			paths.add(jar.getAbsolutePath());
+		}
+		modified |= jars.keySet().retainAll(paths);
+	}
+
+
+	/**
+	 * Saves this index.  The file is replaced atomically where possible, so
+	 * a crash while saving can't leave a truncated index behind.
+	 *
+	 * @param file The file to save to.
+	 * @throws IOException If an I/O error occurs.
+	 * @see #load(File)
+	 */
+	void save(File file) throws IOException {
+
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Can't create directory: " + dir);
+		}
+
+		Path temp = Files.createTempFile(dir.toPath(), file.getName(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(VERSION);
+				out.writeInt(jars.size());
+				for (JarInfo info : jars.values()) {
+					info.write(out);
+				}
+			}
+			try {
+				Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+		modified = false;
+
+	}
+
+
+	/**
+	 * Information about a single plugin jar.
+	 */
+	static final class JarInfo {
+
+		private final String path;
+		private final long size;
+		private final long lastModified;
+		private final Map<String, String> attributes;
+		private final String[] entries;
+
+		private JarInfo(String path, long size, long lastModified,
+				Map<String, String> attributes, String[] entries) {
+			this.path = path;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.attributes = attributes;
+			this.entries = entries;
+		}
+
+		/**
+		 * Returns the value of one of the jar's plugin-related manifest
+		 * attributes.
+		 *
+		 * @param name The name of the attribute.  This should start with
+		 *        {@link #ATTRIBUTE_PREFIX}.  As with manifests, this is case
+		 *        insensitive.
+		 * @return The value, or <code>null</code> if it isn't defined.
+		 */
+		String getAttribute(String name) {
+			return attributes.get(name.toLowerCase(Locale.ROOT));
+		}
+
+		/**
+		 * Returns the names of all entries in the jar, both classes and
+		 * resources.
+		 *
+		 * @return The entry names.  This array should not be modified.
+		 */
+		String[] getEntries() {
+			return entries;
+		}
+
+		/**
+		 * Returns the jar.
+		 *
+		 * @return The jar.
+		 */
+		File getJar() {
+			return new File(path);
+		}
+
+		/**
+		 * Returns the value of the jar's
+		 * {@link PluginLoader#PLUGIN_LOAD_PRIORITY} manifest attribute.
+		 *
+		 * @return The value, or <code>null</code> if it isn't defined.
+		 */
+		String getLoadPriority() {
+			return getAttribute(PluginLoader.PLUGIN_LOAD_PRIORITY);
+		}
+
+		/**
+		 * Returns the value of the jar's
+		 * {@link PluginLoader#PLUGIN_CLASS_ATTR} manifest attribute.
+		 *
+		 * @return The plugin class, or <code>null</code> if the jar doesn't
+		 *         contain a plugin.
+		 */
+		String getPluginClass() {
+			return getAttribute(PluginLoader.PLUGIN_CLASS_ATTR);
+		}
+
+		private static JarInfo read(DataInputStream in) throws IOException {
+			String path = in.readUTF();
+			long size = in.readLong();
+			long lastModified = in.readLong();
+			int attributeCount = in.readInt();
+			Map<String, String> attributes = new HashMap<>();
+			for (int i=0; i<attributeCount; i++) {
+				attributes.put(in.readUTF(), in.readUTF());
+			}
+			String[] entries = new String[in.readInt()];
+			for (int i=0; i<entries.length; i++) {
+				entries[i] = in.readUTF();
+			}
+			return new JarInfo(path, size, lastModified, attributes, entries);
+		}
+
+		private void write(DataOutputStream out) throws IOException {
+			out.writeUTF(path);
+			out.writeLong(size);
+			out.writeLong(lastModified);
+			out.writeInt(attributes.size());
+			for (Map.Entry<String, String> attr : attributes.entrySet()) {
+				out.writeUTF(attr.getKey());
+				out.writeUTF(attr.getValue());
+			}
+			out.writeInt(entries.length);
+			for (String entry : entries) {
+				out.writeUTF(entry);
+			}
+		}
+
+	}
+
+
+}
@@ -13,20 +13,44 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.net.URL;
 import java.net.URLClassLoader;
 import javax.swing.SwingUtilities;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.jar.Attributes;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * Loads {@link Plugin}s for an {@link AbstractPluggableGUIApplication}.  This
  * should be instantiated in a separate thread; it handles adding any found
- * <code>Plugin</code>s to the parent application on the EDT properly.
+ * <code>Plugin</code>s to the parent application on the EDT properly.<p>
+ *
+ * Plugin jars' manifests are read in parallel, and then each plugin's main
+ * class is loaded on a worker thread, highest {@link #LOAD_PRIORITIES
+ * priority} first.  Only constructing the plugins and adding them to the
+ * application is done on the EDT, in priority order.  Rather than sleeping
+ * between plugins, the EDT adds plugins as they become ready until it has
+ * spent a frame's worth of time doing so, and then yields so the UI stays
+ * responsive.<p>
+ *
+ * Information about each jar is cached in a {@link PluginIndex} between
+ * runs, so only jars that are new or have changed are opened at startup.
+ * The jars are scanned on a {@link StartupPipeline} thread while the
+ * application builds its UI.<p>
+ *
+ * A plugin jar can set {@link #PLUGIN_ACTIVATION_ATTR} to
+ * "<code>deferred</code>" and declare its actions in its manifest.  Such a
+ * plugin isn't loaded at startup at all; instead, placeholders for its
+ * actions are added to the application, and the plugin is loaded and
+ * created the first time one of them is used.  See {@link DeferredPlugin}
+ * for details.
  *
  * @author Robert Futrell
  * @version 0.6
@@ -51,6 +75,54 @@ class PluginLoader {
 	public static final String PLUGIN_LOAD_PRIORITY = "Fife-Plugin-Load-Priority";
 
 
+	/**
+	 * The manifest attribute that plugin jars can optionally define to
+	 * specify when the plugin is created.  If this is "<code>deferred</code>",
+	 * the plugin isn't loaded until one of the actions listed in
+	 * {@link #PLUGIN_ACTIONS_ATTR} is performed, or the application calls
+	 * {@link AbstractPluggableGUIApplication#activatePlugin(String)}.
+	 * Otherwise, the plugin is loaded at startup.
+	 */
+	public static final String PLUGIN_ACTIVATION_ATTR = "Fife-Plugin-Activation";
+
+
+	/**
+	 * The manifest attribute listing the keys of the actions a deferred
+	 * plugin provides, separated by spaces or commas.  For each key, the
+	 * attribute {@link #PLUGIN_ACTION_ATTR_PREFIX}<code>key-Menu</code>
+	 * optionally specifies the name the menu to add it to was registered
+	 * under in the application's {@link MenuBar}.  The action's name,
+	 * mnemonic, accelerator and short description are read from the
+	 * plugin's resource bundle, using the same keys as
+	 * {@link org.fife.ui.StandardAction}.
+	 *
+	 * @see #PLUGIN_ACTIVATION_ATTR
+	 * @see #PLUGIN_BUNDLE_ATTR
+	 */
+	public static final String PLUGIN_ACTIONS_ATTR = "Fife-Plugin-Actions";
+
+
+	/**
+	 * The prefix of the manifest attributes describing a single action of a
+	 * deferred plugin.
+	 *
+	 * @see #PLUGIN_ACTIONS_ATTR
+	 */
+	public static final String PLUGIN_ACTION_ATTR_PREFIX = "Fife-Plugin-Action-";
+
+
+	/**
+	 * The manifest attribute that deferred plugin jars can optionally define
+	 * to specify the base name of the resource bundle localizing their
+	 * actions.  The bundle must be a properties file.  If this is not
+	 * specified, the plugin class's name is used, e.g.
+	 * <code>com/example/FooPlugin.properties</code>.
+	 *
+	 * @see #PLUGIN_ACTIONS_ATTR
+	 */
+	public static final String PLUGIN_BUNDLE_ATTR = "Fife-Plugin-Bundle";
+
+
 	/**
 	 * Valid values for {@link #PLUGIN_LOAD_PRIORITY}.
 	 */
@@ -69,12 +141,16 @@ class PluginLoader {
 	private AbstractPluggableGUIApplication<?> app;
 
 	/**
-	 * The directory in which all plugin jars reside.
+	 * The scan of the plugin jars started with the application, if any.
+	 *
+	 * @see #startScan(StartupPipeline)
 	 */
-	private File pluginDir;
+	private Future<ScanResult> scan;
 
 	/**
 	 * Class loader pointing to all plugin jars.
+	 *
+	 * @see PluginClassLoader
 	 */
 	private URLClassLoader ucl;
 
@@ -86,6 +162,12 @@ class PluginLoader {
 	 */
 	private boolean pluginSubmissionsCompleted;
 
+	/**
+	 * Whether the application's startup profiler has been told that plugin
+	 * loading is complete.  Access to this member should be synchronized.
+	 */
+	private boolean completionReported;
+
 	/**
 	 * Indicates how many plugins have been submitted to load, but not yet
 	 * loaded.  Access to this member should be synchronized.
@@ -95,10 +177,36 @@ class PluginLoader {
 	private int loadingPluginCount;
 
 	/**
-	 * The amount of time to sleep, in milliseconds, between loading each
-	 * plugin.
+	 * Work waiting to be done on the EDT, in order, such as constructing
+	 * plugins whose classes have been loaded.  Access to this member should
+	 * be synchronized.
+	 */
+	private final Deque<Runnable> readyPlugins;
+
+	/**
+	 * Whether the EDT has been asked to add the plugins in
+	 * {@link #readyPlugins}.  Access to this member should be synchronized.
+	 */
+	private boolean addScheduled;
+
+	/**
+	 * The maximum number of threads reading plugin jars and loading classes.
+	 */
+	private static final int MAX_THREADS = 4;
+
+	/**
+	 * The amount of time the EDT may spend adding plugins before it yields
+	 * to paint and handle input.  This is about half of a frame at 60 Hz.
+	 */
+	private static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+
+	/**
+	 * The name of the file, in the application's preferences directory,
+	 * that caches information about the plugin jars.
+	 *
+	 * @see PluginIndex
 	 */
-	private static final int SLEEP_TIME						= 200;
+	private static final String INDEX_FILE_NAME = "plugins.idx";
 
 
 	/**
@@ -108,7 +216,153 @@ class PluginLoader {
 	 */
 	PluginLoader(AbstractPluggableGUIApplication<?> app) {
 		this.app = app;
-		pluginDir = getPluginDir(app);
+		readyPlugins = new ArrayDeque<>();
+	}
+
+
+	/**
+	 * Constructs a plugin and adds it to the application.  This should be
+	 * called on the EDT.
+	 *
+	 * @param cnst The plugin's constructor.
+	 */
+	private void addPlugin(Constructor<?> cnst) {
+		StartupProfiler.Section phase = app.getStartupProfiler().start(
+				StartupProfiler.CATEGORY_PLUGIN, "create " + cnst.getName());
+		try {
+			Plugin<?> p = (Plugin<?>)cnst.newInstance(app);
+			app.addPlugin(p);
+		} catch (InvocationTargetException ite) {
+			Throwable e = ite.getTargetException();
+			e.printStackTrace();
+			app.displayException(e);
+		} catch (Exception e) {
+			e.printStackTrace();
+			app.displayException(e);
+		} finally {
+			phase.end();
+		}
+	}
+
+
+	/**
+	 * Adds plugins whose classes have been loaded to the application, until
+	 * either there are no more or this has taken a frame's worth of time.
+	 * In the latter case, the rest are added in a later event, so the EDT
+	 * can paint and handle input in between.  This should be called on the
+	 * EDT.
+	 */
+	private void addReadyPlugins() {
+
+		long start = System.nanoTime();
+
+		while (true) {
+
+			Runnable r;
+			synchronized (this) {
+				r = readyPlugins.poll();
+				if (r==null) {
+					addScheduled = false;
+					return;
+				}
+			}
+
+			try {
+				r.run();
+			} finally {
+				synchronized (this) {
+					loadingPluginCount--;
+				}
+				checkLoadingComplete();
+			}
+
+			if (System.nanoTime() - start>=FRAME_BUDGET_NANOS) {
+				SwingUtilities.invokeLater(this::addReadyPlugins);
+				return;
+			}
+
+		}
+
+	}
+
+
+	/**
+	 * Tells the application's startup profiler when all plugins have been
+	 * loaded.
+	 *
+	 * @see StartupProfiler#endPending()
+	 */
+	private void checkLoadingComplete() {
+		synchronized (this) {
+			if (completionReported || !isPluginLoadingComplete()) {
+				return;
+			}
+			completionReported = true;
+		}
+		app.getStartupProfiler().endPending();
+	}
+
+
+	/**
+	 * Creates the thread pool used to read plugin jars and load plugin
+	 * classes.
+	 *
+	 * @param jarCount The number of plugin jars.
+	 * @return The thread pool.
+	 */
+	private static ExecutorService createExecutor(int jarCount) {
+		int threads = Math.min(Math.max(1, jarCount),
+				Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "PluginLoader");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+
+	/**
+	 * Returns the class loader for the plugin jars.  This is only available
+	 * once the plugin directory has been scanned.
+	 *
+	 * @return The class loader.
+	 */
+	ClassLoader getClassLoader() {
+		return ucl;
+	}
+
+
+	/**
+	 * Creates a deferred plugin.  This should be called on the EDT.
+	 *
+	 * @param className The class name of the plugin.
+	 * @return The plugin.
+	 * @throws Exception If an error occurs.  If the plugin's constructor
+	 *         threw an exception, it is wrapped in an
+	 *         <code>InvocationTargetException</code>.
+	 * @see DeferredPlugin#activate()
+	 */
+	Plugin<?> createPlugin(String className) throws Exception {
+		return (Plugin<?>)loadPluginImpl(className).newInstance(app);
+	}
+
+
+	/**
+	 * Queues work, such as constructing a plugin and adding it to the
+	 * application, to be done on the EDT.
+	 *
+	 * @param r The work to do.
+	 */
+	private void enqueue(Runnable r) {
+		synchronized (this) {
+			loadingPluginCount++;
+			readyPlugins.add(r);
+			if (addScheduled) {
+				return;
+			}
+			addScheduled = true;
+		}
+		SwingUtilities.invokeLater(this::addReadyPlugins);
 	}
 
 
@@ -137,20 +391,34 @@ class PluginLoader {
 	}
 
 
+	/**
+	 * Returns the file caching information about the plugin jars.
+	 *
+	 * @param app The application.
+	 * @return The file, or <code>null</code> if the application doesn't
+	 *         have a preferences directory.
+	 */
+	private static File getIndexFile(AbstractPluggableGUIApplication<?> app) {
+		AppContext<?, ?> context = app.getAppContext();
+		File prefsDir = context!=null ? context.getPreferencesDir() : null;
+		return prefsDir!=null ? new File(prefsDir, INDEX_FILE_NAME) : null;
+	}
+
+
 	/**
 	 * Returns the priority with which the plugin should be loaded.
 	 *
-	 * @param attrs The main manifest attributes.
+	 * @param value The value of the {@link #PLUGIN_LOAD_PRIORITY} manifest
+	 *        attribute.  This may be <code>null</code>.
 	 * @return The priority with which to load the plugin.
 	 */
-	private static int getLoadPriority(Attributes attrs) {
+	private static int getLoadPriority(String value) {
 
 		int priority = 2;
 
-		String temp = attrs.getValue(PLUGIN_LOAD_PRIORITY);
-		if (temp!=null) {
+		if (value!=null) {
 			for (int i=0; i<LOAD_PRIORITIES.length; i++) {
-				if (LOAD_PRIORITIES[i].equalsIgnoreCase(temp)) {
+				if (LOAD_PRIORITIES[i].equalsIgnoreCase(value)) {
 					priority = i;
 					break;
 				}
@@ -165,12 +433,35 @@ class PluginLoader {
 	/**
 	 * Returns the directory in which to look for plugin jars.
 	 *
-	 * @param app The application.
+	 * @param installLocation The application's install location.
 	 * @return The plugin jar directory.
 	 */
-	private static File getPluginDir(
-			AbstractPluggableGUIApplication<?> app) {
-		return new File(app.getInstallLocation(), "plugins");
+	private static File getPluginDir(String installLocation) {
+		return new File(installLocation, "plugins");
+	}
+
+
+	/**
+	 * Waits for the result of a task run by this loader.
+	 *
+	 * @param future The task.
+	 * @param <V> The type of result.
+	 * @return The result.
+	 * @throws IOException If the task threw an I/O error.
+	 * @throws Exception If the task threw anything else, or this thread was
+	 *         interrupted.  Errors (such as a <code>LinkageError</code> from
+	 *         a plugin class) are wrapped in an exception.
+	 */
+	private static <V> V getResult(Future<V> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof Exception e) {
+				throw e;
+			}
+			throw ee;
+		}
 	}
 
 
@@ -185,127 +476,261 @@ class PluginLoader {
 
 
 	/**
-	 * Loads a single plugin.
+	 * Loads the main class of a single plugin.  This is called on a worker
+	 * thread.  The class isn't initialized here, so plugins' static
+	 * initializers still run on the EDT, as their constructors do.
 	 *
 	 * @param className The class name of the plugin.
+	 * @return The plugin's constructor.
 	 * @throws Exception If an error occurs.
 	 */
-	private void loadPluginImpl(String className) throws Exception {
+	private Constructor<?> loadPluginImpl(String className) throws Exception {
 
-		final Object[] objs = { app };
-		Class<?> c = ucl.loadClass(className);
+		Class<?> c = Class.forName(className, false, ucl);
 
 		// This should be true unless there was an error in the manifest
 		if (Plugin.class.isAssignableFrom(c)) {
-			synchronized (this) {
-				loadingPluginCount++;
-			}
-			final Constructor<?> cnst = getApplicationConstructor(c);
-			SwingUtilities.invokeLater(() -> {
+			return getApplicationConstructor(c);
+		}
+
+		throw new InvalidPluginException(
+			"Specified plugin does not implement the Plugin interface: " +
+			className);
+
+	}
+
+
+	/**
+	 * Loads any plugins for this application.  This method is thread-safe; it
+	 * ensures all plugins are added to the GUI on the EDT if necessary.  If
+	 * the plugin jars are being scanned as part of startup, this waits for
+	 * that scan rather than scanning them again.
+	 *
+	 * @throws IOException If an I/O error occurs.
+	 * @see #startScan(StartupPipeline)
+	 */
+	public void loadPlugins() throws IOException {
+
+		try {
+
+			ScanResult result;
+			if (scan!=null) {
 				try {
-					Plugin<?> p = (Plugin<?>)cnst.newInstance(objs);
-					app.addPlugin(p);
-				} catch (InvocationTargetException ite) {
-					Throwable e = ite.getTargetException();
-					e.printStackTrace();
-					app.displayException(e);
+					result = getResult(scan);
+				} catch (IOException ioe) {
+					throw ioe;
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
 				} catch (Exception e) {
-					e.printStackTrace();
-					app.displayException(e);
-				} finally {
-					synchronized (this) {
-						loadingPluginCount--;
+					throw new IOException(e.getMessage(), e);
+				}
+			}
+			else {
+				result = scan(getPluginDir(app.getInstallLocation()));
+			}
+
+			if (result!=null) {
+				try {
+					// Deferred plugins' actions are available before other
+					// plugins are added, just as they would be if the
+					// plugins were loaded
+					for (PluginIndex.JarInfo info : result.deferred) {
+						DeferredPlugin dp = new DeferredPlugin(this, app, info);
+						enqueue(() -> app.addDeferredPlugin(dp));
 					}
+					loadPluginsImpl(result.plugins, result.executor);
+				} finally {
+					result.executor.shutdown();
 				}
-			});
-		}
+			}
 
-		else {
-			throw new InvalidPluginException(
-				"Specified plugin does not implement the Plugin interface: " +
-				className);
+		} finally {
+			// Specify that plugins have all been submitted to load
+			synchronized (this) {
+				pluginSubmissionsCompleted = true;
+			}
+			checkLoadingComplete();
 		}
 
 	}
 
 
 	/**
-	 * Loads any plugins for this application.  This method is thread-safe; it
-	 * ensures all plugins are added to the GUI on the EDT if necessary.
+	 * Starts scanning the plugin jars in the background as part of the
+	 * application's startup.  {@link #loadPlugins()} waits for the scan to
+	 * complete.  This should be called on the EDT.
+	 *
+	 * @param pipeline The application's startup pipeline.
+	 */
+	void startScan(StartupPipeline pipeline) {
+		scan = pipeline.submit(StartupPipeline.PLUGIN_SCAN,
+			() -> scan(getPluginDir(pipeline.get(StartupPipeline.INSTALL_LOCATION))));
+	}
+
+
+	/**
+	 * Scans the plugin jars, and creates the class loader for them.  Jars
+	 * are indexed in parallel, and only those that are new or have changed
+	 * since the last run are opened.  This can be called on any thread.
 	 *
+	 * @param pluginDir The directory containing the plugin jars.
+	 * @return The plugins to load, or <code>null</code> if there are none or
+	 *         this thread was interrupted.
 	 * @throws IOException If an I/O error occurs.
 	 */
-	public void loadPlugins() throws IOException {
+	private ScanResult scan(File pluginDir) throws IOException {
 
 		if (!pluginDir.isDirectory()) {
-			return;
+			return null;
 		}
 
 		// Get all jars in the plugin directory.
 		File[] jars = pluginDir.listFiles(f -> f.getName().endsWith(".jar"));
-
-		List<List<String>> plugins = new ArrayList<>(
-			LOAD_PRIORITIES.length);
-		for (int i=0; i<LOAD_PRIORITIES.length; i++) {
-			plugins.add(new ArrayList<>(3)); // Small
+		if (jars==null) {
+			return null;
 		}
-		List<URL> urlList = new ArrayList<>();
 
-		for (File jar : jars) {
+		// Only jars that are new or changed since the last run need to be
+		// opened
+		File indexFile = getIndexFile(app);
+		PluginIndex index = PluginIndex.load(indexFile);
+
+		ExecutorService executor = createExecutor(jars.length);
+		boolean scanned = false;
+
+		try {
+
+			// Index those jars in parallel
+			List<Future<PluginIndex.JarInfo>> scans = new ArrayList<>(jars.length);
+			for (File jar : jars) {
+				PluginIndex.JarInfo info = index.get(jar);
+				scans.add(info!=null ? CompletableFuture.completedFuture(info) :
+						executor.submit(() -> PluginIndex.index(jar)));
+			}
+
+			List<List<String>> plugins = new ArrayList<>(
+				LOAD_PRIORITIES.length);
+			for (int i=0; i<LOAD_PRIORITIES.length; i++) {
+				plugins.add(new ArrayList<>(3)); // Small
+			}
+			List<PluginIndex.JarInfo> jarInfos = new ArrayList<>(jars.length);
+			List<PluginIndex.JarInfo> deferred = new ArrayList<>(1);
 
-			urlList.add(jar.toURI().toURL());
+			for (int i=0; i<jars.length; i++) {
+
+				Future<PluginIndex.JarInfo> scan = scans.get(i);
+				PluginIndex.JarInfo info;
+				try {
+					info = getResult(scan);
+				} catch (IOException ioe) {
+					throw ioe;
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return null;
+				} catch (Exception e) {
+					throw new IOException("Error reading " + jars[i], e);
+				}
+				if (!(scan instanceof CompletableFuture)) {
+					index.put(info);
+				}
+				jarInfos.add(info);
 
-			try (JarFile jarFile = new JarFile(jar)) {
 				// If this jar contains a plugin, remember the class to load.
-				Manifest mf = jarFile.getManifest();
-				if (mf != null) {
-					Attributes attrs = mf.getMainAttributes();
-					String clazz = attrs.getValue(PLUGIN_CLASS_ATTR);
-					if (clazz != null) {
-						int priority = getLoadPriority(attrs);
-						plugins.get(priority).add(clazz);
-					}
+				String clazz = info.getPluginClass();
+				if (clazz!=null && DeferredPlugin.isDeferred(info)) {
+					deferred.add(info);
+				}
+				else if (clazz!=null) {
+					int priority = getLoadPriority(info.getLoadPriority());
+					plugins.get(priority).add(clazz);
 				}
+
 			}
 
-		}
+			index.retain(jars);
+			if (index.isModified() && indexFile!=null) {
+				try {
+					index.save(indexFile);
+				} catch (IOException ioe) { // Not fatal
+					ioe.printStackTrace();
+				}
+			}
+
+			// Create the ClassLoader that does the actual dirty-work.
+			ucl = new PluginClassLoader(jarInfos, app.getClass().getClassLoader());
 
-		// Create the ClassLoader that does the actual dirty-work.
-		URL[] urls = urlList.toArray(new URL[0]);
-		ucl = new URLClassLoader(urls, app.getClass().getClassLoader());
+			scanned = true;
+			return new ScanResult(plugins, deferred, executor);
 
-		loadPluginsImpl(plugins);
+		} finally {
+			// The executor is reused to load the plugin classes
+			if (!scanned) {
+				executor.shutdown();
+			}
+		}
 
 	}
 
 
 	/**
 	 * Loads the main plugin classes, and adds the resulting {@link Plugin}s
-	 * to the application.
+	 * to the application.  The classes are loaded in parallel, with all
+	 * plugins of a priority submitted before any of the next priority, and
+	 * are handed to the EDT in priority order as they become available.
 	 *
 	 * @param plugins The list of list of plugin classes.  Each element in the
-	 *        "first" list is a list of plugins of a specific priority, or
-	 *        <code>null</code> if no plugins of that priority were discovered.
+	 *        "first" list is a list of plugins of a specific priority.
+	 * @param executor The threads to load classes on.
 	 */
-	private void loadPluginsImpl(List<List<String>> plugins) {
+	private void loadPluginsImpl(List<List<String>> plugins,
+			ExecutorService executor) {
 
+		List<Future<Constructor<?>>> loads = new ArrayList<>();
 		for (List<String> pluginList : plugins) {
-			if (pluginList!=null) {
-				for (String className : pluginList) {
+			for (String className : pluginList) {
+				loads.add(executor.submit(() -> {
+					StartupProfiler.Section phase = app.getStartupProfiler().start(
+							StartupProfiler.CATEGORY_PLUGIN, "load " + className);
 					try {
-						Thread.sleep(SLEEP_TIME); // Space the Runnables out
-						loadPluginImpl(className);
-					} catch (final Exception e) {
-						e.printStackTrace();
-						SwingUtilities.invokeLater(() -> app.displayException(e));
+						return loadPluginImpl(className);
+					} finally {
+						phase.end();
 					}
-				}
+				}));
 			}
 		}
 
-		// Specify that plugins have all been submitted to load
-		synchronized (this) {
-			pluginSubmissionsCompleted = true;
+		for (Future<Constructor<?>> load : loads) {
+			try {
+				Constructor<?> cnst = getResult(load);
+				enqueue(() -> addPlugin(cnst));
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (final Exception e) {
+				e.printStackTrace();
+				SwingUtilities.invokeLater(() -> app.displayException(e));
+			}
+		}
+
+	}
+
+
+	/**
+	 * The result of scanning the plugin jars.
+	 */
+	private static final class ScanResult {
+
+		private final List<List<String>> plugins;
+		private final List<PluginIndex.JarInfo> deferred;
+		private final ExecutorService executor;
+
+		private ScanResult(List<List<String>> plugins,
+				List<PluginIndex.JarInfo> deferred, ExecutorService executor) {
+			this.plugins = plugins;
+			this.deferred = deferred;
+			this.executor = executor;
 		}
 
 	}
@@ -0,0 +1,79 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * A JFR event for a phase of an application's startup.  This class is only
+ * loaded if the <code>jdk.jfr</code> module is available; use
+ * {@link StartupProfiler} rather than this class directly.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see StartupProfiler
+ */
+@Name("org.fife.ui.app.StartupPhase")
+@Label("Startup Phase")
+@Category({ "FifeCommon", "Startup" })
+@Description("A phase of a GUI application's startup")
+@StackTrace(false)
+final class StartupPhaseEvent extends Event {
+
+	@Label("Category")
+	private String phaseCategory;
+
+	@Label("Phase")
+	private String phaseName;
+
+	@Label("Allocated")
+	@DataAmount
+	private long allocatedBytes;
+
+
+	private StartupPhaseEvent() {
+	}
+
+
+	/**
+	 * Creates an event and starts timing it.
+	 *
+	 * @return The event.
+	 */
+	static StartupPhaseEvent start() {
+		StartupPhaseEvent event = new StartupPhaseEvent();
+		event.begin();
+		return event;
+	}
+
+
+	/**
+	 * Stops timing this event, and commits it if it is enabled.
+	 *
+	 * @param category The phase's category.
+	 * @param name The phase's name.
+	 * @param allocated The bytes allocated during the phase, or
+	 *        <code>-1</code> if unknown.
+	 */
+	void end(String category, String name, long allocated) {
+		end();
+		if (shouldCommit()) {
+			phaseCategory = category;
+			phaseName = name;
+			allocatedBytes = allocated;
+			commit();
+		}
+	}
+
+
+}
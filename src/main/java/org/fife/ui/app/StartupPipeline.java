@@ -0,0 +1,183 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Runs the parts of an application's startup that don't need the EDT on
+ * background threads, so they overlap with each other and with the work
+ * the EDT does while the splash screen is showing.  Tasks are submitted
+ * under a key, and the EDT joins them by key just before it needs their
+ * results, i.e. before it starts building Swing components.<p>
+ *
+ * {@link AppContext#createApplication(String[])} starts a pipeline that
+ * loads the preferences and the chosen theme's Look and Feel class.
+ * {@link AbstractGUIApplication} adds tasks to compute its install location
+ * and load its resource bundle, and {@link AbstractPluggableGUIApplication}
+ * adds one to scan the plugin jars.  Subclasses can add their own tasks,
+ * such as rasterizing icons, by overriding
+ * {@link AbstractGUIApplication#submitStartupTasks(StartupPipeline,
+ * org.fife.ui.app.prefs.AppPrefs)}.<p>
+ *
+ * Tasks are started in the order they are submitted.  A task may wait for
+ * the result of a task submitted before it, but not after it.  Each task is
+ * timed by the application's {@link StartupProfiler}.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public final class StartupPipeline {
+
+	private final StartupProfiler profiler;
+	private final ThreadPoolExecutor executor;
+	private final Map<String, Future<?>> tasks;
+
+	/**
+	 * The key of the task loading the application's preferences.
+	 */
+	public static final String PREFERENCES = "preferences";
+
+	/**
+	 * The key of the task loading, but not initializing, the theme's Look
+	 * and Feel class.
+	 */
+	public static final String LOOK_AND_FEEL = "lookAndFeel";
+
+	/**
+	 * The key of the task computing the application's install location.
+	 */
+	public static final String INSTALL_LOCATION = "installLocation";
+
+	/**
+	 * The key of the task loading the application's resource bundle.
+	 */
+	public static final String RESOURCE_BUNDLE = "resourceBundle";
+
+	/**
+	 * The key of the task scanning the plugin jars.
+	 */
+	public static final String PLUGIN_SCAN = "pluginScan";
+
+	private static final int MAX_THREADS = 4;
+
+
+	/**
+	 * Constructor.
+	 */
+	StartupPipeline() {
+		profiler = new StartupProfiler();
+		int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+		executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread t = new Thread(r, "StartupPipeline");
+					t.setDaemon(true);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		tasks = new ConcurrentHashMap<>();
+	}
+
+
+	/**
+	 * Waits for a task and returns its result.
+	 *
+	 * @param key The task's key.
+	 * @param <V> The type of result.
+	 * @return The task's result.
+	 * @throws IllegalArgumentException If no task was submitted with that
+	 *         key.
+	 * @throws IllegalStateException If the task threw a checked exception,
+	 *         or this thread was interrupted.  Unchecked exceptions and
+	 *         errors are rethrown as-is.
+	 * @see #submit(String, Callable)
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(String key) {
+
+		Future<?> task = tasks.get(key);
+		if (task==null) {
+			throw new IllegalArgumentException("No such startup task: " + key);
+		}
+
+		try {
+			return (V)task.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for " + key, ie);
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error e) {
+				throw e;
+			}
+			throw new IllegalStateException("Startup task failed: " + key, cause);
+		}
+
+	}
+
+
+	/**
+	 * Returns the profiler timing this startup.
+	 *
+	 * @return The profiler.
+	 */
+	StartupProfiler getProfiler() {
+		return profiler;
+	}
+
+
+	/**
+	 * Stops accepting new tasks.  Tasks already submitted still run.
+	 */
+	void shutdown() {
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Starts a task on a background thread.  The task must not touch Swing
+	 * components.  Tasks can only be submitted until the application has
+	 * finished initializing.
+	 *
+	 * @param key The key to join the task with.  This should be unique.
+	 * @param task The task.
+	 * @param <V> The type of result.
+	 * @return The task's future.
+	 * @throws IllegalArgumentException If a task was already submitted with
+	 *         this key.
+	 * @see #get(String)
+	 */
+	public <V> Future<V> submit(String key, Callable<V> task) {
+		FutureTask<V> future = new FutureTask<>(() -> {
+			StartupProfiler.Section phase = profiler.start(
+					StartupProfiler.CATEGORY_INIT, key);
+			try {
+				return task.call();
+			} finally {
+				phase.end();
+			}
+		});
+		if (tasks.putIfAbsent(key, future)!=null) {
+			throw new IllegalArgumentException("Duplicate startup task: " + key);
+		}
+		executor.execute(future);
+		return future;
+	}
+
+
+}
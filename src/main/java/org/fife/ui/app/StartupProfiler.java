@@ -0,0 +1,475 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Records how long each phase of an application's startup takes, and how
+ * much memory it allocates.  Every {@link AbstractGUIApplication} has one,
+ * available via {@link AbstractGUIApplication#getStartupProfiler()}, that
+ * times each step of its initialization (creating actions, the status bar,
+ * the toolbar, the menu bar, etc.).  Pluggable applications also time
+ * indexing the plugin jars, and loading and creating each plugin.<p>
+ *
+ * Times are in nanoseconds, measured from when the profiler was created.
+ * Allocations are the bytes allocated by the thread running the phase, and
+ * are <code>-1</code> if the JVM doesn't support measuring them.  If the
+ * JVM's thread allocation tracking is disabled, it is enabled until startup
+ * completes, then disabled again, so phases that run after startup may not
+ * have their allocations measured.  Phases may run on different threads and
+ * overlap.<p>
+ *
+ * Only phases that end before startup completes are kept, up to
+ * {@link #MAX_PHASES} of them, so a long-running application doesn't
+ * accumulate them.<p>
+ *
+ * Each phase is also emitted as a JFR event, named
+ * <code>org.fife.ui.app.StartupPhase</code>, if JFR is available and a
+ * recording is running with that event enabled.<p>
+ *
+ * If the system property {@link #REPORT_PROPERTY} is set, a report of all
+ * phases is written once startup has completed, i.e. once the application
+ * is initialized and all plugins are loaded.  If the property's value is
+ * <code>true</code> or empty, the report goes to <code>stderr</code>;
+ * otherwise, it is the name of the file to write it to.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public final class StartupProfiler {
+
+	private final long startNanos;
+	private final List<Phase> phases;
+
+	/**
+	 * The number of things that must complete before startup is complete.
+	 * Access to this member should be synchronized.
+	 */
+	private int pendingCount;
+
+	/**
+	 * Whether startup has completed.  Access to this member should be
+	 * synchronized.
+	 */
+	private boolean complete;
+
+	/**
+	 * The system property that, if set, causes a report to be written when
+	 * startup completes.
+	 */
+	public static final String REPORT_PROPERTY = "org.fife.ui.app.startupReport";
+
+	/**
+	 * The category of the phases initializing the application's frame.
+	 */
+	public static final String CATEGORY_INIT = "init";
+
+	/**
+	 * The category of the phases loading plugins.
+	 */
+	public static final String CATEGORY_PLUGIN = "plugin";
+
+	/**
+	 * The maximum number of phases kept by a profiler.
+	 */
+	public static final int MAX_PHASES = 1000;
+
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
+	/**
+	 * The number of profilers whose startup hasn't completed.  Access to this
+	 * member should be synchronized on {@link #TRACKING_LOCK}.
+	 */
+	private static int trackingCount;
+
+	/**
+	 * Whether a profiler enabled thread allocation tracking, and so should
+	 * disable it once no profilers need it.  Access to this member should be
+	 * synchronized on {@link #TRACKING_LOCK}.
+	 */
+	private static boolean enabledTracking;
+
+	private static final Object TRACKING_LOCK = new Object();
+
+	private static final boolean JFR_AVAILABLE =
+			ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+
+	/**
+	 * Constructor.  The application's startup is considered complete once
+	 * {@link #endPending()} has been called once more than
+	 * {@link #beginPending()}.
+	 */
+	StartupProfiler() {
+		startNanos = System.nanoTime();
+		phases = new ArrayList<>();
+		pendingCount = 1;
+		startAllocationTracking();
+	}
+
+
+	/**
+	 * Notes that something must complete, such as loading plugins in the
+	 * background, before startup is considered complete.
+	 *
+	 * @see #endPending()
+	 */
+	synchronized void beginPending() {
+		pendingCount++;
+	}
+
+
+	/**
+	 * Notes that something startup was waiting on has completed.  If
+	 * nothing else is pending, startup is complete, and the report is
+	 * written if requested.
+	 *
+	 * @see #beginPending()
+	 * @see #REPORT_PROPERTY
+	 */
+	void endPending() {
+		synchronized (this) {
+			if (complete || --pendingCount>0) {
+				return;
+			}
+			complete = true;
+		}
+		stopAllocationTracking();
+		writeReportIfRequested();
+	}
+
+
+	private static long getAllocatedBytes() {
+		return THREAD_BEAN!=null ? THREAD_BEAN.getCurrentThreadAllocatedBytes() : -1;
+	}
+
+
+	/**
+	 * Returns the phases recorded so far, in the order they ended.  Phases
+	 * that end after startup completes, or after {@link #MAX_PHASES} have
+	 * been recorded, aren't included.
+	 *
+	 * @return The phases.
+	 * @see #isStartupComplete()
+	 */
+	public synchronized List<Phase> getPhases() {
+		return Collections.unmodifiableList(new ArrayList<>(phases));
+	}
+
+
+	/**
+	 * Returns a report of the phases recorded so far, one per line.
+	 *
+	 * @return The report.
+	 * @see #getPhases()
+	 */
+	public String getReport() {
+
+		List<Phase> snapshot = getPhases();
+
+		StringWriter sw = new StringWriter();
+		PrintWriter w = new PrintWriter(sw);
+		w.printf("%-8s %-48s %-20s %10s %10s %14s%n", "Category", "Phase",
+				"Thread", "Start(ms)", "Time(ms)", "Allocated(KB)");
+		for (Phase phase : snapshot) {
+			w.printf("%-8s %-48s %-20s %10.2f %10.2f %14s%n",
+					phase.getCategory(), phase.getName(), phase.getThreadName(),
+					phase.getStartNanos() / 1_000_000.0,
+					phase.getDurationNanos() / 1_000_000.0,
+					phase.getAllocatedBytes()>-1 ?
+							Long.toString(phase.getAllocatedBytes() / 1024) : "?");
+		}
+		w.flush();
+		return sw.toString();
+
+	}
+
+
+	private static com.sun.management.ThreadMXBean getThreadBean() {
+		try {
+			if (ManagementFactory.getThreadMXBean() instanceof
+					com.sun.management.ThreadMXBean bean &&
+					bean.isThreadAllocatedMemorySupported()) {
+				return bean;
+			}
+		} catch (LinkageError | RuntimeException e) {
+			// jdk.management isn't available or doesn't support it
+		}
+		return null;
+	}
+
+
+	/**
+	 * Returns whether startup has completed, i.e. the application is
+	 * initialized and all plugins are loaded.
+	 *
+	 * @return Whether startup has completed.
+	 */
+	public synchronized boolean isStartupComplete() {
+		return complete;
+	}
+
+
+	/**
+	 * Starts timing a phase.  The returned section should be ended on the
+	 * same thread, so the memory it allocated can be measured.  Sections
+	 * can also be used in try-with-resources statements:
+	 *
+	 * <pre>
+	 * try (StartupProfiler.Section s = profiler.start("plugin", "Load foo")) {
+	 *    ...
+	 * }
+	 * </pre>
+	 *
+	 * @param category The category of the phase, such as
+	 *        {@link #CATEGORY_INIT}.
+	 * @param name The name of the phase.
+	 * @return The section to end when the phase is done.
+	 */
+	public Section start(String category, String name) {
+		return new Section(category, name);
+	}
+
+
+	/**
+	 * Enables thread allocation tracking, if it is supported and disabled,
+	 * while a profiler's startup is in progress.
+	 *
+	 * @see #stopAllocationTracking()
+	 */
+	private static void startAllocationTracking() {
+		if (THREAD_BEAN==null) {
+			return;
+		}
+		synchronized (TRACKING_LOCK) {
+			trackingCount++;
+			try {
+				if (!THREAD_BEAN.isThreadAllocatedMemoryEnabled()) {
+					THREAD_BEAN.setThreadAllocatedMemoryEnabled(true);
+					enabledTracking = true;
+				}
+			} catch (RuntimeException e) { // SecurityException, etc.
+				// Allocations just won't be measured
+			}
+		}
+	}
+
+
+	/**
+	 * Disables thread allocation tracking once no profiler's startup is in
+	 * progress, if a profiler enabled it.
+	 *
+	 * @see #startAllocationTracking()
+	 */
+	private static void stopAllocationTracking() {
+		if (THREAD_BEAN==null) {
+			return;
+		}
+		synchronized (TRACKING_LOCK) {
+			trackingCount--;
+			if (trackingCount==0 && enabledTracking) {
+				enabledTracking = false;
+				try {
+					THREAD_BEAN.setThreadAllocatedMemoryEnabled(false);
+				} catch (RuntimeException e) { // SecurityException, etc.
+					// Leave it enabled
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Writes the report, if {@link #REPORT_PROPERTY} is set.
+	 */
+	private void writeReportIfRequested() {
+
+		String dest = System.getProperty(REPORT_PROPERTY);
+		if (dest==null) {
+			return;
+		}
+
+		String report = getReport();
+		if (dest.isEmpty() || "true".equalsIgnoreCase(dest)) {
+			System.err.print(report);
+		}
+		else {
+			try {
+				Files.writeString(Paths.get(dest), report, StandardCharsets.UTF_8);
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
+
+	}
+
+
+	/**
+	 * A single phase of startup that has completed.
+	 */
+	public static final class Phase {
+
+		private final String category;
+		private final String name;
+		private final String threadName;
+		private final long startNanos;
+		private final long durationNanos;
+		private final long allocatedBytes;
+
+		private Phase(String category, String name, String threadName,
+				long startNanos, long durationNanos, long allocatedBytes) {
+			this.category = category;
+			this.name = name;
+			this.threadName = threadName;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		/**
+		 * Returns the number of bytes allocated by the thread running this
+		 * phase while it ran.
+		 *
+		 * @return The number of bytes, or <code>-1</code> if this JVM
+		 *         can't measure it.
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * Returns the category of this phase.
+		 *
+		 * @return The category, such as {@link #CATEGORY_INIT}.
+		 */
+		public String getCategory() {
+			return category;
+		}
+
+		/**
+		 * Returns how long this phase took.
+		 *
+		 * @return The duration, in nanoseconds.
+		 */
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		/**
+		 * Returns the name of this phase.
+		 *
+		 * @return The name.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns when this phase started, relative to when the profiler
+		 * was created.
+		 *
+		 * @return The start time, in nanoseconds.
+		 */
+		public long getStartNanos() {
+			return startNanos;
+		}
+
+		/**
+		 * Returns the name of the thread this phase ran on.
+		 *
+		 * @return The thread name.
+		 */
+		public String getThreadName() {
+			return threadName;
+		}
+
+		@Override
+		public String toString() {
+			return category + ":" + name + "[" + durationNanos + "ns, " +
+					allocatedBytes + " bytes]";
+		}
+
+	}
+
+
+	/**
+	 * A phase that is being timed.
+	 *
+	 * @see #start(String, String)
+	 */
+	public final class Section implements AutoCloseable {
+
+		private final String category;
+		private final String name;
+		private final long sectionStart;
+		private final long allocatedAtStart;
+		private final StartupPhaseEvent event;
+		private boolean ended;
+
+		private Section(String category, String name) {
+			this.category = category;
+			this.name = name;
+			event = JFR_AVAILABLE ? StartupPhaseEvent.start() : null;
+			allocatedAtStart = getAllocatedBytes();
+			sectionStart = System.nanoTime();
+		}
+
+		/**
+		 * Ends this section.  This is the same as {@link #end()}.
+		 */
+		@Override
+		public void close() {
+			end();
+		}
+
+		/**
+		 * Ends this section, recording its phase if startup hasn't yet
+		 * completed.  Calling this more than once has no effect.
+		 *
+		 * @return The recorded phase, or <code>null</code> if this section
+		 *         was already ended.
+		 */
+		public Phase end() {
+
+			long end = System.nanoTime();
+			long allocatedAtEnd = getAllocatedBytes();
+			if (ended) {
+				return null;
+			}
+			ended = true;
+
+			long allocated = allocatedAtStart>-1 && allocatedAtEnd>-1 ?
+					allocatedAtEnd - allocatedAtStart : -1;
+			Phase phase = new Phase(category, name,
+					Thread.currentThread().getName(), sectionStart - startNanos,
+					end - sectionStart, allocated);
+			synchronized (StartupProfiler.this) {
+				if (!complete && phases.size()<MAX_PHASES) {
+					phases.add(phase);
+				}
+			}
+			if (event!=null) {
+				event.end(category, name, allocated);
+			}
+			return phase;
+
+		}
+
+	}
+
+
+}
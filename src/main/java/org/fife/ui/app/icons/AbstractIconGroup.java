@@ -7,12 +7,27 @@ package org.fife.ui.app.icons;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 /**
- * A base class for icon groups.
+ * A base class for icon groups.  Loaded icons are cached in the shared,
+ * memory-bounded {@link IconCache}.  Icons can be loaded concurrently, on
+ * any thread; if several threads ask for the same icon at once, it is only
+ * loaded once.<p>
+ *
+ * Groups whose icons can be rendered at any size, i.e. those that return
+ * <code>true</code> from {@link #isScalable()}, return icons backed by
+ * multi-resolution images.  Their HiDPI variants are only rendered when an
+ * icon is painted at a scale other than 1x.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -25,13 +40,26 @@ abstract class AbstractIconGroup implements IconGroup {
 	protected String extension;
 	protected String name;
 
-	private Map<String, ImageIcon> cache;
+	/**
+	 * Icons that have been loaded or are being loaded.  Entries for icons
+	 * that couldn't be loaded are removed, so loading them is retried on
+	 * the next request.
+	 */
+	private final IconCache cache;
 
 	private static final String DEFAULT_EXTENSION	= "gif";
 
 	// TODO: Determine default sizes based on screen resolution
 	private static final int DEFAULT_IMAGE_SIZE = 16;
 
+	/**
+	 * The maximum number of threads used to prefetch icons, across all icon
+	 * groups.
+	 */
+	private static final int MAX_PREFETCH_THREADS = 4;
+
+	private static final ThreadPoolExecutor PREFETCH_EXECUTOR = createPrefetchExecutor();
+
 
 	/**
 	 * Creates an icon set without "large versions" of the icons.
@@ -54,7 +82,27 @@ abstract class AbstractIconGroup implements IconGroup {
 		this.path = ensureEndsInSlash(path);
 		this.nativePath = ensureEndsInSlash(nativePath);
 		this.extension = extension!=null ? extension : DEFAULT_EXTENSION;
-		cache = new HashMap<>();
+		cache = IconCache.getInstance();
+	}
+
+
+	/**
+	 * Creates the thread pool used to prefetch icons.  Its threads time out
+	 * when idle, since prefetching is typically only done at startup.
+	 *
+	 * @return The thread pool.
+	 */
+	private static ThreadPoolExecutor createPrefetchExecutor() {
+		int threads = Math.max(1, Math.min(MAX_PREFETCH_THREADS,
+				Runtime.getRuntime().availableProcessors() - 1));
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+				1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+					Thread t = new Thread(r, "IconGroupPrefetch");
+					t.setDaemon(true);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
 
 
@@ -97,7 +145,9 @@ abstract class AbstractIconGroup implements IconGroup {
 
 
 	/**
-	 * Fetches an icon from the cache, loading it if necessary.
+	 * Fetches an icon from the cache, loading it if necessary.  If the icon
+	 * is queued to be prefetched but hasn't started loading, it is loaded
+	 * on this thread rather than waiting for the prefetch threads.
 	 *
 	 * @param iconFullPath The icon to fetch, loading it into the cache
 	 *        if necessary.
@@ -106,18 +156,48 @@ abstract class AbstractIconGroup implements IconGroup {
 	 * @return The icon, or {@code null} if it does not exist.
 	 */
 	private ImageIcon getIconAndCache(String iconFullPath, int w, int h) {
-		String key = iconFullPath + "-" + w + "-" + h;
-		ImageIcon icon =  cache.computeIfAbsent(key, k -> getIconImpl(iconFullPath, w, h));
 
-		// JDK 6.0 b74 returns icons with width/height==-1 in certain error
-		// cases (new ImageIcon(url) where url is not resolved?).  We'll
-		// just return null in this case as Swing AbstractButtons throw
-		// exceptions when expected to paint an icon with width or height
-		// is less than 1.
-		if (icon!=null && (icon.getIconWidth()<1 || icon.getIconHeight()<1)) {
-			icon = null;
+		String key = getCacheKey(iconFullPath, w, h);
+		Future<ImageIcon> future = cache.get(this, key);
+		if (future==null) {
+			LoadTask task = new LoadTask(key, iconFullPath, w, h);
+			future = cache.putIfAbsent(this, key, task);
+			if (future==null) {
+				future = task;
+			}
 		}
-		return icon;
+
+		// Load it on this thread, unless another thread already is
+		if (future instanceof FutureTask<ImageIcon> task) {
+			task.run();
+		}
+
+		return toValidIcon(getResult(future));
+
+	}
+
+
+	/**
+	 * Returns the 1x image of an icon.
+	 *
+	 * @param icon The icon.  This may be <code>null</code>.
+	 * @return The image, or <code>null</code> if <code>icon</code> is
+	 *         <code>null</code>.
+	 */
+	private static Image getBaseImage(ImageIcon icon) {
+		if (icon==null) {
+			return null;
+		}
+		Image image = icon.getImage();
+		if (image instanceof LazyMultiResolutionImage mri) {
+			image = mri.getBaseImage();
+		}
+		return image;
+	}
+
+
+	private static String getCacheKey(String iconFullPath, int w, int h) {
+		return iconFullPath + "-" + w + "-" + h;
 	}
 
 
@@ -132,7 +212,9 @@ abstract class AbstractIconGroup implements IconGroup {
 	 * @param w The icon width.
 	 * @param h The icon height.
 	 * @return The icon.  This method should return {@code null} if an error
-	 *         occurs.
+	 *         occurs.  Note this method may be called on several threads at
+	 *         once if icons are being prefetched.
+	 * @see #prefetchIcons(List, int, int)
 	 */
 	protected abstract ImageIcon getIconImpl(String iconFullPath, int w, int h);
 
@@ -185,6 +267,32 @@ abstract class AbstractIconGroup implements IconGroup {
 	}
 
 
+	/**
+	 * Waits for an icon to load.
+	 *
+	 * @param future The icon being loaded.
+	 * @return The icon, or <code>null</code> if it couldn't be loaded or
+	 *         this thread was interrupted.
+	 */
+	private static ImageIcon getResult(Future<ImageIcon> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error e) {
+				throw e;
+			}
+			return null;
+		}
+	}
+
+
 	private String getResourcePath(String path, String name) {
 		return path + name + "." + extension;
 	}
@@ -226,6 +334,97 @@ abstract class AbstractIconGroup implements IconGroup {
 	}
 
 
+	/**
+	 * Returns whether this icon group can render its icons at any size
+	 * without loss of quality.  If this returns <code>true</code>, icons
+	 * are given variants for HiDPI displays, rendered via
+	 * {@link #getIconImpl(String, int, int)} at the scaled size the first
+	 * time they are painted at that scale.<p>
+	 *
+	 * The default implementation returns <code>false</code>.
+	 *
+	 * @return Whether icons can be rendered at any size.
+	 */
+	protected boolean isScalable() {
+		return false;
+	}
+
+
+	/**
+	 * Loads icons in the background, on a small pool of threads shared by
+	 * all icon groups.  Icons already loaded or being loaded aren't loaded
+	 * again; the futures returned for them complete when the existing loads
+	 * do, without tying up a thread.
+	 *
+	 * @param names The names of the icons.
+	 * @param w The width of the icons.
+	 * @param h The height of the icons.
+	 * @return Futures for the icons, in the same order as <code>names</code>.
+	 */
+	@Override
+	public List<Future<Icon>> prefetchIcons(List<String> names, int w, int h) {
+
+		List<Future<Icon>> icons = new ArrayList<>(names.size());
+
+		for (String name : names) {
+
+			String iconFullPath = getResourcePath(path, name);
+			String key = getCacheKey(iconFullPath, w, h);
+			LoadTask task = new LoadTask(key, iconFullPath, w, h);
+			Future<ImageIcon> existing = cache.putIfAbsent(this, key, task);
+			if (existing==null) {
+				PREFETCH_EXECUTOR.execute(task);
+			}
+
+			// Only this class adds icons to the cache
+			LoadTask loading = existing!=null ? (LoadTask)existing : task;
+			icons.add(loading.completion.thenApply(AbstractIconGroup::toValidIcon));
+
+		}
+
+		return icons;
+
+	}
+
+
+	/**
+	 * Returns an icon backed by a multi-resolution image, if this icon group
+	 * is scalable.  Its variants are fetched from the cache by pixel size,
+	 * so they are shared with icons of that size.
+	 *
+	 * @param iconFullPath The full path of the icon resource.
+	 * @param icon The 1x icon.  This may be <code>null</code>.
+	 * @return The icon to cache.
+	 * @see #isScalable()
+	 */
+	private ImageIcon toMultiResolutionIcon(String iconFullPath, ImageIcon icon) {
+		if (icon==null || !isScalable() || icon.getIconWidth()<1 || icon.getIconHeight()<1) {
+			return icon;
+		}
+		return new ImageIcon(new LazyMultiResolutionImage(icon.getImage(),
+			(w, h) -> getBaseImage(getIconAndCache(iconFullPath, w, h))));
+	}
+
+
+	/**
+	 * Returns an icon, or <code>null</code> if it is invalid.
+	 *
+	 * @param icon The icon.  This may be <code>null</code>.
+	 * @return The icon, or <code>null</code>.
+	 */
+	private static ImageIcon toValidIcon(ImageIcon icon) {
+		// JDK 6.0 b74 returns icons with width/height==-1 in certain error
+		// cases (new ImageIcon(url) where url is not resolved?).  We'll
+		// just return null in this case as Swing AbstractButtons throw
+		// exceptions when expected to paint an icon with width or height
+		// is less than 1.
+		if (icon!=null && (icon.getIconWidth()<1 || icon.getIconHeight()<1)) {
+			return null;
+		}
+		return icon;
+	}
+
+
 	/**
 	 * Sets the rollover path for this icon group. This should be called before adding
 	 * any icons.
@@ -237,4 +436,52 @@ abstract class AbstractIconGroup implements IconGroup {
 	}
 
 
+	/**
+	 * The task that loads an icon.  If the icon can't be loaded, the task
+	 * removes itself from the cache before completing.
+	 */
+	private final class LoadTask extends FutureTask<ImageIcon> {
+
+		private final String key;
+
+		/**
+		 * Completed when this task is, so the icon can be waited for without
+		 * blocking a thread.
+		 */
+		private final CompletableFuture<ImageIcon> completion;
+
+		private LoadTask(String key, String iconFullPath, int w, int h) {
+			super(() -> toMultiResolutionIcon(iconFullPath, getIconImpl(iconFullPath, w, h)));
+			this.key = key;
+			completion = new CompletableFuture<>();
+		}
+
+		@Override
+		protected void done() {
+			switch (state()) {
+				case SUCCESS -> completion.complete(resultNow());
+				case FAILED -> completion.completeExceptionally(exceptionNow());
+				default -> completion.cancel(false);
+			}
+		}
+
+		@Override
+		protected void set(ImageIcon icon) {
+			if (icon==null) {
+				cache.remove(AbstractIconGroup.this, key, this);
+			}
+			super.set(icon);
+			if (icon!=null) {
+				cache.loaded(AbstractIconGroup.this, key, this, icon);
+			}
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			cache.remove(AbstractIconGroup.this, key, this);
+			super.setException(t);
+		}
+	}
+
+
 }
@@ -0,0 +1,396 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app.icons;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+
+/**
+ * The cache of icons loaded by all icon groups.  The cache is bounded by
+ * an estimate of the memory its images use; when it holds more than
+ * {@link #getMaxBytes()}, the least recently used icons are evicted.  This
+ * keeps memory bounded in long-running applications that switch icon
+ * groups or themes, since the previous group's icons are simply evicted
+ * as the new group's are loaded.<p>
+ *
+ * Evicting an icon only removes it from the cache.  Components still
+ * displaying it are unaffected, and it is loaded again if it is requested
+ * again.<p>
+ *
+ * The cache's statistics, such as its hit rate and the bytes it holds, can
+ * be used to tune its size via {@link #setMaxBytes(long)}.  The default size
+ * can also be set with the system property {@link #MAX_BYTES_PROPERTY}.<p>
+ *
+ * This class is thread-safe.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see IconGroup
+ */
+public final class IconCache {
+
+	/**
+	 * Icons that have been loaded or are being loaded, least recently used
+	 * first.  Access to this map should be synchronized.
+	 */
+	private final Map<Key, Entry> entries;
+
+	private long maxBytes;
+	private long bytesHeld;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * The system property that, if set, is the default maximum size of the
+	 * cache, in bytes.
+	 */
+	public static final String MAX_BYTES_PROPERTY = "org.fife.ui.app.icons.cacheSize";
+
+	/**
+	 * The default maximum size of the cache, if the JVM's maximum heap size
+	 * allows it.
+	 */
+	private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	/**
+	 * The estimated overhead of each cached icon, on top of its pixels.
+	 */
+	private static final int ENTRY_OVERHEAD = 256;
+
+	private static final IconCache INSTANCE = new IconCache(getDefaultMaxBytes());
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxBytes The maximum size of the cache, in bytes.
+	 */
+	IconCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		entries = new LinkedHashMap<>(64, 0.75f, true);
+	}
+
+
+	/**
+	 * Removes all icons from the cache.  Icons currently being loaded are
+	 * not cached when they finish.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytesHeld = 0;
+	}
+
+
+	/**
+	 * Returns an estimate of how much memory an icon's image uses.
+	 *
+	 * @param icon The icon.
+	 * @return The estimated size, in bytes.
+	 */
+	static long estimateSize(ImageIcon icon) {
+
+		Image image = icon.getImage();
+		if (image instanceof LazyMultiResolutionImage mri) {
+			// Only the 1x image; other variants are cached separately
+			image = mri.getBaseImage();
+		}
+
+		if (image instanceof BufferedImage bi) {
+			DataBuffer buffer = bi.getRaster().getDataBuffer();
+			long bits = (long)buffer.getSize() * buffer.getNumBanks() *
+				DataBuffer.getDataTypeSize(buffer.getDataType());
+			return bits / 8 + ENTRY_OVERHEAD;
+		}
+
+		// Toolkit images are typically stored as 32-bit ARGB
+		return 4L * Math.max(0, icon.getIconWidth()) * Math.max(0, icon.getIconHeight()) +
+			ENTRY_OVERHEAD;
+
+	}
+
+
+	/**
+	 * Evicts the least recently used icons until the cache is within its
+	 * size.  Icons being loaded aren't evicted.
+	 */
+	private void evict() {
+		Iterator<Entry> i = entries.values().iterator();
+		while (bytesHeld>maxBytes && i.hasNext()) {
+			Entry entry = i.next();
+			if (entry.future.isDone()) {
+				i.remove();
+				bytesHeld -= entry.bytes;
+				evictionCount++;
+			}
+		}
+	}
+
+
+	/**
+	 * Returns an icon that has been loaded or is being loaded, recording a
+	 * hit or a miss.
+	 *
+	 * @param group The icon group.
+	 * @param key The icon's key in the group.
+	 * @return The icon, or <code>null</code> if it isn't cached.
+	 * @see #putIfAbsent(AbstractIconGroup, String, Future)
+	 */
+	synchronized Future<ImageIcon> get(AbstractIconGroup group, String key) {
+		Entry entry = entries.get(new Key(group, key));
+		if (entry!=null) {
+			hitCount++;
+			return entry.future;
+		}
+		missCount++;
+		return null;
+	}
+
+
+	/**
+	 * Returns an estimate of how much memory the cached icons use.
+	 *
+	 * @return The estimated size, in bytes.
+	 * @see #getMaxBytes()
+	 */
+	public synchronized long getBytesHeld() {
+		return bytesHeld;
+	}
+
+
+	private static long getDefaultMaxBytes() {
+		Long maxBytes = Long.getLong(MAX_BYTES_PROPERTY);
+		if (maxBytes!=null) {
+			return maxBytes;
+		}
+		return Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 16);
+	}
+
+
+	/**
+	 * Returns the number of icons in the cache, including those being
+	 * loaded.
+	 *
+	 * @return The number of icons.
+	 */
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+
+	/**
+	 * Returns the number of icons evicted to keep the cache within its size.
+	 *
+	 * @return The number of icons evicted.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+
+	/**
+	 * Returns the number of icon requests that were found in the cache.
+	 *
+	 * @return The number of hits.
+	 * @see #getHitRate()
+	 * @see #getMissCount()
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+
+	/**
+	 * Returns the fraction of icon requests that were found in the cache.
+	 *
+	 * @return The hit rate, between <code>0</code> and <code>1</code>.  This
+	 *         is <code>0</code> if no icons have been requested.
+	 * @see #getHitCount()
+	 * @see #getMissCount()
+	 */
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests>0 ? (double)hitCount / requests : 0;
+	}
+
+
+	/**
+	 * Returns the shared instance of this class.
+	 *
+	 * @return The shared instance.
+	 */
+	public static IconCache getInstance() {
+		return INSTANCE;
+	}
+
+
+	/**
+	 * Returns the maximum size of the cache.
+	 *
+	 * @return The maximum size, in bytes.
+	 * @see #setMaxBytes(long)
+	 * @see #getBytesHeld()
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+
+	/**
+	 * Returns the number of icon requests that were not found in the cache.
+	 *
+	 * @return The number of misses.
+	 * @see #getHitRate()
+	 * @see #getHitCount()
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+
+	/**
+	 * Records that an icon has finished loading, and evicts other icons if
+	 * the cache is now too large.  This does nothing if the icon was
+	 * evicted or the cache was cleared while it was loading.
+	 *
+	 * @param group The icon group.
+	 * @param key The icon's key in the group.
+	 * @param future The icon's future, which should be done.
+	 * @param icon The icon.
+	 */
+	synchronized void loaded(AbstractIconGroup group, String key,
+			Future<ImageIcon> future, ImageIcon icon) {
+		Entry entry = entries.get(new Key(group, key));
+		if (entry!=null && entry.future==future && entry.bytes==0) {
+			entry.bytes = estimateSize(icon);
+			bytesHeld += entry.bytes;
+			evict();
+		}
+	}
+
+
+	/**
+	 * Adds an icon being loaded, unless the icon is already cached.
+	 *
+	 * @param group The icon group.
+	 * @param key The icon's key in the group.
+	 * @param future The icon being loaded.
+	 * @return The icon already cached, or <code>null</code> if
+	 *         <code>future</code> was added.
+	 * @see #loaded(AbstractIconGroup, String, Future, ImageIcon)
+	 */
+	synchronized Future<ImageIcon> putIfAbsent(AbstractIconGroup group, String key,
+			Future<ImageIcon> future) {
+		Entry existing = entries.putIfAbsent(new Key(group, key), new Entry(future));
+		return existing!=null ? existing.future : null;
+	}
+
+
+	/**
+	 * Removes an icon, if it's still the one cached.
+	 *
+	 * @param group The icon group.
+	 * @param key The icon's key in the group.
+	 * @param future The icon to remove.
+	 */
+	synchronized void remove(AbstractIconGroup group, String key, Future<ImageIcon> future) {
+		Key k = new Key(group, key);
+		Entry entry = entries.get(k);
+		if (entry!=null && entry.future==future) {
+			entries.remove(k);
+			bytesHeld -= entry.bytes;
+		}
+	}
+
+
+	/**
+	 * Removes all statistics.  The cached icons are unaffected.
+	 */
+	public synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+	}
+
+
+	/**
+	 * Sets the maximum size of the cache.  If the cache is currently
+	 * larger, icons are evicted.
+	 *
+	 * @param maxBytes The maximum size, in bytes.
+	 * @throws IllegalArgumentException If <code>maxBytes</code> is negative.
+	 * @see #getMaxBytes()
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes<0) {
+			throw new IllegalArgumentException("maxBytes cannot be negative: " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+
+	@Override
+	public synchronized String toString() {
+		return "[IconCache: entries=" + entries.size() + ", bytesHeld=" + bytesHeld +
+			", maxBytes=" + maxBytes + ", hitRate=" + getHitRate() +
+			", evictions=" + evictionCount + "]";
+	}
+
+
+	/**
+	 * A cached icon.
+	 */
+	private static final class Entry {
+
+		private final Future<ImageIcon> future;
+
+		/**
+		 * The estimated size of the icon, or <code>0</code> if it's still
+		 * being loaded.
+		 */
+		private long bytes;
+
+		private Entry(Future<ImageIcon> future) {
+			this.future = future;
+		}
+	}
+
+
+	/**
+	 * The key of a cached icon.  Icon groups are compared by identity, since
+	 * two groups may load icons from the same path differently.
+	 */
+	private static final class Key {
+
+		private final AbstractIconGroup group;
+		private final String key;
+
+		private Key(AbstractIconGroup group, String key) {
+			this.group = group;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key other && group==other.group && key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(group) + key.hashCode();
+		}
+	}
+
+
+}
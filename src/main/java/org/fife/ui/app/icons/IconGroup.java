@@ -7,6 +7,10 @@ package org.fife.ui.app.icons;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 
 /**
@@ -236,4 +240,30 @@ public interface IconGroup {
 	Image getRolloverImage(String name, int w, int h);
 
 
+	/**
+	 * Loads icons in the background, so that later calls to
+	 * {@link #getIcon(String, int, int)} for them return immediately.  An
+	 * application can call this while its splash screen is displayed, for
+	 * example, with the names of all icons its menus and toolbar use.<p>
+	 *
+	 * The default implementation loads the icons on the calling thread.
+	 * Implementations that can load icons concurrently should override.
+	 *
+	 * @param names The names of the icons.
+	 * @param w The width of the icons.
+	 * @param h The height of the icons.
+	 * @return Futures for the icons, in the same order as <code>names</code>.
+	 *         An icon is <code>null</code> if it could not be found or
+	 *         loaded.
+	 * @see #getIcon(String, int, int)
+	 */
+	default List<Future<Icon>> prefetchIcons(List<String> names, int w, int h) {
+		List<Future<Icon>> icons = new ArrayList<>(names.size());
+		for (String name : names) {
+			icons.add(CompletableFuture.completedFuture(getIcon(name, w, h)));
+		}
+		return icons;
+	}
+
+
 }
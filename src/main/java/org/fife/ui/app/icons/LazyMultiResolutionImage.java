@@ -0,0 +1,126 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app.icons;
+
+import java.awt.*;
+import java.awt.image.BaseMultiResolutionImage;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+
+/**
+ * An image with variants for HiDPI displays that are only created when
+ * Java2D asks for them, i.e. when the image is painted at a scale other than
+ * 1x.  Icon groups that can render their icons at any size, such as
+ * {@link SvgIconGroup}, use these so icons are crisp at 150% and 200%
+ * without rendering every icon at every scale up front.<p>
+ *
+ * Variants are fetched from the icon group's cache by pixel size, so a
+ * 16x16 icon's 2x variant is the same image as the 32x32 icon.  Once
+ * fetched, the image holds onto its variants softly, so painting it again
+ * doesn't go back to the cache.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see AbstractIconGroup
+ */
+final class LazyMultiResolutionImage extends BaseMultiResolutionImage {
+
+	private final BiFunction<Integer, Integer, Image> variantLoader;
+
+	/**
+	 * The variants created so far, by size.  These are held softly since
+	 * the icon group's cache also accounts for them, and may evict them.
+	 */
+	private final Map<Dimension, SoftReference<Image>> variants;
+
+	/**
+	 * The largest scale a variant is created for.  Painting the image at a
+	 * larger scale, e.g. in a zoomed view, scales this variant instead of
+	 * rendering an arbitrarily large image.
+	 */
+	static final int MAX_SCALE = 4;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param baseImage The 1x image.
+	 * @param variantLoader Returns the image for a width and height, in
+	 *        pixels, or <code>null</code> if it can't be created.  This may
+	 *        be called on any thread that paints the image.
+	 */
+	LazyMultiResolutionImage(Image baseImage,
+			BiFunction<Integer, Integer, Image> variantLoader) {
+		super(baseImage);
+		this.variantLoader = variantLoader;
+		variants = new ConcurrentHashMap<>();
+	}
+
+
+	/**
+	 * Returns the 1x image.  This is overridden so icon groups can call it.
+	 *
+	 * @return The 1x image.
+	 */
+	@Override
+	protected Image getBaseImage() {
+		return super.getBaseImage();
+	}
+
+
+	@Override
+	public Image getResolutionVariant(double destImageWidth, double destImageHeight) {
+
+		Image base = getBaseImage();
+		int baseWidth = base.getWidth(null);
+		int baseHeight = base.getHeight(null);
+
+		int w = (int)Math.ceil(Math.min(destImageWidth, baseWidth * MAX_SCALE));
+		int h = (int)Math.ceil(Math.min(destImageHeight, baseHeight * MAX_SCALE));
+		if ((w<=baseWidth && h<=baseHeight) || w<1 || h<1) {
+			return base;
+		}
+
+		Dimension size = new Dimension(w, h);
+		SoftReference<Image> ref = variants.get(size);
+		Image variant = ref!=null ? ref.get() : null;
+		if (variant==null) {
+			variant = variantLoader.apply(w, h);
+			if (variant==null) {
+				return base;
+			}
+			variants.put(size, new SoftReference<>(variant));
+		}
+		return variant;
+
+	}
+
+
+	/**
+	 * Returns the 1x image, followed by the variants created so far that
+	 * are still in memory.
+	 *
+	 * @return The images.
+	 */
+	@Override
+	public List<Image> getResolutionVariants() {
+		List<Image> images = new ArrayList<>(super.getResolutionVariants());
+		for (SoftReference<Image> ref : variants.values()) {
+			Image variant = ref.get();
+			if (variant!=null) {
+				images.add(variant);
+			}
+		}
+		return images;
+	}
+
+
+}
@@ -17,7 +17,12 @@ import java.io.InputStream;
 
 
 /**
- * An icon group consisting of SVG icons.
+ * An icon group consisting of SVG icons.<p>
+ *
+ * Rasterized icons are cached on disk, in the owning application's
+ * preferences directory, so later runs of the application don't have to
+ * parse and render the SVGs again.  Icons are rendered at the resolution
+ * of the display they are painted on.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -25,10 +30,18 @@ import java.io.InputStream;
  */
 public class SvgIconGroup extends AbstractIconGroup {
 
+	/**
+	 * The on-disk cache of rasterized icons, or <code>null</code> if the
+	 * application has no preferences directory.
+	 */
+	private final SvgRasterCache rasterCache;
+
 
 	public SvgIconGroup(AbstractGUIApplication<?> owner, String name, String path,
 						String nativePath) {
 		super(name, path, nativePath, "svg");
+		File prefsDir = owner!=null ? owner.getPreferencesDir() : null;
+		rasterCache = prefsDir!=null ? SvgRasterCache.getInstance(prefsDir) : null;
 	}
 
 
@@ -49,9 +62,11 @@ public class SvgIconGroup extends AbstractIconGroup {
 			}
 
 			if (in != null) {
-				BufferedImage image = ImageTranscodingUtil.rasterize(
-					iconFullPath, in, w, h);
-				return new ImageIcon(image);
+				byte[] svg;
+				try (InputStream svgIn = in) {
+					svg = svgIn.readAllBytes();
+				}
+				return new ImageIcon(rasterize(iconFullPath, svg, w, h));
 			}
 			return null;
 
@@ -61,4 +76,46 @@ public class SvgIconGroup extends AbstractIconGroup {
 	}
 
 
+	/**
+	 * Returns <code>true</code>, since SVGs can be rendered at any size.
+	 *
+	 * @return <code>true</code> always.
+	 */
+	@Override
+	protected boolean isScalable() {
+		return true;
+	}
+
+
+	/**
+	 * Returns an SVG rasterized to an image, from the disk cache if possible.
+	 *
+	 * @param svgName The name of the SVG.  Used only in error messages.
+	 * @param svg The SVG content.
+	 * @param w The width of the image.
+	 * @param h The height of the image.
+	 * @return The image.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private BufferedImage rasterize(String svgName, byte[] svg, int w, int h)
+			throws IOException {
+
+		String key = null;
+		if (rasterCache!=null) {
+			key = SvgRasterCache.getKey(svg, w, h, 1);
+			BufferedImage image = rasterCache.get(key);
+			if (image!=null) {
+				return image;
+			}
+		}
+
+		BufferedImage image = ImageTranscodingUtil.rasterize(svgName, svg, w, h);
+		if (key!=null) {
+			rasterCache.put(key, image);
+		}
+		return image;
+
+	}
+
+
 }
@@ -0,0 +1,342 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app.icons;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+import org.apache.batik.Version;
+
+
+/**
+ * A cache of rasterized SVG icons on disk, so they don't have to be
+ * rasterized again each time an application starts.  Images are stored as
+ * PNGs, named for a hash of the SVG's content and the size and scale they
+ * were rendered at, so an SVG that changes is simply rendered again.<p>
+ *
+ * Images live in a subdirectory named for {@link #VERSION} and the version
+ * of Batik, so changing either invalidates the whole cache.  The first time
+ * a cache directory is used in a process, directories for other versions
+ * and temporary files left behind by processes that died while writing are
+ * deleted in the background.  Images are also written in the background, so
+ * caching an image doesn't slow down a cold start.<p>
+ *
+ * The cache is limited to {@link #MAX_BYTES}.  When it grows larger, the
+ * least recently used images are deleted.  Reading an image marks it as
+ * used by updating its modified time.<p>
+ *
+ * This class is thread-safe.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see SvgIconGroup
+ */
+final class SvgRasterCache {
+
+	private final File dir;
+
+	/**
+	 * The size of the images in {@link #dir}.  This is only accessed on the
+	 * {@link #WRITER} thread, which computes it before writing any images.
+	 */
+	private long bytesHeld;
+
+	/**
+	 * The caches created so far, keyed by their parent directory, so each
+	 * directory is only cleaned up once per process.
+	 */
+	private static final Map<File, SvgRasterCache> INSTANCES = new ConcurrentHashMap<>();
+
+	/**
+	 * Writes images and deletes stale directories for all caches, so a slow
+	 * disk doesn't slow down startup.
+	 */
+	private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "SvgRasterCache");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * The version of the cache.  Bump this when anything about how icons
+	 * are rasterized changes, to invalidate existing caches.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * The name of the cache directory, in the application's preferences
+	 * directory.
+	 */
+	static final String DIR_NAME = "iconCache";
+
+	/**
+	 * The maximum size of the images in the cache, in bytes.
+	 */
+	static final long MAX_BYTES = 16L * 1024 * 1024;
+
+	/**
+	 * How old a temporary file must be before it's considered left behind by
+	 * a process that died while writing it.
+	 */
+	static final long TEMP_FILE_MAX_AGE_MILLIS = 60 * 60 * 1000;
+
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	private static final String EXTENSION = ".png";
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parentDir The directory to create the cache directory in.
+	 * @see #getInstance(File)
+	 */
+	private SvgRasterCache(File parentDir) {
+		File root = new File(parentDir, DIR_NAME);
+		dir = new File(root, getVersionDirName());
+		WRITER.execute(() -> {
+			deleteStaleDirs(root);
+			deleteTempFiles(dir, System.currentTimeMillis() - TEMP_FILE_MAX_AGE_MILLIS);
+			bytesHeld = trim(dir, MAX_BYTES);
+		});
+	}
+
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children!=null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		if (!file.delete()) {
+			file.deleteOnExit();
+		}
+	}
+
+
+	/**
+	 * Deletes cache directories for other versions.
+	 *
+	 * @param root The root cache directory.
+	 */
+	private void deleteStaleDirs(File root) {
+		File[] children = root.listFiles();
+		if (children!=null) {
+			for (File child : children) {
+				if (!child.equals(dir)) {
+					delete(child);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Deletes temporary files that were last modified before a given time.
+	 *
+	 * @param dir The cache directory.
+	 * @param before The time, in milliseconds since the epoch.
+	 */
+	static void deleteTempFiles(File dir, long before) {
+		File[] files = dir.listFiles((d, name) -> name.endsWith(TEMP_EXTENSION));
+		if (files!=null) {
+			for (File file : files) {
+				if (file.lastModified()<before) {
+					delete(file);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Returns a cached image.
+	 *
+	 * @param key The image's key.
+	 * @return The image, or <code>null</code> if it isn't cached or can't be
+	 *         read.
+	 * @see #getKey(byte[], int, int, double)
+	 * @see #put(String, BufferedImage)
+	 */
+	BufferedImage get(String key) {
+
+		File file = new File(dir, key + EXTENSION);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		try {
+			BufferedImage image = ImageIO.read(file);
+			if (image!=null) {
+				WRITER.execute(() -> file.setLastModified(System.currentTimeMillis()));
+				return image;
+			}
+		} catch (IOException | RuntimeException e) {
+			// Corrupt; fall through
+		}
+
+		WRITER.execute(() -> delete(file));
+		return null;
+
+	}
+
+
+	/**
+	 * Returns the cache for a directory.
+	 *
+	 * @param parentDir The directory to create the cache directory in,
+	 *        typically the application's preferences directory.
+	 * @return The cache.
+	 */
+	static SvgRasterCache getInstance(File parentDir) {
+		return INSTANCES.computeIfAbsent(parentDir.toPath().toAbsolutePath().normalize().toFile(),
+			SvgRasterCache::new);
+	}
+
+
+	/**
+	 * Returns the key for an image rendered from an SVG.
+	 *
+	 * @param svg The SVG's content.
+	 * @param w The width of the icon.
+	 * @param h The height of the icon.
+	 * @param scale The scale factor the icon is rendered at.
+	 * @return The key.
+	 */
+	static String getKey(byte[] svg, int w, int h, double scale) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException nsae) { // Never happens
+			throw new IllegalStateException(nsae);
+		}
+		String hash = HexFormat.of().formatHex(digest.digest(svg));
+		return hash + "-" + w + "x" + h + "@" + Double.toString(scale).replace('.', '_');
+	}
+
+
+	private static String getVersionDirName() {
+		String batikVersion = Version.getVersion();
+		if (batikVersion==null) {
+			batikVersion = "unknown";
+		}
+		return "v" + VERSION + "-batik-" + batikVersion.replaceAll("[^A-Za-z0-9.]", "_");
+	}
+
+
+	/**
+	 * Caches an image.  The image is written in the background.
+	 *
+	 * @param key The image's key.
+	 * @param image The image.  This should not be modified afterward.
+	 * @see #get(String)
+	 */
+	void put(String key, BufferedImage image) {
+		WRITER.execute(() -> {
+			try {
+				write(key, image);
+			} catch (IOException ioe) { // Not fatal; just not cached
+				ioe.printStackTrace();
+			}
+		});
+	}
+
+
+	/**
+	 * Deletes the least recently used images in a cache directory if they
+	 * take up more than a given size.  Images are deleted until they take up
+	 * three quarters of that size, so the cache isn't trimmed on every write.
+	 *
+	 * @param dir The cache directory.
+	 * @param maxBytes The maximum size of the images.
+	 * @return The size of the images remaining.
+	 */
+	static long trim(File dir, long maxBytes) {
+
+		File[] files = dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+		if (files==null) {
+			return 0;
+		}
+
+		long total = 0;
+		for (File file : files) {
+			total += file.length();
+		}
+
+		if (total>maxBytes) {
+			Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+			for (File file : files) {
+				if (total<=maxBytes / 4 * 3) {
+					break;
+				}
+				long length = file.length();
+				if (file.delete()) {
+					total -= length;
+				}
+			}
+		}
+
+		return total;
+
+	}
+
+
+	/**
+	 * Writes an image to the cache.  The file is replaced atomically where
+	 * possible, so other processes never see a partially-written image.
+	 * If the cache is then too large, it is trimmed.
+	 *
+	 * @param key The image's key.
+	 * @param image The image.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void write(String key, BufferedImage image) throws IOException {
+
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Can't create directory: " + dir);
+		}
+
+		Path temp = Files.createTempFile(dir.toPath(), key, TEMP_EXTENSION);
+		try {
+			if (!ImageIO.write(image, "png", temp.toFile())) {
+				throw new IOException("No PNG writer available");
+			}
+			Path file = new File(dir, key + EXTENSION).toPath();
+			long size = Files.size(temp);
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			bytesHeld += size;
+			if (bytesHeld>MAX_BYTES) {
+				bytesHeld = trim(dir, MAX_BYTES);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+	}
+
+
+}
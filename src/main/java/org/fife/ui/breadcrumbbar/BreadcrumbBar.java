@@ -29,7 +29,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -37,9 +43,12 @@ import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
 import javax.swing.filechooser.FileSystemView;
 
+import org.fife.ui.DirectorySnapshotCache;
+import org.fife.ui.DirectorySnapshotCache.Snapshot;
 import org.fife.ui.FSATextField;
 import org.fife.ui.UIUtil;
 import org.fife.ui.rtextfilechooser.FileDisplayNames;
+import org.fife.ui.rtextfilechooser.RootManager;
 
 
 /**
@@ -86,6 +95,9 @@ public class BreadcrumbBar extends JComponent {
 
 	private static final FileSystemView FSV = FileSystemView.getFileSystemView();
 
+	private static final ResourceBundle MSG = ResourceBundle.getBundle(
+			"org.fife.ui.breadcrumbbar.BreadcrumbBar");
+
 
 	public BreadcrumbBar() {
 
@@ -240,6 +252,19 @@ public class BreadcrumbBar extends JComponent {
 	}
 
 
+	/**
+	 * Creates the menu item displayed while a drop-down menu's contents are
+	 * being loaded.
+	 *
+	 * @return The menu item.
+	 */
+	private static JMenuItem createPlaceholder() {
+		JMenuItem item = new JMenuItem(MSG.getString("Loading"));
+		item.setEnabled(false);
+		return item;
+	}
+
+
 	private static void displayRelativeTo(JPopupMenu popup, Component c) {
 		int x = 0;
 		if (!popup.getComponentOrientation().isLeftToRight()) {
@@ -313,8 +338,16 @@ public class BreadcrumbBar extends JComponent {
 	}
 
 
-	private static String getName(File dir) {
-		return FileDisplayNames.get().getName(dir);
+	/**
+	 * Returns the display name for a file without blocking.
+	 *
+	 * @param dir The file.
+	 * @param callback Called on the EDT with the real name if it had to be
+	 *        looked up.  This may be <code>null</code>.
+	 * @return The display name, or a placeholder if it isn't yet known.
+	 */
+	private static String getName(File dir, Consumer<String> callback) {
+		return FileDisplayNames.get().getName(dir, callback);
 	}
 
 
@@ -525,7 +558,6 @@ public class BreadcrumbBar extends JComponent {
 		super.updateUI();
 
 		updateBorderAndBackground();
-		listener.updateUI();
 
 		if (buttonPanel!=null) {
 			buttonPanel.updateUI();
@@ -656,14 +688,250 @@ public class BreadcrumbBar extends JComponent {
 	}
 
 
+	/**
+	 * The contents of a drop-down menu listing the roots and/or the
+	 * subdirectories of a directory.  Roots and subdirectories are listed in
+	 * the background, so the menu can be displayed immediately.  Until they
+	 * are known, a placeholder item is displayed; subdirectories are added
+	 * as they are found, so even a huge directory is browsable right away.
+	 */
+	private final class PopupContents implements PopupMenuListener,
+			ScrollableJPopupMenu.ItemFactory<File> {
+
+		private final ScrollableJPopupMenu popup;
+		private final boolean showRoots;
+		private final File dir;
+
+		/**
+		 * The subdirectories found so far, sorted.
+		 */
+		private List<String> names;
+
+		/**
+		 * Names found in the background, waiting to be added to the menu.
+		 * Guarded by this object.
+		 */
+		private List<String> pendingNames;
+
+		/**
+		 * The file system roots displayed.
+		 */
+		private List<File> roots;
+
+		private CompletableFuture<?> rootsRequest;
+		private CompletableFuture<Snapshot> dirRequest;
+		private boolean closed;
+
+		/**
+		 * Whether the subdirectories are being listed for the first time, as
+		 * opposed to a cached listing being revalidated.  Only in the former
+		 * case are names added as they are found.
+		 */
+		private boolean listing;
+
+		/**
+		 * Menu items already created, so they survive refreshes of the menu.
+		 */
+		private final Map<File, JMenuItem> items;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param popup The menu to fill.
+		 * @param showRoots Whether the menu should list the file system roots.
+		 * @param dir The directory whose subdirectories should be listed, or
+		 *        <code>null</code> for none.
+		 */
+		PopupContents(ScrollableJPopupMenu popup, boolean showRoots, File dir) {
+			this.popup = popup;
+			this.showRoots = showRoots;
+			this.dir = dir;
+			items = new HashMap<>();
+			pendingNames = new ArrayList<>();
+			popup.addPopupMenuListener(this);
+		}
+
+		/**
+		 * Queues names found in the background to be added to the menu.
+		 * Called on a background thread.
+		 *
+		 * @param batch The names.
+		 */
+		private void addPending(List<String> batch) {
+			boolean schedule;
+			synchronized (this) {
+				schedule = pendingNames.isEmpty();
+				pendingNames.addAll(batch);
+			}
+			if (schedule) {
+				SwingUtilities.invokeLater(this::mergePending);
+			}
+		}
+
+		@Override
+		public Component createItem(File file) {
+			JMenuItem item = items.get(file);
+			if (item==null) {
+				item = createMenuItem(file, null, getIcon(file));
+				// Roots' display names may be looked up in the background
+				item.setText(file.getParentFile()==null ?
+						getName(file, item::setText) : file.getName());
+				if (isAncestorOfShownLocation(file)) {
+					item.setFont(item.getFont().deriveFont(Font.BOLD));
+				}
+				item.addActionListener(listener);
+				items.put(file, item);
+			}
+			return item;
+		}
+
+		@Override
+		public String getItemText(File file) {
+			// Roots' names are just their paths, e.g. "C:\" or "/"
+			return file.getParentFile()==null ? getName(file, null) : file.getName();
+		}
+
+		/**
+		 * Returns the file system roots most recently gathered.
+		 *
+		 * @return The roots.
+		 */
+		private static List<File> getRoots() {
+			List<File> roots = new ArrayList<>();
+			RootManager.getInstance().iterator().forEachRemaining(roots::add);
+			return roots;
+		}
+
+		/**
+		 * Populates the menu with whatever is known now, and starts
+		 * loading the rest in the background.
+		 */
+		void load() {
+
+			// Display the roots known now, and update them if they've
+			// changed since they were last gathered
+			if (showRoots) {
+				roots = getRoots();
+				rootsRequest = RootManager.getInstance().refresh().thenRun(() ->
+						SwingUtilities.invokeLater(() -> {
+							List<File> newRoots = getRoots();
+							if (!newRoots.equals(roots)) {
+								roots = newRoots;
+								refresh();
+							}
+						}));
+			}
+
+			if (dir!=null) {
+				DirectorySnapshotCache cache = DirectorySnapshotCache.getInstance(true);
+				Snapshot snapshot = cache.getCachedSnapshot(dir);
+				if (snapshot!=null) {
+					names = new ArrayList<>(Arrays.asList(snapshot.getNames()));
+					if (!snapshot.isFresh()) {
+						// The snapshot is displayed as-is while it is
+						// revalidated; usually it hasn't changed.
+						dirRequest = cache.getSnapshot(dir);
+					}
+				}
+				else {
+					names = new ArrayList<>();
+					listing = true;
+					dirRequest = cache.getSnapshot(dir, this::addPending);
+				}
+				if (dirRequest!=null) {
+					dirRequest.thenAccept(s -> SwingUtilities.invokeLater(() -> {
+						if (!closed) {
+							synchronized (this) {
+								pendingNames.clear();
+							}
+							names = new ArrayList<>(Arrays.asList(s.getNames()));
+							listing = false;
+							refresh();
+						}
+					}));
+				}
+			}
+
+			refresh();
+
+		}
+
+		/**
+		 * Adds the names found in the background since the last call to
+		 * this method to the menu.
+		 */
+		private void mergePending() {
+			List<String> batch;
+			synchronized (this) {
+				batch = pendingNames;
+				pendingNames = new ArrayList<>();
+			}
+			if (!closed && listing && !batch.isEmpty()) {
+				names.addAll(batch);
+				names.sort(DirectorySnapshotCache.NAME_ORDER);
+				refresh();
+			}
+		}
+
+		@Override
+		public void popupMenuCanceled(PopupMenuEvent e) {
+		}
+
+		@Override
+		public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+			closed = true;
+			if (rootsRequest!=null) {
+				rootsRequest.cancel(false);
+			}
+			if (dirRequest!=null) {
+				dirRequest.cancel(false);
+			}
+		}
+
+		@Override
+		public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+		}
+
+		/**
+		 * Rebuilds the menu's items from what is currently known.  Only the
+		 * items scrolled into view are actually created.
+		 */
+		private void refresh() {
+
+			if (closed) {
+				return;
+			}
+			popup.removeItemsFrom(0);
+
+			if (showRoots) {
+				popup.addItems(roots, this);
+				if (dir!=null) {
+					popup.addSeparator();
+				}
+			}
+
+			if (dir!=null) {
+				List<File> files = new ArrayList<>(names.size());
+				for (String name : names) {
+					files.add(new File(dir, name));
+				}
+				popup.addItems(files, this);
+				if (listing) {
+					popup.addComponent(createPlaceholder());
+				}
+			}
+
+		}
+
+	}
+
+
 	/**
 	 * Listens for events in the breadcrumb bar.
 	 */
 	private final class Listener extends MouseAdapter implements ActionListener,
 									KeyListener {
 
-		private List<JMenuItem> rootMenuItems;
-
 		@Override
 		public void actionPerformed(ActionEvent e) {
 
@@ -685,10 +953,8 @@ public class BreadcrumbBar extends JComponent {
 					if (c.isVisible()) {
 						JButton b = (JButton)c;
 						ScrollableJPopupMenu popup = new ScrollableJPopupMenu();
-						addItemsFor(null, popup);
-						popup.addSeparator();
 						File loc = (File)b.getClientProperty(PROPERTY_LOCATION);
-						addItemsFor(loc.getParentFile(), popup);
+						new PopupContents(popup, true, loc.getParentFile()).load();
 						popup.applyComponentOrientation(b.getComponentOrientation());
 						popup.addPopupMenuListener(new BreadcrumbPopupMenuListener(backButton));
 						displayRelativeTo(popup, backButton);
@@ -699,7 +965,8 @@ public class BreadcrumbBar extends JComponent {
 
 			else if (source instanceof final JToggleButton tb) {
 				ScrollableJPopupMenu popup = new ScrollableJPopupMenu();
-				addItemsFor((File)tb.getClientProperty(PROPERTY_LOCATION), popup);
+				File loc = (File)tb.getClientProperty(PROPERTY_LOCATION);
+				new PopupContents(popup, loc==null, loc).load();
 				popup.applyComponentOrientation(getComponentOrientation());
 				popup.addPopupMenuListener(new BreadcrumbPopupMenuListener(tb));
 				displayRelativeTo(popup, tb);
@@ -717,57 +984,6 @@ public class BreadcrumbBar extends JComponent {
 
 		}
 
-		private void addItemsFor(File dir, ScrollableJPopupMenu popup) {
-
-			if (dir!=null) {
-				File[] children = dir.listFiles(File::isDirectory);
-				// children can be null e.g. on Windows, when examining an
-				// empty DVD/Blu-ray drive
-				int count = children!=null ? children.length : 0;
-				for (int i=0; i<count; i++) {
-					dir = children[i];
-					Icon icon = getIcon(dir);
-					JMenuItem item = new JMenuItem(dir.getName(), icon);
-					if (isAncestorOfShownLocation(dir)) {
-						Font font = item.getFont();
-						font = font.deriveFont(Font.BOLD);
-						item.setFont(font);
-					}
-					item.putClientProperty(PROPERTY_LOCATION, dir);
-					item.addActionListener(this);
-					popup.addComponent(item);
-				}
-			}
-			else { // roots
-				List<JMenuItem> roots = getRoots();
-				for (JMenuItem root : roots) {
-					popup.addComponent(root);
-				}
-			}
-
-		}
-
-		private List<JMenuItem> getRoots() {
-
-			if (rootMenuItems==null) {
-
-				rootMenuItems = new ArrayList<>(5);
-
-				File[] rootFiles = File.listRoots();
-				for (File rootFile : rootFiles) {
-					String name = getName(rootFile);
-					Icon icon = getIcon(rootFile);
-					JMenuItem item = createMenuItem(rootFile, name, icon);
-					item.addActionListener(this);
-					rootMenuItems.add(item);
-				}
-
-			}
-
-			return rootMenuItems;
-
-		}
-
 		@Override
 		public void keyPressed(KeyEvent e) {
 			Object source = e.getSource();
@@ -792,14 +1008,6 @@ public class BreadcrumbBar extends JComponent {
 			setMode(TEXT_FIELD_MODE);
 		}
 
-		public void updateUI() {
-			int count = rootMenuItems==null ? 0 : rootMenuItems.size();
-			for (int i=0; i<count; i++) {
-				JMenuItem item = rootMenuItems.get(i);
-				SwingUtilities.updateComponentTreeUI(item);
-			}
-		}
-
 	}
 
 
@@ -15,6 +15,8 @@ import org.fife.ui.UIUtil;
 import java.awt.Component;
 import java.awt.ComponentOrientation;
 import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
@@ -28,7 +30,9 @@ import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
+import javax.swing.UIManager;
 
 
 /**
@@ -46,6 +50,13 @@ import javax.swing.Timer;
  * If the number of menu items added is less than the threshold, this menu
  * acts just like a standard <code>JPopupMenu</code>.<p>
  *
+ * Menus listing many items, such as the contents of a large directory, can
+ * add them via {@link #addItems(List, ItemFactory)}.  Components for such
+ * items are only created when they are scrolled into view, so the menu is
+ * cheap to create no matter how many items it has.  Items can be added and
+ * removed while the menu is visible, for example as the items are loaded in
+ * the background.<p>
+ *
  * This class is based off of code on Sun's Java forums, posted by
  * DarrylBurke
  * <a href="http://forums.sun.com/thread.jspa?forumID=57&amp;threadID=5362822">here</a>.
@@ -56,11 +67,22 @@ import javax.swing.Timer;
 public class ScrollableJPopupMenu extends JPopupMenu {
 
 	private int visibleRowCount;
-	private List<Component> children;
+	private List<Entry<?>> children;
 	private JMenuItem previousItem;
 	private JMenuItem nextItem;
 	private int firstItemIndex;
 
+	/**
+	 * The width of the menu when it is scrolling, or <code>-1</code> if it
+	 * must be recomputed.
+	 */
+	private int scrollingWidth;
+
+	/**
+	 * Whether a refresh is queued for changes made while the menu is visible.
+	 */
+	private boolean refreshPending;
+
 	private static final int DEFAULT_ROW_COUNT	= 15;
 	private static final int DELAY				= 100;
 	private static final String PROPERTY_TIMER	= "ScrollableJPopupMenu.timer";
@@ -96,6 +118,7 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 		enableEvents(java.awt.AWTEvent.MOUSE_WHEEL_EVENT_MASK);
 		visibleRowCount = rowCount;
 		children = new ArrayList<>(rowCount);
+		scrollingWidth = -1;
 		MenuMouseAdapter adapter = new MenuMouseAdapter();
 		previousItem = new ArrowMenuItem(upIcon);
 		Timer previousTimer = new Timer(DELAY, new MenuScrollAction(-1));
@@ -116,7 +139,27 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 	 * @param c The component to add.
 	 */
 	public void addComponent(Component c) {
-		children.add(c);
+		children.add(new Entry<>(c));
+		itemsChanged();
+	}
+
+
+	/**
+	 * Adds items to this popup menu.  The component for each item is only
+	 * created when it is first displayed, so this is much cheaper than
+	 * {@link #addComponent(Component)} for long lists of items.
+	 *
+	 * @param values The values to add menu items for.
+	 * @param factory Creates the menu items for the values.
+	 * @param <T> The type of values.
+	 * @see #getItemCount()
+	 * @see #removeItemsFrom(int)
+	 */
+	public <T> void addItems(List<? extends T> values, ItemFactory<? super T> factory) {
+		for (T value : values) {
+			children.add(new Entry<>(value, factory));
+		}
+		itemsChanged();
 	}
 
 
@@ -138,8 +181,81 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 	@Override
 	public void applyComponentOrientation(ComponentOrientation o) {
 		super.applyComponentOrientation(o);
-		for (Component c : children) {
-			c.applyComponentOrientation(o);
+		for (Entry<?> entry : children) {
+			if (entry.component!=null) {
+				entry.component.applyComponentOrientation(o);
+			}
+		}
+		scrollingWidth = -1;
+	}
+
+
+	/**
+	 * Returns the number of items in this menu, including separators.  This
+	 * doesn't include the scroll arrows.
+	 *
+	 * @return The number of items.
+	 */
+	public int getItemCount() {
+		return children.size();
+	}
+
+
+	/**
+	 * Returns the width of the menu when it is scrolling, i.e. the width of
+	 * its widest item.  Rather than creating components for every item,
+	 * only the item with the longest text is created.
+	 *
+	 * @return The width.
+	 */
+	private int getScrollingWidth() {
+
+		if (scrollingWidth==-1) {
+
+			Font font = UIManager.getFont("MenuItem.font");
+			FontMetrics fm = getFontMetrics(font!=null ? font : getFont());
+			Entry<?> widest = null;
+			int widestTextWidth = -1;
+			for (Entry<?> entry : children) {
+				if (entry.component!=null) {
+					add(entry.component);
+				}
+				else {
+					int w = fm.stringWidth(entry.getText());
+					if (w>widestTextWidth) {
+						widest = entry;
+						widestTextWidth = w;
+					}
+				}
+			}
+			if (widest!=null) {
+				add(widest.getComponent(getComponentOrientation()));
+			}
+			scrollingWidth = super.getPreferredSize().width;
+			removeAll();
+
+		}
+
+		return scrollingWidth;
+
+	}
+
+
+	/**
+	 * Called whenever items are added or removed.  If the menu is visible,
+	 * it is refreshed once all pending changes have been made.
+	 */
+	private void itemsChanged() {
+		scrollingWidth = -1;
+		if (isVisible() && !refreshPending) {
+			refreshPending = true;
+			SwingUtilities.invokeLater(() -> {
+				refreshPending = false;
+				if (isVisible()) {
+					refresh();
+					pack();
+				}
+			});
 		}
 	}
 
@@ -171,15 +287,12 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 
 		removeAll();
 		int itemCount = children.size();
+		ComponentOrientation o = getComponentOrientation();
 
 		if (itemCount>visibleRowCount) {
 
 			// Determine the best width for the popup.
-			for (Component child : children) {
-				add(child);
-			}
-			int w = super.getPreferredSize().width;
-			removeAll();
+			int w = getScrollingWidth();
 
 			firstItemIndex = Math.min(itemCount-visibleRowCount, firstItemIndex);
 			firstItemIndex = Math.max(0, firstItemIndex);
@@ -188,7 +301,7 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 			nextItem.setEnabled(firstItemIndex < itemCount - visibleRowCount);
 			add(previousItem);
 			for (int i=0; i<visibleRowCount && firstItemIndex+i<itemCount; i++) {
-				add(children.get(firstItemIndex + i));
+				add(children.get(firstItemIndex + i).getComponent(o));
 			}
 			add(nextItem);
 			Dimension size = super.getPreferredSize();
@@ -200,14 +313,26 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 		}
 
 		else {
-			for (Component child : children) {
-				add(child);
+			for (Entry<?> entry : children) {
+				add(entry.getComponent(o));
 			}
 		}
 
 	}
 
 
+	/**
+	 * Removes all items starting at a given index.
+	 *
+	 * @param index The index of the first item to remove.
+	 * @see #getItemCount()
+	 */
+	public void removeItemsFrom(int index) {
+		children.subList(index, children.size()).clear();
+		itemsChanged();
+	}
+
+
 	@Override
 	public void setVisible(boolean visible) {
 		if (visible) {
@@ -217,6 +342,81 @@ public class ScrollableJPopupMenu extends JPopupMenu {
 	}
 
 
+	@Override
+	public void updateUI() {
+		super.updateUI();
+		scrollingWidth = -1;
+	}
+
+
+	/**
+	 * An item in the menu.  Items added as values rather than components
+	 * have their components created when they are first displayed.
+	 *
+	 * @param <T> The type of value.
+	 */
+	private static final class Entry<T> {
+
+		private final T value;
+		private final ItemFactory<? super T> factory;
+		private Component component;
+
+		Entry(Component component) {
+			this.value = null;
+			this.factory = null;
+			this.component = component;
+		}
+
+		Entry(T value, ItemFactory<? super T> factory) {
+			this.value = value;
+			this.factory = factory;
+		}
+
+		Component getComponent(ComponentOrientation o) {
+			if (component==null) {
+				component = factory.createItem(value);
+				component.applyComponentOrientation(o);
+			}
+			return component;
+		}
+
+		String getText() {
+			return factory.getItemText(value);
+		}
+
+	}
+
+
+	/**
+	 * Creates the menu items for values added via
+	 * {@link ScrollableJPopupMenu#addItems(List, ItemFactory)}.
+	 *
+	 * @param <T> The type of value.
+	 */
+	public interface ItemFactory<T> {
+
+		/**
+		 * Creates the menu item for a value.  This is called on the EDT,
+		 * only when the item is displayed.
+		 *
+		 * @param value The value.
+		 * @return The menu item.
+		 */
+		Component createItem(T value);
+
+		/**
+		 * Returns the text the menu item for a value will display.  This
+		 * is used to size the menu without creating every item, so it
+		 * should be cheap.
+		 *
+		 * @param value The value.
+		 * @return The text.
+		 */
+		String getItemText(T value);
+
+	}
+
+
 	/**
 	 * A menu item that's just a "down" arrow, denoting the menu has more items than are visible.
 	 */
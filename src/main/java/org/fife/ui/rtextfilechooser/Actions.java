@@ -137,6 +137,40 @@ public interface Actions {
 	}
 
 
+	/**
+	 * Cuts any selected files, so that pasting them moves them.
+	 */
+	class CutAction extends FileSelectorAction {
+
+		private FileSelector chooser;
+
+		public CutAction(FileSelector chooser) {
+			this.chooser = chooser;
+			putValue(Action.NAME, getString("Cut"));
+			int mod = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+			putValue(Action.ACCELERATOR_KEY,
+					KeyStroke.getKeyStroke(KeyEvent.VK_X, mod));
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+
+			File[] files = getSelectedFiles(chooser);
+			if (files.length == 0) {
+				return;
+			}
+
+			List<File> fileList = Arrays.asList(files);
+			FileListTransferable flt = new FileListTransferable(fileList, true);
+			Clipboard clipboard = Toolkit.getDefaultToolkit().
+												getSystemClipboard();
+			clipboard.setContents(flt, flt);
+
+		}
+
+	}
+
+
 	/**
 	 * Action that handles deleting files.
 	 */
@@ -267,7 +301,8 @@ public interface Actions {
 
 
 	/**
-	 * Pastes files into the currently selected directory.
+	 * Pastes files into the currently selected directory.  Files that were
+	 * cut are moved, after which the clipboard is cleared.
 	 */
 	class PasteAction extends FileChooserAction {
 
@@ -290,6 +325,8 @@ public interface Actions {
 				Clipboard clip = chooser.getToolkit().getSystemClipboard();
 				Transferable contents = clip.getContents(null);
 				DataFlavor accepted = DataFlavor.javaFileListFlavor;
+				boolean move = contents instanceof FileListTransferable flt &&
+						flt.isCut();
 
 				try {
 
@@ -307,8 +344,12 @@ public interface Actions {
 					};
 
 					if (files!=null && !files.isEmpty()) {
-						FilePasteThread.paste(parent,
-									files, destDir, callback);
+						FilePasteThread.paste(parent, files, destDir, callback,
+								chooser.getPreservePastedFileAttributes(),
+								chooser.getResumablePastes(), move);
+						if (move) { // Can't be moved from there again
+							clip.setContents(new StringSelection(""), null);
+						}
 						copying = true;
 					}
 
@@ -29,6 +29,15 @@ public class DefaultFilePasteCallback implements FilePasteCallback {
 
 	private ProgressMonitor monitor;
 	private String noteFormat;
+	private String rateFormat;
+	private String etaFormat;
+	private String fileNote;
+	private boolean reportingBytes;
+
+	/**
+	 * The resolution of the progress bar when progress is reported in bytes.
+	 */
+	private static final int BYTE_PROGRESS_MAX = 1000;
 
 	private static final ResourceBundle MSG = ResourceBundle.getBundle(
 			"org.fife.ui.rtextfilechooser.FilePaste");
@@ -53,19 +62,80 @@ public class DefaultFilePasteCallback implements FilePasteCallback {
 	@Override
 	public boolean filePasteUpdate(int pasteCount, int total,
 			File justPastedFile) {
-		monitor.setProgress(pasteCount-1);
-		monitor.setMaximum(total);
+		if (!reportingBytes) {
+			monitor.setProgress(pasteCount-1);
+			monitor.setMaximum(total);
+		}
 		if (justPastedFile!=null) {
 			if (noteFormat==null) {
 				noteFormat = MSG.getString("Dialog.ProgressMonitor.NoteFormat");
 			}
 			Object[] args = {pasteCount,
 				total, justPastedFile.getAbsolutePath() };
-			String note = MessageFormat.format(noteFormat, args);
+			fileNote = MessageFormat.format(noteFormat, args);
+			monitor.setNote(fileNote);
+		}
+		return monitor.isCanceled();
+	}
+
+
+	/**
+	 * Updates the progress monitor to display the fraction of bytes copied,
+	 * as well as the throughput and estimated time remaining.  If there are
+	 * no bytes to copy (e.g. only empty files), progress is left reported
+	 * by file count.
+	 */
+	@Override
+	public boolean filePasteProgress(long bytesCopied, long totalBytes,
+			long bytesPerSecond, long etaMillis) {
+
+		reportingBytes = totalBytes>0;
+		if (reportingBytes) {
+			monitor.setMaximum(BYTE_PROGRESS_MAX);
+			monitor.setProgress((int)(Math.min(bytesCopied, totalBytes) *
+					BYTE_PROGRESS_MAX / totalBytes));
+		}
+
+		if (fileNote!=null) {
+			String rate = Utilities.getFileSizeStringFor(bytesPerSecond, false);
+			String note;
+			if (etaMillis>=0) {
+				if (etaFormat==null) {
+					etaFormat = MSG.getString("Dialog.ProgressMonitor.EtaFormat");
+				}
+				note = MessageFormat.format(etaFormat, fileNote, rate,
+						formatDuration(etaMillis));
+			}
+			else {
+				if (rateFormat==null) {
+					rateFormat = MSG.getString("Dialog.ProgressMonitor.RateFormat");
+				}
+				note = MessageFormat.format(rateFormat, fileNote, rate);
+			}
 			monitor.setNote(note);
-			//System.out.println(note);
 		}
+
 		return monitor.isCanceled();
+
+	}
+
+
+	/**
+	 * Returns a duration formatted as <code>m:ss</code> or
+	 * <code>h:mm:ss</code>.
+	 *
+	 * @param millis The duration, in milliseconds.
+	 * @return The formatted duration.
+	 */
+	private static String formatDuration(long millis) {
+		long seconds = (millis + 999) / 1000;
+		long hours = seconds / 3600;
+		long minutes = (seconds / 60) % 60;
+		seconds %= 60;
+		if (hours>0) {
+			return String.format("%d:%02d:%02d", hours, minutes, seconds);
+		}
+		return String.format("%d:%02d", minutes, seconds);
 	}
 
 
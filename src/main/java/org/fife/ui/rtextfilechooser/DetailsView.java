@@ -19,16 +19,10 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Vector;
 import javax.swing.*;
 import javax.swing.table.*;
 
 import org.fife.ui.FileExplorerTableModel;
-import org.fife.util.MacOSUtil;
 
 
 /**
@@ -46,9 +40,11 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	private ViewKeyListener keyListener;
 	private SelectionListener selectionListener;
 
-	private String readStr;
-	private String writeStr;
-	private String readWriteStr;
+	/**
+	 * The text displayed in the "Status" column, indexed by the
+	 * <code>STATUS_XXX</code> constants.
+	 */
+	private String[] statusStrings;
 
 	/**
 	 * Number of file sets this view has displayed.  This is used to help
@@ -73,7 +69,13 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	 */
 	private static final Object ATTRIBUTES_LOCK = new Object();
 
-	private static final boolean IS_OSX = MacOSUtil.isMacOs();
+	/**
+	 * The possible values of a file's status.
+	 */
+	private static final byte STATUS_NONE			= 0;
+	private static final byte STATUS_READ			= 1;
+	private static final byte STATUS_WRITE			= 2;
+	private static final byte STATUS_READ_WRITE	= 3;
 
 	/**
 	 * Creates a details view.
@@ -91,9 +93,10 @@ class DetailsView extends JTable implements RTextFileChooserView {
 
 		this.chooser = chooser;
 
-		readStr = chooser.getString("Read");
-		writeStr = chooser.getString("Write");
-		readWriteStr = chooser.getString("ReadWrite");
+		statusStrings = new String[4];
+		statusStrings[STATUS_READ] = chooser.getString("Read");
+		statusStrings[STATUS_WRITE] = chooser.getString("Write");
+		statusStrings[STATUS_READ_WRITE] = chooser.getString("ReadWrite");
 
 
 		// Create the table model, then wrap it in a sorter model.
@@ -121,7 +124,6 @@ class DetailsView extends JTable implements RTextFileChooserView {
 			renderer = FileChooserViewRendererFactory.createDefaultTableRenderer();
 			columnModel.getColumn(i).setCellRenderer(renderer);
 		}
-		sorter.setColumnComparator(File.class, new FileComparator());
 
 		ComponentOrientation orientation = chooser.getComponentOrientation();
 		applyComponentOrientation(orientation);
@@ -162,19 +164,7 @@ class DetailsView extends JTable implements RTextFileChooserView {
 				return;
 			}
 
-			FileExplorerTableModel tevm = (FileExplorerTableModel)getModel();
-			DetailsViewModel model = (DetailsViewModel)tevm.getTableModel();
-
-			for (int i=0; i<batch.getSize(); i++) {
-				int row = batch.getStart() + i;
-				FileAttributes attrs = batch.getAttributes(i);
-				model.setValueAt(attrs.status, row, 2);
-				FileSizeWrapper sizeWrapper = new FileSizeWrapper(attrs.size);
-				model.setValueAt(sizeWrapper, row, 3);
-				FileModifiedWrapper modWrapper = new FileModifiedWrapper(
-						attrs.modified);
-				model.setValueAt(modWrapper, row, 4);
-			}
+			getDetailsViewModel().setAttributes(batch);
 
 		}
 
@@ -186,7 +176,7 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	 */
 	@Override
 	public void clearDisplayedFiles() {
-		((DefaultTableModel)getModel()).setRowCount(0); // Just so the file list gets erased.
+		setDisplayedFiles(DirectoryListing.empty());
 	}
 
 
@@ -233,6 +223,39 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	}
 
 
+	/**
+	 * Returns the model containing the files, beneath our sorting model.
+	 *
+	 * @return The model.
+	 */
+	private DetailsViewModel getDetailsViewModel() {
+		return (DetailsViewModel)((FileExplorerTableModel)getModel()).getTableModel();
+	}
+
+
+	/**
+	 * Returns the files displayed by this view.
+	 *
+	 * @return The files.
+	 * @see #getListingIndex(int)
+	 */
+	DirectoryListing getListing() {
+		return getDetailsViewModel().listing;
+	}
+
+
+	/**
+	 * Returns the index in this view's listing of the file in a row.
+	 *
+	 * @param row The row.
+	 * @return The index of the file in the listing.
+	 * @see #getListing()
+	 */
+	int getListingIndex(int row) {
+		return ((FileExplorerTableModel)getModel()).modelIndex(row);
+	}
+
+
 	private int getDisplayCount() {
 		synchronized (ATTRIBUTES_LOCK) {
 			return displayCount;
@@ -289,24 +312,8 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	 *         isn't in the view.
 	 */
 	private int getRowFor(File file) {
-
-		// FIXME:  Is there a better way to find the row of the specified
-		// file???
-		// We must do a linear search because the files will usually (always?)
-		// not be listed in alphabetical order (i.e., folders come first, and
-		// the user can sort by column).
-		TableColumnModel columnModel = getColumnModel();
-		int column = columnModel.getColumn(0).getModelIndex();
-		TableModel tableModel = getModel();
-		int rowCount = getRowCount();
-		for (int i=0; i<rowCount; i++) {
-			File temp = (File)tableModel.getValueAt(i, column);
-			if (file.equals(temp))
-				return i;
-		}
-
-		return -1;
-
+		int index = getListing().indexOf(file);
+		return index==-1 ? -1 : ((FileExplorerTableModel)getModel()).viewIndex(index);
 	}
 
 
@@ -362,10 +369,10 @@ class DetailsView extends JTable implements RTextFileChooserView {
 		int row = rowAtPoint(e.getPoint());
 		if (row==-1)
 			return null;
-		File file = (File)getModel().getValueAt(row, 0);
-		if (file==null || file.isDirectory())
+		int index = getListingIndex(row);
+		if (getListing().isDirectory(index))
 			return null;
-		tip = chooser.getToolTipFor(file);
+		tip = chooser.getToolTipFor(getListing().getFile(index));
 		return tip;
 	}
 
@@ -400,8 +407,12 @@ class DetailsView extends JTable implements RTextFileChooserView {
 									this, getValueAt(i,col),
 									false, false, i,col);
 			cellWidth = comp.getPreferredSize().width;
-			if (maxWidth<cellWidth)
+			if (maxWidth<cellWidth) {
 				maxWidth = cellWidth;
+				if (maxWidth>=MAX_NAME_COLUMN_SIZE) {
+					break; // No need to look at the remaining files
+				}
+			}
 		}
 
 		int width = Math.min(Math.max(headerWidth, maxWidth), MAX_NAME_COLUMN_SIZE);
@@ -426,7 +437,7 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	}
 
 
-	private void restartAttributeThread(List<File> files) {
+	private void restartAttributeThread(DirectoryListing files) {
 		synchronized (ATTRIBUTES_LOCK) {
 			displayCount++;
 			if (attributeThread!=null) {
@@ -459,12 +470,9 @@ class DetailsView extends JTable implements RTextFileChooserView {
 	 * @param files The files to display.
 	 */
 	@Override
-	public void setDisplayedFiles(List<File> files) {
-
-		DetailsViewModel tableModel =
-			(DetailsViewModel)((FileExplorerTableModel)getModel()).getTableModel();
+	public void setDisplayedFiles(DirectoryListing files) {
 
-		tableModel.setContents(files);
+		getDetailsViewModel().setContents(files);
 		initFileNameColumnSize();
 
 		restartAttributeThread(files);
@@ -524,52 +532,42 @@ class DetailsView extends JTable implements RTextFileChooserView {
 
 
 	/**
-	 * A list of attributes for a batch of files, to update the table view
-	 * with.
+	 * Whether a batch of files are readable and writable, to update the
+	 * table view with.
 	 */
-	private class AttributeBatch {
+	private static final class AttributeBatch {
 
-		private int displayCount;
-		private int start;
-		private List<FileAttributes> fileAttrs;
+		private final int displayCount;
+		private final int start;
 
-		AttributeBatch(int displayCount, int start) {
+		/**
+		 * {@link DirectoryListing#FLAG_READABLE} and/or
+		 * {@link DirectoryListing#FLAG_WRITABLE} for each file.
+		 */
+		private final byte[] access;
+
+		AttributeBatch(int displayCount, int start, int size) {
 			this.displayCount = displayCount;
 			this.start = start;
-			fileAttrs = new ArrayList<>();
-		}
-
-		void addAttributes(FileAttributes attrs) {
-			fileAttrs.add(attrs);
-		}
-
-		FileAttributes getAttributes(int index) {
-			return fileAttrs.get(index);
+			access = new byte[size];
 		}
 
 		int getDisplayCount() {
 			return displayCount;
 		}
 
-		public int getSize() {
-			return fileAttrs.size();
-		}
-
-		public int getStart() {
-			return start;
-		}
-
 	}
 
 
 	/**
-	 * Gathers information about the displayed files and updates the table view
-	 * with batches of updates.
+	 * Determines whether the displayed files are readable and writable, and
+	 * updates the table view with batches of updates.  Everything else about
+	 * the files is known when the directory is listed.
 	 */
 	private class AttributeRunnable implements Runnable {
 
 		private int displayCount;
-		private List<File> files;
+		private DirectoryListing files;
 
 		/**
 		 * Arbitrarily-chosen number of files to get attributes for at a time.
@@ -578,7 +576,7 @@ class DetailsView extends JTable implements RTextFileChooserView {
 		private static final int BATCH_SIZE = 15;
 
 
-		AttributeRunnable(int displayCount, List<File> files) {
+		AttributeRunnable(int displayCount, DirectoryListing files) {
 			this.displayCount = displayCount;
 			this.files = files;
 		}
@@ -594,11 +592,18 @@ class DetailsView extends JTable implements RTextFileChooserView {
 				}
 
 				int max = Math.min(i+BATCH_SIZE, files.size());
-				final AttributeBatch batch = new AttributeBatch(displayCount,i);
+				final AttributeBatch batch = new AttributeBatch(displayCount, i, max-i);
 
 				for (int j=i; j<max; j++) {
-					File file = files.get(j);
-					batch.addAttributes(new FileAttributes(file));
+					File file = files.getFile(j);
+					byte access = 0;
+					if (file.canRead()) {
+						access |= DirectoryListing.FLAG_READABLE;
+					}
+					if (file.canWrite()) {
+						access |= DirectoryListing.FLAG_WRITABLE;
+					}
+					batch.access[j-i] = access;
 				}
 
 				if (shouldStop()) {
@@ -629,15 +634,32 @@ class DetailsView extends JTable implements RTextFileChooserView {
 
 
 	/**
-	 * Table model for the details view.
+	 * Table model for the details view.  The files are stored in a
+	 * {@link DirectoryListing}, whose columns hold everything but the type
+	 * descriptions, which are looked up the first time they are needed.  A
+	 * new listing replaces the old one at once, with a single change event,
+	 * and each batch of file attributes loaded in the background fires a
+	 * single event for all of its rows.  Rows are sorted by comparing the
+	 * listing's columns directly, without creating cell values.
 	 */
-	private class DetailsViewModel extends DefaultTableModel {
+	private class DetailsViewModel extends AbstractTableModel
+			implements FileExplorerTableModel.RowComparator {
+
+		private final String[] columnNames;
+
+		private DirectoryListing listing;
+
+		/**
+		 * The type descriptions of the files.  These are looked up the first
+		 * time they are needed.
+		 */
+		private String[] descriptions;
 
 		DetailsViewModel(String nameHeader, String typeHeader,
 							String statusHeader,
 							String sizeHeader, String lastModifiedHeader) {
 
-			String[] columnNames = new String[5];
+			columnNames = new String[5];
 			columnNames[0] = nameHeader;
 			columnNames[1] = typeHeader;
 			columnNames[2] = statusHeader;
@@ -651,33 +673,73 @@ class DetailsView extends JTable implements RTextFileChooserView {
 				}
 			}
 
-			setColumnIdentifiers(columnNames);
+			setContents(DirectoryListing.empty());
 		}
 
 		/**
-	 	 * Appends a bunch of rows to the end of the table data.  This method
-		 * is added because <code>DefaultTableModel</code> has no means of
-		 * adding multiple (i.e., many thousands of) rows without repeatedly
-		 * calling <code>addRow</code> or <code>insertRow</code>, which
-		 * adds a lot of overhead (e.g., notifies listeners of each line
-		 * added instead of just all of them at once, etc.).
+		 * Replaces the files in this model.  Listeners are notified once,
+		 * no matter how many files there are.  Whether the files are
+		 * readable and writable is unknown until
+		 * {@link #setAttributes(AttributeBatch)} is called for them.
+		 *
+		 * @param data The new files.
 		 */
-		public void setContents(Collection<File> data) {
-
-			// Calling setDataVector() call would be faster, but would require
-			// us to reset column 0's renderer to our custom one.  So, for now,
-			// we're leaving it as the two substitute lines below.  Although,
-			// we could substitute them and just re-add the renderer.
-			//setDataVector(manipulated(data));
+		public void setContents(DirectoryListing data) {
+			listing = data;
+			descriptions = new String[data.size()];
+			fireTableDataChanged();
+		}
 
-			setRowCount(0);
+		/**
+		 * Sets whether a range of files are readable and writable.
+		 * Listeners are notified once for the entire range.
+		 *
+		 * @param batch The attributes.
+		 */
+		void setAttributes(AttributeBatch batch) {
+
+			int start = batch.start;
+			int count = batch.access.length;
+			for (int i=0; i<count; i++) {
+				byte access = batch.access[i];
+				listing.setAccess(start + i,
+						(access & DirectoryListing.FLAG_READABLE)!=0,
+						(access & DirectoryListing.FLAG_WRITABLE)!=0);
+			}
 
-			for (File file : data) {
-				dataVector.add(getTableObjectVectorForFile(file));
+			if (count>0) {
+				fireTableRowsUpdated(start, start + count - 1);
 			}
 
 		}
 
+		@Override
+		public int compareRows(int row1, int row2, int column) {
+			return switch (column) {
+				// Directories first, then by name
+				case 0 -> {
+					boolean dir1 = listing.isDirectory(row1);
+					if (dir1!=listing.isDirectory(row2)) {
+						yield dir1 ? -1 : 1;
+					}
+					yield listing.compareNames(row1, row2);
+				}
+				case 1 -> getDescription(row1).compareTo(getDescription(row2));
+				case 2 -> {
+					String s1 = getStatusString(row1);
+					String s2 = getStatusString(row2);
+					if (s1==null || s2==null) {
+						yield s1==null ? (s2==null ? 0 : -1) : 1;
+					}
+					yield s1.compareTo(s2);
+				}
+				case 3 -> Long.compare(listing.getSize(row1), listing.getSize(row2));
+				case 4 -> Long.compare(listing.getLastModified(row1),
+						listing.getLastModified(row2));
+				default -> 0;
+			};
+		}
+
 		@Override
 		public Class<?> getColumnClass(int column) {
 			return switch (column) {
@@ -691,80 +753,64 @@ class DetailsView extends JTable implements RTextFileChooserView {
 			};
 		}
 
-		private Vector<?> getTableObjectVectorForFile(File file) {
-			String description = chooser.getDescription(file);
-			Vector<Object> temp = new Vector<>(5);
-			temp.add(0, file);
-			temp.add(1, description);
-			temp.add(2, null);//status);
-			temp.add(3, null);//new FileSizeWrapper(length));
-			temp.add(4, null);//new FileModifiedWrapper(file.lastModified()));
-			return temp;
+		@Override
+		public int getColumnCount() {
+			return columnNames.length;
 		}
 
 		@Override
-		public boolean isCellEditable(int row, int column) {
-			return false;
+		public String getColumnName(int column) {
+			return columnNames[column];
 		}
 
-	}
-
-
-	/**
-	 * Attributes of a specific file.
-	 */
-	private class FileAttributes {
+		private String getDescription(int row) {
+			if (descriptions[row]==null) {
+				descriptions[row] = chooser.getDescription(listing.getFile(row));
+			}
+			return descriptions[row];
+		}
 
-		//private File file;
-		private String status;
-		private long size;
-		private long modified;
+		@Override
+		public int getRowCount() {
+			return listing.size();
+		}
 
-		FileAttributes(File file) {
-			//this.file = file;
-			size = file.isDirectory() ? -1 : file.length();
-			boolean canRead = file.canRead();
-			boolean canWrite = file.canWrite();
-			if (canRead) {
-				status = canWrite ? readWriteStr : readStr;
+		/**
+		 * Returns the text for the "Status" column of a row.
+		 *
+		 * @param row The row.
+		 * @return The text, or <code>null</code> if it isn't known yet.
+		 */
+		private String getStatusString(int row) {
+			byte flags = listing.getFlags(row);
+			if ((flags & DirectoryListing.FLAG_ACCESS_KNOWN)==0) {
+				return null;
 			}
-			else if (canWrite) {
-				status = writeStr;
+			int status = STATUS_NONE;
+			if ((flags & DirectoryListing.FLAG_READABLE)!=0) {
+				status |= STATUS_READ;
 			}
-			else {
-				status = null;
+			if ((flags & DirectoryListing.FLAG_WRITABLE)!=0) {
+				status |= STATUS_WRITE;
 			}
-			modified = file.lastModified();
+			return statusStrings[status];
 		}
 
-	}
-
-
-	/**
-	 * Sorts two <code>File</code> objects as follows:<br>
-	 * If one is a file and the other is a directory, returns that the
-	 * directory object comes "before" the file object.  If they are either
-	 * both files or both directories, then it uses <code>File</code>'s
-	 * standard <code>compareTo</code> method.
-	 */
-	private static final class FileComparator implements Comparator<File> {
+		@Override
+		public Object getValueAt(int row, int column) {
+			return switch (column) {
+				case 0 -> listing.getFile(row);
+				case 1 -> getDescription(row);
+				case 2 -> getStatusString(row);
+				case 3 -> new FileSizeWrapper(listing.getSize(row));
+				case 4 -> new FileModifiedWrapper(listing.getLastModified(row));
+				default -> null;
+			};
+		}
 
 		@Override
-		public int compare(File f1, File f2) {
-			boolean f1IsDir = f1.isDirectory();
-			boolean f2IsDir = f2.isDirectory();
-			if (f1IsDir) {
-				if (!f2IsDir)
-					return -1;
-				// Both are directories.
-				return f1.compareTo(f2);
-			}
-			// f1 isn't a directory.
-			if (f2IsDir)
-				return 1;
-			// Both are regular files.  Note OS X needs special logic since File.compareTo()
-			// isn't implemented correctly there
-			return IS_OSX ? f1.getName().compareToIgnoreCase(f2.getName()) : f1.compareTo(f2);
+		public boolean isCellEditable(int row, int column) {
+			return false;
 		}
 
 	}
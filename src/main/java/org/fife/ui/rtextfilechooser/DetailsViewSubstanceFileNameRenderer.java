@@ -55,10 +55,13 @@ class DetailsViewSubstanceFileNameRenderer
 		setText(fileName);
 
 		// Set the image according to the file type.
-		FileTypeInfo info = chooser.getFileTypeInfoFor(file);
+		DetailsView view = (DetailsView)table;
+		DirectoryListing listing = view.getListing();
+		int index = view.getListingIndex(row);
+		FileTypeInfo info = chooser.getFileTypeInfoFor(listing, index);
 		setIcon(info.icon);
 		if (!selected && !substanceAndRollover(table, row, column)) {
-			if (chooser.getShowHiddenFiles() && file.isHidden()) {
+			if (chooser.getShowHiddenFiles() && listing.isHidden(index)) {
 				setForeground(chooser.getHiddenFileColor());
 			}
 			else {
@@ -0,0 +1,404 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+
+/**
+ * Determines, off the EDT, whether directories contain any children.  This
+ * lets file system trees show expand handles only for directories that
+ * actually have something in them, without a <code>listFiles()</code> or
+ * <code>isDirectory()</code> call per child on the EDT.<p>
+ *
+ * A probe simply opens a <code>DirectoryStream</code> and checks whether its
+ * iterator has a first element.  Results are cached per directory, and each
+ * probed directory is registered with a <code>WatchService</code> so that
+ * its cached result is dropped as soon as entries are created in or deleted
+ * from it.  Listeners are notified of such invalidations so they can
+ * re-probe anything still on screen.<p>
+ *
+ * There are two shared instances: one that considers any entry a child, and
+ * one that only considers subdirectories (for {@link DirectoryTree}).
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class DirectoryChildProbe {
+
+	/**
+	 * Cached results, keyed by directory.
+	 */
+	private final Map<Path, Boolean> cache;
+
+	/**
+	 * Callbacks waiting on directories currently being probed, so we don't
+	 * queue duplicates.  This and {@link #changedWhilePending} are only
+	 * accessed while synchronized on this object.
+	 */
+	private final Map<Path, List<Consumer<Boolean>>> pending;
+
+	/**
+	 * Directories whose contents changed while they were being probed, so
+	 * their results may be stale.
+	 */
+	private final Set<Path> changedWhilePending;
+
+	/**
+	 * Directories being watched for changes, in registration order.
+	 */
+	private final Deque<WatchKey> watchOrder;
+
+	private final Map<WatchKey, Path> watchedDirs;
+	private final List<Consumer<File>> invalidationListeners;
+	private final boolean directoriesOnly;
+	private final ExecutorService executor;
+	private WatchService watchService;
+
+	/**
+	 * The maximum number of directories watched for changes at once.  Watches
+	 * are a limited OS resource (e.g. inotify on Linux), so the oldest ones
+	 * are dropped, along with their cached results, past this limit.
+	 */
+	private static final int MAX_WATCHED_DIRS = 512;
+
+	/**
+	 * The maximum number of times a directory is probed in a row because
+	 * it changed while being probed.  After that, its result is returned
+	 * but not cached.
+	 */
+	private static final int MAX_PROBE_ATTEMPTS = 3;
+
+	private static final DirectoryChildProbe ANY_CHILD =
+			new DirectoryChildProbe(false);
+
+	private static final DirectoryChildProbe SUBDIRECTORIES =
+			new DirectoryChildProbe(true);
+
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 *
+	 * @param directoriesOnly Whether only subdirectories count as children.
+	 */
+	private DirectoryChildProbe(boolean directoriesOnly) {
+		this.directoriesOnly = directoriesOnly;
+		cache = new ConcurrentHashMap<>();
+		pending = new HashMap<>();
+		changedWhilePending = new HashSet<>();
+		watchOrder = new ArrayDeque<>();
+		watchedDirs = new ConcurrentHashMap<>();
+		invalidationListeners = new CopyOnWriteArrayList<>();
+		executor = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "DirectoryChildProbe");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+
+	/**
+	 * Adds a listener notified when a directory's cached result is
+	 * invalidated because its contents changed.  Listeners are notified on
+	 * a background thread.
+	 *
+	 * @param listener The listener to add.
+	 * @see #removeInvalidationListener(Consumer)
+	 */
+	void addInvalidationListener(Consumer<File> listener) {
+		invalidationListeners.add(listener);
+	}
+
+
+	/**
+	 * Returns the shared instance of this class.
+	 *
+	 * @param directoriesOnly Whether only subdirectories should count as
+	 *        children.
+	 * @return The shared instance.
+	 */
+	static DirectoryChildProbe get(boolean directoriesOnly) {
+		return directoriesOnly ? SUBDIRECTORIES : ANY_CHILD;
+	}
+
+
+	/**
+	 * Returns the cached result for a directory, if any.
+	 *
+	 * @param dir The directory.
+	 * @return Whether the directory has children, or <code>null</code> if
+	 *         it has not been probed (or its result was invalidated).
+	 */
+	Boolean getCachedResult(File dir) {
+		Path path = toPath(dir);
+		return path==null ? null : cache.get(path);
+	}
+
+
+	/**
+	 * Drops any cached result for a directory.
+	 *
+	 * @param dir The directory.
+	 */
+	void invalidate(File dir) {
+		Path path = toPath(dir);
+		if (path!=null) {
+			invalidate(path);
+		}
+	}
+
+
+	/**
+	 * Drops any cached result for a directory, and notes that a probe of it
+	 * that's in progress may return a stale result.
+	 *
+	 * @param dir The directory.
+	 */
+	private synchronized void invalidate(Path dir) {
+		cache.remove(dir);
+		if (pending.containsKey(dir)) {
+			changedWhilePending.add(dir);
+		}
+	}
+
+
+	/**
+	 * Does the actual probing of a directory.  Called on our worker thread.
+	 */
+	private boolean probeImpl(Path dir) {
+		DirectoryStream.Filter<Path> filter = directoriesOnly ?
+				Files::isDirectory : p -> true;
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, filter)) {
+			return ds.iterator().hasNext();
+		} catch (IOException | RuntimeException e) {
+			// Unreadable or vanished; err on the side of showing a
+			// handle, as the old (non-probing) behavior did.
+			return true;
+		}
+	}
+
+
+	/**
+	 * Asynchronously determines whether a directory has children.  If a
+	 * cached result is available, <code>callback</code> is called
+	 * immediately.  Otherwise, the directory is probed on a worker thread
+	 * and <code>callback</code> is called on the EDT.  If the directory is
+	 * already being probed, <code>callback</code> is called when that probe
+	 * completes.
+	 *
+	 * @param dir The directory to probe.
+	 * @param callback Called with whether the directory has children.
+	 */
+	void probe(File dir, Consumer<Boolean> callback) {
+
+		Path path = toPath(dir);
+		if (path==null) {
+			return;
+		}
+
+		Boolean cached = cache.get(path);
+		if (cached!=null) {
+			callback.accept(cached);
+			return;
+		}
+
+		boolean schedule;
+		synchronized (this) {
+			List<Consumer<Boolean>> callbacks = pending.get(path);
+			schedule = callbacks==null;
+			if (schedule) {
+				callbacks = new ArrayList<>(1);
+				pending.put(path, callbacks);
+			}
+			callbacks.add(callback);
+		}
+
+		if (schedule) {
+			executor.execute(() -> probeAndNotify(path));
+		}
+
+	}
+
+
+	/**
+	 * Probes a directory, caches the result, and notifies everyone waiting
+	 * on it.  The directory is watched before it is probed, so a change
+	 * made while it is being probed invalidates the result.  Called on our
+	 * worker thread.
+	 *
+	 * @param path The directory to probe.
+	 */
+	private void probeAndNotify(Path path) {
+
+		boolean result = true;
+		List<Consumer<Boolean>> callbacks = null;
+
+		try {
+			boolean watched = watch(path);
+			for (int i=0; callbacks==null; i++) {
+				result = probeImpl(path);
+				synchronized (this) {
+					boolean stale = changedWhilePending.remove(path);
+					if (!stale || i==MAX_PROBE_ATTEMPTS - 1) {
+						if (watched && !stale) {
+							cache.put(path, result);
+						}
+						callbacks = pending.remove(path);
+					}
+				}
+			}
+		} finally {
+			if (callbacks==null) { // Unexpected error; don't leave it pending
+				synchronized (this) {
+					callbacks = pending.remove(path);
+					changedWhilePending.remove(path);
+				}
+			}
+		}
+
+		boolean r = result;
+		List<Consumer<Boolean>> toNotify = callbacks;
+		SwingUtilities.invokeLater(() -> {
+			for (Consumer<Boolean> callback : toNotify) {
+				callback.accept(r);
+			}
+		});
+
+	}
+
+
+	/**
+	 * Removes a listener added via
+	 * {@link #addInvalidationListener(Consumer)}.
+	 *
+	 * @param listener The listener to remove.
+	 */
+	void removeInvalidationListener(Consumer<File> listener) {
+		invalidationListeners.remove(listener);
+	}
+
+
+	private static Path toPath(File dir) {
+		try {
+			return dir.toPath();
+		} catch (InvalidPathException e) { // Shell folders on Windows, etc.
+			return null;
+		}
+	}
+
+
+	/**
+	 * Registers a directory for change notifications.  Called on our worker
+	 * thread.
+	 *
+	 * @param dir The directory to watch.
+	 * @return Whether the directory is being watched.  If it isn't, its
+	 *         result shouldn't be cached, as it can't be invalidated.
+	 */
+	private boolean watch(Path dir) {
+
+		try {
+			if (watchService==null) {
+				watchService = dir.getFileSystem().newWatchService();
+				Thread t = new Thread(this::watchLoop,
+						"DirectoryChildProbeWatcher");
+				t.setDaemon(true);
+				t.start();
+			}
+			WatchKey key = dir.register(watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_DELETE);
+			if (watchedDirs.put(key, dir)==null) {
+				synchronized (watchOrder) {
+					watchOrder.addLast(key);
+					while (watchOrder.size()>MAX_WATCHED_DIRS) {
+						WatchKey oldest = watchOrder.removeFirst();
+						oldest.cancel();
+						Path oldDir = watchedDirs.remove(oldest);
+						if (oldDir!=null) {
+							cache.remove(oldDir);
+						}
+					}
+				}
+			}
+			return true;
+		} catch (IOException | UnsupportedOperationException |
+				ClosedWatchServiceException | ProviderMismatchException e) {
+			// Can't watch this directory (or the file system doesn't support
+			// it); don't trust a cached value we can't invalidate.
+			cache.remove(dir);
+			return false;
+		}
+
+	}
+
+
+	/**
+	 * Waits for change notifications and invalidates cached results
+	 * accordingly.  Runs on a dedicated daemon thread.
+	 */
+	private void watchLoop() {
+
+		while (true) {
+
+			WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+
+			// Any event (including OVERFLOW) means we should re-probe.
+			key.pollEvents();
+			Path dir = watchedDirs.get(key);
+			if (!key.reset()) {
+				watchedDirs.remove(key);
+				synchronized (watchOrder) {
+					watchOrder.remove(key);
+				}
+			}
+
+			if (dir!=null) {
+				invalidate(dir);
+				File file = dir.toFile();
+				for (Consumer<File> listener : invalidationListeners) {
+					listener.accept(file);
+				}
+			}
+
+		}
+
+	}
+
+
+}
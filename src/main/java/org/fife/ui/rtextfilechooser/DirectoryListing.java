@@ -0,0 +1,804 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.swing.Icon;
+import javax.swing.filechooser.FileFilter;
+
+import org.fife.ui.OS;
+
+
+/**
+ * The contents of a directory, as displayed by a file chooser view.  Rather
+ * than a <code>File</code> and several helper objects per file, the listing
+ * is stored in columns: all names in a single <code>char</code> array with
+ * an offset per file, sizes and modified times in <code>long</code> arrays,
+ * boolean attributes as bit flags in a <code>byte</code> per file, and icons
+ * and colors as indices into small tables shared by all files.  A listing
+ * of 100,000 files is thus a handful of arrays rather than hundreds of
+ * thousands of objects.<p>
+ *
+ * Each file's type, size, modified time and hidden state are read in a single
+ * call when the directory is listed.  Whether a file is readable and writable
+ * costs extra system calls, so it is filled in later, by views that display
+ * it.  <code>File</code> objects are only created on demand, e.g. for the
+ * few files visible in a view.<p>
+ *
+ * Filtering and sorting a listing work on arrays of indices into it; see
+ * {@link #select(int[], int)} and {@link #sort(int[], int, int, IndexComparator)}.
+ * Since everything needed to filter a listing is already in memory (see
+ * {@link #getListedFile(int)}), a listing can be filtered again, e.g. when
+ * the user picks a different file filter, without listing the directory
+ * again.
+ * Instances are not thread safe, and should only be modified on the EDT.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class DirectoryListing {
+
+	/**
+	 * Flag set for directories.
+	 */
+	static final byte FLAG_DIRECTORY		= 0x01;
+
+	/**
+	 * Flag set for hidden files.
+	 */
+	static final byte FLAG_HIDDEN			= 0x02;
+
+	/**
+	 * Flag set for readable files, once {@link #FLAG_ACCESS_KNOWN} is set.
+	 */
+	static final byte FLAG_READABLE			= 0x04;
+
+	/**
+	 * Flag set for writable files, once {@link #FLAG_ACCESS_KNOWN} is set.
+	 */
+	static final byte FLAG_WRITABLE			= 0x08;
+
+	/**
+	 * Flag set once whether a file is readable and writable is known.
+	 */
+	static final byte FLAG_ACCESS_KNOWN		= 0x10;
+
+	private final File dir;
+	private final int size;
+	private final char[] nameChars;
+
+	/**
+	 * The offset of each file's name in {@link #nameChars}.  There is one
+	 * extra element, so the name of file <code>i</code> ends at
+	 * <code>nameOffsets[i+1]</code>.
+	 */
+	private final int[] nameOffsets;
+
+	/**
+	 * File sizes, or <code>-1</code> for directories.
+	 */
+	private final long[] sizes;
+	private final long[] modifiedTimes;
+	private final byte[] flags;
+
+	/**
+	 * Indices into {@link Tables#icons}, or <code>-1</code> if a file's icon
+	 * hasn't been looked up yet.
+	 */
+	private final int[] iconIndices;
+
+	/**
+	 * Indices into {@link Tables#colorKeys}, or <code>-1</code> for files
+	 * painted in the default color.
+	 */
+	private final int[] colorIndices;
+
+	private final Tables tables;
+
+	/**
+	 * Maps each file to its index, so {@link #indexOf(File)} doesn't scan
+	 * the listing.  This is created when first needed.
+	 */
+	private Map<File, Integer> fileIndices;
+
+	private static final boolean CASE_SENSITIVE = OS.get().isCaseSensitive();
+
+	/**
+	 * Whether the DOS "hidden" attribute determines whether files are
+	 * hidden.  Other file systems may support the "dos" attribute view too
+	 * (e.g. via extended attributes on Linux), but there hidden files are
+	 * those whose names start with a dot, as with
+	 * <code>File.isHidden()</code>.
+	 */
+	private static final boolean DOS_ATTRIBUTES = OS.get()==OS.WINDOWS &&
+			FileSystems.getDefault().supportedFileAttributeViews().contains("dos");
+
+
+	private DirectoryListing(File dir, char[] nameChars, int[] nameOffsets,
+			long[] sizes, long[] modifiedTimes, byte[] flags,
+			int[] iconIndices, int[] colorIndices, Tables tables) {
+		this.dir = dir;
+		this.size = flags.length;
+		this.nameChars = nameChars;
+		this.nameOffsets = nameOffsets;
+		this.sizes = sizes;
+		this.modifiedTimes = modifiedTimes;
+		this.flags = flags;
+		this.iconIndices = iconIndices;
+		this.colorIndices = colorIndices;
+		this.tables = tables;
+	}
+
+
+	/**
+	 * Compares the names of two files, in the order files are displayed
+	 * on this OS (i.e. ignoring case unless the OS is case sensitive).  This
+	 * doesn't create any objects.
+	 *
+	 * @param i1 The index of the first file.
+	 * @param i2 The index of the second file.
+	 * @return The comparison.
+	 */
+	int compareNames(int i1, int i2) {
+		int start1 = nameOffsets[i1];
+		int len1 = nameOffsets[i1 + 1] - start1;
+		int start2 = nameOffsets[i2];
+		int len2 = nameOffsets[i2 + 1] - start2;
+		int len = Math.min(len1, len2);
+		for (int i=0; i<len; i++) {
+			char c1 = nameChars[start1 + i];
+			char c2 = nameChars[start2 + i];
+			if (c1!=c2) {
+				if (!CASE_SENSITIVE) {
+					// Same as String.CASE_INSENSITIVE_ORDER
+					c1 = Character.toUpperCase(c1);
+					c2 = Character.toUpperCase(c2);
+					if (c1!=c2) {
+						c1 = Character.toLowerCase(c1);
+						c2 = Character.toLowerCase(c2);
+						if (c1!=c2) {
+							return c1 - c2;
+						}
+					}
+				}
+				else {
+					return c1 - c2;
+				}
+			}
+		}
+		return len1 - len2;
+	}
+
+
+	/**
+	 * Returns an empty listing.
+	 *
+	 * @return An empty listing.
+	 */
+	static DirectoryListing empty() {
+		return new Builder(null, 0).build();
+	}
+
+
+	/**
+	 * Returns the files in this listing that should be displayed: those
+	 * accepted by a filter, minus hidden files unless they're being shown,
+	 * and minus regular files if only directories are shown.  Directories
+	 * are listed first.  This does no I/O, as the filter is passed files
+	 * whose attributes come from this listing.  The filter is only called
+	 * on this thread, so it needn't be thread safe.
+	 *
+	 * @param order The indices of the files in this listing, in the order
+	 *        to display them.
+	 * @param filter The file filter.
+	 * @param showHidden Whether to include hidden files.
+	 * @param filesShown Whether to include regular files.
+	 * @return The files to display.
+	 */
+	DirectoryListing filter(int[] order, FileFilter filter, boolean showHidden,
+			boolean filesShown) {
+
+		// Directories first, keeping both groups in their original order
+		int[] displayed = new int[order.length];
+		int[] files = new int[order.length];
+		int count = 0;
+		int fileCount = 0;
+		for (int i : order) {
+			if (!showHidden && isHidden(i)) {
+				continue;
+			}
+			if (isDirectory(i)) {
+				displayed[count++] = i;
+			}
+			else if (filesShown && filter.accept(getListedFile(i))) {
+				files[fileCount++] = i;
+			}
+		}
+		System.arraycopy(files, 0, displayed, count, fileCount);
+		count += fileCount;
+		return select(displayed, count);
+
+	}
+
+
+	/**
+	 * Returns the color key of a file: the extension used to look up its
+	 * color.  Only keys are stored, not colors, so changes to the colors
+	 * apply immediately.
+	 *
+	 * @param index The index of the file.
+	 * @return The color key, or <code>null</code> if the file is painted in
+	 *         the default color.
+	 */
+	String getColorKey(int index) {
+		int colorIndex = colorIndices[index];
+		return colorIndex==-1 ? null : tables.colorKeys.get(colorIndex);
+	}
+
+
+	/**
+	 * Returns the directory listed.
+	 *
+	 * @return The directory, or <code>null</code> for an empty listing.
+	 */
+	File getDirectory() {
+		return dir;
+	}
+
+
+	/**
+	 * Returns a file in this listing.  A new <code>File</code> is created
+	 * with each call.
+	 *
+	 * @param index The index of the file.
+	 * @return The file.
+	 */
+	File getFile(int index) {
+		return new File(dir, getName(index));
+	}
+
+
+	/**
+	 * Returns the flags of a file.
+	 *
+	 * @param index The index of the file.
+	 * @return The flags, a combination of the <code>FLAG_XXX</code>
+	 *         constants.
+	 */
+	byte getFlags(int index) {
+		return flags[index];
+	}
+
+
+	/**
+	 * Returns the icon for a file, looking it up the first time it is needed.
+	 *
+	 * @param index The index of the file.
+	 * @param iconLoader Looks up the icon for a file.
+	 * @return The icon.
+	 */
+	Icon getIcon(int index, Function<File, Icon> iconLoader) {
+		int iconIndex = iconIndices[index];
+		if (iconIndex==-1) {
+			Icon icon = iconLoader.apply(getFile(index));
+			Integer existing = tables.iconIndices.get(icon);
+			if (existing==null) {
+				existing = tables.icons.size();
+				tables.icons.add(icon);
+				tables.iconIndices.put(icon, existing);
+			}
+			iconIndex = existing;
+			iconIndices[index] = iconIndex;
+		}
+		return tables.icons.get(iconIndex);
+	}
+
+
+	/**
+	 * Returns the last modified time of a file when it was listed.
+	 *
+	 * @param index The index of the file.
+	 * @return The modified time.
+	 */
+	long getLastModified(int index) {
+		return modifiedTimes[index];
+	}
+
+
+	/**
+	 * Returns a file in this listing that answers questions about its type,
+	 * size, modified time and hidden state from this listing rather than
+	 * the file system.  This lets file filters, which typically call
+	 * <code>isDirectory()</code>, be applied to a listing without any I/O.
+	 * The returned file should not be retained, since it doesn't reflect
+	 * changes made after the directory was listed.
+	 *
+	 * @param index The index of the file.
+	 * @return The file.
+	 * @see #getFile(int)
+	 */
+	File getListedFile(int index) {
+		return new ListedFile(dir, getName(index), flags[index], sizes[index],
+				modifiedTimes[index]);
+	}
+
+
+	/**
+	 * Returns the name of a file.
+	 *
+	 * @param index The index of the file.
+	 * @return The name.
+	 */
+	String getName(int index) {
+		int start = nameOffsets[index];
+		return new String(nameChars, start, nameOffsets[index + 1] - start);
+	}
+
+
+	/**
+	 * Returns the indices of the files in this listing, sorted by name.
+	 *
+	 * @return The indices.
+	 * @see #compareNames(int, int)
+	 */
+	int[] getNameOrder() {
+		int[] order = new int[size];
+		for (int i=0; i<size; i++) {
+			order[i] = i;
+		}
+		sort(order, 0, size, this::compareNames);
+		return order;
+	}
+
+
+	/**
+	 * Returns the size of a file when it was listed.
+	 *
+	 * @param index The index of the file.
+	 * @return The size, or <code>-1</code> if it is a directory.
+	 */
+	long getSize(int index) {
+		return sizes[index];
+	}
+
+
+	/**
+	 * Returns the index of a file in this listing.
+	 *
+	 * @param file The file.
+	 * @return The index, or <code>-1</code> if it isn't in this listing.
+	 */
+	int indexOf(File file) {
+		if (dir==null) {
+			return -1;
+		}
+		if (fileIndices==null) {
+			// File.equals() ignores case if the OS does
+			fileIndices = new HashMap<>(size * 4 / 3 + 1);
+			for (int i=0; i<size; i++) {
+				fileIndices.putIfAbsent(new File(dir, getName(i)), i);
+			}
+		}
+		Integer index = fileIndices.get(file);
+		return index!=null ? index : -1;
+	}
+
+
+	/**
+	 * Returns whether a file is a directory.
+	 *
+	 * @param index The index of the file.
+	 * @return Whether the file is a directory.
+	 */
+	boolean isDirectory(int index) {
+		return (flags[index] & FLAG_DIRECTORY)!=0;
+	}
+
+
+	/**
+	 * Returns whether a file is hidden.
+	 *
+	 * @param index The index of the file.
+	 * @return Whether the file is hidden.
+	 */
+	boolean isHidden(int index) {
+		return (flags[index] & FLAG_HIDDEN)!=0;
+	}
+
+
+	/**
+	 * Lists a directory.
+	 *
+	 * @param dir The directory to list.
+	 * @return The listing, or <code>null</code> if <code>dir</code> isn't a
+	 *         directory or can't be read.
+	 */
+	static DirectoryListing list(File dir) {
+
+		Path dirPath;
+		try {
+			dirPath = dir.toPath();
+		} catch (InvalidPathException ipe) {
+			return null;
+		}
+
+		Builder builder = new Builder(dir, 64);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath)) {
+			for (Path child : stream) {
+				builder.add(child);
+			}
+		} catch (IOException | DirectoryIteratorException | SecurityException e) {
+			return null;
+		}
+		return builder.build();
+
+	}
+
+
+	/**
+	 * Returns a new listing containing a subset of the files in this one,
+	 * for example only those matching a filter, and/or in a different order.
+	 * Icons already looked up are carried over to the new listing.
+	 *
+	 * @param indices The indices of the files to include, in the order to
+	 *        include them.
+	 * @param count The number of indices to use.
+	 * @return The new listing.
+	 */
+	DirectoryListing select(int[] indices, int count) {
+
+		int charCount = 0;
+		for (int i=0; i<count; i++) {
+			int index = indices[i];
+			charCount += nameOffsets[index + 1] - nameOffsets[index];
+		}
+
+		char[] newNameChars = new char[charCount];
+		int[] newNameOffsets = new int[count + 1];
+		long[] newSizes = new long[count];
+		long[] newModifiedTimes = new long[count];
+		byte[] newFlags = new byte[count];
+		int[] newIconIndices = new int[count];
+		int[] newColorIndices = new int[count];
+
+		int offset = 0;
+		for (int i=0; i<count; i++) {
+			int index = indices[i];
+			int start = nameOffsets[index];
+			int len = nameOffsets[index + 1] - start;
+			System.arraycopy(nameChars, start, newNameChars, offset, len);
+			newNameOffsets[i] = offset;
+			offset += len;
+			newSizes[i] = sizes[index];
+			newModifiedTimes[i] = modifiedTimes[index];
+			newFlags[i] = flags[index];
+			newIconIndices[i] = iconIndices[index];
+			newColorIndices[i] = colorIndices[index];
+		}
+		newNameOffsets[count] = offset;
+
+		return new DirectoryListing(dir, newNameChars, newNameOffsets,
+				newSizes, newModifiedTimes, newFlags, newIconIndices,
+				newColorIndices, tables);
+
+	}
+
+
+	/**
+	 * Records whether a file is readable and writable.
+	 *
+	 * @param index The index of the file.
+	 * @param readable Whether the file is readable.
+	 * @param writable Whether the file is writable.
+	 */
+	void setAccess(int index, boolean readable, boolean writable) {
+		byte f = (byte)(flags[index] | FLAG_ACCESS_KNOWN);
+		f = (byte)(readable ? f | FLAG_READABLE : f & ~FLAG_READABLE);
+		f = (byte)(writable ? f | FLAG_WRITABLE : f & ~FLAG_WRITABLE);
+		flags[index] = f;
+	}
+
+
+	/**
+	 * Returns the number of files in this listing.
+	 *
+	 * @return The number of files.
+	 */
+	int size() {
+		return size;
+	}
+
+
+	/**
+	 * Sorts a range of indices into this listing.  The sort is stable, and
+	 * no objects are created per file.
+	 *
+	 * @param indices The indices to sort.
+	 * @param from The start of the range to sort, inclusive.
+	 * @param to The end of the range to sort, exclusive.
+	 * @param comparator Compares the files at two indices.
+	 */
+	static void sort(int[] indices, int from, int to, IndexComparator comparator) {
+		if (to - from>1) {
+			int[] temp = Arrays.copyOfRange(indices, from, to);
+			mergeSort(temp, indices, from, to, -from, comparator);
+		}
+	}
+
+
+	/**
+	 * Merge sorts <code>dest[from, to)</code>, using <code>src</code> (a copy
+	 * of the same range, offset by <code>srcOffset</code>) as scratch space.
+	 */
+	private static void mergeSort(int[] src, int[] dest, int from, int to,
+			int srcOffset, IndexComparator comparator) {
+
+		int length = to - from;
+
+		if (length<7) { // Insertion sort small ranges
+			for (int i=from; i<to; i++) {
+				for (int j=i; j>from && comparator.compare(dest[j-1], dest[j])>0; j--) {
+					int temp = dest[j];
+					dest[j] = dest[j-1];
+					dest[j-1] = temp;
+				}
+			}
+			return;
+		}
+
+		// Sort each half of src, using dest as scratch space, then merge
+		// the halves into dest
+		int destFrom = from;
+		int destTo = to;
+		from += srcOffset;
+		to += srcOffset;
+		int mid = (from + to) >>> 1;
+		mergeSort(dest, src, from, mid, -srcOffset, comparator);
+		mergeSort(dest, src, mid, to, -srcOffset, comparator);
+
+		if (comparator.compare(src[mid-1], src[mid])<=0) { // Already in order
+			System.arraycopy(src, from, dest, destFrom, length);
+			return;
+		}
+
+		for (int i=destFrom, p=from, q=mid; i<destTo; i++) {
+			if (q>=to || (p<mid && comparator.compare(src[p], src[q])<=0)) {
+				dest[i] = src[p++];
+			}
+			else {
+				dest[i] = src[q++];
+			}
+		}
+
+	}
+
+
+	/**
+	 * Builds a listing one file at a time.
+	 */
+	private static final class Builder {
+
+		private final File dir;
+		private final Tables tables;
+		private final StringBuilder names;
+		private int size;
+		private int[] nameOffsets;
+		private long[] sizes;
+		private long[] modifiedTimes;
+		private byte[] flags;
+		private int[] colorIndices;
+
+		Builder(File dir, int capacity) {
+			this.dir = dir;
+			tables = new Tables();
+			names = new StringBuilder(capacity * 16);
+			nameOffsets = new int[capacity + 1];
+			sizes = new long[capacity];
+			modifiedTimes = new long[capacity];
+			flags = new byte[capacity];
+			colorIndices = new int[capacity];
+		}
+
+		void add(Path file) {
+
+			if (size==sizes.length) {
+				int capacity = Math.max(16, size*2);
+				nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+				sizes = Arrays.copyOf(sizes, capacity);
+				modifiedTimes = Arrays.copyOf(modifiedTimes, capacity);
+				flags = Arrays.copyOf(flags, capacity);
+				colorIndices = Arrays.copyOf(colorIndices, capacity);
+			}
+
+			String name = file.getFileName().toString();
+			BasicFileAttributes attrs = readAttributes(file);
+			byte f = 0;
+			boolean hidden;
+			if (attrs instanceof DosFileAttributes dosAttrs) {
+				hidden = dosAttrs.isHidden();
+			}
+			else {
+				hidden = name.startsWith(".");
+			}
+			if (hidden) {
+				f |= FLAG_HIDDEN;
+			}
+
+			if (attrs!=null && attrs.isDirectory()) {
+				f |= FLAG_DIRECTORY;
+				sizes[size] = -1;
+				colorIndices[size] = -1;
+			}
+			else {
+				sizes[size] = attrs!=null ? attrs.size() : 0;
+				colorIndices[size] = tables.getColorIndex(name);
+			}
+			modifiedTimes[size] = attrs!=null ? attrs.lastModifiedTime().toMillis() : 0;
+			flags[size] = f;
+
+			names.append(name);
+			size++;
+			nameOffsets[size] = names.length();
+
+		}
+
+		DirectoryListing build() {
+			char[] nameChars = new char[names.length()];
+			names.getChars(0, nameChars.length, nameChars, 0);
+			int[] iconIndices = new int[size];
+			Arrays.fill(iconIndices, -1);
+			return new DirectoryListing(dir, nameChars,
+					Arrays.copyOf(nameOffsets, size + 1), Arrays.copyOf(sizes, size),
+					Arrays.copyOf(modifiedTimes, size), Arrays.copyOf(flags, size),
+					iconIndices, Arrays.copyOf(colorIndices, size), tables);
+		}
+
+		/**
+		 * Reads a file's attributes in a single call, following symbolic
+		 * links unless they are broken.
+		 *
+		 * @param file The file.
+		 * @return The attributes, or <code>null</code> if they can't be read.
+		 */
+		private static BasicFileAttributes readAttributes(Path file) {
+			Class<? extends BasicFileAttributes> type = DOS_ATTRIBUTES ?
+					DosFileAttributes.class : BasicFileAttributes.class;
+			try {
+				return Files.readAttributes(file, type);
+			} catch (IOException | SecurityException e) {
+				try {
+					return Files.readAttributes(file, type, LinkOption.NOFOLLOW_LINKS);
+				} catch (IOException | SecurityException e2) {
+					return null;
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Compares two files in a listing by their indices.
+	 */
+	@FunctionalInterface
+	interface IndexComparator {
+
+		/**
+		 * Compares two files.
+		 *
+		 * @param i1 The index of the first file.
+		 * @param i2 The index of the second file.
+		 * @return The comparison.
+		 */
+		int compare(int i1, int i2);
+
+	}
+
+
+	/**
+	 * A file whose attributes are those recorded in a listing.
+	 */
+	private static final class ListedFile extends File {
+
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final byte flags;
+		private final long size;
+		private final long lastModified;
+
+		ListedFile(File dir, String name, byte flags, long size,
+				long lastModified) {
+			super(dir, name);
+			this.flags = flags;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public boolean isDirectory() {
+			return (flags & FLAG_DIRECTORY)!=0;
+		}
+
+		@Override
+		public boolean isFile() {
+			return !isDirectory();
+		}
+
+		@Override
+		public boolean isHidden() {
+			return (flags & FLAG_HIDDEN)!=0;
+		}
+
+		@Override
+		public long lastModified() {
+			return lastModified;
+		}
+
+		@Override
+		public long length() {
+			return Math.max(size, 0);
+		}
+
+	}
+
+
+	/**
+	 * The icons and color keys referenced by a listing, shared by the
+	 * listings created from it via {@link DirectoryListing#select(int[], int)}.
+	 */
+	private static final class Tables {
+
+		private final List<Icon> icons;
+		private final Map<Icon, Integer> iconIndices;
+		private final List<String> colorKeys;
+		private final Map<String, Integer> colorKeyIndices;
+
+		Tables() {
+			icons = new ArrayList<>();
+			iconIndices = new IdentityHashMap<>();
+			colorKeys = new ArrayList<>();
+			colorKeyIndices = new HashMap<>();
+		}
+
+		int getColorIndex(String name) {
+			String extension = Utilities.getExtension(name);
+			if (extension==null || extension.isEmpty()) {
+				return -1;
+			}
+			return colorKeyIndices.computeIfAbsent(extension, key -> {
+				colorKeys.add(key);
+				return colorKeys.size() - 1;
+			});
+		}
+
+	}
+
+
+}
@@ -45,6 +45,18 @@ public class DirectoryTree extends FileSystemTree {
 	}
 
 
+	/**
+	 * Overridden so only subdirectories count as children when deciding
+	 * whether a directory gets an expand handle.
+	 *
+	 * @return The probe to use.
+	 */
+	@Override
+	DirectoryChildProbe getChildProbe() {
+		return DirectoryChildProbe.get(true);
+	}
+
+
 	/**
 	 * Overridden to take only the directories (not regular files) from the
 	 * array and sorts them alphabetically.
@@ -10,6 +10,7 @@
  */
 package org.fife.ui.rtextfilechooser;
 
+import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.io.File;
@@ -20,7 +21,8 @@ import javax.swing.JComponent;
 import javax.swing.TransferHandler;
 
 /**
- * Transfer handler for copying files from a file chooser's view.
+ * Transfer handler for copying files from a file chooser's view.  Files can
+ * also be cut to the clipboard, so that pasting them moves them.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -52,6 +54,27 @@ class FileChooserViewTransferHandler extends TransferHandler {
 	}
 
 
+	/**
+	 * Overridden so that cutting files (e.g. via Ctrl+X) marks them to be
+	 * moved when they are pasted.  Only copying is supported for drag and
+	 * drop.
+	 */
+	@Override
+	public void exportToClipboard(JComponent comp, Clipboard clip,
+			int action) {
+		if (action==MOVE) {
+			File[] files = view.getSelectedFiles();
+			if (files!=null && files.length>0) {
+				FileListTransferable flt = new FileListTransferable(
+						Arrays.asList(files), true);
+				clip.setContents(flt, flt);
+			}
+			return;
+		}
+		super.exportToClipboard(comp, clip, action);
+	}
+
+
 	@Override
 	public int getSourceActions(JComponent c) {
 		return TransferHandler.COPY;
@@ -0,0 +1,486 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.CopyOption;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Copies files on background threads for a {@link FilePasteThread}.  Small
+ * files are copied in parallel across a bounded pool of threads, since for
+ * them the per-file overhead (opening, creating, closing) dominates.  Large
+ * files are streamed one at a time on a dedicated thread with
+ * <code>FileChannel.transferTo()</code>, in chunks so the copy can be
+ * cancelled part of the way through.<p>
+ *
+ * In move mode, each file is first renamed into place, which is nearly
+ * instantaneous on the same file system.  If the destination is on a
+ * different file system, the file is copied and the original is then
+ * deleted.  Source directories handed to {@link #sourceDirectoryPasted(File)}
+ * are deleted at the end, if everything in them was moved.<p>
+ *
+ * Every file's progress is recorded in a {@link PasteJournal}, and large
+ * files that were only partially copied by an interrupted paste are resumed
+ * rather than copied again.  If the journal is disabled, partial copies are
+ * deleted rather than kept.<p>
+ *
+ * The number of copies queued at any one time is bounded, so a caller
+ * enumerating a huge directory tree blocks in {@link #copy(File, File, long)}
+ * rather than queuing hundreds of thousands of tasks.<p>
+ *
+ * Callers must call {@link #awaitCompletion()} when they are done submitting
+ * files.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class FileCopyEngine {
+
+	private final ExecutorService smallFilePool;
+	private final ExecutorService largeFilePool;
+	private final Semaphore queueSlots;
+	private final ErrorHandler errorHandler;
+	private final ProgressListener progressListener;
+	private final PasteJournal journal;
+	private final boolean preserveAttributes;
+	private final boolean move;
+	private final List<File[]> directoriesToStamp;
+	private final List<File> sourceDirsToDelete;
+	private boolean renameFirst = true;
+	private volatile boolean cancelled;
+
+	/**
+	 * Files at least this large are copied via the large file thread.
+	 */
+	static final long LARGE_FILE_THRESHOLD = 8 * 1024 * 1024;
+
+	/**
+	 * The number of bytes transferred per <code>transferTo()</code> call
+	 * when copying large files.
+	 */
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	/**
+	 * The maximum number of copies queued (or in progress) per thread.
+	 */
+	private static final int QUEUED_COPIES_PER_THREAD = 16;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param errorHandler Decides what to do when a copy fails.  This is
+	 *        called on the thread that did the copy.
+	 * @param progressListener Notified as bytes are copied.  This is
+	 *        called on the threads doing the copying.
+	 * @param journal Records the progress of each file.
+	 * @param preserveAttributes Whether to preserve the last modified times
+	 *        and permissions of copied files and directories.
+	 * @param move Whether to move files rather than copy them.
+	 */
+	FileCopyEngine(ErrorHandler errorHandler,
+			ProgressListener progressListener, PasteJournal journal,
+			boolean preserveAttributes, boolean move) {
+
+		this.errorHandler = errorHandler;
+		this.progressListener = progressListener;
+		this.journal = journal;
+		this.preserveAttributes = preserveAttributes;
+		this.move = move;
+		directoriesToStamp = new ArrayList<>();
+		sourceDirsToDelete = new ArrayList<>();
+
+		int threadCount = Math.max(2,
+				Math.min(8, Runtime.getRuntime().availableProcessors()));
+		smallFilePool = Executors.newFixedThreadPool(threadCount,
+				createThreadFactory("FileCopyEngine-small"));
+		largeFilePool = Executors.newSingleThreadExecutor(
+				createThreadFactory("FileCopyEngine-large"));
+		queueSlots = new Semaphore(threadCount * QUEUED_COPIES_PER_THREAD);
+
+	}
+
+
+	/**
+	 * Waits for all queued copies to complete, and shuts down this engine's
+	 * threads.  If attributes are being preserved, directory timestamps are
+	 * applied here, after their contents are done being written.  If moving,
+	 * source directories are deleted here as well.
+	 */
+	void awaitCompletion() {
+
+		smallFilePool.shutdown();
+		largeFilePool.shutdown();
+		try {
+			smallFilePool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+			largeFilePool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		} catch (InterruptedException ie) {
+			cancel();
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		// Anything not moved (skipped, failed, cancelled) leaves its
+		// directory non-empty, so it simply isn't deleted.
+		for (int i=sourceDirsToDelete.size()-1; i>=0; i--) {
+			try {
+				Files.delete(sourceDirsToDelete.get(i).toPath());
+			} catch (IOException ioe) {
+				// Not empty, or can't be deleted; either way, leave it
+			}
+		}
+
+		if (preserveAttributes && !cancelled) {
+			// Children were added after their parents, so go in reverse
+			for (int i=directoriesToStamp.size()-1; i>=0; i--) {
+				File[] pair = directoriesToStamp.get(i);
+				try {
+					copyAttributes(pair[0].toPath(), pair[1].toPath());
+				} catch (IOException ioe) {
+					// Not worth bothering the user about
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Cancels any copies that haven't started yet, and any large file copy
+	 * currently in progress.  The partially-copied large file is kept, so
+	 * the copy can be resumed, only if the journal is recording.
+	 */
+	void cancel() {
+		cancelled = true;
+		smallFilePool.shutdownNow();
+		largeFilePool.shutdownNow();
+	}
+
+
+	/**
+	 * Queues a file to be copied.  This method blocks if too many copies
+	 * are already queued.
+	 *
+	 * @param source The file to copy.
+	 * @param dest The destination file.  If this file exists, it is
+	 *        overwritten.
+	 * @param size The size of <code>source</code>, in bytes.
+	 */
+	void copy(File source, File dest, long size) {
+
+		if (cancelled) {
+			return;
+		}
+		if (source.equals(dest)) {
+			progressListener.bytesSkipped(size);
+			return;
+		}
+
+		try {
+			queueSlots.acquire();
+		} catch (InterruptedException ie) {
+			cancel();
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		ExecutorService pool = size>=LARGE_FILE_THRESHOLD ?
+				largeFilePool : smallFilePool;
+		try {
+			pool.execute(() -> {
+				try {
+					copyImpl(source, dest, size);
+				} finally {
+					queueSlots.release();
+				}
+			});
+		} catch (RuntimeException re) { // RejectedExecutionException
+			queueSlots.release();
+		}
+
+	}
+
+
+	/**
+	 * Copies the last modified time, and POSIX permissions if supported,
+	 * from one file to another.
+	 */
+	private static void copyAttributes(Path source, Path dest)
+			throws IOException {
+
+		BasicFileAttributes attrs = Files.readAttributes(source,
+				BasicFileAttributes.class);
+		Files.getFileAttributeView(dest, BasicFileAttributeView.class).
+				setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(),
+						attrs.creationTime());
+
+		PosixFileAttributeView posix = Files.getFileAttributeView(dest,
+				PosixFileAttributeView.class);
+		if (posix!=null) {
+			PosixFileAttributes posixAttrs = Files.readAttributes(source,
+					PosixFileAttributes.class);
+			posix.setPermissions(posixAttrs.permissions());
+		}
+
+	}
+
+
+	/**
+	 * Does the actual copying of a file.  Called on a pool thread.
+	 */
+	private void copyImpl(File source, File dest, long size) {
+
+		if (cancelled) {
+			return;
+		}
+
+		Path sourcePath = source.toPath();
+		Path destPath = dest.toPath();
+		long[] copied = new long[1];
+
+		try {
+			if (move && renameFirst && rename(sourcePath, destPath)) {
+				progressListener.bytesCopied(size);
+				journal.fileCompleted(source, dest);
+				return;
+			}
+			if (size>=LARGE_FILE_THRESHOLD) {
+				long resumeOffset = journal.getResumeOffset(source, dest);
+				journal.fileStarted(source, dest, size);
+				if (!copyLargeFile(sourcePath, destPath, resumeOffset, copied)) {
+					return; // Cancelled part of the way through
+				}
+			}
+			else {
+				List<CopyOption> options = new ArrayList<>();
+				options.add(StandardCopyOption.REPLACE_EXISTING);
+				if (preserveAttributes) {
+					options.add(StandardCopyOption.COPY_ATTRIBUTES);
+				}
+				if (move) { // Move symbolic links, not what they point to
+					options.add(LinkOption.NOFOLLOW_LINKS);
+				}
+				Files.copy(sourcePath, destPath,
+						options.toArray(new CopyOption[0]));
+				progressListener.bytesCopied(size);
+			}
+			if (move) {
+				Files.delete(sourcePath);
+			}
+			journal.fileCompleted(source, dest);
+		} catch (IOException ioe) {
+			progressListener.bytesSkipped(size - copied[0]);
+			if (!cancelled && !errorHandler.continueAfterError(source, ioe)) {
+				cancel();
+			}
+		}
+
+	}
+
+
+	/**
+	 * Copies a large file in chunks, checking for cancellation between each
+	 * one.
+	 *
+	 * @param source The file to copy.
+	 * @param dest The destination file.
+	 * @param resumeOffset The number of bytes already copied into
+	 *        <code>dest</code> by an earlier, interrupted paste.
+	 * @param copied A one-element array that receives the number of bytes
+	 *        reported as copied so far, in case an exception is thrown.
+	 * @return Whether the file was completely copied, as opposed to the
+	 *         copy being cancelled.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private boolean copyLargeFile(Path source, Path dest, long resumeOffset,
+			long[] copied) throws IOException {
+
+		boolean completed = false;
+		OpenOption[] outOptions = resumeOffset>0 ?
+			new OpenOption[] { StandardOpenOption.WRITE } :
+			new OpenOption[] { StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING };
+
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(dest, outOptions)) {
+			long size = in.size();
+			long pos = Math.min(resumeOffset, size);
+			progressListener.bytesSkipped(pos); // Already copied
+			copied[0] = pos;
+			out.position(pos);
+			while (pos<size && !cancelled) {
+				long count = in.transferTo(pos,
+						Math.min(TRANSFER_CHUNK_SIZE, size-pos), out);
+				pos += count;
+				copied[0] += count;
+				progressListener.bytesCopied(count);
+			}
+			completed = pos>=size;
+		} finally {
+			if (!completed && !(cancelled && journal.isEnabled())) {
+				Files.deleteIfExists(dest);
+			}
+		}
+
+		if (completed && preserveAttributes) {
+			copyAttributes(source, dest);
+		}
+		return completed;
+
+	}
+
+
+	private static ThreadFactory createThreadFactory(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+
+	/**
+	 * Notes that a directory was created as a copy of another one.  If
+	 * attributes are being preserved, its timestamps are set in
+	 * {@link #awaitCompletion()}.  This method should only be called by
+	 * the thread submitting files.
+	 *
+	 * @param source The source directory.
+	 * @param dest The newly-created directory.
+	 */
+	void directoryCreated(File source, File dest) {
+		if (preserveAttributes) {
+			directoriesToStamp.add(new File[] { source, dest });
+		}
+	}
+
+
+	/**
+	 * Moves a file by renaming it, if the source and destination are on the
+	 * same file system.
+	 *
+	 * @param source The file to move.
+	 * @param dest The destination file.  If this file exists, it is
+	 *        replaced.
+	 * @return Whether the file was moved.  If this is <code>false</code>,
+	 *         the caller should fall back to copying and deleting it.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static boolean rename(Path source, Path dest) throws IOException {
+		try {
+			Files.move(source, dest, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (AtomicMoveNotSupportedException e) {
+			return false; // Different file systems
+		}
+	}
+
+
+	/**
+	 * Toggles whether move mode tries to rename files before falling back
+	 * to copying and deleting them.  Turning this off behaves as if every
+	 * file were being moved to a different file system, which is otherwise
+	 * hard to arrange in unit tests.  This should be called before any
+	 * files are submitted.
+	 *
+	 * @param renameFirst Whether to try renaming files first.
+	 */
+	void setRenameFirst(boolean renameFirst) {
+		this.renameFirst = renameFirst;
+	}
+
+
+	/**
+	 * Notes that a source directory's contents are being moved elsewhere.
+	 * When the paste completes, the directory is deleted if it is empty.
+	 * This method should only be called by the thread submitting files, and
+	 * only in move mode.
+	 *
+	 * @param dir The source directory.
+	 */
+	void sourceDirectoryPasted(File dir) {
+		sourceDirsToDelete.add(dir);
+	}
+
+
+	/**
+	 * Returns whether this engine has been cancelled.
+	 *
+	 * @return Whether this engine has been cancelled.
+	 * @see #cancel()
+	 */
+	boolean isCancelled() {
+		return cancelled;
+	}
+
+
+	/**
+	 * Listens for the progress of copies.
+	 */
+	interface ProgressListener {
+
+		/**
+		 * Called when bytes have been copied.  Note this is called on a
+		 * background thread, possibly concurrently with other calls.
+		 *
+		 * @param count The number of bytes just copied.
+		 */
+		void bytesCopied(long count);
+
+		/**
+		 * Called when bytes that were expected to be copied won't be, for
+		 * example because an error occurred.  Note this is called on a
+		 * background thread, possibly concurrently with other calls.
+		 *
+		 * @param count The number of bytes that won't be copied.
+		 */
+		void bytesSkipped(long count);
+
+	}
+
+
+	/**
+	 * Decides what to do when a file cannot be copied.
+	 */
+	interface ErrorHandler {
+
+		/**
+		 * Called when a file could not be copied.  Note this is called on a
+		 * background thread, possibly concurrently with other calls.
+		 *
+		 * @param source The file that could not be copied.
+		 * @param e The error that occurred.
+		 * @return Whether to continue copying other files.
+		 */
+		boolean continueAfterError(File source, IOException e);
+
+	}
+
+
+}
@@ -10,22 +10,61 @@
 package org.fife.ui.rtextfilechooser;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileSystemView;
 
 
 /**
  * Utility class for getting file display names.  Useful to avoid potential
- * performance pitfalls, such as removal media drives on Windows.
+ * performance pitfalls, such as removal media drives on Windows.<p>
+ *
+ * <code>FileSystemView.getSystemDisplayName()</code> can be slow, so names
+ * are cached.  The cache is bounded, evicting the least recently used names
+ * first, and names expire after a while so renamed drives and the like are
+ * eventually noticed.  Components that display names while painting, such as
+ * tree and list renderers, should call {@link #getName(File, Consumer)},
+ * which never blocks; it returns a placeholder name and looks up the real one
+ * in the background.<p>
+ *
+ * A single instance is shared by the breadcrumb bar, file system trees and
+ * file choosers.
  *
  * @author Robert Futrell
  * @version 1.0
  */
 public final class FileDisplayNames {
 
-	private Map<File, String> rootNameCache;
+	/**
+	 * Cached names, in least-recently-used order.  This and
+	 * {@link #pending} are only accessed while synchronized on this object.
+	 */
+	private final Map<File, Entry> cache;
+
+	/**
+	 * Callbacks waiting on names being looked up in the background.
+	 */
+	private final Map<File, List<Consumer<String>>> pending;
+
+	private final ExecutorService executor;
+
+	/**
+	 * The maximum number of names to cache.
+	 */
+	private static final int MAX_NAMES = 4096;
+
+	/**
+	 * How long a name is cached before it is looked up again, in
+	 * milliseconds.
+	 */
+	private static final long TTL_MILLIS = 60_000;
 
 	private static final FileDisplayNames INSTANCE = new FileDisplayNames();
 
@@ -34,33 +73,75 @@ public final class FileDisplayNames {
 	 * Private constructor to prevent instantiation.
 	 */
 	private FileDisplayNames() {
-		rootNameCache = new HashMap<>();
-		Iterator<File> i = RootManager.getInstance().iterator();
-		while (i.hasNext()) {
-			addCachedRootName(i.next());
+		cache = new LinkedHashMap<>(256, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<File, Entry> e) {
+				return size()>MAX_NAMES;
+			}
+		};
+		pending = new HashMap<>();
+		executor = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "FileDisplayNames");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+
+	/**
+	 * Returns the cached name for a file.
+	 *
+	 * @param file The file.
+	 * @param allowExpired Whether to return a name even if it has expired.
+	 * @return The name, or <code>null</code> if it isn't cached.
+	 */
+	private synchronized String getCachedName(File file, boolean allowExpired) {
+		Entry entry = cache.get(file);
+		if (entry!=null && (allowExpired || !entry.isExpired())) {
+			return entry.name;
 		}
+		return null;
 	}
 
 
 	/**
-	 * Adds a file name to the cached names (for roots).  We cache root
-	 * directories' names because FileSystemView.getSystemDisplayName() can
-	 * be costly, especially for disk drives on Windows (like A:\).
+	 * Returns a name for a file that can be computed without touching the
+	 * file system.
+	 *
+	 * @param file The file.
+	 * @return The name.
 	 */
-	private void addCachedRootName(File aRoot) {
+	private static String getFallbackName(File file) {
+		String name = file.getName();
+		if (name.isEmpty()) { // A root
+			name = file.getAbsolutePath();
+			if (name.isEmpty()) { // Root directory "/", on OS X at least...
+				name = "/";
+			}
+		}
+		return name;
+	}
+
+
+	/**
+	 * Returns the name of a Windows drive such as <code>C:\</code>, for
+	 * which the system display name isn't used, since for some reason it
+	 * can take a long time to get if it has one.
+	 *
+	 * @param file The file.
+	 * @return The drive's name, or <code>null</code> if the file isn't a
+	 *         drive.
+	 */
+	private static String getDriveName(File file) {
 		// Check separator character as a quick "hack" to check for Windows.
-		// We don't call getName() for drives because for some reason it can
-		// take a long time to get the name if it has one (such as A:\ and
-		// C:\).
-		if (File.separatorChar=='\\') {
-			String absolutePath = aRoot.getAbsolutePath();
+		if (File.separatorChar=='\\' && file.getParentFile()==null) {
+			String absolutePath = file.getAbsolutePath();
 			if (absolutePath.length()==3 &&
 					absolutePath.endsWith(":\\")) {
-				rootNameCache.put(aRoot, absolutePath);
-				return;
+				return absolutePath;
 			}
 		}
-		rootNameCache.put(aRoot, getName(aRoot));
+		return null;
 	}
 
 
@@ -75,7 +156,10 @@ public final class FileDisplayNames {
 
 
 	/**
-	 * Returns the display name for a given file.
+	 * Returns the display name for a given file.  If the name isn't cached,
+	 * this looks it up, which may block for a while.  Code that must not
+	 * block, such as renderers, should call
+	 * {@link #getName(File, Consumer)} instead.
 	 *
 	 * @param file The file for which to get the display name.
 	 * @return The display name.
@@ -83,10 +167,95 @@ public final class FileDisplayNames {
 	public String getName(File file) {
 		if (file==null)
 			return null;
-		String name = rootNameCache.get(file);
-		if (name!=null)
+		String name = getCachedName(file, false);
+		if (name==null) {
+			name = lookUpName(file);
+			put(file, name);
+		}
+		return name;
+	}
+
+
+	/**
+	 * Returns the display name for a given file without blocking.  If the
+	 * name isn't cached, a placeholder (the file's name on disk) is returned,
+	 * the real name is looked up in the background, and
+	 * <code>callback</code> is called with it once it's known.  If the cached
+	 * name has expired, it is returned, and refreshed in the background.
+	 *
+	 * @param file The file for which to get the display name.
+	 * @param callback Called on the EDT with the display name, if it had to
+	 *        be looked up.  This may be <code>null</code>.
+	 * @return The display name, or a placeholder.
+	 */
+	public String getName(File file, Consumer<String> callback) {
+
+		if (file==null)
+			return null;
+
+		String drive = getDriveName(file);
+		if (drive!=null) {
+			return drive;
+		}
+
+		String name;
+		boolean schedule;
+		synchronized (this) {
+			Entry entry = cache.get(file);
+			if (entry!=null && !entry.isExpired()) {
+				return entry.name;
+			}
+			name = entry!=null ? entry.name : getFallbackName(file);
+			List<Consumer<String>> callbacks = pending.get(file);
+			schedule = callbacks==null;
+			if (schedule) {
+				callbacks = new ArrayList<>(1);
+				pending.put(file, callbacks);
+			}
+			if (callback!=null) {
+				callbacks.add(callback);
+			}
+		}
+
+		if (schedule) {
+			executor.execute(() -> {
+				String realName = lookUpName(file);
+				List<Consumer<String>> callbacks;
+				synchronized (this) {
+					put(file, realName);
+					callbacks = pending.remove(file);
+				}
+				if (!callbacks.isEmpty()) {
+					SwingUtilities.invokeLater(() -> {
+						for (Consumer<String> c : callbacks) {
+							c.accept(realName);
+						}
+					});
+				}
+			});
+		}
+
+		return name;
+
+	}
+
+
+	/**
+	 * Looks up a file's display name.  This may block.
+	 *
+	 * @param file The file.
+	 * @return The display name.
+	 */
+	private static String lookUpName(File file) {
+		String name = getDriveName(file);
+		if (name!=null) {
 			return name;
-		name = FileSystemView.getFileSystemView().getSystemDisplayName(file);
+		}
+		try {
+			name = FileSystemView.getFileSystemView().getSystemDisplayName(file);
+		} catch (RuntimeException re) { // e.g. a drive being unmounted
+			name = null;
+		}
 		if (name!=null && !name.isEmpty()) {
 			return name;
 		}
@@ -98,4 +267,29 @@ public final class FileDisplayNames {
 	}
 
 
+	private synchronized void put(File file, String name) {
+		cache.put(file, new Entry(name));
+	}
+
+
+	/**
+	 * A cached name.
+	 */
+	private static final class Entry {
+
+		private final String name;
+		private final long expiry;
+
+		Entry(String name) {
+			this.name = name;
+			expiry = System.currentTimeMillis() + TTL_MILLIS;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis()>expiry;
+		}
+
+	}
+
+
 }
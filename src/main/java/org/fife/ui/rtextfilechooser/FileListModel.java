@@ -0,0 +1,84 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.io.File;
+import java.io.Serial;
+import javax.swing.AbstractListModel;
+
+
+/**
+ * An immutable list model for the files displayed in a file chooser view.
+ * The files are stored in a {@link DirectoryListing}, and a view displays a
+ * new listing by replacing its model with a new instance of this class.
+ * Unlike filling a <code>DefaultListModel</code>, which notifies listeners
+ * once per file, this results in just a single change for the whole
+ * listing.  <code>File</code> objects are only created for the files
+ * actually requested, e.g. the ones being painted.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class FileListModel extends AbstractListModel<File> {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private final transient DirectoryListing listing;
+
+	/**
+	 * Creates a model containing no files.
+	 */
+	FileListModel() {
+		this(DirectoryListing.empty());
+	}
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param listing The files in this model.
+	 */
+	FileListModel(DirectoryListing listing) {
+		this.listing = listing;
+	}
+
+
+	@Override
+	public File getElementAt(int index) {
+		return listing.getFile(index);
+	}
+
+
+	/**
+	 * Returns the listing this model displays.
+	 *
+	 * @return The listing.
+	 */
+	DirectoryListing getListing() {
+		return listing;
+	}
+
+
+	@Override
+	public int getSize() {
+		return listing.size();
+	}
+
+
+	/**
+	 * Returns the index of a file in this model.
+	 *
+	 * @param file The file to search for.
+	 * @return The index of the file, or <code>-1</code> if it isn't in this
+	 *         model.
+	 */
+	int indexOf(File file) {
+		return listing.indexOf(file);
+	}
+
+
+}
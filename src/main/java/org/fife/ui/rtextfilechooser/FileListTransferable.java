@@ -20,7 +20,9 @@ import java.util.List;
 
 
 /**
- * A transferable object for a list of files.
+ * A transferable object for a list of files.  The files can optionally be
+ * marked as "cut," in which case pasting them moves them rather than copying
+ * them.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -32,6 +34,11 @@ public class FileListTransferable implements Transferable, ClipboardOwner {
 	 */
 	private List<File> fileList;
 
+	/**
+	 * Whether the files were cut rather than copied.
+	 */
+	private boolean cut;
+
 	private DataFlavor uriListFlavor; // RFC 2483, needed for Linux/OS X
 
 
@@ -42,8 +49,23 @@ public class FileListTransferable implements Transferable, ClipboardOwner {
 	 *        <code>null</code>.
 	 */
 	public FileListTransferable(List<File> fileList) {
+		this(fileList, false);
+	}
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param fileList The list of files to transfer.  This should not be
+	 *        <code>null</code>.
+	 * @param cut Whether the files were cut, and so should be moved rather
+	 *        than copied when they are pasted.
+	 * @see #isCut()
+	 */
+	public FileListTransferable(List<File> fileList, boolean cut) {
 
 		this.fileList = fileList;
+		this.cut = cut;
 
 		// On Linux and OS X, file explorers don't take javaFileListFlavor
 		// but do take this
@@ -114,6 +136,17 @@ public class FileListTransferable implements Transferable, ClipboardOwner {
 	}
 
 
+	/**
+	 * Returns whether the files were cut, and so should be moved rather than
+	 * copied when they are pasted.
+	 *
+	 * @return Whether the files were cut.
+	 */
+	public boolean isCut() {
+		return cut;
+	}
+
+
 	@Override
 	public boolean isDataFlavorSupported(DataFlavor flavor) {
 		DataFlavor[] flavors = getTransferDataFlavors();
@@ -16,7 +16,11 @@ import java.io.File;
  * Listens as a copy/paste operation is performed by an instance of
  * FilePasteThread.  Implementations can display a progress bar in the
  * UI, or a <code>ProgressMonitor</code>, to keep the user updated on the
- * operation's progress.
+ * operation's progress.<p>
+ *
+ * Progress notifications are delivered on the EDT, at a fixed rate (a few
+ * times a second) rather than once per file, so implementations can update
+ * Swing components directly.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -26,14 +30,13 @@ public interface FilePasteCallback {
 
 
 	/**
-	 * Called when a file is pasted, or the total number of files to
-	 * paste has been recalculated.
+	 * Called periodically as files are pasted.  Note that <code>total</code>
+	 * may grow while the files to paste are still being enumerated.
 	 *
 	 * @param pasteCount The number of files pasted thus far.
 	 * @param total The total number of files to paste.
-	 * @param justPastedFile The name of a file just pasted, or
-	 *        <code>null</code> if this event is simply specifying a new
-	 *        value for <code>total</code>.
+	 * @param justPastedFile The most recent file pasted, or
+	 *        <code>null</code> if none have been pasted yet.
 	 * @return Whether the operation should be prematurely terminated.  If
 	 *         this is <code>true</code>, any remaining files will not be
 	 *         copied.
@@ -41,6 +44,27 @@ public interface FilePasteCallback {
 	boolean filePasteUpdate(int pasteCount, int total, File justPastedFile);
 
 
+	/**
+	 * Called periodically with the number of bytes pasted, right after
+	 * {@link #filePasteUpdate(int, int, File)}.  The default implementation
+	 * does nothing.
+	 *
+	 * @param bytesCopied The number of bytes copied thus far.
+	 * @param totalBytes The total number of bytes to copy.  This may grow
+	 *        while the files to paste are still being enumerated.
+	 * @param bytesPerSecond The current (smoothed) throughput.
+	 * @param etaMillis The estimated time remaining, in milliseconds, or
+	 *        <code>-1</code> if it isn't yet known.
+	 * @return Whether the operation should be prematurely terminated.  If
+	 *         this is <code>true</code>, any remaining files will not be
+	 *         copied.
+	 */
+	default boolean filePasteProgress(long bytesCopied, long totalBytes,
+			long bytesPerSecond, long etaMillis) {
+		return false;
+	}
+
+
 	/**
 	 * Called when the paste operation has completed.
 	 *
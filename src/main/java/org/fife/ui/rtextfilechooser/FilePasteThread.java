@@ -23,10 +23,30 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.Icon;
@@ -59,7 +79,24 @@ import org.fife.ui.UIUtil;
  * {@link FilePasteCallback} to listen as the copy/paste operation executes;
  * they can display a <code>ProgressMonitor</code> or use any other means of
  * allowing the user to watch the paste operation continue while keeping a
- * responsive UI.
+ * responsive UI.<p>
+ *
+ * The paste is done as a pipeline:  one thread enumerates the files to
+ * paste, while this thread creates directories, resolves name collisions
+ * and hands files off to a {@link FileCopyEngine}, which copies them in
+ * parallel.  All prompts to the user are serialized onto the EDT, as are
+ * progress notifications, which are throttled by a
+ * {@link PasteProgressReporter}.<p>
+ *
+ * Files can also be moved rather than copied.  Where possible, each file or
+ * directory being pasted is moved with a single rename; otherwise (for
+ * example, if it is being moved to a different file system, or into an
+ * existing directory) its contents are moved one at a time, and the emptied
+ * source directories are deleted.<p>
+ *
+ * Pastes can optionally be resumable.  A {@link PasteJournal} then records
+ * the paste's progress, so repeating a paste that was interrupted resumes it
+ * rather than starting over.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -71,12 +108,38 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 	private File destDir;
 	private FilePasteCallback callback;
 	private UserDecisions decisions;
-	private int pasteCount;
-	private int total;
+	private boolean preserveAttributes;
+	private boolean resumable;
+	private boolean move;
+	private PasteJournal journal;
+	private volatile FileCopyEngine engine;
+	private PasteProgressReporter progress;
+
+	/**
+	 * Maps source directories to the directories their contents are pasted
+	 * into.  Source directories that are skipped are not in this map.
+	 */
+	private Map<File, File> destDirs;
+
+	/**
+	 * Destination files that have been handed off to the copy engine, but
+	 * that may not exist on disk yet.
+	 */
+	private Set<File> claimedDests;
 
 	private String errorDialogTitle;
 	private String confirmationDialogTitle;
 
+	/**
+	 * Ensures only one prompt is displayed to the user at a time.
+	 */
+	private final Object promptLock = new Object();
+
+	/**
+	 * The maximum number of enumerated files waiting to be pasted.
+	 */
+	private static final int QUEUE_CAPACITY = 1024;
+
 	private static final ResourceBundle MSG = ResourceBundle.getBundle(
 			"org.fife.ui.rtextfilechooser.FilePaste");
 
@@ -102,46 +165,140 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 			return null;
 		}
 
-		pasteCount = 0;
-		total = 0;
-		List<FileTreeNode> toCopy = new ArrayList<>();
+		destDirs = new HashMap<>();
+		claimedDests = new HashSet<>();
+		journal = resumable ? PasteJournal.open(files, destDir, move) :
+				PasteJournal.disabled();
+		engine = new FileCopyEngine(this::continueAfterCopyError, progress,
+				journal, preserveAttributes, move);
+
+		List<File> toPaste = move ? moveByRenaming() : files;
+
+		// If we're pasting into a directory being copied, we must finish
+		// enumerating before we start creating anything, or we'd find
+		// (and copy) our own copies.
+		boolean pipelined = !isDestOverlappingSources(toPaste);
+		BlockingQueue<PasteEntry> queue = pipelined ?
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY) :
+				new LinkedBlockingQueue<>();
+		Thread enumerator = new Thread(() -> enumerate(toPaste, queue),
+				"FilePasteEnumerator");
+		enumerator.setDaemon(true);
+		enumerator.start();
 
-		for (File file : files) {
-			if (file.isDirectory()) {
-				toCopy.add(getFilesRecursive(file));
+		try {
+			if (!pipelined) {
+				enumerator.join();
 			}
-			else {
-				toCopy.add(new FileTreeNode(file, false));
+			PasteEntry entry;
+			while ((entry=queue.take())!=PasteEntry.END && !isCancelled()) {
+				paste(entry);
 			}
-			total++; // For either the file or the directory.
+		} catch (InterruptedException ie) {
+			decisions.cancelEverything = true;
+			Thread.currentThread().interrupt();
+		} finally {
+			if (isCancelled()) {
+				enumerator.interrupt();
+				engine.cancel();
+			}
+			engine.awaitCompletion();
+			journal.close(!isCancelled());
 		}
 
-		doCopy(toCopy, destDir);
 		return null;
 
 	}
 
 
-	private void copyFileImpl(File source, File dest) {
-		try {
-			if (!source.equals(dest)) {
-				Utilities.copyFile(source, dest);
+	/**
+	 * Cancels the paste, including any file copies in progress.  This is
+	 * called on the EDT when the callback asks that the paste be cancelled.
+	 */
+	private void cancel() {
+		decisions.cancelEverything = true;
+		FileCopyEngine current = engine;
+		if (current!=null) {
+			current.cancel();
+		}
+	}
+
+
+	/**
+	 * Called by the copy engine when a file cannot be copied.  Asks the
+	 * user whether to continue copying other files.
+	 *
+	 * @param source The file that could not be copied.
+	 * @param ioe The error that occurred.
+	 * @return Whether to continue copying.
+	 */
+	private boolean continueAfterCopyError(File source, IOException ioe) {
+
+		synchronized (promptLock) {
+
+			if (decisions.cancelEverything) {
+				return false;
 			}
-		} catch (IOException ioe) {
-			//ioe.printStackTrace();
-			String msg = getString("Error.CopyingFiles", source.getName(),
-					ioe.getMessage());
+
+			String msg = getString(move ? "Error.MovingFiles" :
+					"Error.CopyingFiles", source.getName(), ioe.getMessage());
 			String title = getErrorDialogTitle();
-			int rc = JOptionPane.showConfirmDialog(parent, msg, title,
-					JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
-			if (rc!=JOptionPane.YES_OPTION) {
+			Integer rc = promptOnEdt(() -> JOptionPane.showConfirmDialog(
+					parent, msg, title, JOptionPane.YES_NO_OPTION,
+					JOptionPane.ERROR_MESSAGE));
+			if (rc==null || rc!=JOptionPane.YES_OPTION) {
 				decisions.cancelEverything = true;
+				return false;
 			}
+			return true;
+
 		}
+
 	}
 
 
-	private static File createUniqueDestFile(File dir, String name) {
+	private void copyFileImpl(PasteEntry source, File dest) {
+		claimedDests.add(dest);
+		engine.copy(source.file, dest, source.size);
+	}
+
+
+	/**
+	 * Creates a paste thread without starting it.
+	 *
+	 * @param parent The parent window for any prompts.  This may be
+	 *        <code>null</code>.
+	 * @param files The files and directories to paste.
+	 * @param destDir The directory to paste into.
+	 * @param callback Notified as the paste progresses.  This may be
+	 *        <code>null</code>.
+	 * @param preserveAttributes Whether copies should keep the last modified
+	 *        times and permissions of the originals.
+	 * @param resumable Whether the paste can be resumed.
+	 * @param move Whether to move the files rather than copy them.
+	 * @return The thread.
+	 * @see #paste(Window, List, File, FilePasteCallback, boolean, boolean, boolean)
+	 */
+	static FilePasteThread create(Window parent, List<File> files,
+			File destDir, FilePasteCallback callback,
+			boolean preserveAttributes, boolean resumable, boolean move) {
+		FilePasteThread thread;
+		if (parent instanceof Frame) {
+			thread = new FilePasteThread((Frame)parent, files, destDir,
+					callback);
+		}
+		else {
+			thread = new FilePasteThread((Dialog)parent, files, destDir,
+					callback);
+		}
+		thread.preserveAttributes = preserveAttributes;
+		thread.resumable = resumable;
+		thread.move = move;
+		return thread;
+	}
+
+
+	private File createUniqueDestFile(File dir, String name) {
 
 		String orig = name;
 		int lastDot = name.lastIndexOf('.');
@@ -153,7 +310,7 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 			name = name + ".copy";
 		}
 		File test = new File(dir, name);
-		if (!test.exists()) {
+		if (!destExists(test)) {
 			return test;
 		}
 
@@ -167,7 +324,7 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 				name = name + ".copy." + count;
 			}
 			test = new File(dir, name);
-			if (!test.exists()) {
+			if (!destExists(test)) {
 				return test;
 			}
 			count++;
@@ -176,149 +333,73 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 	}
 
 
-	private void doCopy(List<FileTreeNode> copyMap, File toDir) {
-
-		if (copyMap==null || copyMap.isEmpty()) {
-			return;
-		}
-
-		for (FileTreeNode node : copyMap) {
-
-			if (decisions.cancelEverything) {
-				return;
-			}
-
-			File file = node.node;
-			List<FileTreeNode> children = node.children;
-
-			if (children==null) { // node.node is a file
-				File dest = new File(toDir, file.getName());
-				doCopyFile(file, dest);
-			}
-
-			else { // A directory
+	/**
+	 * Returns whether a destination file exists, or will exist once queued
+	 * copies complete.
+	 *
+	 * @param dest The destination file.
+	 * @return Whether the file exists or will exist.
+	 */
+	private boolean destExists(File dest) {
+		return claimedDests.contains(dest) || dest.exists();
+	}
 
-				if (callback!=null) {
-					if (callback.filePasteUpdate(++pasteCount, total, file)) {
-						decisions.cancelEverything = true;
-						return;
-					}
-				}
 
-				File newDir = new File(toDir, file.getName());
+	private void doCopyFile(PasteEntry entry, File dest) {
 
-				if (newDir.isFile()) {
-					String msg = getString("Error.DirectoryExistsAsFile",
-							newDir.getAbsolutePath());
-					CannotCopyDialog ccd;
-					if (parent instanceof Dialog) {
-						ccd = new CannotCopyDialog((Dialog)parent, msg);
-					}
-					else {
-						ccd = new CannotCopyDialog((Frame)parent, msg);
-					}
-					ccd.setVisible(true);
-					if (!ccd.continueCopying) {
-						decisions.cancelEverything = true;
-					}
-					continue;
-				}
-
-				else if (newDir.isDirectory()) {
-					if (decisions.dirNameCollision==UserDecisions.PROMPT) {
-						DirExistsDialog ded;
-						if (parent instanceof Dialog) {
-							ded = new DirExistsDialog((Dialog)parent, newDir);
-						}
-						else {
-							ded = new DirExistsDialog((Frame)parent, newDir);
-						}
-						ded.setVisible(true);
-						boolean doCopy = ded.getCopyFilesIntoDirectory();
-						boolean rememberDecision = ded.getRememberDecision();
-						if (rememberDecision) {
-							decisions.dirNameCollision = doCopy ?
-									UserDecisions.OVERWRITE : UserDecisions.SKIP;
-						}
-						if (!doCopy) {
-							total -= getSizeRecursive(children);
-							if (callback!=null) { // New "total"
-								if (callback.filePasteUpdate(pasteCount, total, null)) {
-									decisions.cancelEverything = true;
-									return;
-								}
-							}
-							continue;
-						}
-					}
-					else if (decisions.dirNameCollision==UserDecisions.SKIP) {
-						total -= getSizeRecursive(children);
-						if (callback!=null) { // New "total"
-							if (callback.filePasteUpdate(pasteCount, total, null)) {
-								decisions.cancelEverything = true;
-								return;
-							}
-						}
-						continue;
-					}
-				}
-
-				else {
-					if (!makeDir(newDir, file)) {
-						return; // Don't copy the files in this directory
-					}
-				}
-
-				doCopy(children, newDir);
+		File file = entry.file;
 
+		// If a previous, interrupted attempt at this paste got to this file,
+		// pick up where it left off rather than prompting about collisions
+		if (journal.isCompleted(file)) {
+			progress.fileSkipped(entry.size);
+			return;
+		}
+		File interruptedDest = journal.getInterruptedDest(file);
+		if (interruptedDest!=null) {
+			if (!filePasted(file)) {
+				copyFileImpl(entry, interruptedDest);
 			}
-
+			return;
 		}
 
-	}
-
-
-	private void doCopyFile(File file, File dest) {
-
 		// If the destination file already exists...
-		if (dest.isFile()) {
-			if (callback!=null) {
-				if (decisions.nameCollision==UserDecisions.SKIP) {
-					total--;
-				}
-				else {
-					if (callback.filePasteUpdate(++pasteCount, total, file)) {
-						decisions.cancelEverything = true;
-						return;
-					}
-				}
+		if (claimedDests.contains(dest) || dest.isFile()) {
+			if (decisions.nameCollision==UserDecisions.SKIP) {
+				progress.fileSkipped(entry.size);
+				return;
+			}
+			if (filePasted(file)) {
+				return;
 			}
 			if (decisions.nameCollision == UserDecisions.PROMPT) {
-				NameCollisionResolver r = new NameCollisionResolver(file, dest);
-				try {
-					SwingUtilities.invokeAndWait(r);
-				} catch (InvocationTargetException | InterruptedException ex) {
-					ex.printStackTrace();
+				NameCollisionResolver r = promptOnEdt(() -> {
+					NameCollisionResolver resolver =
+							new NameCollisionResolver(file, dest);
+					resolver.run();
+					return resolver;
+				});
+				if (r==null) {
 					return;
 				}
 				int result = r.result;
 				boolean doForAll = r.doForAll;
 				switch (result) {
 					case 0: // Overwrite existing file
-						copyFileImpl(file, dest);
+						copyFileImpl(entry, dest);
 						if (doForAll) {
 							decisions.nameCollision = UserDecisions.OVERWRITE;
 						}
 						break;
 					case 1: // Skip this file
+						progress.bytesSkipped(entry.size);
 						if (doForAll) {
 							decisions.nameCollision = UserDecisions.SKIP;
 						}
 						break;
 					case 2: // Copy with new file name
 						File toDir = dest.getParentFile();
-						dest = createUniqueDestFile(toDir, file.getName());
-						copyFileImpl(file, dest);
+						copyFileImpl(entry, createUniqueDestFile(toDir, file.getName()));
 						if (doForAll) {
 							decisions.nameCollision = UserDecisions.RENAME;
 						}
@@ -328,122 +409,277 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 						return;
 				}
 			}
-			// UserDecisions.SKIP => Just skip it!
 			else if (decisions.nameCollision==UserDecisions.OVERWRITE) {
-				copyFileImpl(file, dest);
+				copyFileImpl(entry, dest);
 			}
 			else if (decisions.nameCollision == UserDecisions.RENAME) {
 				File toDir = dest.getParentFile();
-				dest = createUniqueDestFile(toDir, file.getName());
-				copyFileImpl(file, dest);
+				copyFileImpl(entry, createUniqueDestFile(toDir, file.getName()));
 			}
 		}
 
 		// If a directory exists with that name...
 		else if (dest.isDirectory()) {
-			if (callback!=null) {
-				if (callback.filePasteUpdate(++pasteCount, total, file)) {
-					decisions.cancelEverything = true;
-					return;
-				}
+			if (filePasted(file)) {
+				return;
 			}
+			progress.bytesSkipped(entry.size);
 			String msg = getString("Error.FileExistsAsDirectory",
 									dest.getAbsolutePath());
-			CannotCopyDialog ccd;
-			if (parent instanceof Dialog) {
-				ccd = new CannotCopyDialog((Dialog)parent, msg);
-			}
-			else {
-				ccd = new CannotCopyDialog((Frame)parent, msg);
-			}
-			ccd.setVisible(true);
-			if (!ccd.continueCopying) {
+			if (!showCannotCopyDialog(msg)) {
 				decisions.cancelEverything = true;
 			}
 		}
 
 		// The common case, nothing to overwrite - create the file!
 		else {
-			if (callback!=null) {
-				if (callback.filePasteUpdate(++pasteCount, total, file)) {
-					decisions.cancelEverything = true;
-				}
+			if (!filePasted(file)) {
+				copyFileImpl(entry, dest);
 			}
-			copyFileImpl(file, dest);
 		}
 
 	}
 
 
-	@Override
-	public void finished() {
-		if (callback!=null) {
-			callback.pasteOperationCompleted(pasteCount);
+	/**
+	 * Creates the copy of a source directory, prompting the user if
+	 * something is already in the way.  If the directory is successfully
+	 * created (or an existing directory should be copied into), it is
+	 * added to {@link #destDirs} so its contents get pasted as well.
+	 *
+	 * @param dir The source directory.
+	 * @param toDir The directory to create the copy in.
+	 */
+	private void doCopyDirectory(File dir, File toDir) {
+
+		if (filePasted(dir)) {
+			return;
 		}
-	}
 
+		File newDir = new File(toDir, dir.getName());
 
-	private String getConfirmationDialogTitle() {
-		if (confirmationDialogTitle!=null) {
-			return confirmationDialogTitle;
+		if (newDir.isFile()) {
+			String msg = getString("Error.DirectoryExistsAsFile",
+					newDir.getAbsolutePath());
+			if (!showCannotCopyDialog(msg)) {
+				decisions.cancelEverything = true;
+			}
+			return;
+		}
+
+		else if (newDir.isDirectory()) {
+			// Don't prompt if we created it in an interrupted attempt at
+			// this same paste
+			boolean resumed = journal.isCompleted(dir);
+			if (!resumed && decisions.dirNameCollision==UserDecisions.PROMPT) {
+				boolean[] choice = promptOnEdt(() -> {
+					DirExistsDialog ded;
+					if (parent instanceof Dialog) {
+						ded = new DirExistsDialog((Dialog)parent, newDir);
+					}
+					else {
+						ded = new DirExistsDialog((Frame)parent, newDir);
+					}
+					ded.setVisible(true);
+					return new boolean[] { ded.getCopyFilesIntoDirectory(),
+							ded.getRememberDecision() };
+				});
+				boolean doCopy = choice!=null && choice[0];
+				boolean rememberDecision = choice!=null && choice[1];
+				if (rememberDecision) {
+					decisions.dirNameCollision = doCopy ?
+							UserDecisions.OVERWRITE : UserDecisions.SKIP;
+				}
+				if (!doCopy) {
+					return;
+				}
+			}
+			else if (!resumed &&
+					decisions.dirNameCollision==UserDecisions.SKIP) {
+				return;
+			}
 		}
-		return MSG.getString("ConfirmationDialog.Title");
-	}
 
+		else {
+			if (!makeDir(newDir, dir)) {
+				return;
+			}
+			if (!newDir.isDirectory()) {
+				return; // Don't copy the files in this directory
+			}
+			engine.directoryCreated(dir, newDir);
+		}
 
-	private String getErrorDialogTitle() {
-		if (errorDialogTitle!=null) {
-			return errorDialogTitle;
+		if (move) {
+			engine.sourceDirectoryPasted(dir);
 		}
-		return MSG.getString("ErrorDialog.Title");
+		destDirs.put(dir, newDir);
+		journal.fileCompleted(dir, newDir);
+
 	}
 
 
 	/**
-	 * Similar to <code>File.listFiles()</code>, but recursively lists all
-	 * files.
+	 * Enumerates all files to paste, adding them to a queue in the order
+	 * they should be pasted (directories before their contents).  This is
+	 * run on its own thread, concurrently with the pasting itself.  An
+	 * {@link PasteEntry#END} entry is always added at the end unless this
+	 * thread is interrupted.
 	 *
-	 * @param dir The directory of which to retrieve all children recursively.
-	 * @return The tree hierarchy of files under <code>dir</code>.
+	 * @param toPaste The files and directories to paste.
+	 * @param queue The queue to add to.
 	 */
-	private FileTreeNode getFilesRecursive(File dir) {
+	private void enumerate(List<File> toPaste, BlockingQueue<PasteEntry> queue) {
 
-		FileTreeNode node = new FileTreeNode(dir, true);
+		boolean interrupted = false;
 
-		File[] children = dir.listFiles();
-		int count = children==null ? 0 : children.length;
-		for (int i=0; i<count; i++) {
-			File child = children[i];
-			if (child.isDirectory()) {
-				node.addChild(getFilesRecursive(child));
+		try {
+			for (File file : toPaste) {
+				if (file.isDirectory()) {
+					enumerateDirectory(file, queue);
+				}
+				else {
+					enqueue(queue, new PasteEntry(file, null, false,
+							file.length()));
+				}
+				if (Thread.currentThread().isInterrupted()) {
+					interrupted = true;
+					break;
+				}
 			}
-			total++; // For either the file or the directory.
+		} catch (InterruptedException ie) {
+			interrupted = true;
+		} finally {
+			if (!interrupted) {
+				progress.enumerationComplete();
+				try {
+					queue.put(PasteEntry.END);
+				} catch (InterruptedException ie) {
+					// The paste was cancelled, so nobody is waiting for it
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Adds all files and directories in a directory (including the
+	 * directory itself) to a queue.
+	 *
+	 * @param dir The directory to enumerate.
+	 * @param queue The queue to add to.
+	 * @throws InterruptedException If this thread is interrupted.
+	 */
+	private void enumerateDirectory(File dir, BlockingQueue<PasteEntry> queue)
+			throws InterruptedException {
+
+		Path root = dir.toPath();
+
+		// When moving, symbolic links are moved themselves; we don't want
+		// to empty out the directories they point to.
+		Set<FileVisitOption> options = move ?
+				Collections.emptySet() : EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+
+		try {
+			Files.walkFileTree(root, options,
+					Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path d,
+						BasicFileAttributes attrs) {
+					File parent = d.equals(root) ? null : d.getParent().toFile();
+					return enqueueOrTerminate(new PasteEntry(d.toFile(), parent,
+							true, 0));
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file,
+						BasicFileAttributes attrs) {
+					File parent = file.equals(root) ? null :
+							file.getParent().toFile();
+					boolean dir = attrs.isDirectory();
+					return enqueueOrTerminate(new PasteEntry(file.toFile(), parent,
+							dir, dir ? 0 : attrs.size()));
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file,
+						IOException e) {
+					if (e instanceof FileSystemLoopException) {
+						return FileVisitResult.CONTINUE; // Skip symlink loops
+					}
+					// Unreadable; let the copy engine report the error
+					File parent = file.equals(root) ? null :
+							file.getParent().toFile();
+					return enqueueOrTerminate(new PasteEntry(file.toFile(), parent,
+							false, 0));
+				}
+
+				private FileVisitResult enqueueOrTerminate(PasteEntry entry) {
+					try {
+						enqueue(queue, entry);
+						return FileVisitResult.CONTINUE;
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						return FileVisitResult.TERMINATE;
+					}
+				}
+
+			});
+		} catch (IOException ioe) {
+			ioe.printStackTrace(); // Never happens; visitFileFailed handles it
 		}
 
-		return node;
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedException();
+		}
 
 	}
 
 
+	private void enqueue(BlockingQueue<PasteEntry> queue, PasteEntry entry)
+			throws InterruptedException {
+		progress.fileFound(entry.size);
+		queue.put(entry);
+	}
+
+
 	/**
-	 * Returns the size of a map of maps, recursively.
+	 * Records that a file or directory is being pasted.  The callback is
+	 * notified of this asynchronously.
 	 *
-	 * @param map The map of maps.
-	 * @return The size of the map of maps.
+	 * @param file The file or directory.
+	 * @return Whether the paste has been cancelled.
 	 */
-	private static int getSizeRecursive(List<FileTreeNode> map) {
+	private boolean filePasted(File file) {
+		progress.filePasted(file);
+		return isCancelled();
+	}
 
-		int count = 0;
 
-		for (FileTreeNode node : map) {
-			count++; // Increment for this file or directory
-			if (node.children!=null) { // Directory with children
-				count += getSizeRecursive(node.children);
-			}
+	@Override
+	public void finished() {
+		progress.stop();
+		if (callback!=null) {
+			callback.pasteOperationCompleted(progress.getPasteCount());
+		}
+	}
+
+
+	private String getConfirmationDialogTitle() {
+		if (confirmationDialogTitle!=null) {
+			return confirmationDialogTitle;
 		}
+		return MSG.getString("ConfirmationDialog.Title");
+	}
 
-		return count;
 
+	private String getErrorDialogTitle() {
+		if (errorDialogTitle!=null) {
+			return errorDialogTitle;
+		}
+		return MSG.getString("ErrorDialog.Title");
 	}
 
 
@@ -464,6 +700,39 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 		this.destDir = destDir;
 		this.callback = callback;
 		decisions = new UserDecisions();
+		progress = new PasteProgressReporter(callback, this::cancel);
+	}
+
+
+	/**
+	 * Returns whether the paste operation has been cancelled, either by the
+	 * user or due to an error.
+	 *
+	 * @return Whether the paste has been cancelled.
+	 */
+	private boolean isCancelled() {
+		return decisions.cancelEverything || engine.isCancelled();
+	}
+
+
+	/**
+	 * Returns whether any directory being pasted overlaps with where its
+	 * copy would go; for example, when pasting a directory into itself or
+	 * into its own parent.
+	 *
+	 * @param toPaste The files and directories being pasted.
+	 * @return Whether any source and destination overlap.
+	 */
+	private boolean isDestOverlappingSources(List<File> toPaste) {
+		for (File file : toPaste) {
+			Path source = file.getAbsoluteFile().toPath().normalize();
+			Path target = new File(destDir, file.getName()).getAbsoluteFile().
+					toPath().normalize();
+			if (target.startsWith(source) || source.startsWith(target)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 
@@ -486,25 +755,213 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 					dir.getAbsolutePath(),
 					contentsToCopyInDir.getAbsolutePath());
 			String title = getConfirmationDialogTitle();
-			rc = JOptionPane.showConfirmDialog(null, msg, title,
-					JOptionPane.YES_NO_OPTION);
+			Integer result = promptOnEdt(() -> JOptionPane.showConfirmDialog(
+					null, msg, title, JOptionPane.YES_NO_OPTION));
+			rc = result==null ? JOptionPane.NO_OPTION : result;
 		}
 		return rc==JOptionPane.YES_OPTION;
 	}
 
 
+	/**
+	 * Moves each file and directory being pasted with a single rename, where
+	 * possible.  This is only possible when nothing is in the way at the
+	 * destination, and the destination is on the same file system.
+	 *
+	 * @return The files and directories that still need to be pasted.
+	 */
+	private List<File> moveByRenaming() {
+
+		List<File> remaining = new ArrayList<>();
+
+		for (File file : files) {
+
+			if (isCancelled()) {
+				break;
+			}
+
+			Path source = file.getAbsoluteFile().toPath().normalize();
+			Path target = new File(destDir, file.getName()).getAbsoluteFile().
+					toPath().normalize();
+			if (source.equals(target)) { // Already where it's being moved to
+				continue;
+			}
+			if (target.startsWith(source)) {
+				String msg = getString("Error.MoveIntoItself",
+						file.getAbsolutePath());
+				if (!showCannotCopyDialog(msg)) {
+					decisions.cancelEverything = true;
+				}
+				continue;
+			}
+
+			if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+				try {
+					Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+					progress.fileFound(0);
+					filePasted(file);
+					continue;
+				} catch (IOException ioe) {
+					// Probably a different file system; move its contents
+					// one at a time instead
+				}
+			}
+			remaining.add(file);
+
+		}
+
+		return remaining;
+
+	}
+
+
 	public static void paste(Window parent, List<File> files, File destDir,
 			FilePasteCallback callback) {
-		FilePasteThread thread;
-		if (parent instanceof Frame) {
-			thread = new FilePasteThread((Frame)parent, files, destDir,
-					callback);
+		paste(parent, files, destDir, callback, false);
+	}
+
+
+	/**
+	 * Pastes files into a directory.
+	 *
+	 * @param parent The parent window for any prompts.
+	 * @param files The files and directories to paste.
+	 * @param destDir The directory to paste into.
+	 * @param callback Notified as the paste progresses.  This may be
+	 *        <code>null</code>.
+	 * @param preserveAttributes Whether copies should keep the last modified
+	 *        times and permissions of the originals.
+	 */
+	public static void paste(Window parent, List<File> files, File destDir,
+			FilePasteCallback callback, boolean preserveAttributes) {
+		paste(parent, files, destDir, callback, preserveAttributes, false);
+	}
+
+
+	/**
+	 * Pastes files into a directory, optionally recording its progress so
+	 * it can be resumed if it is interrupted.
+	 *
+	 * @param parent The parent window for any prompts.
+	 * @param files The files and directories to paste.
+	 * @param destDir The directory to paste into.
+	 * @param callback Notified as the paste progresses.  This may be
+	 *        <code>null</code>.
+	 * @param preserveAttributes Whether copies should keep the last modified
+	 *        times and permissions of the originals.
+	 * @param resumable Whether the paste can be resumed.  If this is
+	 *        <code>true</code> and the paste is interrupted, pasting the same
+	 *        files into the same directory again skips the files already
+	 *        copied, and partially-copied large files are kept so their
+	 *        copies can be continued.  If this is <code>false</code>, a
+	 *        cancelled paste deletes any partially-copied file.
+	 */
+	public static void paste(Window parent, List<File> files, File destDir,
+			FilePasteCallback callback, boolean preserveAttributes,
+			boolean resumable) {
+		paste(parent, files, destDir, callback, preserveAttributes, resumable,
+				false);
+	}
+
+
+	/**
+	 * Pastes files into a directory, optionally moving rather than copying
+	 * them.
+	 *
+	 * @param parent The parent window for any prompts.
+	 * @param files The files and directories to paste.
+	 * @param destDir The directory to paste into.
+	 * @param callback Notified as the paste progresses.  This may be
+	 *        <code>null</code>.
+	 * @param preserveAttributes Whether copies should keep the last modified
+	 *        times and permissions of the originals.
+	 * @param resumable Whether the paste can be resumed if it is
+	 *        interrupted.
+	 * @param move Whether to move the files rather than copy them.
+	 */
+	public static void paste(Window parent, List<File> files, File destDir,
+			FilePasteCallback callback, boolean preserveAttributes,
+			boolean resumable, boolean move) {
+		FilePasteThread thread = create(parent, files, destDir, callback,
+				preserveAttributes, resumable, move);
+		thread.progress.start();
+		thread.start();
+	}
+
+
+	/**
+	 * Pastes a single enumerated file or directory.
+	 *
+	 * @param entry The file or directory.
+	 */
+	private void paste(PasteEntry entry) {
+
+		File toDir = entry.parent==null ? destDir : destDirs.get(entry.parent);
+		if (toDir==null) { // Its parent directory was skipped
+			progress.fileSkipped(entry.size);
+			return;
+		}
+
+		if (entry.directory) {
+			doCopyDirectory(entry.file, toDir);
 		}
 		else {
-			thread = new FilePasteThread((Dialog)parent, files, destDir,
-					callback);
+			doCopyFile(entry, new File(toDir, entry.file.getName()));
 		}
-		thread.start();
+
+	}
+
+
+	/**
+	 * Runs a prompt on the EDT and waits for the user's response.  Prompts
+	 * from different threads are serialized, so the user only ever sees
+	 * one at a time.
+	 *
+	 * @param prompt The prompt to display.
+	 * @param <T> The type of response.
+	 * @return The user's response, or <code>null</code> if the prompt
+	 *         could not be displayed.
+	 */
+	private <T> T promptOnEdt(Supplier<T> prompt) {
+
+		synchronized (promptLock) {
+
+			if (SwingUtilities.isEventDispatchThread()) {
+				return prompt.get();
+			}
+
+			AtomicReference<T> result = new AtomicReference<>();
+			try {
+				SwingUtilities.invokeAndWait(() -> result.set(prompt.get()));
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (InvocationTargetException ite) {
+				ite.printStackTrace();
+				return null;
+			}
+			return result.get();
+
+		}
+
+	}
+
+
+	/**
+	 * Decides up front how to handle files and directories that already
+	 * exist at the destination, rather than prompting the user.
+	 *
+	 * @param overwriteFiles Whether existing files are overwritten, as
+	 *        opposed to skipped.
+	 * @param copyIntoDirectories Whether files are copied into existing
+	 *        directories, as opposed to skipping those directories.
+	 */
+	void setCollisionDecisions(boolean overwriteFiles,
+			boolean copyIntoDirectories) {
+		decisions.nameCollision = overwriteFiles ?
+				UserDecisions.OVERWRITE : UserDecisions.SKIP;
+		decisions.dirNameCollision = copyIntoDirectories ?
+				UserDecisions.OVERWRITE : UserDecisions.SKIP;
 	}
 
 
@@ -518,6 +975,27 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 	}
 
 
+	/**
+	 * Tells the user that something cannot be copied, and asks whether to
+	 * continue.
+	 *
+	 * @param msg The message to display.
+	 * @return Whether to continue copying other files.
+	 */
+	private boolean showCannotCopyDialog(String msg) {
+		Boolean rc = promptOnEdt(() -> {
+			CannotCopyDialog ccd;
+			if (parent instanceof Dialog) {
+				ccd = new CannotCopyDialog((Dialog)parent, msg);
+			}
+			else {
+				ccd = new CannotCopyDialog((Frame)parent, msg);
+			}
+			ccd.setVisible(true);
+			return ccd.continueCopying;
+		});
+		return rc!=null && rc;
+	}
 	/**
 	 * A dialog stating that content cannot be copied.
 	 */
@@ -908,6 +1386,44 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 	}
 
 
+	/**
+	 * A file or directory found by the enumeration thread, waiting to be
+	 * pasted.
+	 */
+	private static final class PasteEntry {
+
+		private final File file;
+		private final File parent;
+		private final boolean directory;
+		private final long size;
+
+		/**
+		 * Marks the end of the enumerated files.
+		 */
+		private static final PasteEntry END = new PasteEntry(null, null, false, 0);
+
+		/**
+		 * Constructor.
+		 *
+		 * @param file The file or directory to paste.
+		 * @param parent The source directory containing <code>file</code>,
+		 *        or <code>null</code> if <code>file</code> is one of the
+		 *        top-level files being pasted.
+		 * @param directory Whether <code>file</code> is a directory.
+		 * @param size The size of <code>file</code> in bytes, or
+		 *        <code>0</code> if it is a directory.
+		 */
+		private PasteEntry(File file, File parent, boolean directory,
+				long size) {
+			this.file = file;
+			this.parent = parent;
+			this.directory = directory;
+			this.size = size;
+		}
+
+	}
+
+
 	/**
 	 * A simple container around the user's decisions about when to overwrite, etc.
 	 */
@@ -920,7 +1436,7 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 
 		private int nameCollision;
 		private int dirNameCollision;
-		private boolean cancelEverything;
+		private volatile boolean cancelEverything;
 
 		UserDecisions() {
 			nameCollision = PROMPT;
@@ -958,32 +1474,4 @@ final class FilePasteThread extends GUIWorkerThread<Object> {
 	}
 
 
-	/**
-	 * A cached representation of a file, or a folder and its children.
-	 * An instance of this class represents a file if <code>children</code>
-	 * is <code>null</code>; if it is non-<code>null</code> (even just empty),
-	 * it represents a folder.
-	 */
-	private static final class FileTreeNode {
-
-		private File node;
-		private List<FileTreeNode> children;
-
-		private FileTreeNode(File node, boolean isDir) {
-			this.node = node;
-			if (isDir) {
-				children = new ArrayList<>();
-			}
-		}
-
-		private void addChild(FileTreeNode child) {
-			if (children==null) {
-				children = new ArrayList<>();
-			}
-			children.add(child);
-		}
-
-	}
-
-
 }
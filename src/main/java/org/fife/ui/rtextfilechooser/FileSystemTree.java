@@ -18,9 +18,13 @@ import java.io.File;
 import java.io.Serial;
 import java.util.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.swing.*;
 import javax.swing.border.Border;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.filechooser.FileSystemView;
 import javax.swing.tree.*;
 
@@ -45,6 +49,12 @@ import org.fife.util.SubstanceUtil;
  *       could set the cursor back to the default.</li>
  * </ul>
  *
+ * Directories are initially assumed to have children, so they are given an
+ * expand handle without touching the file system.  Directories that are
+ * actually visible in the tree are then checked for children off the EDT
+ * (see {@link DirectoryChildProbe}), and lose their handle if they turn out
+ * to be empty.
+ *
  * @author Robert Futrell
  * @version 0.8
  */
@@ -68,6 +78,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	private Actions.SystemOpenAction systemViewAction;
 	private Actions.CopyAction copyAction;
 	private Actions.CopyFullPathAction copyPathAction;
+	private Actions.CutAction cutAction;
 	private FileSystemTreeActions.PasteAction pasteAction;
 	private FileSystemTreeActions.DeleteAction deleteAction;
 	private FileSystemTreeActions.DeleteAction hardDeleteAction;
@@ -78,6 +89,37 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 
 	private TreeCellRenderer cellRenderer;
 
+	/**
+	 * Re-probes visible directories when our viewport is scrolled or resized.
+	 */
+	private transient ChangeListener viewportListener;
+
+	/**
+	 * Re-probes visible directories when a cached probe result is invalidated.
+	 */
+	private transient Consumer<File> probeInvalidationListener;
+
+	/**
+	 * Whether a probe of the visible directories is already queued on the EDT.
+	 */
+	private boolean visibleProbeScheduled;
+
+	/**
+	 * Files whose display names have been looked up since their nodes were
+	 * last updated.  Names often arrive in bursts, so their nodes are
+	 * updated together, in a single pass over the tree's rows.  This is only
+	 * accessed on the EDT.
+	 */
+	private final transient Set<File> loadedNames = new HashSet<>();
+
+	/**
+	 * Listens for drives being mounted and unmounted while we're displayed.
+	 */
+	private transient Runnable rootsListener;
+
+	private boolean preservePastedFileAttributes;
+	private boolean resumablePastes;
+
 
 	/**
 	 * Constructor.  This will create a tree with a root node for each root
@@ -130,6 +172,26 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	}
 
 
+	/**
+	 * Overridden to start listening for scrolling, for changes to the
+	 * directories we've probed, and for changes to the file system roots.
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		if (getParent() instanceof JViewport viewport) {
+			viewportListener = e -> scheduleVisibleProbe();
+			viewport.addChangeListener(viewportListener);
+		}
+		probeInvalidationListener = dir ->
+				SwingUtilities.invokeLater(this::scheduleVisibleProbe);
+		getChildProbe().addInvalidationListener(probeInvalidationListener);
+		rootsListener = () -> SwingUtilities.invokeLater(this::rootsChanged);
+		RootManager.getInstance().addRootsListener(rootsListener);
+		scheduleVisibleProbe();
+	}
+
+
 	/**
 	 * Collapses all tree nodes.
 	 */
@@ -159,6 +221,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 		boolean enable = selectedFile!=null;
 		copyAction.setEnabled(enable);
 		copyPathAction.setEnabled(enable);
+		cutAction.setEnabled(enable);
 		deleteAction.setEnabled(enable);
 
 		// Only have the "Refresh" menu item enabled if a directory
@@ -224,6 +287,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 
 		popup.add(copyAction);
 		popup.add(copyPathAction);
+		popup.add(cutAction);
 		popup.add(pasteAction);
 		popup.add(deleteAction);
 		popup.addSeparator();
@@ -283,10 +347,14 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 		// Make it have a "+/-" icon beside it if this node represents a
 		// directory containing files.
 		if (directory) {
-			// NOTE:  We're just putting in a dummy file no matter what
-			// for performance, as any kind of File querying methods in
-			// Java degrade performance.
-			dmtn.add(new FileSystemTreeNode(DUMMY_FILE));
+			// NOTE:  We're just putting in a dummy file for performance, as
+			// any kind of File querying methods in Java degrade performance.
+			// We only know a directory is empty if it has already been
+			// probed; otherwise, it'll be probed once it's visible.
+			dmtn.setUnloadedDirectory(true);
+			if (!Boolean.FALSE.equals(getChildProbe().getCachedResult(file))) {
+				dmtn.add(new FileSystemTreeNode(DUMMY_FILE));
+			}
 		}
 
 		return dmtn;
@@ -411,6 +479,18 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	}
 
 
+	/**
+	 * Returns the probe used to determine whether directories in this tree
+	 * have children.  Subclasses that only display certain kinds of children
+	 * should override this method.
+	 *
+	 * @return The probe to use.
+	 */
+	DirectoryChildProbe getChildProbe() {
+		return DirectoryChildProbe.get(false);
+	}
+
+
 	/**
 	 * Returns the child of the specified node containing the specified file.
 	 *
@@ -435,13 +515,51 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 
 
 	/**
-	 * Returns the display name for a given file.
+	 * Returns the display name for a given file.  This never blocks; if the
+	 * name isn't cached, a placeholder is returned, and the file's node is
+	 * updated once the real name has been looked up.
 	 *
 	 * @param file The file for which to get the display name.
 	 * @return The display name.
 	 */
 	protected String getName(File file) {
-		return FileDisplayNames.get().getName(file);
+		return FileDisplayNames.get().getName(file, name -> nameLoaded(file));
+	}
+
+
+	/**
+	 * Called on the EDT when a file's display name has been looked up in the
+	 * background.  Its node is updated if it is visible, since the name's
+	 * width may have changed.  Updates for names loaded before the update
+	 * runs are coalesced.
+	 *
+	 * @param file The file.
+	 * @see #updateLoadedNames()
+	 */
+	private void nameLoaded(File file) {
+		boolean updateScheduled = !loadedNames.isEmpty();
+		loadedNames.add(file);
+		if (!updateScheduled) {
+			SwingUtilities.invokeLater(this::updateLoadedNames);
+		}
+	}
+
+
+	/**
+	 * Updates the visible nodes for all files whose display names have been
+	 * loaded since this was last called.  Nodes that aren't visible will
+	 * pick up their names when they are next displayed.
+	 */
+	private void updateLoadedNames() {
+		int rowCount = getRowCount();
+		for (int i=0; i<rowCount && !loadedNames.isEmpty(); i++) {
+			Object node = getPathForRow(i).getLastPathComponent();
+			if (node instanceof FileSystemTreeNode fstn &&
+					loadedNames.remove(fstn.getFile())) {
+				treeModel.nodeChanged(fstn);
+			}
+		}
+		loadedNames.clear();
 	}
 
 
@@ -462,6 +580,30 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	}
 
 
+	/**
+	 * Returns whether files pasted into this tree keep the last modified
+	 * times and permissions of the originals.
+	 *
+	 * @return Whether file attributes are preserved.
+	 * @see #setPreservePastedFileAttributes(boolean)
+	 */
+	public boolean getPreservePastedFileAttributes() {
+		return preservePastedFileAttributes;
+	}
+
+
+	/**
+	 * Returns whether files pasted into this tree can be resumed if the
+	 * paste is interrupted.
+	 *
+	 * @return Whether pastes are resumable.
+	 * @see #setResumablePastes(boolean)
+	 */
+	public boolean getResumablePastes() {
+		return resumablePastes;
+	}
+
+
 	/**
 	 * Returns the directory being used as the invisible "root" of this tree.
 	 *
@@ -558,6 +700,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 		tsm.setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
 
 		tsm.addTreeSelectionListener(e -> scrollPathToVisible(e.getPath()));
+		addTreeExpansionListener(new ProbeExpansionListener());
 
 		// Set the root.  Note that this must come BEFORE we
 		// set the cell renderer (below), otherwise, each tree node's
@@ -580,6 +723,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 		// Create our actions (most of which have shortcuts)
 		copyAction = new Actions.CopyAction(this);
 		copyPathAction = new Actions.CopyFullPathAction(this);
+		cutAction = new Actions.CutAction(this);
 		pasteAction = new FileSystemTreeActions.PasteAction(this);
 		deleteAction = new FileSystemTreeActions.DeleteAction(null, this, false);
 		hardDeleteAction = new FileSystemTreeActions.DeleteAction(null, this, true);
@@ -608,6 +752,9 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 		im.put((KeyStroke)copyPathAction.getValue(Action.ACCELERATOR_KEY), "CopyFullPath");
 		am.put("CopyFullPath", copyPathAction);
 
+		im.put((KeyStroke)cutAction.getValue(Action.ACCELERATOR_KEY), "Cut");
+		am.put("Cut", cutAction);
+
 		im.put((KeyStroke)pasteAction.getValue(Action.ACCELERATOR_KEY), "Paste");
 		am.put("Paste", pasteAction);
 
@@ -626,6 +773,35 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	}
 
 
+	/**
+	 * Probes all visible, not-yet-loaded directories for children, updating
+	 * whether they display an expand handle when the results come in.
+	 */
+	private void probeVisibleNodes() {
+
+		Rectangle visible = getVisibleRect();
+		if (visible.isEmpty() || getRowCount()==0) {
+			return;
+		}
+
+		int first = getClosestRowForLocation(visible.x, visible.y);
+		int last = getClosestRowForLocation(visible.x,
+				visible.y + visible.height);
+		DirectoryChildProbe probe = getChildProbe();
+
+		for (int row=first; row<=last && row>-1; row++) {
+			TreePath path = getPathForRow(row);
+			if (path!=null &&
+					path.getLastPathComponent() instanceof FileSystemTreeNode node &&
+					node.isUnloadedDirectory() && !isExpanded(path)) {
+				probe.probe(node.getFile(),
+						hasChildren -> setMayHaveChildren(node, hasChildren));
+			}
+		}
+
+	}
+
+
 	/**
 	 * Called when a mouse event occurs in this file system tree.  This method
 	 * is overridden so that we can display our popup menu if necessary.
@@ -656,6 +832,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 
 		if (node!=null) {
 			node.removeAllChildren();
+			node.setUnloadedDirectory(false);
 			File file = node.getFile();
 			if (file.isDirectory()) {
 				File[] children = fileSystemView.getFiles(file, false);
@@ -665,8 +842,137 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 				}
 			}
 			((FileSystemTreeModel)getModel()).nodeStructureChanged(node);
+			scheduleVisibleProbe();
+		}
+
+	}
+
+
+	/**
+	 * Overridden to stop listening for scrolling, for changes to the
+	 * directories we've probed, and for changes to the file system roots.
+	 */
+	@Override
+	public void removeNotify() {
+		if (viewportListener!=null && getParent() instanceof JViewport viewport) {
+			viewport.removeChangeListener(viewportListener);
+		}
+		viewportListener = null;
+		if (probeInvalidationListener!=null) {
+			getChildProbe().removeInvalidationListener(probeInvalidationListener);
+			probeInvalidationListener = null;
+		}
+		if (rootsListener!=null) {
+			RootManager.getInstance().removeRootsListener(rootsListener);
+			rootsListener = null;
+		}
+		super.removeNotify();
+	}
+
+
+	/**
+	 * Called when drives are mounted or unmounted.  If we're displaying all
+	 * file system roots, nodes are added and removed to match, leaving the
+	 * rest of the tree as it is.
+	 */
+	private void rootsChanged() {
+
+		if (root.getFile()!=null) { // Not displaying the roots
+			return;
+		}
+
+		List<File> roots = new ArrayList<>();
+		RootManager.getInstance().iterator().forEachRemaining(roots::add);
+
+		for (int i=root.getChildCount()-1; i>=0; i--) {
+			FileSystemTreeNode node = (FileSystemTreeNode)root.getChildAt(i);
+			if (!roots.contains(node.getFile())) {
+				treeModel.removeNodeFromParent(node);
+			}
+		}
+
+		// Both lists are sorted, so we can insert new roots in place
+		for (int i=0; i<roots.size(); i++) {
+			File aRoot = roots.get(i);
+			if (i==root.getChildCount() ||
+					!((FileSystemTreeNode)root.getChildAt(i)).containsFile(aRoot)) {
+				treeModel.insertNodeInto(createTreeNodeForImpl(aRoot, true), root, i);
+			}
+		}
+
+	}
+
+
+	/**
+	 * Queues a probe of all visible directories for children.  Multiple
+	 * calls before the probe runs are coalesced.  This method should be
+	 * called on the EDT.
+	 */
+	private void scheduleVisibleProbe() {
+		if (!visibleProbeScheduled) {
+			visibleProbeScheduled = true;
+			SwingUtilities.invokeLater(() -> {
+				visibleProbeScheduled = false;
+				probeVisibleNodes();
+			});
+		}
+	}
+
+
+	/**
+	 * Updates whether a not-yet-loaded directory node displays an expand
+	 * handle, based on the results of a probe.
+	 *
+	 * @param node The node for the directory.
+	 * @param hasChildren Whether the directory has any children.
+	 */
+	private void setMayHaveChildren(FileSystemTreeNode node,
+									boolean hasChildren) {
+
+		// Ignore stale results for nodes that have since been loaded or
+		// removed from the tree
+		if (!node.isUnloadedDirectory() || node.getRoot()!=treeModel.getRoot()) {
+			return;
 		}
 
+		int childCount = node.getChildCount();
+		if (hasChildren && childCount==0) {
+			node.add(new FileSystemTreeNode(DUMMY_FILE));
+			treeModel.nodeStructureChanged(node);
+		}
+		else if (!hasChildren && childCount>0) {
+			node.removeAllChildren();
+			treeModel.nodeStructureChanged(node);
+		}
+
+	}
+
+
+	/**
+	 * Sets whether files pasted into this tree keep the last modified times
+	 * and permissions of the originals.  This is <code>false</code> by
+	 * default, so copies are timestamped when they are pasted.
+	 *
+	 * @param preserve Whether to preserve file attributes.
+	 * @see #getPreservePastedFileAttributes()
+	 */
+	public void setPreservePastedFileAttributes(boolean preserve) {
+		preservePastedFileAttributes = preserve;
+	}
+
+
+	/**
+	 * Sets whether files pasted into this tree can be resumed if the paste
+	 * is interrupted.  If they can, the paste's progress is recorded in the
+	 * temporary directory, and pasting the same files into the same
+	 * directory again skips the files already copied.  This is
+	 * <code>false</code> by default.
+	 *
+	 * @param resumable Whether pastes are resumable.
+	 * @see #getResumablePastes()
+	 */
+	public void setResumablePastes(boolean resumable) {
+		resumablePastes = resumable;
 	}
 
 
@@ -717,6 +1023,7 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 
 		treeModel = new FileSystemTreeModel(root);
 		setModel(treeModel);
+		scheduleVisibleProbe();
 
 	}
 
@@ -836,6 +1143,12 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	 */
 	public static class FileSystemTreeNode extends DefaultMutableTreeNode {
 
+		/**
+		 * Whether this node is a directory whose children have not yet been
+		 * loaded.
+		 */
+		private boolean unloadedDirectory;
+
 		public FileSystemTreeNode() {
 		}
 
@@ -871,6 +1184,14 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 			return (File)userObject;
 		}
 
+		boolean isUnloadedDirectory() {
+			return unloadedDirectory;
+		}
+
+		void setUnloadedDirectory(boolean unloadedDirectory) {
+			this.unloadedDirectory = unloadedDirectory;
+		}
+
 		/**
 		 * Overridden since {@link #equals(Object)} was overridden, to keep
 		 * them consistent.
@@ -933,6 +1254,25 @@ public class FileSystemTree extends ToolTipTree implements FileSelector {
 	}
 
 
+	/**
+	 * Probes newly-visible directories for children when nodes are expanded
+	 * or collapsed.
+	 */
+	private final class ProbeExpansionListener implements TreeExpansionListener {
+
+		@Override
+		public void treeCollapsed(TreeExpansionEvent e) {
+			scheduleVisibleProbe();
+		}
+
+		@Override
+		public void treeExpanded(TreeExpansionEvent e) {
+			scheduleVisibleProbe();
+		}
+
+	}
+
+
 	/**
 	 * Transfer handler for copying files from a FileSystemTree.
 	 */
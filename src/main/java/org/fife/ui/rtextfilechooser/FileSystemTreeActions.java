@@ -13,6 +13,7 @@ import java.awt.Component;
 import java.awt.Window;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.ActionEvent;
@@ -469,7 +470,8 @@ class FileSystemTreeActions {
 
 
 	/**
-	 * Pastes files into the currently selected directory.
+	 * Pastes files into the currently selected directory.  Files that were
+	 * cut are moved, after which the clipboard is cleared.
 	 */
 	static class PasteAction extends AbstractTreeAction {
 
@@ -500,6 +502,8 @@ class FileSystemTreeActions {
 					Clipboard clip = tree.getToolkit().getSystemClipboard();
 					Transferable contents = clip.getContents(null);
 					DataFlavor accepted = DataFlavor.javaFileListFlavor;
+					boolean move = contents instanceof FileListTransferable flt &&
+							flt.isCut();
 
 					try {
 
@@ -520,8 +524,12 @@ class FileSystemTreeActions {
 						};
 
 						if (files!=null && !files.isEmpty()) {
-							FilePasteThread.paste(parent,
-										files, destDir, callback);
+							FilePasteThread.paste(parent, files, destDir,
+									callback, tree.getPreservePastedFileAttributes(),
+									tree.getResumablePastes(), move);
+							if (move) { // Can't be moved from there again
+								clip.setContents(new StringSelection(""), null);
+							}
 							copying = true;
 						}
 
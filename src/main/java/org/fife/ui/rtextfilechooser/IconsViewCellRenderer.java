@@ -0,0 +1,206 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.Icon;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.UIManager;
+import javax.swing.border.Border;
+import javax.swing.plaf.basic.BasicGraphicsUtils;
+import javax.swing.text.Segment;
+import javax.swing.text.Utilities;
+
+
+/**
+ * The renderer for the "icons view" of the file chooser.  Each file is
+ * painted as its icon, centered above its name.  Long names are wrapped
+ * onto a second line, and truncated if they still don't fit.  As in Windows'
+ * icon view, only the file name (not the icon) is highlighted when a file is
+ * selected.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class IconsViewCellRenderer extends JComponent implements ListCellRenderer<File> {
+
+	private RTextFileChooser chooser;
+	private Icon icon;
+	private String name;
+	private Color textColor;
+	private Color selectionBackground;
+	private boolean selected;
+	private boolean focused;
+	private boolean underline;
+	private Dimension cellSize;
+
+	/**
+	 * Padding around the icon and text.
+	 */
+	static final int PADDING = 4;
+
+	/**
+	 * The maximum number of lines to display a file name on.
+	 */
+	static final int MAX_LINES = 2;
+
+	private static final String ELLIPSIS = "...";
+
+
+	IconsViewCellRenderer(RTextFileChooser chooser) {
+		this.chooser = chooser;
+		setOpaque(true);
+		cellSize = new Dimension();
+	}
+
+
+	/**
+	 * Truncates text to fit in a given width, ending it with an ellipsis if
+	 * necessary.
+	 */
+	private static String ellipsize(String text, FontMetrics fm, int width) {
+		if (fm.stringWidth(text)<=width) {
+			return text;
+		}
+		int end = text.length();
+		while (end>0 && fm.stringWidth(text.substring(0, end) + ELLIPSIS)>width) {
+			end--;
+		}
+		return text.substring(0, end) + ELLIPSIS;
+	}
+
+
+	@Override
+	public Component getListCellRendererComponent(JList<? extends File> list,
+			File file, int index, boolean isSelected, boolean cellHasFocus) {
+
+		DirectoryListing listing = ((FileListModel)list.getModel()).getListing();
+		FileTypeInfo info = chooser.getFileTypeInfoFor(listing, index);
+		icon = info.icon;
+		name = file.getName();
+		selected = isSelected;
+		focused = cellHasFocus;
+		underline = chooser.getStyleOpenFiles() && chooser.isOpenedFile(file);
+
+		if (isSelected) {
+			textColor = list.getSelectionForeground();
+		}
+		else if (chooser.getShowHiddenFiles() && listing.isHidden(index)) {
+			textColor = chooser.getHiddenFileColor();
+		}
+		else {
+			textColor = info.labelTextColor;
+		}
+		if (textColor==null) {
+			textColor = list.getForeground();
+		}
+
+		selectionBackground = list.getSelectionBackground();
+		setBackground(list.getBackground());
+		setFont(list.getFont());
+		setComponentOrientation(list.getComponentOrientation());
+		cellSize.setSize(list.getFixedCellWidth(), list.getFixedCellHeight());
+		return this;
+
+	}
+
+
+	/**
+	 * Returns the size of the list's cells.  Lists that are file lists
+	 * (as the icons view is) only paint as much of a cell as its renderer
+	 * says it needs.
+	 *
+	 * @return The preferred size of this renderer.
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		return new Dimension(cellSize);
+	}
+
+
+	@Override
+	protected void paintComponent(Graphics g) {
+
+		int width = getWidth();
+		g.setColor(getBackground());
+		g.fillRect(0, 0, width, getHeight());
+
+		int y = PADDING;
+		if (icon!=null) {
+			icon.paintIcon(this, g, (width-icon.getIconWidth())/2, y);
+			y += icon.getIconHeight();
+		}
+		y += PADDING;
+
+		FontMetrics fm = g.getFontMetrics(getFont());
+		List<String> lines = wrap(name, fm, width - 2*PADDING);
+		int lineHeight = fm.getHeight();
+		int textWidth = 0;
+		for (String line : lines) {
+			textWidth = Math.max(textWidth, fm.stringWidth(line));
+		}
+
+		int textX = (width-textWidth)/2 - 2;
+		int textHeight = lines.size()*lineHeight;
+		if (selected) {
+			g.setColor(selectionBackground);
+			g.fillRect(textX, y, textWidth+4, textHeight);
+		}
+		if (focused) {
+			Border border = UIManager.getBorder("List.focusCellHighlightBorder");
+			if (border!=null) {
+				border.paintBorder(this, g, textX, y, textWidth+4, textHeight);
+			}
+		}
+
+		g.setColor(textColor);
+		for (String line : lines) {
+			int lineWidth = fm.stringWidth(line);
+			int x = (width-lineWidth)/2;
+			int baseline = y + fm.getAscent();
+			BasicGraphicsUtils.drawString(this, (Graphics2D)g, line, x, baseline);
+			if (underline) {
+				g.drawLine(x, baseline+1, x+lineWidth-1, baseline+1);
+			}
+			y += lineHeight;
+		}
+
+	}
+
+
+	/**
+	 * Splits a file name into lines no wider than a given width.  Names are
+	 * broken at word boundaries where possible.
+	 */
+	private static List<String> wrap(String text, FontMetrics fm, int width) {
+
+		List<String> lines = new ArrayList<>(MAX_LINES);
+
+		while (lines.size()<MAX_LINES-1 && fm.stringWidth(text)>width) {
+			Segment s = new Segment(text.toCharArray(), 0, text.length());
+			int br = Utilities.getBreakLocation(s, fm, 0f, width, null, 0);
+			br = Math.max(1, br);
+			lines.add(text.substring(0, br));
+			text = text.substring(br);
+		}
+
+		lines.add(ellipsize(text, fm, width));
+		return lines;
+
+	}
+
+
+}
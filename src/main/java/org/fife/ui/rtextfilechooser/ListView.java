@@ -19,7 +19,6 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.io.File;
-import java.util.List;
 import javax.swing.*;
 
 
@@ -44,7 +43,7 @@ class ListView extends JList<File> implements RTextFileChooserView {
 	 */
 	ListView(RTextFileChooser chooser) {
 
-		super(new DefaultListModel<>()); // Ensure we have a DefaultListModel.
+		super(new FileListModel());
 		this.chooser = chooser;
 
 		// Just some other stuff to keep things looking nice.
@@ -83,10 +82,7 @@ class ListView extends JList<File> implements RTextFileChooserView {
 	 */
 	@Override
 	public void clearDisplayedFiles() {
-		// setListData() replaces our ListModel, with a non-DefaultListModel
-		// model, which we don't want to do
-		//setListData(new File[0]);
-		setModel(new DefaultListModel<>());
+		setModel(new FileListModel());
 	}
 
 
@@ -100,7 +96,7 @@ class ListView extends JList<File> implements RTextFileChooserView {
 
 		// This will always be true because we explicitly set the
 		// model below.
-		DefaultListModel<File> model = (DefaultListModel<File>)getModel();
+		FileListModel model = (FileListModel)getModel();
 
 		int index = model.indexOf(file);
 		if (index!=-1)
@@ -193,10 +189,10 @@ class ListView extends JList<File> implements RTextFileChooserView {
 			return null;
 		Rectangle bounds = getCellBounds(index, index);
 		if (bounds.contains(p)) {
-			File file = getModel().getElementAt(index);
-			if (file==null || file.isDirectory())
+			DirectoryListing listing = ((FileListModel)getModel()).getListing();
+			if (listing.isDirectory(index))
 				return null;
-			tip = chooser.getToolTipFor(file);
+			tip = chooser.getToolTipFor(listing.getFile(index));
 		}
 		return tip;
 	}
@@ -235,16 +231,15 @@ class ListView extends JList<File> implements RTextFileChooserView {
 	}
 
 
+	/**
+	 * Sets the files displayed by this view.  The entire listing is swapped
+	 * in at once, rather than notifying listeners of each file added.
+	 *
+	 * @param files The files to display.
+	 */
 	@Override
-	public void setDisplayedFiles(List<File> files) {
-		// setListData() replaces our ListModel, with a non-DefaultListModel
-		// model, which we don't want to do
-		//setListData(files);
-		DefaultListModel<File> model = new DefaultListModel<>();
-		for (File file : files) {
-			model.addElement(file);
-		}
-		setModel(model);
+	public void setDisplayedFiles(DirectoryListing files) {
+		setModel(new FileListModel(files));
 	}
 
 
@@ -275,8 +270,7 @@ class ListView extends JList<File> implements RTextFileChooserView {
 		int num = files.length;
 		if (num>0) {
 
-			ListModel<File> model = getModel();
-			int modelSize = model.getSize();
+			FileListModel model = (FileListModel)getModel();
 
             for (File f1 : files) {
 
@@ -286,12 +280,9 @@ class ListView extends JList<File> implements RTextFileChooserView {
                 if (!parentFile.equals(chooser.currentDirectory))
                     continue;
 
-                for (int j = 0; j < modelSize; j++) {
-                    File f2 = model.getElementAt(j);
-                    if (f1.equals(f2)) {
-                        addSelectionInterval(j, j);
-                        break;
-                    }
+                int index = model.indexOf(f1);
+                if (index!=-1) {
+                    addSelectionInterval(index, index);
                 }
 
             }
@@ -313,12 +304,11 @@ class ListView extends JList<File> implements RTextFileChooserView {
 		private int getNextMatch(String text, int fromCell) {
 
 			text = text.toUpperCase();
-			ListModel<File> model = getModel();
+			FileListModel model = (FileListModel)getModel();
 
 			// First, try everything after the selected row
 			for (int row=fromCell; row<model.getSize(); row++) {
-				File value = model.getElementAt(row);
-				String fileName = value.getName();
+				String fileName = model.getListing().getName(row);
 				fileName = fileName.toUpperCase();
 				if (fileName.startsWith(text)) {
 					return row;
@@ -327,8 +317,7 @@ class ListView extends JList<File> implements RTextFileChooserView {
 
 			// Then, wrap around to before the selected row
 			for (int row=0; row<fromCell; row++) {
-				File value = model.getElementAt(row);
-				String fileName = value.getName();
+				String fileName = model.getListing().getName(row);
 				fileName = fileName.toUpperCase();
 				if (fileName.startsWith(text)) {
 					return row;
@@ -36,9 +36,9 @@ class ListViewCellRenderer extends DefaultListCellRenderer {
 	}
 
 
-	private Color getForegroundColor(File file, FileTypeInfo fti) {
+	private Color getForegroundColor(boolean hidden, FileTypeInfo fti) {
 		Color color;
-		if (chooser.getShowHiddenFiles() && file.isHidden()) {
+		if (chooser.getShowHiddenFiles() && hidden) {
 			color = chooser.getHiddenFileColor();
 		}
 		else {
@@ -56,7 +56,9 @@ class ListViewCellRenderer extends DefaultListCellRenderer {
 		super.getListCellRendererComponent(list, value, index,
 									isSelected, cellHasFocus);
 		File file = (File)value;
-		FileTypeInfo info = chooser.getFileTypeInfoFor(file);
+		DirectoryListing listing = ((FileListModel)list.getModel()).getListing();
+		FileTypeInfo info = chooser.getFileTypeInfoFor(listing, index);
+		boolean hidden = listing.isHidden(index);
 		String fileName = file.getName();
 
 		boolean isAlreadyOpened = chooser.isOpenedFile(file);
@@ -74,7 +76,7 @@ class ListViewCellRenderer extends DefaultListCellRenderer {
 					fg = list.getSelectionForeground();
 				}
 				else {
-					fg = getForegroundColor(file, info);
+					fg = getForegroundColor(hidden, info);
 					if (fg==null) { // Special care for this case.
 						fg = list.getSelectionForeground();
 					}
@@ -90,7 +92,7 @@ class ListViewCellRenderer extends DefaultListCellRenderer {
 		// Set the image according to the file type.
 		setIcon(info.icon);
 		if (!isSelected) {
-			setForeground(getForegroundColor(file, info));
+			setForeground(getForegroundColor(hidden, info));
 		}
 
 		return this;
@@ -40,9 +40,9 @@ class ListViewSubstanceCellRenderer extends SubstanceDefaultListCellRenderer {
 	}
 
 
-	private Color getForegroundColor(File file, FileTypeInfo fti) {
+	private Color getForegroundColor(boolean hidden, FileTypeInfo fti) {
 		Color color;
-		if (chooser.getShowHiddenFiles() && file.isHidden()) {
+		if (chooser.getShowHiddenFiles() && hidden) {
 			color = chooser.getHiddenFileColor();
 		}
 		else {
@@ -61,7 +61,9 @@ class ListViewSubstanceCellRenderer extends SubstanceDefaultListCellRenderer {
 		super.getListCellRendererComponent(list, value, index,
 									isSelected, cellHasFocus);
 		File file = (File)value;
-		FileTypeInfo info = chooser.getFileTypeInfoFor(file);
+		DirectoryListing listing = ((FileListModel)list.getModel()).getListing();
+		FileTypeInfo info = chooser.getFileTypeInfoFor(listing, index);
+		boolean hidden = listing.isHidden(index);
 		String fileName = file.getName();
 
 		boolean isAlreadyOpened = chooser.isOpenedFile(file);
@@ -79,7 +81,7 @@ class ListViewSubstanceCellRenderer extends SubstanceDefaultListCellRenderer {
 					fg = list.getSelectionForeground();
 				}
 				else {
-					fg = getForegroundColor(file, info);
+					fg = getForegroundColor(hidden, info);
 					if (fg==null) { // Special care for this case.
 						fg = list.getSelectionForeground();
 					}
@@ -95,7 +97,7 @@ class ListViewSubstanceCellRenderer extends SubstanceDefaultListCellRenderer {
 		// Set the image according to the file type.
 		setIcon(info.icon);
 		if (!isSelected && !substanceAndRollover(list, index)) {
-			setForeground(getForegroundColor(file, info));
+			setForeground(getForegroundColor(hidden, info));
 		}
 
 		return this;
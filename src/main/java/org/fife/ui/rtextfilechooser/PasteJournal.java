@@ -0,0 +1,550 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Records the progress of a paste operation on disk, so that if it is
+ * interrupted (the application is closed or crashes, or the user cancels
+ * it), pasting the same files into the same directory again picks up where
+ * it left off instead of starting over.<p>
+ *
+ * A journal is a small text file in the temporary directory, named after the
+ * files being pasted, where they are being pasted, and whether they are being
+ * moved.  Each file or directory is recorded when it completes, along with the
+ * size and last modified times of both the source and the copy.  Large files
+ * are also recorded when their copy starts.  On resume, a completed file is
+ * skipped only if neither it nor its copy has changed since, and a large file
+ * whose copy was interrupted is continued from the end of its partial copy,
+ * provided the source hasn't changed and the end of the partial copy still
+ * matches it.<p>
+ *
+ * Completion records are only flushed to disk about once a second, so a
+ * crash may lose the last few; those files are simply treated as not yet
+ * copied.  The journal is deleted once a paste completes, and journals that
+ * haven't been written to in {@link #MAX_AGE_MILLIS} are deleted the next
+ * time any journal is opened.<p>
+ *
+ * If the journal cannot be written, it silently does nothing.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class PasteJournal {
+
+	private final Path file;
+	private BufferedWriter out;
+	private long lastFlushTime;
+
+	/**
+	 * Files and directories completed in a previous, interrupted paste, by
+	 * absolute path.
+	 */
+	private final Map<String, CompletedFile> completed;
+
+	/**
+	 * Files started (but not necessarily completed) in a previous,
+	 * interrupted paste, by absolute path.
+	 */
+	private final Map<String, StartedFile> started;
+
+	/**
+	 * How long a journal is kept after it was last written to.  Older
+	 * journals are assumed to be for pastes that won't be retried.
+	 */
+	static final long MAX_AGE_MILLIS = 24L * 60 * 60 * 1000;
+
+	/**
+	 * Completion records are flushed at most this often.  Started records
+	 * are always flushed, since the copy writes to disk right after.
+	 */
+	private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+	/**
+	 * The number of bytes at the end of a partial copy that are compared
+	 * with the source before the copy is resumed.
+	 */
+	private static final int RESUME_CHECK_SIZE = 64 * 1024;
+
+	/**
+	 * Some file systems round last modified times, e.g. FAT to 2 seconds.
+	 */
+	private static final long LAST_MODIFIED_TOLERANCE_MILLIS = 2000;
+
+	private static final String VERSION_LINE = "V\t2";
+	private static final String STARTED = "S";
+	private static final String COMPLETED = "C";
+	private static final String DIRECTORY_COMPLETED = "D";
+
+	private static final String JOURNAL_DIR = "rtextfilechooser-paste";
+	private static final String EXTENSION = ".journal";
+
+
+	private PasteJournal(Path file) {
+		this.file = file;
+		completed = new HashMap<>();
+		started = new HashMap<>();
+	}
+
+
+	/**
+	 * Closes this journal.
+	 *
+	 * @param pasteComplete Whether the paste completed.  If it did, the
+	 *        journal is deleted, since there is nothing to resume.
+	 */
+	synchronized void close(boolean pasteComplete) {
+
+		if (out==null) {
+			return;
+		}
+
+		try {
+			out.close();
+			if (pasteComplete) {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException ioe) {
+			// Worst case, the next identical paste re-copies some files
+		}
+		out = null;
+
+	}
+
+
+	/**
+	 * Deletes journals that haven't been written to in
+	 * {@link #MAX_AGE_MILLIS}.
+	 *
+	 * @param dir The directory containing the journals.
+	 */
+	private static void deleteExpiredJournals(Path dir) {
+
+		long oldest = System.currentTimeMillis() - MAX_AGE_MILLIS;
+
+		try (DirectoryStream<Path> journals = Files.newDirectoryStream(dir,
+				"*" + EXTENSION)) {
+			for (Path journal : journals) {
+				try {
+					if (Files.getLastModifiedTime(journal).toMillis()<oldest) {
+						Files.delete(journal);
+					}
+				} catch (IOException ioe) {
+					// Deleted by another paste, or in use; try again next time
+				}
+			}
+		} catch (IOException ioe) {
+			// Try again next time
+		}
+
+	}
+
+
+	/**
+	 * Returns a journal that records nothing, for pastes that shouldn't be
+	 * resumable.
+	 *
+	 * @return The journal.
+	 */
+	static PasteJournal disabled() {
+		return new PasteJournal(null);
+	}
+
+
+	/**
+	 * Records that a file or directory has been pasted.
+	 *
+	 * @param source The source file or directory.
+	 * @param dest The copy.
+	 */
+	void fileCompleted(File source, File dest) {
+
+		if (!isEnabled()) {
+			return;
+		}
+
+		if (source.isDirectory()) {
+			write(DIRECTORY_COMPLETED + '\t' + source.getAbsolutePath() + '\t' +
+					dest.getAbsolutePath(), false);
+		}
+		else {
+			write(COMPLETED + '\t' + source.length() + '\t' +
+					source.lastModified() + '\t' + dest.lastModified() + '\t' +
+					source.getAbsolutePath() + '\t' + dest.getAbsolutePath(),
+					false);
+		}
+
+	}
+
+
+	/**
+	 * Records that a file is about to be copied.  This should be called
+	 * before anything is written to the destination file.  It only needs to
+	 * be called for files large enough that resuming their copy is
+	 * worthwhile.
+	 *
+	 * @param source The source file.
+	 * @param dest The destination file.
+	 * @param size The size of <code>source</code>, in bytes.
+	 */
+	void fileStarted(File source, File dest, long size) {
+
+		if (!isEnabled()) {
+			return;
+		}
+
+		// If resuming, the partial copy dates from the first attempt
+		long startTime = System.currentTimeMillis();
+		StartedFile previous = started.get(source.getAbsolutePath());
+		if (previous!=null && previous.dest.equals(dest.getAbsoluteFile())) {
+			startTime = Math.min(startTime, previous.startTime);
+		}
+
+		write(STARTED + '\t' + size + '\t' + source.lastModified() + '\t' +
+				startTime + '\t' + source.getAbsolutePath() + '\t' +
+				dest.getAbsolutePath(), true);
+
+	}
+
+
+	/**
+	 * Returns where a file was being copied to when a previous paste was
+	 * interrupted, if anywhere.
+	 *
+	 * @param source The source file.
+	 * @return The destination file, or <code>null</code> if the file's copy
+	 *         wasn't started, was completed, or its partial copy has since
+	 *         been replaced by something else.
+	 */
+	File getInterruptedDest(File source) {
+		String path = source.getAbsolutePath();
+		StartedFile sf = started.get(path);
+		if (sf==null || completed.containsKey(path) || !sf.dest.isFile()) {
+			return null;
+		}
+		return sf.dest.length()<=sf.size && isWrittenSince(sf.dest, sf.startTime) ?
+				sf.dest : null;
+	}
+
+
+	/**
+	 * Returns the offset from which to resume copying a file, if it was
+	 * partially copied before a previous paste was interrupted.
+	 *
+	 * @param source The source file.
+	 * @param dest The destination file.
+	 * @return The number of bytes of <code>source</code> already copied to
+	 *         <code>dest</code>, or <code>0</code> if the copy should be
+	 *         started from scratch.
+	 */
+	long getResumeOffset(File source, File dest) {
+
+		StartedFile sf = started.get(source.getAbsolutePath());
+		if (sf==null || !sf.dest.equals(dest.getAbsoluteFile()) ||
+				sf.size!=source.length() ||
+				sf.lastModified!=source.lastModified()) {
+			return 0;
+		}
+
+		long length = dest.length();
+		if (length<=0 || length>sf.size || !isWrittenSince(dest, sf.startTime)) {
+			return 0;
+		}
+
+		try {
+			return isEndIdentical(source, dest, length) ? length : 0;
+		} catch (IOException ioe) {
+			return 0;
+		}
+
+	}
+
+
+	/**
+	 * Returns whether a file or directory was pasted by a previous,
+	 * interrupted paste, and is unchanged since.
+	 *
+	 * @param source The source file or directory.
+	 * @return Whether it was already pasted.
+	 */
+	boolean isCompleted(File source) {
+
+		CompletedFile cf = completed.get(source.getAbsolutePath());
+		if (cf==null) {
+			return false;
+		}
+		if (cf.directory) {
+			return cf.dest.isDirectory();
+		}
+
+		return cf.dest.isFile() &&
+				cf.size==source.length() && cf.lastModified==source.lastModified() &&
+				cf.size==cf.dest.length() && cf.destLastModified==cf.dest.lastModified();
+
+	}
+
+
+	/**
+	 * Returns whether this journal is actually recording anything.
+	 *
+	 * @return Whether this journal is enabled.
+	 */
+	synchronized boolean isEnabled() {
+		return out!=null;
+	}
+
+
+	/**
+	 * Returns whether the first <code>length</code> bytes of a partial copy
+	 * end with the same bytes as the source does at that offset.
+	 *
+	 * @param source The source file.
+	 * @param dest The partial copy.
+	 * @param length The length of the partial copy.
+	 * @return Whether the ends of the files match.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static boolean isEndIdentical(File source, File dest, long length)
+			throws IOException {
+
+		int count = (int)Math.min(RESUME_CHECK_SIZE, length);
+		byte[] sourceBytes = new byte[count];
+		byte[] destBytes = new byte[count];
+
+		try (RandomAccessFile in = new RandomAccessFile(source, "r")) {
+			in.seek(length - count);
+			in.readFully(sourceBytes);
+		}
+		try (RandomAccessFile in = new RandomAccessFile(dest, "r")) {
+			in.seek(length - count);
+			in.readFully(destBytes);
+		}
+
+		return Arrays.equals(sourceBytes, destBytes);
+
+	}
+
+
+	private static boolean isWrittenSince(File file, long time) {
+		return file.lastModified() >= time - LAST_MODIFIED_TOLERANCE_MILLIS;
+	}
+
+
+	/**
+	 * Opens the journal for a paste operation, loading any progress from a
+	 * previous, interrupted attempt at the same paste.
+	 *
+	 * @param files The files and directories being pasted.
+	 * @param destDir The directory being pasted into.
+	 * @param move Whether the files are being moved rather than copied.
+	 * @return The journal.
+	 * @see #disabled()
+	 */
+	static PasteJournal open(List<File> files, File destDir, boolean move) {
+		return open(files, destDir, move, new File(System.getProperty("java.io.tmpdir"),
+				JOURNAL_DIR).toPath());
+	}
+
+
+	/**
+	 * Opens the journal for a paste operation, loading any progress from a
+	 * previous, interrupted attempt at the same paste.
+	 *
+	 * @param files The files and directories being pasted.
+	 * @param destDir The directory being pasted into.
+	 * @param move Whether the files are being moved rather than copied.
+	 * @param dir The directory containing journals.
+	 * @return The journal.
+	 */
+	static PasteJournal open(List<File> files, File destDir, boolean move,
+			Path dir) {
+
+		StringBuilder key = new StringBuilder(destDir.getAbsolutePath());
+		key.append('\n').append(move);
+		for (File f : files) {
+			key.append('\n').append(f.getAbsolutePath());
+		}
+		String name = UUID.nameUUIDFromBytes(key.toString().getBytes(
+				StandardCharsets.UTF_8)) + EXTENSION;
+		PasteJournal journal = new PasteJournal(dir.resolve(name));
+
+		try {
+			Files.createDirectories(dir);
+			deleteExpiredJournals(dir);
+			boolean resumable = journal.load();
+			journal.out = Files.newBufferedWriter(journal.file,
+					StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					resumable ? StandardOpenOption.APPEND :
+						StandardOpenOption.TRUNCATE_EXISTING);
+			if (!resumable) {
+				journal.write(VERSION_LINE, true);
+			}
+		} catch (IOException ioe) {
+			// Leave it disabled; the paste just won't be resumable
+		}
+
+		return journal;
+
+	}
+
+
+	/**
+	 * Loads the records of a previous paste, if any.
+	 *
+	 * @return Whether there was a previous journal in a format we understand.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private boolean load() throws IOException {
+
+		try (BufferedReader r = Files.newBufferedReader(file,
+				StandardCharsets.UTF_8)) {
+
+			if (!VERSION_LINE.equals(r.readLine())) {
+				return false;
+			}
+
+			String line;
+			while ((line=r.readLine())!=null) {
+				try {
+					parseLine(line);
+				} catch (NumberFormatException nfe) {
+					// Partially-written line; ignore it
+				}
+			}
+
+		} catch (NoSuchFileException nsfe) {
+			return false;
+		}
+
+		return true;
+
+	}
+
+
+	private void parseLine(String line) {
+
+		if (line.startsWith(DIRECTORY_COMPLETED + '\t')) {
+			String[] tokens = line.split("\t", 3);
+			if (tokens.length==3) {
+				completed.put(tokens[1], new CompletedFile(new File(tokens[2])));
+			}
+			return;
+		}
+
+		String[] tokens = line.split("\t", 6);
+		if (tokens.length==6 && COMPLETED.equals(tokens[0])) {
+			completed.put(tokens[4], new CompletedFile(
+					Long.parseLong(tokens[1]),
+					Long.parseLong(tokens[2]),
+					Long.parseLong(tokens[3]),
+					new File(tokens[5])));
+		}
+		else if (tokens.length==6 && STARTED.equals(tokens[0])) {
+			started.put(tokens[4], new StartedFile(
+					Long.parseLong(tokens[1]),
+					Long.parseLong(tokens[2]),
+					Long.parseLong(tokens[3]),
+					new File(tokens[5])));
+		}
+
+	}
+
+
+	/**
+	 * Writes a record to the journal.
+	 *
+	 * @param line The record.
+	 * @param flush Whether the record must be on disk before this method
+	 *        returns.  If this is <code>false</code>, it is flushed when
+	 *        {@link #FLUSH_INTERVAL_MILLIS} has passed since the last flush,
+	 *        or when the journal is closed.
+	 */
+	private synchronized void write(String line, boolean flush) {
+		if (out!=null) {
+			try {
+				out.write(line);
+				out.newLine();
+				long now = System.currentTimeMillis();
+				if (flush || now - lastFlushTime >= FLUSH_INTERVAL_MILLIS) {
+					out.flush();
+					lastFlushTime = now;
+				}
+			} catch (IOException ioe) {
+				close(false);
+			}
+		}
+	}
+
+
+	/**
+	 * A file or directory that was completed by a previous paste.
+	 */
+	private static final class CompletedFile {
+
+		private final boolean directory;
+		private final long size;
+		private final long lastModified;
+		private final long destLastModified;
+		private final File dest;
+
+		CompletedFile(File dest) {
+			this.directory = true;
+			this.size = 0;
+			this.lastModified = 0;
+			this.destLastModified = 0;
+			this.dest = dest;
+		}
+
+		CompletedFile(long size, long lastModified, long destLastModified,
+				File dest) {
+			this.directory = false;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.destLastModified = destLastModified;
+			this.dest = dest;
+		}
+
+	}
+
+
+	/**
+	 * A file whose copy was started by a previous paste.
+	 */
+	private static final class StartedFile {
+
+		private final long size;
+		private final long lastModified;
+		private final long startTime;
+		private final File dest;
+
+		StartedFile(long size, long lastModified, long startTime, File dest) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.startTime = startTime;
+			this.dest = dest;
+		}
+
+	}
+
+
+}
@@ -0,0 +1,205 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.Timer;
+
+
+/**
+ * Tracks the progress of a {@link FilePasteThread} and delivers it to a
+ * {@link FilePasteCallback}.  The threads doing the actual work only update
+ * counters here; a Swing timer samples them at a fixed rate and notifies the
+ * callback on the EDT.  This keeps pastes of many small files from flooding
+ * the EDT with one update per file.<p>
+ *
+ * Throughput is smoothed with an exponential moving average, and the
+ * estimated time remaining is only reported once all files to paste have
+ * been enumerated (before then, the total size isn't known).
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+final class PasteProgressReporter implements FileCopyEngine.ProgressListener {
+
+	private final FilePasteCallback callback;
+	private final Runnable cancelAction;
+	private final Timer timer;
+
+	private final AtomicInteger pasteCount;
+	private final AtomicInteger total;
+	private final AtomicLong bytesCopied;
+	private final AtomicLong totalBytes;
+	private volatile File lastFile;
+	private volatile boolean enumerationComplete;
+
+	// These are only accessed on the EDT
+	private long lastSampleNanos;
+	private long lastSampleBytes;
+	private double bytesPerSecond;
+	private boolean done;
+
+	/**
+	 * How often the callback is notified, in milliseconds.
+	 */
+	static final int REFRESH_MILLIS = 100;
+
+	/**
+	 * The time constant of the throughput's moving average, in seconds.
+	 * Larger values give a steadier, but slower-to-react, estimate.
+	 */
+	private static final double SMOOTHING_SECONDS = 3;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param callback The callback to notify.  This may be <code>null</code>.
+	 * @param cancelAction Called on the EDT if the callback requests the
+	 *        paste be cancelled.
+	 */
+	PasteProgressReporter(FilePasteCallback callback, Runnable cancelAction) {
+		this.callback = callback;
+		this.cancelAction = cancelAction;
+		pasteCount = new AtomicInteger();
+		total = new AtomicInteger();
+		bytesCopied = new AtomicLong();
+		totalBytes = new AtomicLong();
+		timer = new Timer(REFRESH_MILLIS, e -> fireUpdate());
+		timer.setCoalesce(true);
+	}
+
+
+	@Override
+	public void bytesCopied(long count) {
+		bytesCopied.addAndGet(count);
+	}
+
+
+	@Override
+	public void bytesSkipped(long count) {
+		totalBytes.addAndGet(-count);
+	}
+
+
+	/**
+	 * Notes that all files to paste have been found.
+	 */
+	void enumerationComplete() {
+		enumerationComplete = true;
+	}
+
+
+	/**
+	 * Notes that another file or directory to paste has been found.
+	 *
+	 * @param size The size of the file in bytes, or <code>0</code> for a
+	 *        directory.
+	 */
+	void fileFound(long size) {
+		total.incrementAndGet();
+		totalBytes.addAndGet(size);
+	}
+
+
+	/**
+	 * Notes that a file or directory is being pasted.
+	 *
+	 * @param file The file or directory.
+	 */
+	void filePasted(File file) {
+		pasteCount.incrementAndGet();
+		lastFile = file;
+	}
+
+
+	/**
+	 * Notes that a file or directory will not be pasted after all.
+	 *
+	 * @param size The size of the file in bytes, or <code>0</code> for a
+	 *        directory.
+	 */
+	void fileSkipped(long size) {
+		total.decrementAndGet();
+		bytesSkipped(size);
+	}
+
+
+	/**
+	 * Samples our counters and notifies the callback.  Called on the EDT.
+	 */
+	private void fireUpdate() {
+
+		if (callback==null || done) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		long copied = bytesCopied.get();
+		double elapsed = (now - lastSampleNanos) / 1_000_000_000.0;
+		if (elapsed>0) {
+			double rate = (copied - lastSampleBytes) / elapsed;
+			if (bytesPerSecond==0) { // Seed with the first real sample
+				bytesPerSecond = rate;
+			}
+			else {
+				double alpha = 1 - Math.exp(-elapsed / SMOOTHING_SECONDS);
+				bytesPerSecond += alpha * (rate - bytesPerSecond);
+			}
+		}
+		lastSampleNanos = now;
+		lastSampleBytes = copied;
+
+		long remainingBytes = Math.max(0, totalBytes.get() - copied);
+		long etaMillis = -1;
+		if (enumerationComplete && bytesPerSecond>=1) {
+			etaMillis = (long)(remainingBytes * 1000 / bytesPerSecond);
+		}
+
+		boolean cancel = callback.filePasteUpdate(pasteCount.get(),
+				total.get(), lastFile);
+		cancel |= callback.filePasteProgress(copied, totalBytes.get(),
+				(long)bytesPerSecond, etaMillis);
+		if (cancel) {
+			cancelAction.run();
+		}
+
+	}
+
+
+	/**
+	 * Returns the number of files and directories pasted so far.
+	 *
+	 * @return The number of files pasted.
+	 */
+	int getPasteCount() {
+		return pasteCount.get();
+	}
+
+
+	/**
+	 * Starts notifying the callback periodically.
+	 */
+	void start() {
+		lastSampleNanos = System.nanoTime();
+		timer.start();
+	}
+
+
+	/**
+	 * Stops notifying the callback, after notifying it one last time.  This
+	 * should be called on the EDT.
+	 */
+	void stop() {
+		timer.stop();
+		fireUpdate();
+		done = true;
+	}
+
+
+}
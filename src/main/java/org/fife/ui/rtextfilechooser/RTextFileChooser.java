@@ -168,6 +168,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	private Actions.SystemOpenAction systemViewAction;
 	private Actions.CopyAction copyAction;
 	private Actions.CopyFullPathAction copyPathAction;
+	private Actions.CutAction cutAction;
 	private Actions.DeleteAction deleteAction;
 	private Actions.DeleteAction hardDeleteAction;
 	private Actions.PasteAction pasteAction;
@@ -193,10 +194,23 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	private Color hiddenFileColor;
 	private boolean styleOpenFiles;
 	private int openFilesStyle;
+	private boolean preservePastedFileAttributes;
+	private boolean resumablePastes;
 
 	File currentDirectory;
 	private File[] selectedFiles;
 
+	/**
+	 * The unfiltered contents of the current directory when it was last
+	 * listed.  Changing the filter filters this again instead of relisting.
+	 */
+	private DirectoryListing rawListing;
+
+	/**
+	 * The indices of the files in {@link #rawListing}, sorted by name.
+	 */
+	private int[] rawListingOrder;
+
 	private Dimension lastSize;
 	private int lastType;
 
@@ -214,8 +228,6 @@ public class RTextFileChooser extends ResizableFrameContentPane
 
 	private boolean showEncodingCombo;
 
-	private Comparator<File> fileComparator;
-
 	/**
 	 * Sorted list of "favorite" directories.
 	 */
@@ -323,9 +335,6 @@ public class RTextFileChooser extends ResizableFrameContentPane
 		// Do NOT call setViewMode() yet, as we can do without its overhead.
 		this.mode = prefs.viewMode;
 
-		// Java on OS X doesn't sort files case insensitively, as of Java 11
-		fileComparator = OS.get() == OS.MAC_OS_X ? new CaseInsensitiveFileComparator() : null;
-
 		guiInitialized = false;
 
 	}
@@ -883,6 +892,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 		renameAction = new Actions.RenameAction(this);
 		copyAction = new Actions.CopyAction(this);
 		copyPathAction = new Actions.CopyFullPathAction(this);
+		cutAction = new Actions.CutAction(this);
 		deleteAction = new Actions.DeleteAction(this, false);
 		hardDeleteAction = new Actions.DeleteAction(this, true);
 		pasteAction = new Actions.PasteAction(this);
@@ -965,6 +975,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 				renameAction.setEnabled(filesSelected);
 				copyAction.setEnabled(filesSelected);
 				copyPathAction.setEnabled(filesSelected);
+				cutAction.setEnabled(filesSelected);
 				pasteAction.checkEnabledState(); // component 5 in menu
 				deleteAction.setEnabled(filesSelected);
 
@@ -985,6 +996,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 		popupMenu.addSeparator();
 		popupMenu.add(new JMenuItem(copyAction));
 		popupMenu.add(new JMenuItem(copyPathAction));
+		popupMenu.add(new JMenuItem(cutAction));
 		popupMenu.add(new JMenuItem(pasteAction));
 		popupMenu.add(new JMenuItem(deleteAction));
 		popupMenu.addSeparator();
@@ -1353,7 +1365,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 					globFilter = new WildcardFileFilter();
 				try {
 					globFilter.setPattern(text);
-					refreshView(true); // Show all files matching this pattern.
+					refilterView(true); // Show all files matching this pattern.
 					fileNameTextField.setFileSystemAware(false);
 					fileNameTextField.setText(null);
 					fileNameTextField.setFileSystemAware(true);
@@ -1466,6 +1478,23 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	}
 
 
+	/**
+	 * Returns the file type info (color) to use when painting a file in a
+	 * directory listing.  Cheaper than {@link #getFileTypeInfoFor(File)}.
+	 *
+	 * @param listing The listing.
+	 * @param index The index of the file in the listing.
+	 * @return The file's type info.
+	 */
+	FileTypeInfo getFileTypeInfoFor(DirectoryListing listing, int index) {
+		String colorKey = listing.getColorKey(index);
+		Color color = colorKey==null ? null : getColorForExtension(colorKey);
+		tempInfo.labelTextColor = color!=null ? color : getDefaultFileColor();
+		tempInfo.icon = listing.getIcon(index, iconManager::getIcon);
+		return tempInfo;
+	}
+
+
 	/**
 	 * Returns the color used to paint hidden files if hidden files are being
 	 * shown.
@@ -1606,6 +1635,28 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	}
 
 
+	/**
+	 * Returns whether pasted files keep the originals' modification times.
+	 *
+	 * @return Whether file attributes are preserved.
+	 * @see #setPreservePastedFileAttributes(boolean)
+	 */
+	public boolean getPreservePastedFileAttributes() {
+		return preservePastedFileAttributes;
+	}
+
+
+	/**
+	 * Returns whether interrupted pastes can be resumed.
+	 *
+	 * @return Whether pastes are resumable.
+	 * @see #setResumablePastes(boolean)
+	 */
+	public boolean getResumablePastes() {
+		return resumablePastes;
+	}
+
+
 	/**
 	 * Returns the file selected by the user.  Note that if the user
 	 * selected more than one file, only the first file selected is
@@ -1981,10 +2032,24 @@ public class RTextFileChooser extends ResizableFrameContentPane
 
 
 	/**
-	 * Refreshes either the list view or table view, whichever is visible.
+	 * Filters and displays the files already listed in the current
+	 * directory.  Unlike {@link #refreshView()}, this does no I/O.
+	 *
+	 * @param useGlobFilter whether to use the glob file filter.
+	 */
+	private void refilterView(boolean useGlobFilter) {
+		refreshView(useGlobFilter, false);
+	}
+
+
+	/**
+	 * Lists the current directory again, and refreshes either the list view
+	 * or table view, whichever is visible.
+	 *
+	 * @see #refilterView(boolean)
 	 */
 	final void refreshView() {
-		refreshView(false);
+		refreshView(false, true);
 	}
 
 
@@ -1994,56 +2059,29 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	 * user types in a wildcard expression for a file name.
 	 *
 	 * @param useGlobFilter whether to use the glob file filter.
+	 * @param relist Whether to list the current directory again, rather
+	 *        than filtering its previous listing again.
 	 */
-	private void refreshView(boolean useGlobFilter) {
+	private void refreshView(boolean useGlobFilter, boolean relist) {
 
 		if (!guiInitialized)
 			return;
 
-		ensureCurrentDirectoryExists();
-
-		File[] files = fileSystemView.getFiles(currentDirectory,
-						!showHiddenFiles); // "useFileHiding".
-
-		if (files!=null) {
-
-			Vector<File> dirList = new Vector<>();
-			Vector<File> fileList = new Vector<>();
+		if (relist || rawListing==null ||
+				!currentDirectory.equals(rawListing.getDirectory())) {
+			ensureCurrentDirectoryExists();
+			rawListing = DirectoryListing.list(currentDirectory);
+			// Sort once here; filtering preserves this order, so a listing
+			// is only sorted once no matter how many times it's filtered
+			rawListingOrder = rawListing!=null ? rawListing.getNameOrder() : null;
+		}
 
-			// First, separate the directories from regular files, so we can
-			// sort them individually.  This part of the code could be made
-			// more compact, but it isn't just for a tad more speed.
+		if (rawListing!=null) {
 			FileFilter filter = (useGlobFilter ? globFilter : currentFileFilter);
-			if (fileSelectionMode==DIRECTORIES_ONLY) {
-				for (File file : files) {
-					if (file.isDirectory())
-						dirList.add(file);
-				}
-			}
-			else { // FILES_AND_DIRECTORIES or FILES_ONLY.
-				for (File file : files) {
-					if (file.isDirectory())
-						dirList.add(file);
-					else if (filter.accept(file))
-						fileList.add(file);
-				}
-			}
-
-
-			// Details mode automagically sorts its data via the table's model;
-			// however, list mode doesn't, so we'll go ahead and sort for it.
-			if (mode!=DETAILS_MODE) {
-				fileList.sort(fileComparator);
-				dirList.sort(fileComparator);
-			}
-
-			if (fileSelectionMode!=DIRECTORIES_ONLY)
-				dirList.addAll(fileList);
-
-			view.setDisplayedFiles(dirList);
-
+			view.setDisplayedFiles(rawListing.filter(rawListingOrder, filter,
+					showHiddenFiles, fileSelectionMode!=DIRECTORIES_ONLY));
 		}
-		else { // files==null.
+		else { // The directory couldn't be listed.
 			view.clearDisplayedFiles();
 		}
 
@@ -2378,7 +2416,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 		if (mode!=FILES_ONLY && mode!=DIRECTORIES_ONLY && mode!=FILES_AND_DIRECTORIES)
 			mode = FILES_ONLY;
 		fileSelectionMode = mode;
-		refreshView();
+		refilterView(false);
 	}
 
 
@@ -2456,7 +2494,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	 */
 	public void setOpenedFiles(File[] files) {
 		openedFiles = files;
-		refreshView();
+		refilterView(false);
 	}
 
 
@@ -2479,6 +2517,30 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	}
 
 
+	/**
+	 * Sets whether pasted files keep the last modified times and permissions
+	 * of the originals.  This is <code>false</code> by default.
+	 *
+	 * @param preserve Whether to preserve file attributes.
+	 * @see #getPreservePastedFileAttributes()
+	 */
+	public void setPreservePastedFileAttributes(boolean preserve) {
+		preservePastedFileAttributes = preserve;
+	}
+
+
+	/**
+	 * Sets whether interrupted pastes can be resumed by pasting the same
+	 * files into the same directory again.  This is <code>false</code> by default.
+	 *
+	 * @param resumable Whether pastes are resumable.
+	 * @see #getResumablePastes()
+	 */
+	public void setResumablePastes(boolean resumable) {
+		resumablePastes = resumable;
+	}
+
+
 	/**
 	 * Sets the file selected by the user.
 	 *
@@ -2546,7 +2608,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	public void setShowHiddenFiles(boolean show) {
 		if (show!=showHiddenFiles) {
 			showHiddenFiles = show;
-			refreshView();
+			refilterView(false);
 		}
 	}
 
@@ -2576,7 +2638,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 	public void setStyleOpenFiles(boolean style) {
 		if (style!=styleOpenFiles) {
 			styleOpenFiles = style;
-			refreshView();
+			refilterView(false);
 		}
 	}
 
@@ -2652,7 +2714,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 
 			// Fill in the view with files, etc.
 			if (dialog!=null && dialog.isVisible()) {
-				refreshView();
+				refilterView(false);
 			}
 
 		// Ensure that, even if an Exception is thrown, we get our regular
@@ -2987,7 +3049,7 @@ public class RTextFileChooser extends ResizableFrameContentPane
 			// If they selected a new file filter...
 			if (source==filterCombo && e.getStateChange()==ItemEvent.SELECTED) {
 				currentFileFilter = (FileFilter)e.getItem();
-				refreshView();
+				refilterView(false);
 			}
 
 			else if (source==encodingCombo && e.getStateChange()==ItemEvent.SELECTED) {
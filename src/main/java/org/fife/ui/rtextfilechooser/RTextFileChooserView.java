@@ -13,7 +13,6 @@ package org.fife.ui.rtextfilechooser;
 import java.awt.Color;
 import java.awt.Point;
 import java.io.File;
-import java.util.List;
 
 
 /**
@@ -96,10 +95,10 @@ interface RTextFileChooserView extends FileSelector {
 	/**
 	 * Sets the files displayed by this view.
 	 *
-	 * @param files The list of files to display.  These files
-	 *        are not necessarily sorted by file name.
+	 * @param files The files to display.  These files are not necessarily
+	 *        sorted by file name.
 	 */
-	void setDisplayedFiles(List<File> files);
+	void setDisplayedFiles(DirectoryListing files);
 
 
 	/**
@@ -14,23 +14,73 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.swing.filechooser.FileSystemView;
 
+import org.fife.ui.OS;
+
 
 /**
  * Keeps information on the roots of the local file system.  This class
- * is a singleton and is used by all <code>RTextFileChooser</code>s and
- * <code>FileSystemTree</code>s.
+ * is a singleton and is used by all <code>RTextFileChooser</code>s,
+ * <code>FileSystemTree</code>s and <code>BreadcrumbBar</code>s.<p>
+ *
+ * <code>FileSystemView.getRoots()</code> can hang for a long time, e.g. on
+ * Windows with unavailable network drives, so the roots are gathered on a
+ * background thread.  Until that first completes, only the roots returned by
+ * <code>File.listRoots()</code> are known.  While any listeners are
+ * registered, the roots are periodically re-gathered, so drives mounted and
+ * unmounted while the application is running are picked up; callers
+ * without listeners can ask for the roots to be re-gathered via
+ * {@link #refresh()}.  Callers never block; they always see the most
+ * recently gathered roots.<p>
+ *
+ * To find the root containing a file, the roots are stored in a trie keyed
+ * by path components, so lookups take time proportional to the depth of the
+ * file's path rather than to the number of roots.
  *
  * @author Robert Futrell
  * @version 1.0
  */
-final class RootManager {
+public final class RootManager {
 
-	private File[] roots;
-	private int rootCount;
+	/**
+	 * The roots most recently gathered.  This is replaced, never modified.
+	 */
+	private volatile Roots roots;
+
+	private final List<Runnable> listeners;
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * The periodic re-gathering of the roots, or <code>null</code> if there
+	 * are no listeners.  Access to this field should be synchronized.
+	 */
+	private ScheduledFuture<?> polling;
+
+	/**
+	 * The re-gathering requested via {@link #refresh()} that hasn't
+	 * completed yet, if any.  Access to this field should be synchronized.
+	 */
+	private CompletableFuture<Void> pendingRefresh;
+
+	/**
+	 * How often to check for changes to the roots, in seconds.
+	 */
+	private static final int REFRESH_SECONDS = 5;
+
+	private static final boolean CASE_SENSITIVE = OS.get().isCaseSensitive();
 
 	private static final RootManager INSTANCE = new RootManager();
 
@@ -39,13 +89,42 @@ final class RootManager {
 	 * Private constructor.
 	 */
 	private RootManager() {
-		roots = RootManager.getAllRoots();
-		rootCount = roots.length;
+		roots = new Roots(File.listRoots());
+		listeners = new CopyOnWriteArrayList<>();
+		executor = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread t = new Thread(r, "RootManager");
+			t.setDaemon(true);
+			return t;
+		});
+		// The thread only lives while there's something for it to do
+		executor.setKeepAliveTime(REFRESH_SECONDS * 2L, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		executor.setRemoveOnCancelPolicy(true);
+		refresh();
+	}
+
+
+	/**
+	 * Adds a listener notified when roots are added or removed.  Listeners
+	 * are notified on a background thread.  While there are any listeners,
+	 * the roots are checked for changes every few seconds.
+	 *
+	 * @param listener The listener to add.
+	 * @see #removeRootsListener(Runnable)
+	 */
+	synchronized void addRootsListener(Runnable listener) {
+		listeners.add(listener);
+		if (polling==null) {
+			// Fixed delay, so a hung FileSystemView doesn't queue up refreshes
+			polling = executor.scheduleWithFixedDelay(this::refreshImpl,
+					REFRESH_SECONDS, REFRESH_SECONDS, TimeUnit.SECONDS);
+		}
 	}
 
 
 	/**
-	 * Gets the roots from the FileSystemView and File.
+	 * Gets the roots from the FileSystemView and File.  This may block for
+	 * a long time.
 	 *
 	 * @return An array of the roots of the local file system.
 	 */
@@ -56,9 +135,7 @@ final class RootManager {
 		for (File moreRoot : moreRoots)
 			if (!list.contains(moreRoot))
 				list.add(moreRoot);
-		Collections.sort(list);
-		File[] fileArray = new File[list.size()];
-		return list.toArray(fileArray);
+		return list.toArray(new File[0]);
 	}
 
 
@@ -79,15 +156,26 @@ final class RootManager {
 	 * @return The root for the file.
 	 */
 	public File getRootForFile(final File file) {
+
+		// The file and its ancestors, deepest first
+		List<File> path = new ArrayList<>();
 		File f2 = file.getAbsoluteFile(); // Needed for e.g. 'new File(".");'
 		while (f2!=null) {
-			for (int i=0; i<rootCount; i++) {
-				if (f2.equals(roots[i]))
-					return f2;
-			}
+			path.add(f2);
 			f2 = f2.getParentFile();
 		}
-		return null; // Should never happen!
+
+		// Walk down the trie, remembering the deepest root passed
+		File result = null;
+		TrieNode node = roots.trie;
+		for (int i=path.size()-1; i>=0 && node!=null; i--) {
+			node = node.getChild(getKey(path.get(i)));
+			if (node!=null && node.root) {
+				result = path.get(i);
+			}
+		}
+		return result; // Should never be null!
+
 	}
 
 
@@ -102,6 +190,19 @@ final class RootManager {
 	}
 
 
+	/**
+	 * Returns the key for a file in the root trie.  Top-level files are keyed
+	 * by their full path (e.g. <code>C:\</code>), all others by their name.
+	 *
+	 * @param file The file.
+	 * @return The key.
+	 */
+	private static String getKey(File file) {
+		String key = file.getParentFile()==null ? file.getPath() : file.getName();
+		return CASE_SENSITIVE ? key : key.toLowerCase(Locale.ROOT);
+	}
+
+
 	/**
 	 * Returns whether the given file is a root (either by
 	 * <code>File</code> standards or <code>FileSystemView</code> standards).
@@ -110,47 +211,119 @@ final class RootManager {
 	 * @return whether <code>file</code> is a root.
 	 */
 	public boolean isRoot(final File file) {
-		for (int i=0; i<rootCount; i++) {
-			if (roots[i].equals(file))
-				return true;
-		}
-		return false;
+		return roots.set.contains(file);
 	}
 
 
 	/**
 	 * Returns an iterator for going through the roots in the local file
-	 * system.
+	 * system.  The iterator is unaffected by later changes to the roots.
 	 *
 	 * @return The iterator.
 	 */
 	public Iterator<File> iterator() {
-		return new RootIterator();
+		return Collections.unmodifiableList(Arrays.asList(roots.array)).iterator();
 	}
 
 
 	/**
-	 * Iterator for the file system's root nodes.
+	 * Checks for roots added or removed since the roots were last gathered,
+	 * in the background.  If a check requested this way is still pending,
+	 * no new one is started.
+	 *
+	 * @return A future completed once the roots have been re-gathered.
 	 */
-	private final class RootIterator implements Iterator<File> {
+	public synchronized CompletableFuture<Void> refresh() {
+		if (pendingRefresh==null || pendingRefresh.isDone()) {
+			pendingRefresh = CompletableFuture.runAsync(this::refreshImpl, executor);
+		}
+		return pendingRefresh;
+	}
 
-		private int i;
 
-		@Override
-		public boolean hasNext() {
-			return i<rootCount;
+	/**
+	 * Re-gathers the roots, and notifies listeners if they have changed.
+	 * Called on the background thread.
+	 */
+	private void refreshImpl() {
+		Roots newRoots;
+		try {
+			newRoots = new Roots(getAllRoots());
+		} catch (RuntimeException re) { // Keep refreshing in the future
+			re.printStackTrace();
+			return;
+		}
+		if (!newRoots.set.equals(roots.set)) {
+			roots = newRoots;
+			for (Runnable listener : listeners) {
+				listener.run();
+			}
+		}
+	}
+
+
+	/**
+	 * Removes a listener added via {@link #addRootsListener(Runnable)}.
+	 * When the last listener is removed, the roots are no longer checked
+	 * for changes periodically.
+	 *
+	 * @param listener The listener to remove.
+	 */
+	synchronized void removeRootsListener(Runnable listener) {
+		listeners.remove(listener);
+		if (listeners.isEmpty() && polling!=null) {
+			polling.cancel(false);
+			polling = null;
 		}
+	}
+
+
+	/**
+	 * An immutable set of roots.
+	 */
+	private static final class Roots {
+
+		private final File[] array;
+		private final Set<File> set;
+		private final TrieNode trie;
+
+		Roots(File[] roots) {
+			array = roots.clone();
+			Arrays.sort(array);
+			set = new HashSet<>(Arrays.asList(array));
+			trie = new TrieNode();
+			for (File root : array) {
+				List<String> keys = new ArrayList<>();
+				File f = root.getAbsoluteFile();
+				while (f!=null) {
+					keys.add(getKey(f));
+					f = f.getParentFile();
+				}
+				TrieNode node = trie;
+				for (int i=keys.size()-1; i>=0; i--) {
+					node = node.children.computeIfAbsent(keys.get(i), k -> new TrieNode());
+				}
+				node.root = true;
+			}
+		}
+
+	}
+
+
+	/**
+	 * A node in the trie of roots' paths.
+	 */
+	private static final class TrieNode {
+
+		private final Map<String, TrieNode> children;
+		private boolean root;
 
-		@Override
-		public File next() {
-			if (!hasNext())
-				throw new NoSuchElementException();
-			return roots[i++];
+		TrieNode() {
+			children = new HashMap<>(4);
 		}
 
-		@Override
-		public void remove() {
-			throw new UnsupportedOperationException("Cannot remove roots");
+		TrieNode getChild(String key) {
+			return children.get(key);
 		}
 
 	}
@@ -0,0 +1,88 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Unit tests for the {@code DirectorySnapshotCache} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class DirectorySnapshotCacheTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	@Test
+	void testGetSnapshot() throws Exception {
+
+		Assertions.assertTrue(new File(tempDir, "b.txt").createNewFile());
+		Assertions.assertTrue(new File(tempDir, "a.txt").createNewFile());
+		Assertions.assertTrue(new File(tempDir, "sub").mkdir());
+
+		DirectorySnapshotCache cache = DirectorySnapshotCache.getInstance(false);
+		DirectorySnapshotCache.Snapshot snapshot = cache.getSnapshot(tempDir).get(10, TimeUnit.SECONDS);
+		Assertions.assertArrayEquals(new String[] { "a.txt", "b.txt", "sub" }, snapshot.getNames());
+		Assertions.assertSame(snapshot, cache.getCachedSnapshot(tempDir));
+
+		snapshot = DirectorySnapshotCache.getInstance(true).getSnapshot(tempDir).get(10, TimeUnit.SECONDS);
+		Assertions.assertArrayEquals(new String[] { "sub" }, snapshot.getNames());
+	}
+
+
+	@Test
+	void testGetSnapshot_progressCalledWithoutLock() throws Exception {
+
+		for (int i=0; i<100; i++) {
+			Assertions.assertTrue(new File(tempDir, "file" + i).createNewFile());
+		}
+
+		DirectorySnapshotCache cache = DirectorySnapshotCache.getInstance(false);
+		cache.invalidate(tempDir);
+		List<String> found = Collections.synchronizedList(new ArrayList<>());
+		AtomicBoolean cacheUsable = new AtomicBoolean(true);
+
+		cache.getSnapshot(tempDir, batch -> {
+			found.addAll(batch);
+			try {
+				// Another thread using the cache mustn't block on us
+				CompletableFuture.runAsync(() -> cache.getCachedSnapshot(tempDir))
+						.get(5, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				cacheUsable.set(false);
+			}
+		}).get(30, TimeUnit.SECONDS);
+
+		Assertions.assertTrue(cacheUsable.get());
+		Assertions.assertEquals(100, found.size());
+	}
+
+
+	@Test
+	void testInvalidate() throws Exception {
+
+		DirectorySnapshotCache cache = DirectorySnapshotCache.getInstance(false);
+		cache.getSnapshot(tempDir).get(10, TimeUnit.SECONDS);
+		Assertions.assertNotNull(cache.getCachedSnapshot(tempDir));
+
+		cache.invalidate(tempDir);
+		Assertions.assertNull(cache.getCachedSnapshot(tempDir));
+	}
+}
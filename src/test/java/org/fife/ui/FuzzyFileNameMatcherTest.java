@@ -0,0 +1,117 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Unit tests for the {@code FuzzyFileNameMatcher} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class FuzzyFileNameMatcherTest {
+
+
+	private static List<String> getBestMatches(String pattern, int max, String... names) {
+		return new FuzzyFileNameMatcher(pattern).getBestMatches(names, max);
+	}
+
+
+	@Test
+	void testGetBestMatches_acronymRanksFirst() {
+		List<String> matches = getBestMatches("rtfc", 10,
+			"artifacts.csv", "rotfulcache.txt", "RTextArea.java",
+			"RTextFileChooser.java", "FileChooser.java");
+		Assertions.assertEquals("RTextFileChooser.java", matches.get(0));
+		Assertions.assertTrue(matches.contains("artifacts.csv"));
+		Assertions.assertTrue(matches.contains("rotfulcache.txt"));
+		Assertions.assertFalse(matches.contains("RTextArea.java"));
+	}
+
+
+	@Test
+	void testGetBestMatches_camelHumpBeatsMidWord() {
+		Assertions.assertEquals(List.of("fileChoosers", "filechoosers"),
+			getBestMatches("cho", 10, "filechoosers", "fileChoosers"));
+	}
+
+
+	@Test
+	void testGetBestMatches_emptyPattern() {
+		Assertions.assertEquals(3, getBestMatches("", 10, "a", "b", "c").size());
+	}
+
+
+	@Test
+	void testGetBestMatches_noMatches() {
+		Assertions.assertTrue(getBestMatches("xyz", 10, "foo.txt", "bar.txt").isEmpty());
+	}
+
+
+	@Test
+	void testGetBestMatches_truncatedToMax() {
+
+		String[] names = new String[100];
+		for (int i=0; i<names.length; i++) {
+			names[i] = "file" + i;
+		}
+
+		List<String> matches = getBestMatches("file", 10, names);
+
+		// Shorter names rank higher when otherwise equal
+		Set<String> expected = new HashSet<>();
+		for (int i=0; i<10; i++) {
+			expected.add("file" + i);
+		}
+		Assertions.assertEquals(expected, new HashSet<>(matches));
+		Assertions.assertEquals(10, matches.size());
+	}
+
+
+	@Test
+	void testGetBestMatches_typo() {
+		Assertions.assertEquals(List.of("FileChooser.java"),
+			getBestMatches("chpooser", 10, "FileChooser.java", "README.md"));
+	}
+
+
+	@Test
+	void testGetBestMatches_typo_notUsedIfEnoughExactMatches() {
+		Assertions.assertEquals(List.of("chpooser.txt"),
+			getBestMatches("chpooser", 1, "FileChooser.java", "chpooser.txt"));
+	}
+
+
+	@Test
+	void testGetBestMatches_typo_notUsedForShortPatterns() {
+		Assertions.assertTrue(getBestMatches("fq", 10, "file.txt").isEmpty());
+	}
+
+
+	@Test
+	void testGetBestMatches_wordStartBeatsMidWord() {
+
+		Assertions.assertEquals(List.of("file_chooser", "filechoosers"),
+			getBestMatches("cho", 10, "filechoosers", "file_chooser"));
+
+		// Consistently, regardless of how many names are kept
+		List<String> names = new ArrayList<>();
+		for (int i=0; i<20; i++) {
+			names.add("xchoose" + i);
+		}
+		names.add("my-chooser");
+		Assertions.assertEquals("my-chooser",
+			getBestMatches("cho", 5, names.toArray(new String[0])).get(0));
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Unit tests for the {@code ImageTranscodingUtil} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class ImageTranscodingUtilTest {
+
+	/**
+	 * Red on the left half, blue on the right half.
+	 */
+	private static final byte[] SVG = ("<svg xmlns='http://www.w3.org/2000/svg' viewBox='0 0 10 10'>" +
+		"<rect width='5' height='10' fill='#ff0000'/>" +
+		"<rect x='5' width='5' height='10' fill='#0000ff'/>" +
+		"</svg>").getBytes(StandardCharsets.UTF_8);
+
+	private int origCacheSize;
+
+
+	@BeforeEach
+	void setUp() {
+		origCacheSize = ImageTranscodingUtil.getCacheSize();
+		ImageTranscodingUtil.clearCache();
+	}
+
+
+	@AfterEach
+	void tearDown() {
+		ImageTranscodingUtil.setCacheSize(origCacheSize);
+		ImageTranscodingUtil.clearCache();
+	}
+
+
+	private static void assertRedAndBlue(BufferedImage image) {
+		int w = image.getWidth();
+		int h = image.getHeight();
+		Assertions.assertEquals(0xffff0000, image.getRGB(w / 4, h / 2));
+		Assertions.assertEquals(0xff0000ff, image.getRGB(w * 3 / 4, h / 2));
+	}
+
+
+	@Test
+	void testRasterize() throws IOException {
+
+		BufferedImage image = ImageTranscodingUtil.rasterize("test.svg", SVG, 16, 16);
+		Assertions.assertEquals(16, image.getWidth());
+		Assertions.assertEquals(16, image.getHeight());
+		assertRedAndBlue(image);
+
+		// Painting the cached graphics tree at another size
+		image = ImageTranscodingUtil.rasterize("test.svg", SVG, 32, 32);
+		Assertions.assertEquals(32, image.getWidth());
+		assertRedAndBlue(image);
+	}
+
+
+	@Test
+	void testRasterize_cacheDisabled() throws IOException {
+		ImageTranscodingUtil.setCacheSize(0);
+		assertRedAndBlue(ImageTranscodingUtil.rasterize("test.svg", SVG, 16, 16));
+		assertRedAndBlue(ImageTranscodingUtil.rasterize("test.svg", SVG, 16, 16));
+	}
+
+
+	@Test
+	void testRasterize_invalidSvg() {
+		byte[] svg = "<svg".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertThrows(IOException.class,
+			() -> ImageTranscodingUtil.rasterize("bad.svg", svg, 16, 16));
+	}
+
+
+	@Test
+	void testSetCacheSize() {
+		ImageTranscodingUtil.setCacheSize(5);
+		Assertions.assertEquals(5, ImageTranscodingUtil.getCacheSize());
+	}
+
+
+	@Test
+	void testSetCacheSize_negative() {
+		Assertions.assertThrows(IllegalArgumentException.class,
+			() -> ImageTranscodingUtil.setCacheSize(-1));
+	}
+}
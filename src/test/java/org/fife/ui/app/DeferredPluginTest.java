@@ -0,0 +1,105 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+
+/**
+ * Unit tests for the {@code DeferredPlugin} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class DeferredPluginTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	/**
+	 * Creates a deferred plugin's jar.
+	 *
+	 * @param bundleName The value of the bundle attribute, or
+	 *        <code>null</code> for none.
+	 * @param entries Pairs of entry names and their content.
+	 * @return The jar.
+	 */
+	private File createJar(String bundleName, String... entries) throws IOException {
+
+		Manifest manifest = new Manifest();
+		Attributes attrs = manifest.getMainAttributes();
+		attrs.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attrs.putValue(PluginLoader.PLUGIN_CLASS_ATTR, "com.example.FooPlugin");
+		attrs.putValue(PluginLoader.PLUGIN_ACTIVATION_ATTR, DeferredPlugin.ACTIVATION_DEFERRED);
+		attrs.putValue(PluginLoader.PLUGIN_ACTIONS_ATTR, "showFoo");
+		if (bundleName!=null) {
+			attrs.putValue(PluginLoader.PLUGIN_BUNDLE_ATTR, bundleName);
+		}
+
+		File jar = new File(tempDir, "plugin.jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+			for (int i=0; i<entries.length; i+=2) {
+				out.putNextEntry(new JarEntry(entries[i]));
+				out.write(entries[i + 1].getBytes(StandardCharsets.ISO_8859_1));
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+
+	private static ResourceBundle getBundle(File jar) throws IOException {
+		PluginIndex.JarInfo info = PluginIndex.index(jar);
+		try (PluginClassLoader loader = new PluginClassLoader(List.of(info), null)) {
+			return DeferredPlugin.getBundle(info, loader);
+		}
+	}
+
+
+	@Test
+	void testGetBundle_namedForPluginClass() throws IOException {
+
+		File jar = createJar(null,
+			"com/example/FooPlugin.properties", "showFoo=Foo Window\nshowFoo.Accelerator=ctrl shift F\n",
+			"com/example/FooPlugin.class", "not really a class");
+
+		ResourceBundle msg = getBundle(jar);
+		Assertions.assertEquals("Foo Window", msg.getString("showFoo"));
+		Assertions.assertEquals("ctrl shift F", msg.getString("showFoo.Accelerator"));
+	}
+
+
+	@Test
+	void testGetBundle_namedInManifest() throws IOException {
+
+		File jar = createJar("com.example.Messages",
+			"com/example/FooPlugin.properties", "showFoo=Wrong\n",
+			"com/example/Messages.properties", "showFoo=Foo Window\n");
+
+		Assertions.assertEquals("Foo Window", getBundle(jar).getString("showFoo"));
+	}
+
+
+	@Test
+	void testGetBundle_missing() throws IOException {
+		File jar = createJar(null);
+		Assertions.assertFalse(getBundle(jar).keySet().iterator().hasNext());
+	}
+}
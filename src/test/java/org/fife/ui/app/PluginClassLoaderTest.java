@@ -0,0 +1,97 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+
+/**
+ * Unit tests for the {@code PluginClassLoader} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class PluginClassLoaderTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	private static File createJar(File dir, String... entries) throws IOException {
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Can't create directory: " + dir);
+		}
+		File jar = new File(dir, "plugin.jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			for (String entry : entries) {
+				out.putNextEntry(new JarEntry(entry));
+				out.write(entry.getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+
+	private static String read(URL url) throws IOException {
+		try (InputStream in = url.openStream()) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+
+	@Test
+	void testGetResource_jarPathContainsSpace() throws IOException {
+
+		File jar = createJar(new File(tempDir, "sp ace"), "r.txt");
+
+		try (PluginClassLoader loader = new PluginClassLoader(
+				List.of(PluginIndex.index(jar)), getClass().getClassLoader())) {
+			URL url = loader.getResource("r.txt");
+			Assertions.assertNotNull(url);
+			Assertions.assertFalse(url.toString().contains("%2520"), url.toString());
+			Assertions.assertEquals("r.txt", read(url));
+		}
+	}
+
+
+	@Test
+	void testGetResource_entryNameContainsSpace() throws IOException {
+
+		File jar = createJar(new File(tempDir, "sp ace"), "dir/a b.txt");
+
+		try (PluginClassLoader loader = new PluginClassLoader(
+				List.of(PluginIndex.index(jar)), getClass().getClassLoader())) {
+			URL url = loader.getResource("dir/a b.txt");
+			Assertions.assertNotNull(url);
+			Assertions.assertEquals("dir/a b.txt", read(url));
+		}
+	}
+
+
+	@Test
+	void testGetResource_notInAnyJar() throws IOException {
+
+		File jar = createJar(tempDir, "r.txt");
+
+		try (PluginClassLoader loader = new PluginClassLoader(
+				List.of(PluginIndex.index(jar)), null)) {
+			Assertions.assertNull(loader.getResource("missing.txt"));
+		}
+	}
+}
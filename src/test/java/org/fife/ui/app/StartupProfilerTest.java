@@ -0,0 +1,72 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * Unit tests for the {@code StartupProfiler} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class StartupProfilerTest {
+
+
+	@Test
+	void testAllocationTracking_restoredWhenStartupCompletes() {
+
+		Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof
+				com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean bean =
+				(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(bean.isThreadAllocatedMemorySupported());
+
+		boolean orig = bean.isThreadAllocatedMemoryEnabled();
+		bean.setThreadAllocatedMemoryEnabled(false);
+		try {
+			StartupProfiler profiler = new StartupProfiler();
+			Assertions.assertTrue(bean.isThreadAllocatedMemoryEnabled());
+			StartupProfiler.Phase phase = profiler.start(StartupProfiler.CATEGORY_INIT, "Test").end();
+			Assertions.assertTrue(phase.getAllocatedBytes()>-1);
+			profiler.endPending();
+			Assertions.assertFalse(bean.isThreadAllocatedMemoryEnabled());
+		} finally {
+			bean.setThreadAllocatedMemoryEnabled(orig);
+		}
+	}
+
+
+	@Test
+	void testGetPhases_notRecordedAfterStartupCompletes() {
+
+		StartupProfiler profiler = new StartupProfiler();
+		profiler.start(StartupProfiler.CATEGORY_INIT, "Before").end();
+		profiler.endPending();
+		Assertions.assertTrue(profiler.isStartupComplete());
+
+		Assertions.assertNotNull(profiler.start(StartupProfiler.CATEGORY_PLUGIN, "After").end());
+		Assertions.assertEquals(1, profiler.getPhases().size());
+		Assertions.assertEquals("Before", profiler.getPhases().get(0).getName());
+	}
+
+
+	@Test
+	void testGetPhases_capped() {
+
+		StartupProfiler profiler = new StartupProfiler();
+		for (int i=0; i<StartupProfiler.MAX_PHASES + 10; i++) {
+			profiler.start(StartupProfiler.CATEGORY_PLUGIN, "Phase " + i).end();
+		}
+		Assertions.assertEquals(StartupProfiler.MAX_PHASES, profiler.getPhases().size());
+		profiler.endPending();
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app.icons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+
+/**
+ * Unit tests for the {@code IconCache} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class IconCacheTest {
+
+	/**
+	 * The estimated size of the icons created by {@link #createIcon()}.
+	 */
+	private static final long ICON_BYTES = IconCache.estimateSize(createIcon());
+
+	private AbstractIconGroup group;
+
+
+	@BeforeEach
+	void setUp() {
+		group = new RasterImageIconGroup("test", "test/", null);
+	}
+
+
+	private static ImageIcon createIcon() {
+		return new ImageIcon(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB));
+	}
+
+
+	/**
+	 * Adds an icon to a cache, and marks it as loaded.
+	 *
+	 * @param cache The cache.
+	 * @param key The icon's key.
+	 * @return The icon's future.
+	 */
+	private Future<ImageIcon> load(IconCache cache, String key) {
+		ImageIcon icon = createIcon();
+		Future<ImageIcon> future = CompletableFuture.completedFuture(icon);
+		Assertions.assertNull(cache.putIfAbsent(group, key, future));
+		cache.loaded(group, key, future, icon);
+		return future;
+	}
+
+
+	@Test
+	void testClear() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		load(cache, "a");
+		load(cache, "b");
+
+		cache.clear();
+		Assertions.assertEquals(0, cache.getEntryCount());
+		Assertions.assertEquals(0, cache.getBytesHeld());
+	}
+
+
+	@Test
+	void testEstimateSize_bufferedImage() {
+		// 16x16 pixels of 4 bytes each, plus a fixed overhead
+		Assertions.assertTrue(ICON_BYTES>=16 * 16 * 4, "Unexpected size: " + ICON_BYTES);
+		Assertions.assertTrue(ICON_BYTES<2 * 16 * 16 * 4, "Unexpected size: " + ICON_BYTES);
+	}
+
+
+	@Test
+	void testEstimateSize_multiResolutionImageOnlyCountsBaseImage() {
+		ImageIcon icon = createIcon();
+		ImageIcon multi = new ImageIcon(new LazyMultiResolutionImage(icon.getImage(),
+			(w, h) -> new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB)));
+		Assertions.assertEquals(ICON_BYTES, IconCache.estimateSize(multi));
+	}
+
+
+	@Test
+	void testGet_recordsHitsAndMisses() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		Future<ImageIcon> future = load(cache, "a");
+
+		Assertions.assertSame(future, cache.get(group, "a"));
+		Assertions.assertNull(cache.get(group, "b"));
+		Assertions.assertNull(cache.get(new RasterImageIconGroup("test", "test/", null), "a"));
+
+		Assertions.assertEquals(1, cache.getHitCount());
+		Assertions.assertEquals(2, cache.getMissCount());
+		Assertions.assertEquals(1 / 3.0, cache.getHitRate(), 0.0001);
+
+		cache.resetStatistics();
+		Assertions.assertEquals(0, cache.getHitCount());
+		Assertions.assertEquals(0, cache.getMissCount());
+		Assertions.assertEquals(0, cache.getHitRate());
+	}
+
+
+	@Test
+	void testLoaded_accountsBytesOnce() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		ImageIcon icon = createIcon();
+		CompletableFuture<ImageIcon> future = new CompletableFuture<>();
+		Assertions.assertNull(cache.putIfAbsent(group, "a", future));
+		Assertions.assertEquals(1, cache.getEntryCount());
+		Assertions.assertEquals(0, cache.getBytesHeld());
+
+		future.complete(icon);
+		cache.loaded(group, "a", future, icon);
+		Assertions.assertEquals(ICON_BYTES, cache.getBytesHeld());
+
+		cache.loaded(group, "a", future, icon);
+		Assertions.assertEquals(ICON_BYTES, cache.getBytesHeld());
+	}
+
+
+	@Test
+	void testLoaded_afterClearIgnored() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		ImageIcon icon = createIcon();
+		CompletableFuture<ImageIcon> future = new CompletableFuture<>();
+		cache.putIfAbsent(group, "a", future);
+
+		cache.clear();
+		future.complete(icon);
+		cache.loaded(group, "a", future, icon);
+		Assertions.assertEquals(0, cache.getEntryCount());
+		Assertions.assertEquals(0, cache.getBytesHeld());
+	}
+
+
+	@Test
+	void testLoaded_evictsLeastRecentlyUsed() {
+
+		IconCache cache = new IconCache(2 * ICON_BYTES);
+		load(cache, "a");
+		load(cache, "b");
+		cache.get(group, "a"); // "b" is now the least recently used
+
+		load(cache, "c");
+		Assertions.assertEquals(2, cache.getEntryCount());
+		Assertions.assertEquals(2 * ICON_BYTES, cache.getBytesHeld());
+		Assertions.assertEquals(1, cache.getEvictionCount());
+		Assertions.assertNotNull(cache.get(group, "a"));
+		Assertions.assertNull(cache.get(group, "b"));
+		Assertions.assertNotNull(cache.get(group, "c"));
+	}
+
+
+	@Test
+	void testLoaded_doesNotEvictIconsBeingLoaded() {
+
+		IconCache cache = new IconCache(ICON_BYTES);
+		CompletableFuture<ImageIcon> loading = new CompletableFuture<>();
+		cache.putIfAbsent(group, "loading", loading);
+
+		load(cache, "a");
+		load(cache, "b");
+		Assertions.assertEquals(2, cache.getEntryCount());
+		Assertions.assertSame(loading, cache.get(group, "loading"));
+		Assertions.assertNull(cache.get(group, "a"));
+		Assertions.assertEquals(ICON_BYTES, cache.getBytesHeld());
+	}
+
+
+	@Test
+	void testPutIfAbsent_returnsExisting() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		Future<ImageIcon> future = load(cache, "a");
+
+		Assertions.assertSame(future, cache.putIfAbsent(group, "a", new CompletableFuture<>()));
+		Assertions.assertEquals(1, cache.getEntryCount());
+		Assertions.assertEquals(ICON_BYTES, cache.getBytesHeld());
+	}
+
+
+	@Test
+	void testRemove_releasesBytes() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		Future<ImageIcon> a = load(cache, "a");
+		load(cache, "b");
+
+		cache.remove(group, "a", new CompletableFuture<>()); // Not the cached icon
+		Assertions.assertEquals(2 * ICON_BYTES, cache.getBytesHeld());
+
+		cache.remove(group, "a", a);
+		Assertions.assertEquals(1, cache.getEntryCount());
+		Assertions.assertEquals(ICON_BYTES, cache.getBytesHeld());
+		Assertions.assertEquals(0, cache.getEvictionCount());
+	}
+
+
+	@Test
+	void testSetMaxBytes_evicts() {
+
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		load(cache, "a");
+		load(cache, "b");
+		load(cache, "c");
+
+		cache.setMaxBytes(ICON_BYTES);
+		Assertions.assertEquals(1, cache.getEntryCount());
+		Assertions.assertEquals(ICON_BYTES, cache.getBytesHeld());
+		Assertions.assertEquals(2, cache.getEvictionCount());
+		Assertions.assertNotNull(cache.get(group, "c"));
+	}
+
+
+	@Test
+	void testSetMaxBytes_negative() {
+		IconCache cache = new IconCache(Long.MAX_VALUE);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> cache.setMaxBytes(-1));
+	}
+}
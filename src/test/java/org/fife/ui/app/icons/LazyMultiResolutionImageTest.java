@@ -0,0 +1,82 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app.icons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Unit tests for the {@code LazyMultiResolutionImage} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class LazyMultiResolutionImageTest {
+
+
+	@Test
+	void testGetResolutionVariant_1xReturnsBaseImage() {
+
+		Image base = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+		AtomicInteger loads = new AtomicInteger();
+		LazyMultiResolutionImage image = new LazyMultiResolutionImage(base, (w, h) -> {
+			loads.incrementAndGet();
+			return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		});
+
+		Assertions.assertSame(base, image.getResolutionVariant(16, 16));
+		Assertions.assertEquals(0, loads.get());
+	}
+
+
+	@Test
+	void testGetResolutionVariant_loadedOnce() {
+
+		Image base = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+		AtomicInteger loads = new AtomicInteger();
+		LazyMultiResolutionImage image = new LazyMultiResolutionImage(base, (w, h) -> {
+			loads.incrementAndGet();
+			return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		});
+
+		Image variant = image.getResolutionVariant(32, 32);
+		Assertions.assertEquals(32, variant.getWidth(null));
+		Assertions.assertSame(variant, image.getResolutionVariant(32, 32));
+		Assertions.assertSame(variant, image.getResolutionVariant(31.5, 31.5));
+		Assertions.assertEquals(1, loads.get());
+
+		Assertions.assertEquals(2, image.getResolutionVariants().size());
+		Assertions.assertEquals(1, loads.get());
+	}
+
+
+	@Test
+	void testGetResolutionVariant_cappedAtMaxScale() {
+
+		Image base = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+		LazyMultiResolutionImage image = new LazyMultiResolutionImage(base,
+			(w, h) -> new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB));
+
+		Image variant = image.getResolutionVariant(1000, 1000);
+		Assertions.assertEquals(16 * LazyMultiResolutionImage.MAX_SCALE, variant.getWidth(null));
+	}
+
+
+	@Test
+	void testGetResolutionVariant_loaderFails() {
+
+		Image base = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+		LazyMultiResolutionImage image = new LazyMultiResolutionImage(base, (w, h) -> null);
+
+		Assertions.assertSame(base, image.getResolutionVariant(32, 32));
+		Assertions.assertEquals(1, image.getResolutionVariants().size());
+	}
+}
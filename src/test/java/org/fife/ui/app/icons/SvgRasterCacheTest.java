@@ -0,0 +1,106 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.app.icons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+
+/**
+ * Unit tests for the {@code SvgRasterCache} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class SvgRasterCacheTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	private File createFile(String name, int size, long lastModified) throws IOException {
+		File file = new File(tempDir, name);
+		Files.write(file.toPath(), new byte[size]);
+		Assertions.assertTrue(file.setLastModified(lastModified));
+		return file;
+	}
+
+
+	@Test
+	void testDeleteTempFiles() throws IOException {
+
+		long now = System.currentTimeMillis();
+		File orphaned = createFile("a.png123.tmp", 10, now - 2 * SvgRasterCache.TEMP_FILE_MAX_AGE_MILLIS);
+		File inProgress = createFile("b.png456.tmp", 10, now);
+		File image = createFile("c.png", 10, now - 2 * SvgRasterCache.TEMP_FILE_MAX_AGE_MILLIS);
+
+		SvgRasterCache.deleteTempFiles(tempDir, now - SvgRasterCache.TEMP_FILE_MAX_AGE_MILLIS);
+		Assertions.assertFalse(orphaned.exists());
+		Assertions.assertTrue(inProgress.exists());
+		Assertions.assertTrue(image.exists());
+	}
+
+
+	@Test
+	void testGetInstance_sharedPerDirectory() {
+		Assertions.assertSame(SvgRasterCache.getInstance(tempDir),
+			SvgRasterCache.getInstance(new File(tempDir, ".")));
+	}
+
+
+	@Test
+	void testGetKey() {
+		byte[] svg = "<svg/>".getBytes();
+		String key = SvgRasterCache.getKey(svg, 16, 16, 1.5);
+		Assertions.assertTrue(key.endsWith("-16x16@1_5"), key);
+		Assertions.assertEquals(key, SvgRasterCache.getKey(svg.clone(), 16, 16, 1.5));
+		Assertions.assertNotEquals(key, SvgRasterCache.getKey(svg, 16, 16, 2));
+		Assertions.assertNotEquals(key, SvgRasterCache.getKey("<svg></svg>".getBytes(), 16, 16, 1.5));
+	}
+
+
+	@Test
+	void testTrim_deletesLeastRecentlyUsed() throws IOException {
+
+		long now = System.currentTimeMillis();
+		File oldest = createFile("a.png", 100, now - 30_000);
+		File older = createFile("b.png", 100, now - 20_000);
+		File newest = createFile("c.png", 100, now - 10_000);
+		File temp = createFile("d.png789.tmp", 100, now - 40_000);
+
+		Assertions.assertEquals(200, SvgRasterCache.trim(tempDir, 280));
+		Assertions.assertFalse(oldest.exists());
+		Assertions.assertTrue(older.exists());
+		Assertions.assertTrue(newest.exists());
+		Assertions.assertTrue(temp.exists());
+
+		// Trims to three quarters of the maximum size
+		Assertions.assertEquals(100, SvgRasterCache.trim(tempDir, 199));
+		Assertions.assertFalse(older.exists());
+		Assertions.assertTrue(newest.exists());
+	}
+
+
+	@Test
+	void testTrim_underMaxSize() throws IOException {
+		long now = System.currentTimeMillis();
+		createFile("a.png", 100, now);
+		createFile("b.png", 100, now);
+		Assertions.assertEquals(200, SvgRasterCache.trim(tempDir, 200));
+		Assertions.assertEquals(2, tempDir.list().length);
+	}
+
+
+	@Test
+	void testTrim_noDirectory() {
+		Assertions.assertEquals(0, SvgRasterCache.trim(new File(tempDir, "missing"), 100));
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Unit tests for the {@code DirectoryChildProbe} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class DirectoryChildProbeTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	private static List<Boolean> probe(DirectoryChildProbe probe, File dir, int count)
+			throws InterruptedException {
+		List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(count);
+		for (int i=0; i<count; i++) {
+			probe.probe(dir, result -> {
+				results.add(result);
+				latch.countDown();
+			});
+		}
+		Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+		return results;
+	}
+
+
+	@Test
+	void testProbe_allCallersNotified() throws Exception {
+
+		File dir = new File(tempDir, "dir");
+		Assertions.assertTrue(dir.mkdir());
+		Assertions.assertTrue(new File(dir, "child.txt").createNewFile());
+
+		List<Boolean> results = probe(DirectoryChildProbe.get(false), dir, 20);
+		Assertions.assertEquals(Collections.nCopies(20, true), results);
+		Assertions.assertEquals(Boolean.TRUE, DirectoryChildProbe.get(false).getCachedResult(dir));
+	}
+
+
+	@Test
+	void testProbe_directoriesOnly() throws Exception {
+
+		File dir = new File(tempDir, "dir");
+		Assertions.assertTrue(dir.mkdir());
+		Assertions.assertTrue(new File(dir, "child.txt").createNewFile());
+
+		Assertions.assertEquals(List.of(false), probe(DirectoryChildProbe.get(true), dir, 1));
+
+		Assertions.assertTrue(new File(dir, "sub").mkdir());
+		DirectoryChildProbe.get(true).invalidate(dir);
+		Assertions.assertEquals(List.of(true), probe(DirectoryChildProbe.get(true), dir, 1));
+	}
+
+
+	@Test
+	void testProbe_emptyDirectory() throws InterruptedException, IOException {
+
+		File dir = new File(tempDir, "empty");
+		Assertions.assertTrue(dir.mkdir());
+		Assertions.assertEquals(List.of(false), probe(DirectoryChildProbe.get(false), dir, 1));
+
+		Assertions.assertTrue(new File(dir, "child.txt").createNewFile());
+		DirectoryChildProbe.get(false).invalidate(dir);
+		Assertions.assertNull(DirectoryChildProbe.get(false).getCachedResult(dir));
+		Assertions.assertEquals(List.of(true), probe(DirectoryChildProbe.get(false), dir, 1));
+	}
+}
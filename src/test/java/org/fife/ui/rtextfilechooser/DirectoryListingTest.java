@@ -0,0 +1,125 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import org.fife.ui.OS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.filechooser.FileFilter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Unit tests for the {@code DirectoryListing} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class DirectoryListingTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	private File createFile(String name) throws IOException {
+		File file = new File(tempDir, name);
+		Files.writeString(file.toPath(), name);
+		return file;
+	}
+
+
+	@Test
+	void testFilter_directoriesFirstOnCallingThread() throws IOException {
+
+		for (int i=0; i<20; i++) {
+			createFile("file" + i + (i%2==0 ? ".txt" : ".java"));
+		}
+		Assertions.assertTrue(new File(tempDir, "zdir").mkdir());
+		DirectoryListing listing = DirectoryListing.list(tempDir);
+		Assertions.assertNotNull(listing);
+
+		Thread caller = Thread.currentThread();
+		List<Thread> threads = new ArrayList<>();
+		FileFilter filter = new FileFilter() {
+			@Override
+			public boolean accept(File f) {
+				threads.add(Thread.currentThread());
+				return f.getName().endsWith(".txt");
+			}
+
+			@Override
+			public String getDescription() {
+				return "Text files";
+			}
+		};
+
+		DirectoryListing filtered = listing.filter(listing.getNameOrder(), filter, true, true);
+		Assertions.assertEquals(11, filtered.size());
+		Assertions.assertEquals("zdir", filtered.getName(0));
+		for (int i=1; i<filtered.size(); i++) {
+			Assertions.assertTrue(filtered.getName(i).endsWith(".txt"));
+		}
+		Assertions.assertEquals(20, threads.size());
+		Assertions.assertTrue(threads.stream().allMatch(t -> t==caller));
+	}
+
+
+	@Test
+	void testIndexOf() throws IOException {
+
+		for (int i=0; i<100; i++) {
+			createFile("file" + i + ".txt");
+		}
+		Assertions.assertTrue(new File(tempDir, "subdir").mkdir());
+
+		DirectoryListing listing = DirectoryListing.list(tempDir);
+		Assertions.assertNotNull(listing);
+		Assertions.assertEquals(101, listing.size());
+		for (int i=0; i<listing.size(); i++) {
+			Assertions.assertEquals(i, listing.indexOf(listing.getFile(i)));
+		}
+	}
+
+
+	@Test
+	void testIndexOf_notInListing() throws IOException {
+
+		createFile("a.txt");
+		DirectoryListing listing = DirectoryListing.list(tempDir);
+		Assertions.assertNotNull(listing);
+
+		Assertions.assertEquals(-1, listing.indexOf(new File(tempDir, "b.txt")));
+		Assertions.assertEquals(-1, listing.indexOf(new File(tempDir.getParentFile(), "a.txt")));
+		Assertions.assertEquals(-1, DirectoryListing.empty().indexOf(new File(tempDir, "a.txt")));
+	}
+
+
+	@Test
+	void testList_hiddenMatchesFile() throws IOException {
+
+		createFile(".hidden");
+		createFile("visible.txt");
+
+		DirectoryListing listing = DirectoryListing.list(tempDir);
+		Assertions.assertNotNull(listing);
+		Assertions.assertEquals(2, listing.size());
+		if (OS.get()!=OS.WINDOWS) {
+			// Dot-files are hidden, even if the file system has a "dos" view
+			Assertions.assertTrue(listing.isHidden(listing.indexOf(new File(tempDir, ".hidden"))));
+			Assertions.assertFalse(listing.isHidden(listing.indexOf(new File(tempDir, "visible.txt"))));
+		}
+		for (int i=0; i<listing.size(); i++) {
+			File file = listing.getFile(i);
+			Assertions.assertEquals(file.isHidden(), listing.isHidden(i), file.getName());
+		}
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Unit tests for the {@code FileCopyEngine} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class FileCopyEngineTest {
+
+	@TempDir
+	private File tempDir;
+
+	private final AtomicLong copied = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final List<File> errors = Collections.synchronizedList(new ArrayList<>());
+
+
+	private FileCopyEngine createEngine(boolean preserveAttributes, boolean continueAfterError) {
+		return createEngine(preserveAttributes, continueAfterError, false);
+	}
+
+
+	private FileCopyEngine createEngine(boolean preserveAttributes, boolean continueAfterError,
+			boolean move) {
+		return new FileCopyEngine((source, e) -> {
+			errors.add(source);
+			return continueAfterError;
+		}, new FileCopyEngine.ProgressListener() {
+			@Override
+			public void bytesCopied(long count) {
+				copied.addAndGet(count);
+			}
+
+			@Override
+			public void bytesSkipped(long count) {
+				skipped.addAndGet(count);
+			}
+		}, PasteJournal.disabled(), preserveAttributes, move);
+	}
+
+
+	private File createFile(String name, int size) throws IOException {
+		byte[] content = new byte[size];
+		new Random(size).nextBytes(content);
+		File file = new File(tempDir, name);
+		Files.write(file.toPath(), content);
+		return file;
+	}
+
+
+	private static Object getFileKey(File file) throws IOException {
+		return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+	}
+
+
+	@Test
+	void testCopy_manySmallFiles() throws IOException {
+
+		File destDir = new File(tempDir, "dest");
+		Assertions.assertTrue(destDir.mkdir());
+
+		List<File> sources = new ArrayList<>();
+		for (int i=0; i<500; i++) {
+			sources.add(createFile("file" + i, i));
+		}
+
+		FileCopyEngine engine = createEngine(false, true);
+		for (File source : sources) {
+			engine.copy(source, new File(destDir, source.getName()), source.length());
+		}
+		engine.awaitCompletion();
+
+		Assertions.assertEquals(500, destDir.list().length);
+		for (File source : sources) {
+			Assertions.assertArrayEquals(Files.readAllBytes(source.toPath()),
+				Files.readAllBytes(new File(destDir, source.getName()).toPath()));
+		}
+		Assertions.assertEquals(499 * 500 / 2, copied.get());
+		Assertions.assertEquals(0, skipped.get());
+		Assertions.assertTrue(errors.isEmpty());
+	}
+
+
+	@Test
+	void testCopy_largeFile() throws IOException {
+
+		int size = 2 * (int)FileCopyEngine.LARGE_FILE_THRESHOLD + 1;
+		File source = createFile("large.bin", size);
+		File dest = new File(tempDir, "large.copy");
+
+		FileCopyEngine engine = createEngine(false, true);
+		engine.copy(source, dest, size);
+		engine.awaitCompletion();
+
+		Assertions.assertArrayEquals(Files.readAllBytes(source.toPath()),
+			Files.readAllBytes(dest.toPath()));
+		Assertions.assertEquals(size, copied.get());
+	}
+
+
+	@Test
+	void testCopy_overwritesExistingFile() throws IOException {
+
+		File source = createFile("source", 100);
+		File dest = createFile("dest", 5000);
+
+		FileCopyEngine engine = createEngine(false, true);
+		engine.copy(source, dest, source.length());
+		engine.awaitCompletion();
+
+		Assertions.assertArrayEquals(Files.readAllBytes(source.toPath()),
+			Files.readAllBytes(dest.toPath()));
+	}
+
+
+	@Test
+	void testCopy_sameFile() throws IOException {
+
+		File source = createFile("source", 100);
+
+		FileCopyEngine engine = createEngine(false, true);
+		engine.copy(source, source, source.length());
+		engine.awaitCompletion();
+
+		Assertions.assertEquals(100, source.length());
+		Assertions.assertEquals(0, copied.get());
+		Assertions.assertEquals(100, skipped.get());
+	}
+
+
+	@Test
+	void testCopy_error_cancelsIfHandlerSaysSo() throws IOException {
+
+		File missing = new File(tempDir, "missing");
+		File source = createFile("source", 100);
+
+		FileCopyEngine engine = createEngine(false, false);
+		engine.copy(missing, new File(tempDir, "missing.copy"), 10);
+		engine.awaitCompletion();
+
+		Assertions.assertEquals(List.of(missing), errors);
+		Assertions.assertTrue(engine.isCancelled());
+		Assertions.assertEquals(10, skipped.get());
+
+		// Nothing more is copied once cancelled
+		engine.copy(source, new File(tempDir, "source.copy"), source.length());
+		Assertions.assertFalse(new File(tempDir, "source.copy").exists());
+	}
+
+
+	@Test
+	void testDirectoryCreated_timestampsAppliedAtEnd() throws IOException {
+
+		File sourceDir = new File(tempDir, "sourceDir");
+		File sourceChild = new File(sourceDir, "child");
+		Assertions.assertTrue(sourceChild.mkdirs());
+		File sourceFile = new File(sourceChild, "file.txt");
+		Files.writeString(sourceFile.toPath(), "content");
+		long time = 1_500_000_000_000L;
+		Assertions.assertTrue(sourceFile.setLastModified(time));
+		Assertions.assertTrue(sourceChild.setLastModified(time + 1000));
+		Assertions.assertTrue(sourceDir.setLastModified(time + 2000));
+
+		File destDir = new File(tempDir, "destDir");
+		File destChild = new File(destDir, "child");
+		FileCopyEngine engine = createEngine(true, true);
+		Assertions.assertTrue(destDir.mkdir());
+		engine.directoryCreated(sourceDir, destDir);
+		Assertions.assertTrue(destChild.mkdir());
+		engine.directoryCreated(sourceChild, destChild);
+		engine.copy(sourceFile, new File(destChild, "file.txt"), sourceFile.length());
+		engine.awaitCompletion();
+
+		Assertions.assertEquals(time, new File(destChild, "file.txt").lastModified());
+		Assertions.assertEquals(time + 1000, destChild.lastModified());
+		Assertions.assertEquals(time + 2000, destDir.lastModified());
+	}
+
+
+	@Test
+	void testMove_cancelledLargeFileKeepsSource() throws IOException {
+
+		int size = 2 * (int)FileCopyEngine.LARGE_FILE_THRESHOLD + 1;
+		File source = createFile("large.bin", size);
+		File dest = new File(tempDir, "large.moved");
+
+		FileCopyEngine[] engine = new FileCopyEngine[1];
+		engine[0] = new FileCopyEngine((f, e) -> false, new FileCopyEngine.ProgressListener() {
+			@Override
+			public void bytesCopied(long count) {
+				engine[0].cancel(); // After the first chunk
+			}
+
+			@Override
+			public void bytesSkipped(long count) {
+			}
+		}, PasteJournal.disabled(), false, true);
+		engine[0].setRenameFirst(false);
+		engine[0].copy(source, dest, size);
+		engine[0].awaitCompletion();
+
+		Assertions.assertEquals(size, source.length());
+		Assertions.assertFalse(dest.exists());
+	}
+
+
+	@Test
+	void testMove_copyAndDeleteFallback() throws IOException {
+
+		File sourceDir = new File(tempDir, "sourceDir");
+		File keptDir = new File(tempDir, "keptDir");
+		File destDir = new File(tempDir, "destDir");
+		Assertions.assertTrue(sourceDir.mkdir() && keptDir.mkdir() && destDir.mkdir());
+		Assertions.assertTrue(new File(keptDir, "notMoved.txt").createNewFile());
+
+		int largeSize = (int)FileCopyEngine.LARGE_FILE_THRESHOLD + 1;
+		File small = createFile("sourceDir/small.bin", 100);
+		File large = createFile("sourceDir/large.bin", largeSize);
+		byte[] smallContent = Files.readAllBytes(small.toPath());
+		byte[] largeContent = Files.readAllBytes(large.toPath());
+		Object largeKey = getFileKey(large);
+
+		// As if moving to a different file system
+		FileCopyEngine engine = createEngine(false, true, true);
+		engine.setRenameFirst(false);
+		engine.sourceDirectoryPasted(sourceDir);
+		engine.sourceDirectoryPasted(keptDir);
+		engine.copy(small, new File(destDir, "small.bin"), 100);
+		engine.copy(large, new File(destDir, "large.bin"), largeSize);
+		engine.awaitCompletion();
+
+		Assertions.assertArrayEquals(smallContent, Files.readAllBytes(new File(destDir, "small.bin").toPath()));
+		Assertions.assertArrayEquals(largeContent, Files.readAllBytes(new File(destDir, "large.bin").toPath()));
+		Assertions.assertFalse(small.exists());
+		Assertions.assertFalse(large.exists());
+		Assertions.assertEquals(100 + largeSize, copied.get());
+		if (largeKey!=null) { // A copy, not the original file
+			Assertions.assertNotEquals(largeKey, getFileKey(new File(destDir, "large.bin")));
+		}
+
+		// Emptied source directories are deleted, but not ones with leftovers
+		Assertions.assertFalse(sourceDir.exists());
+		Assertions.assertTrue(new File(keptDir, "notMoved.txt").exists());
+		Assertions.assertTrue(errors.isEmpty());
+	}
+
+
+	@Test
+	void testMove_rename() throws IOException {
+
+		int largeSize = (int)FileCopyEngine.LARGE_FILE_THRESHOLD + 1;
+		File small = createFile("small.bin", 100);
+		File large = createFile("large.bin", largeSize);
+		byte[] smallContent = Files.readAllBytes(small.toPath());
+		byte[] largeContent = Files.readAllBytes(large.toPath());
+		File destDir = new File(tempDir, "dest");
+		Assertions.assertTrue(destDir.mkdir());
+		File existing = createFile("dest/small.bin", 5000);
+		Object largeKey = getFileKey(large);
+
+		FileCopyEngine engine = createEngine(false, true, true);
+		engine.copy(small, existing, 100);
+		engine.copy(large, new File(destDir, "large.bin"), largeSize);
+		engine.awaitCompletion();
+
+		Assertions.assertArrayEquals(smallContent, Files.readAllBytes(existing.toPath()));
+		Assertions.assertArrayEquals(largeContent, Files.readAllBytes(new File(destDir, "large.bin").toPath()));
+		Assertions.assertFalse(small.exists());
+		Assertions.assertFalse(large.exists());
+		Assertions.assertEquals(100 + largeSize, copied.get());
+		Assertions.assertTrue(errors.isEmpty());
+		if (largeKey!=null) { // Renamed, not copied
+			Assertions.assertEquals(largeKey, getFileKey(new File(destDir, "large.bin")));
+		}
+	}
+}
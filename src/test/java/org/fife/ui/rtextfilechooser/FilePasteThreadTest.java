@@ -0,0 +1,215 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Unit tests for the {@code FilePasteThread} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class FilePasteThreadTest {
+
+	@TempDir
+	private File tempDir;
+
+	private File sourceDir;
+	private File destDir;
+
+	/**
+	 * An arbitrary time in the past, on a whole second so every file system
+	 * can store it.
+	 */
+	private static final long OLD_TIME = 1_500_000_000_000L;
+
+
+	@BeforeEach
+	void setUp() throws IOException {
+
+		sourceDir = new File(tempDir, "source");
+		destDir = new File(tempDir, "dest");
+		Assertions.assertTrue(sourceDir.mkdir() && destDir.mkdir());
+
+		writeFile(new File(sourceDir, "small.txt"), "new content");
+
+		byte[] large = new byte[(int)FileCopyEngine.LARGE_FILE_THRESHOLD + 12345];
+		new Random(42).nextBytes(large);
+		Files.write(new File(sourceDir, "large.bin").toPath(), large);
+
+		File sub = new File(sourceDir, "sub");
+		File deeper = new File(sub, "deeper");
+		Assertions.assertTrue(deeper.mkdirs());
+		writeFile(new File(sub, "nested.txt"), "nested");
+		writeFile(new File(deeper, "deep.txt"), "deep");
+
+		File skipped = new File(sourceDir, "skipped");
+		Assertions.assertTrue(skipped.mkdir());
+		writeFile(new File(skipped, "inner.txt"), "inner");
+
+		// Things already at the destination
+		writeFile(new File(destDir, "small.txt"), "old content");
+		Assertions.assertTrue(new File(destDir, "skipped").mkdir());
+
+		// Stamp directories last, since adding children changes them
+		for (File file : List.of(new File(sourceDir, "small.txt"),
+				new File(sourceDir, "large.bin"), new File(sub, "nested.txt"),
+				new File(deeper, "deep.txt"), deeper, sub)) {
+			Assertions.assertTrue(file.setLastModified(OLD_TIME));
+		}
+
+	}
+
+
+	private void paste(boolean preserveAttributes) {
+		paste(preserveAttributes, false, false);
+	}
+
+
+	private void paste(boolean preserveAttributes, boolean move, boolean copyIntoDirectories) {
+		List<File> files = List.of(new File(sourceDir, "small.txt"),
+				new File(sourceDir, "large.bin"), new File(sourceDir, "sub"),
+				new File(sourceDir, "skipped"));
+		FilePasteThread thread = FilePasteThread.create(null, files, destDir,
+				null, preserveAttributes, false, move);
+		thread.setCollisionDecisions(true, copyIntoDirectories);
+		thread.start();
+		thread.get();
+	}
+
+
+	private static String readFile(File file) throws IOException {
+		return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+	}
+
+
+	private static void writeFile(File file, String content) throws IOException {
+		Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+	}
+
+
+	@Test
+	void testMove() throws IOException {
+
+		byte[] large = Files.readAllBytes(new File(sourceDir, "large.bin").toPath());
+		Object subKey = Files.readAttributes(new File(sourceDir, "sub").toPath(),
+			BasicFileAttributes.class).fileKey();
+
+		paste(true, true, false);
+
+		Assertions.assertEquals("new content", readFile(new File(destDir, "small.txt")));
+		Assertions.assertArrayEquals(large, Files.readAllBytes(new File(destDir, "large.bin").toPath()));
+		File sub = new File(destDir, "sub");
+		Assertions.assertEquals("nested", readFile(new File(sub, "nested.txt")));
+		Assertions.assertEquals("deep", readFile(new File(sub, "deeper/deep.txt")));
+		Assertions.assertEquals(OLD_TIME, new File(sub, "deeper/deep.txt").lastModified());
+		if (subKey!=null) { // The directory was renamed as a whole
+			Assertions.assertEquals(subKey, Files.readAttributes(sub.toPath(),
+				BasicFileAttributes.class).fileKey());
+		}
+
+		// Only the skipped directory is left behind
+		Assertions.assertArrayEquals(new String[] { "skipped" }, sourceDir.list());
+		Assertions.assertTrue(new File(sourceDir, "skipped/inner.txt").isFile());
+		Assertions.assertEquals(0, new File(destDir, "skipped").list().length);
+	}
+
+
+	@Test
+	void testMove_intoExistingDirectory() throws IOException {
+
+		paste(false, true, true);
+
+		// Contents were moved one at a time, and the emptied directory deleted
+		Assertions.assertEquals("inner", readFile(new File(destDir, "skipped/inner.txt")));
+		Assertions.assertEquals(0, sourceDir.list().length);
+		Assertions.assertEquals(4, destDir.list().length);
+	}
+
+
+	@Test
+	void testPaste_contentAndStructure() throws IOException {
+
+		paste(false);
+
+		// Overwritten
+		Assertions.assertEquals("new content", readFile(new File(destDir, "small.txt")));
+
+		Assertions.assertArrayEquals(Files.readAllBytes(new File(sourceDir, "large.bin").toPath()),
+			Files.readAllBytes(new File(destDir, "large.bin").toPath()));
+
+		File sub = new File(destDir, "sub");
+		Assertions.assertEquals("nested", readFile(new File(sub, "nested.txt")));
+		Assertions.assertEquals("deep", readFile(new File(sub, "deeper/deep.txt")));
+		Assertions.assertEquals(2, sub.list().length);
+
+		// The existing directory was skipped, along with its contents
+		File skipped = new File(destDir, "skipped");
+		Assertions.assertTrue(skipped.isDirectory());
+		Assertions.assertEquals(0, skipped.list().length);
+
+		Assertions.assertEquals(4, destDir.list().length);
+
+		// Nothing was left behind in the source
+		Assertions.assertTrue(new File(sourceDir, "skipped/inner.txt").isFile());
+		Assertions.assertEquals(4, sourceDir.list().length);
+	}
+
+
+	@Test
+	void testPaste_preserveAttributes() throws IOException {
+
+		paste(true);
+
+		for (String path : List.of("small.txt", "large.bin", "sub", "sub/nested.txt",
+				"sub/deeper", "sub/deeper/deep.txt")) {
+			Assertions.assertEquals(OLD_TIME, new File(destDir, path).lastModified(), path);
+		}
+	}
+
+
+	@Test
+	void testPaste_preservePermissions() throws IOException {
+
+		File source = new File(sourceDir, "sub/nested.txt");
+		PosixFileAttributeView view = Files.getFileAttributeView(source.toPath(),
+			PosixFileAttributeView.class);
+		Assumptions.assumeTrue(view!=null);
+		Set<PosixFilePermission> perms = PosixFilePermissions.fromString("rw-r-----");
+		view.setPermissions(perms);
+
+		paste(true);
+
+		Assertions.assertEquals(perms, Files.getPosixFilePermissions(
+			new File(destDir, "sub/nested.txt").toPath()));
+	}
+
+
+	@Test
+	void testPaste_withoutPreservingAttributes() {
+		paste(false);
+		Assertions.assertNotEquals(OLD_TIME, new File(destDir, "sub/nested.txt").lastModified());
+		Assertions.assertNotEquals(OLD_TIME, new File(destDir, "large.bin").lastModified());
+	}
+}
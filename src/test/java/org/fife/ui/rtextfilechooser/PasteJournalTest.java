@@ -0,0 +1,274 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+
+/**
+ * Unit tests for the {@code PasteJournal} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class PasteJournalTest {
+
+	@TempDir
+	private File tempDir;
+
+	private Path journalDir;
+	private File source;
+	private File destDir;
+	private File dest;
+
+
+	@BeforeEach
+	void setUp() throws IOException {
+		journalDir = new File(tempDir, "journals").toPath();
+		File sourceDir = new File(tempDir, "source");
+		destDir = new File(tempDir, "dest");
+		Assertions.assertTrue(sourceDir.mkdir() && destDir.mkdir());
+		source = new File(sourceDir, "file.bin");
+		dest = new File(destDir, "file.bin");
+		byte[] content = new byte[200_000];
+		new Random(42).nextBytes(content);
+		Files.write(source.toPath(), content);
+	}
+
+
+	private PasteJournal open() {
+		return PasteJournal.open(List.of(source), destDir, false, journalDir);
+	}
+
+
+	private void writePartialCopy(int length) throws IOException {
+		byte[] content = Files.readAllBytes(source.toPath());
+		Files.write(dest.toPath(), Arrays.copyOf(content, length));
+	}
+
+
+	@Test
+	void testClose_pasteComplete_deletesJournal() throws IOException {
+
+		PasteJournal journal = open();
+		Assertions.assertTrue(journal.isEnabled());
+		journal.close(true);
+
+		try (Stream<Path> journals = Files.list(journalDir)) {
+			Assertions.assertEquals(0, journals.count());
+		}
+	}
+
+
+	@Test
+	void testDisabled() throws IOException {
+
+		PasteJournal journal = PasteJournal.disabled();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileStarted(source, dest, source.length());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		Assertions.assertFalse(journal.isEnabled());
+		Assertions.assertFalse(journal.isCompleted(source));
+		Assertions.assertNull(journal.getInterruptedDest(source));
+		Assertions.assertFalse(Files.exists(journalDir));
+	}
+
+
+	@Test
+	void testGetResumeOffset_partialCopyMatchesSource() throws IOException {
+
+		PasteJournal journal = open();
+		journal.fileStarted(source, dest, source.length());
+		writePartialCopy(100_000);
+		journal.close(false);
+
+		journal = open();
+		Assertions.assertEquals(dest, journal.getInterruptedDest(source));
+		Assertions.assertEquals(100_000, journal.getResumeOffset(source, dest));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testGetResumeOffset_partialCopyDiffersFromSource() throws IOException {
+
+		PasteJournal journal = open();
+		journal.fileStarted(source, dest, source.length());
+		Files.write(dest.toPath(), new byte[100_000]);
+		journal.close(false);
+
+		journal = open();
+		Assertions.assertEquals(0, journal.getResumeOffset(source, dest));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testGetResumeOffset_sourceModified() throws IOException {
+
+		PasteJournal journal = open();
+		journal.fileStarted(source, dest, source.length());
+		writePartialCopy(100_000);
+		journal.close(false);
+
+		Assertions.assertTrue(source.setLastModified(source.lastModified() - 10_000));
+
+		journal = open();
+		Assertions.assertEquals(0, journal.getResumeOffset(source, dest));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testGetInterruptedDest_destWrittenBeforeStart() throws IOException {
+
+		writePartialCopy(100_000);
+		Assertions.assertTrue(dest.setLastModified(System.currentTimeMillis() - 60_000));
+		PasteJournal journal = open();
+		journal.fileStarted(source, dest, source.length());
+		journal.close(false);
+
+		journal = open();
+		Assertions.assertNull(journal.getInterruptedDest(source));
+		Assertions.assertEquals(0, journal.getResumeOffset(source, dest));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testIsCompleted_unchanged() throws IOException {
+
+		PasteJournal journal = open();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		journal = open();
+		Assertions.assertTrue(journal.isCompleted(source));
+		Assertions.assertNull(journal.getInterruptedDest(source));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testIsCompleted_destModified() throws IOException {
+
+		PasteJournal journal = open();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		Files.write(dest.toPath(), new byte[10]);
+
+		journal = open();
+		Assertions.assertFalse(journal.isCompleted(source));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testIsCompleted_destDeleted() throws IOException {
+
+		PasteJournal journal = open();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		Files.delete(dest.toPath());
+
+		journal = open();
+		Assertions.assertFalse(journal.isCompleted(source));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testIsCompleted_sourceModified() throws IOException {
+
+		PasteJournal journal = open();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		Files.write(source.toPath(), new byte[10]);
+
+		journal = open();
+		Assertions.assertFalse(journal.isCompleted(source));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testIsCompleted_directory() {
+
+		File sourceDir = source.getParentFile();
+		File destSubdir = new File(destDir, sourceDir.getName());
+		Assertions.assertTrue(destSubdir.mkdir());
+
+		PasteJournal journal = PasteJournal.open(List.of(sourceDir), destDir, false, journalDir);
+		journal.fileCompleted(sourceDir, destSubdir);
+		journal.close(false);
+
+		journal = PasteJournal.open(List.of(sourceDir), destDir, false, journalDir);
+		Assertions.assertTrue(journal.isCompleted(sourceDir));
+		journal.close(false);
+
+		Assertions.assertTrue(destSubdir.delete());
+		journal = PasteJournal.open(List.of(sourceDir), destDir, false, journalDir);
+		Assertions.assertFalse(journal.isCompleted(sourceDir));
+		journal.close(false);
+	}
+
+
+	@Test
+	void testOpen_expiredJournalsDeleted() throws IOException {
+
+		PasteJournal journal = open();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		File journalFile;
+		try (Stream<Path> journals = Files.list(journalDir)) {
+			journalFile = journals.findFirst().orElseThrow().toFile();
+		}
+		long expired = System.currentTimeMillis() - PasteJournal.MAX_AGE_MILLIS - 60_000;
+		Assertions.assertTrue(journalFile.setLastModified(expired));
+
+		journal = open();
+		Assertions.assertFalse(journal.isCompleted(source));
+		journal.close(true);
+		Assertions.assertFalse(journalFile.exists());
+	}
+
+
+	@Test
+	void testOpen_moveAndCopyJournaledSeparately() throws IOException {
+
+		PasteJournal journal = open();
+		Files.copy(source.toPath(), dest.toPath());
+		journal.fileCompleted(source, dest);
+		journal.close(false);
+
+		journal = PasteJournal.open(List.of(source), destDir, true, journalDir);
+		Assertions.assertFalse(journal.isCompleted(source));
+		journal.close(false);
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * https://bobbylight.github.io/RText/
+ * Licensed under a modified BSD license.
+ * See the included license file for details.
+ */
+package org.fife.ui.rtextfilechooser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Iterator;
+
+
+/**
+ * Unit tests for the {@code RootManager} class.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class RootManagerTest {
+
+	@TempDir
+	private File tempDir;
+
+
+	@Test
+	void testGetRootForFile() {
+		RootManager.getInstance().refresh().join();
+		File root = RootManager.getInstance().getRootForFile(tempDir);
+		Assertions.assertNotNull(root);
+		Assertions.assertTrue(RootManager.getInstance().isRoot(root));
+		Assertions.assertTrue(tempDir.getAbsolutePath().startsWith(root.getAbsolutePath()));
+	}
+
+
+	@Test
+	void testIterator_containsListRoots() {
+		RootManager.getInstance().refresh().join();
+		for (File root : File.listRoots()) {
+			boolean found = false;
+			Iterator<File> i = RootManager.getInstance().iterator();
+			while (i.hasNext()) {
+				found |= i.next().equals(root);
+			}
+			Assertions.assertTrue(found, "Root not found: " + root);
+		}
+	}
+}